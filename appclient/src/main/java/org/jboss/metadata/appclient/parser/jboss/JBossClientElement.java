@@ -25,6 +25,8 @@ package org.jboss.metadata.appclient.parser.jboss;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.jboss.metadata.parser.util.LocalNameIndex;
+
 /**
  * Enumeration of all XML elements that are allowed in a jboss-client.xml file
  * <p/>
@@ -47,7 +49,7 @@ public enum JBossClientElement {
     /**
      * Elements map
      */
-    private static final Map<String, JBossClientElement> ELEMENT_MAP;
+    private static final LocalNameIndex<JBossClientElement> ELEMENT_MAP;
 
     static {
         final Map<String, JBossClientElement> map = new HashMap<String, JBossClientElement>();
@@ -57,7 +59,7 @@ public enum JBossClientElement {
                 map.put(name, element);
             }
         }
-        ELEMENT_MAP = map;
+        ELEMENT_MAP = LocalNameIndex.create(map);
     }
 
 
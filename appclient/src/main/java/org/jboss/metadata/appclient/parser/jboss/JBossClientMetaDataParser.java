@@ -31,6 +31,8 @@ import org.jboss.metadata.appclient.jboss.JBossClientMetaData;
 import org.jboss.metadata.appclient.parser.spec.ApplicationClientMetaDataParser;
 import org.jboss.metadata.appclient.spec.AppClientEnvironmentRefsGroupMetaData;
 import org.jboss.metadata.javaee.spec.DescriptionGroupMetaData;
+import org.jboss.metadata.parser.util.DescriptorParser;
+import org.jboss.metadata.parser.util.DescriptorReader;
 import org.jboss.metadata.property.PropertyReplacer;
 import org.jboss.metadata.property.PropertyReplacers;
 
@@ -45,6 +47,15 @@ public class JBossClientMetaDataParser extends ApplicationClientMetaDataParser {
 
     public static final JBossClientMetaDataParser INSTANCE = new JBossClientMetaDataParser();
 
+    /**
+     * Reads jboss-client.xml documents.
+     */
+    public static final DescriptorReader<JBossClientMetaData> DESCRIPTOR_READER = new DescriptorReader<JBossClientMetaData>(new DescriptorParser<JBossClientMetaData>() {
+        public JBossClientMetaData parse(XMLStreamReader reader, DTDInfo info, PropertyReplacer propertyReplacer) throws XMLStreamException {
+            return INSTANCE.parse(reader, propertyReplacer);
+        }
+    });
+
     public JBossClientMetaData parse(final XMLStreamReader reader) throws XMLStreamException {
         return parse(reader, PropertyReplacers.noop());
     }
@@ -25,6 +25,8 @@ package org.jboss.metadata.appclient.parser.spec;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.jboss.metadata.parser.util.LocalNameIndex;
+
 /**
  * Enumeration of all XML elements that are allowed in a application-client.xml file
  * <p/>
@@ -47,7 +49,7 @@ public enum AppClientElement {
     /**
      * Elements map
      */
-    private static final Map<String, AppClientElement> ELEMENT_MAP;
+    private static final LocalNameIndex<AppClientElement> ELEMENT_MAP;
 
     static {
         final Map<String, AppClientElement> map = new HashMap<String, AppClientElement>();
@@ -57,7 +59,7 @@ public enum AppClientElement {
                 map.put(name, element);
             }
         }
-        ELEMENT_MAP = map;
+        ELEMENT_MAP = LocalNameIndex.create(map);
     }
 
 
@@ -25,6 +25,8 @@ package org.jboss.metadata.appclient.parser.spec;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.jboss.metadata.parser.util.LocalNameIndex;
+
 /**
  * An enumeration of possible version independent XML attributes in the app client schema, by name.
  * <p/>
@@ -42,7 +44,7 @@ public enum ApplicationClientAttribute {
 
     private String attributeName;
 
-    private static final Map<String, ApplicationClientAttribute> ATTRIBUTE_MAP;
+    private static final LocalNameIndex<ApplicationClientAttribute> ATTRIBUTE_MAP;
 
     static {
         final Map<String, ApplicationClientAttribute> map = new HashMap<String, ApplicationClientAttribute>();
@@ -52,7 +54,7 @@ public enum ApplicationClientAttribute {
                 map.put(name, element);
             }
         }
-        ATTRIBUTE_MAP = map;
+        ATTRIBUTE_MAP = LocalNameIndex.create(map);
     }
 
     ApplicationClientAttribute(String name) {
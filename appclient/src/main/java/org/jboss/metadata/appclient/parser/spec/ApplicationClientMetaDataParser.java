@@ -32,6 +32,8 @@ import org.jboss.metadata.javaee.spec.MessageDestinationsMetaData;
 import org.jboss.metadata.parser.ee.DescriptionGroupMetaDataParser;
 import org.jboss.metadata.parser.ee.EnvironmentRefsGroupMetaDataParser;
 import org.jboss.metadata.parser.ee.MessageDestinationMetaDataParser;
+import org.jboss.metadata.parser.util.DescriptorParser;
+import org.jboss.metadata.parser.util.DescriptorReader;
 import org.jboss.metadata.parser.util.MetaDataElementParser;
 import org.jboss.metadata.property.PropertyReplacer;
 import org.jboss.metadata.property.PropertyReplacers;
@@ -47,6 +49,15 @@ public class ApplicationClientMetaDataParser extends MetaDataElementParser {
 
     public static final ApplicationClientMetaDataParser INSTANCE = new ApplicationClientMetaDataParser();
 
+    /**
+     * Reads application-client.xml documents.
+     */
+    public static final DescriptorReader<ApplicationClientMetaData> DESCRIPTOR_READER = new DescriptorReader<ApplicationClientMetaData>(new DescriptorParser<ApplicationClientMetaData>() {
+        public ApplicationClientMetaData parse(XMLStreamReader reader, DTDInfo info, PropertyReplacer propertyReplacer) throws XMLStreamException {
+            return INSTANCE.parse(reader, propertyReplacer);
+        }
+    });
+
     public ApplicationClientMetaData parse(final XMLStreamReader reader) throws XMLStreamException {
         return parse(reader, PropertyReplacers.noop());
     }
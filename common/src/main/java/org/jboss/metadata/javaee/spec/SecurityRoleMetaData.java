@@ -21,6 +21,12 @@
  */
 package org.jboss.metadata.javaee.spec;
 
+import java.lang.ref.WeakReference;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 import org.jboss.metadata.javaee.support.NamedMetaDataWithDescriptions;
@@ -43,6 +49,16 @@ public class SecurityRoleMetaData extends NamedMetaDataWithDescriptions {
      */
     private Set<String> principals;
 
+    /**
+     * The view of the principals handed out, which tells the indexes of the principals about changes
+     */
+    private transient Set<String> principalsView;
+
+    /**
+     * The security roles this role was added to, which index its principals
+     */
+    private transient List<WeakReference<SecurityRolesMetaData>> indexedBy;
+
     /**
      * Create a new SecurityRoleMetaData.
      */
@@ -70,12 +86,20 @@ public class SecurityRoleMetaData extends NamedMetaDataWithDescriptions {
     }
 
     /**
-     * Get the principals.
+     * Get the principals. Changes made through the returned set are seen by the security roles this role was
+     * added to.
      *
      * @return the principals.
      */
     public Set<String> getPrincipals() {
-        return principals;
+        if (principals == null)
+            return null;
+        Set<String> view = principalsView;
+        if (view == null) {
+            view = new Principals();
+            principalsView = view;
+        }
+        return view;
     }
 
     /**
@@ -88,6 +112,7 @@ public class SecurityRoleMetaData extends NamedMetaDataWithDescriptions {
         if (principals == null)
             throw new IllegalArgumentException("Null principals");
         this.principals = principals;
+        principalsChanged();
     }
 
     /**
@@ -104,4 +129,138 @@ public class SecurityRoleMetaData extends NamedMetaDataWithDescriptions {
             return false;
         return principals.contains(userName);
     }
+
+    @Override
+    public SecurityRoleMetaData clone() {
+        final SecurityRoleMetaData clone = (SecurityRoleMetaData) super.clone();
+        // the clone is not part of the security roles of this role and has its own view
+        clone.principalsView = null;
+        clone.indexedBy = null;
+        return clone;
+    }
+
+    /**
+     * Tell the security roles about changes to the principals of this role.
+     *
+     * @param securityRoles the security roles this role was added to
+     */
+    void addIndexedBy(SecurityRolesMetaData securityRoles) {
+        if (indexedBy == null)
+            indexedBy = new ArrayList<WeakReference<SecurityRolesMetaData>>(1);
+        for (Iterator<WeakReference<SecurityRolesMetaData>> i = indexedBy.iterator(); i.hasNext(); ) {
+            final SecurityRolesMetaData current = i.next().get();
+            if (current == securityRoles)
+                return;
+            if (current == null)
+                i.remove();
+        }
+        indexedBy.add(new WeakReference<SecurityRolesMetaData>(securityRoles));
+    }
+
+    /**
+     * Stop telling the security roles about changes to the principals of this role.
+     *
+     * @param securityRoles the security roles this role was removed from
+     */
+    void removeIndexedBy(SecurityRolesMetaData securityRoles) {
+        if (indexedBy == null)
+            return;
+        for (Iterator<WeakReference<SecurityRolesMetaData>> i = indexedBy.iterator(); i.hasNext(); ) {
+            final SecurityRolesMetaData current = i.next().get();
+            if (current == securityRoles || current == null)
+                i.remove();
+        }
+    }
+
+    private void principalsChanged() {
+        if (indexedBy == null)
+            return;
+        for (WeakReference<SecurityRolesMetaData> reference : indexedBy) {
+            final SecurityRolesMetaData securityRoles = reference.get();
+            if (securityRoles != null)
+                securityRoles.principalsChanged(this);
+        }
+    }
+
+    /**
+     * The principals, which tell the security roles about every change.
+     */
+    private class Principals extends AbstractSet<String> {
+        @Override
+        public Iterator<String> iterator() {
+            final Iterator<String> iterator = principals.iterator();
+            return new Iterator<String>() {
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                public String next() {
+                    return iterator.next();
+                }
+
+                public void remove() {
+                    iterator.remove();
+                    principalsChanged();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return principals.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return principals.contains(o);
+        }
+
+        @Override
+        public boolean add(String principal) {
+            if (principals.add(principal) == false)
+                return false;
+            principalsChanged();
+            return true;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (principals.remove(o) == false)
+                return false;
+            principalsChanged();
+            return true;
+        }
+
+        @Override
+        public boolean addAll(Collection<? extends String> c) {
+            if (principals.addAll(c) == false)
+                return false;
+            principalsChanged();
+            return true;
+        }
+
+        @Override
+        public boolean removeAll(Collection<?> c) {
+            if (principals.removeAll(c) == false)
+                return false;
+            principalsChanged();
+            return true;
+        }
+
+        @Override
+        public boolean retainAll(Collection<?> c) {
+            if (principals.retainAll(c) == false)
+                return false;
+            principalsChanged();
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            if (principals.isEmpty())
+                return;
+            principals.clear();
+            principalsChanged();
+        }
+    }
 }
@@ -21,6 +21,8 @@
  */
 package org.jboss.metadata.javaee.spec;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -42,7 +44,13 @@ public class SecurityRolesMetaData extends AbstractMappedMetaData<SecurityRoleMe
     private static final long serialVersionUID = 4551308976124434096L;
 
     private Map<String, Set<String>> principalVersusRolesMap = new HashMap<String, Set<String>>();
-    private Map<String, Set<String>> readOnlyPrincipalVersusRolesMap = Collections.unmodifiableMap(principalVersusRolesMap);
+    private Map<String, Set<String>> readOnlyRolesByPrincipal = new HashMap<String, Set<String>>();
+    private Map<String, Set<String>> readOnlyPrincipalVersusRolesMap = Collections.unmodifiableMap(readOnlyRolesByPrincipal);
+
+    /**
+     * The principals of each role as they were indexed
+     */
+    private Map<String, Set<String>> principalsByRole = new HashMap<String, Set<String>>();
 
     /**
      * Create a new SecurityRolesMetaData.
@@ -57,16 +65,40 @@ public class SecurityRolesMetaData extends AbstractMappedMetaData<SecurityRoleMe
 
         // update the roles map
         processSecurityRoleMetaData(added);
+        added.addIndexedBy(this);
+    }
+
+    /**
+     * Notification that the principals of a role changed
+     *
+     * @param role the role
+     */
+    void principalsChanged(SecurityRoleMetaData role) {
+        if (get(role.getRoleName()) != role)
+            return;
+        unindex(role.getRoleName());
+        processSecurityRoleMetaData(role);
     }
 
+    /**
+     * Get the role names keyed by principal name. The map and its sets are read only views which follow the
+     * roles added to and removed from this metadata and the changes to their principals.
+     *
+     * @return the role names by principal name
+     */
     public Map<String, Set<String>> getPrincipalVersusRolesMap() {
         return readOnlyPrincipalVersusRolesMap;
     }
 
     private void clearPrincipalVersusRolesMap() {
         principalVersusRolesMap.clear();
+        readOnlyRolesByPrincipal.clear();
+        principalsByRole.clear();
     }
 
+    /**
+     * Rebuild the principal indexes.
+     */
     public void rebuildPrincipalVersusRolesMap() {
         clearPrincipalVersusRolesMap();
         for (SecurityRoleMetaData roleMetaData : this) {
@@ -88,8 +120,9 @@ public class SecurityRolesMetaData extends AbstractMappedMetaData<SecurityRoleMe
         if (isEmpty())
             return null;
         SecurityRolesMetaData result = new SecurityRolesMetaData();
-        for (SecurityRoleMetaData role : this) {
-            if (role.hasPrincipal(userName))
+        for (String roleName : getSecurityRoleNamesByPrincipal(userName)) {
+            SecurityRoleMetaData role = get(roleName);
+            if (role != null)
                 result.add(role);
         }
         return result;
@@ -99,7 +132,7 @@ public class SecurityRolesMetaData extends AbstractMappedMetaData<SecurityRoleMe
      * Get the security role names by principal
      *
      * @param userName the principal name
-     * @return the security role names containing the principal
+     * @return the read only security role names containing the principal
      * @throws IllegalArgumentException for a null user name
      */
     public Set<String> getSecurityRoleNamesByPrincipal(String userName) {
@@ -111,6 +144,20 @@ public class SecurityRolesMetaData extends AbstractMappedMetaData<SecurityRoleMe
         return roles;
     }
 
+    /**
+     * Get the principals of a security role
+     *
+     * @param roleName the role name
+     * @return the read only principals as they were when the role was added or its principals were last changed,
+     *         empty for a role without principals or null if the role is not found
+     * @throws IllegalArgumentException for a null role name
+     */
+    public Set<String> getPrincipalsByRoleName(String roleName) {
+        if (roleName == null)
+            throw new IllegalArgumentException("Null roleName");
+        return principalsByRole.get(roleName);
+    }
+
     /**
      * Add entries to principalVersusRolesMap for the specified role meta data.
      *
@@ -118,14 +165,20 @@ public class SecurityRolesMetaData extends AbstractMappedMetaData<SecurityRoleMe
      */
     private void processSecurityRoleMetaData(SecurityRoleMetaData roleMetaData) {
         Set<String> principals = roleMetaData.getPrincipals();
-        if (principals == null)
+        if (principals == null || principals.isEmpty()) {
+            principalsByRole.put(roleMetaData.getRoleName(), Collections.<String>emptySet());
             return;
+        }
+        // take a copy, so that the role can be removed from the index once its principals change
+        principals = Collections.unmodifiableSet(new HashSet<String>(principals));
+        principalsByRole.put(roleMetaData.getRoleName(), principals);
 
         for (String principal : principals) {
             Set<String> roles = principalVersusRolesMap.get(principal);
             if (roles == null) {
                 roles = new HashSet<String>();
                 principalVersusRolesMap.put(principal, roles);
+                readOnlyRolesByPrincipal.put(principal, Collections.unmodifiableSet(roles));
             }
             roles.add(roleMetaData.getRoleName());
         }
@@ -135,15 +188,36 @@ public class SecurityRolesMetaData extends AbstractMappedMetaData<SecurityRoleMe
     protected void removeNotification(SecurityRoleMetaData removed) {
         super.removeNotification(removed);
 
-        Set<String> principals = removed.getPrincipals();
+        removed.removeIndexedBy(this);
+        unindex(removed.getRoleName());
+    }
+
+    /**
+     * Remove the entries of a role from the principal indexes.
+     *
+     * @param roleName the role name
+     */
+    private void unindex(String roleName) {
+        Set<String> principals = principalsByRole.remove(roleName);
         if (principals == null)
             return;
 
         for (String principal : principals) {
             Set<String> roles = principalVersusRolesMap.get(principal);
             if (roles != null) {
-                roles.remove(removed.getRoleName());
+                roles.remove(roleName);
+                if (roles.isEmpty()) {
+                    principalVersusRolesMap.remove(principal);
+                    readOnlyRolesByPrincipal.remove(principal);
+                }
             }
         }
     }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        // the roles don't keep the security roles they tell about changes when serialized
+        for (SecurityRoleMetaData role : this)
+            role.addIndexedBy(this);
+    }
 }
@@ -50,6 +50,11 @@ public abstract class AbstractMappedMetaData<T extends MappableMetaData> extends
      */
     private Map<String, T> map;
 
+    /**
+     * Whether the contents can no longer be changed
+     */
+    private boolean frozen;
+
     /**
      * Get By Name
      *
@@ -115,6 +120,7 @@ public abstract class AbstractMappedMetaData<T extends MappableMetaData> extends
 
     @Override
     public boolean add(T o) {
+        assertNotFrozen();
         if (o == null)
             throw new IllegalArgumentException("Null object");
         String key = o.getKey();
@@ -122,7 +128,7 @@ public abstract class AbstractMappedMetaData<T extends MappableMetaData> extends
             throw new IllegalArgumentException(keyName + " (/key) is null");
 
         if (map == null)
-            map = new NonNullLinkedHashMap<String, T>();
+            map = new CompactLinkedMap<String, T>();
         T result = map.put(key, o);
         if (result != null)
             removeNotification(result);
@@ -132,6 +138,7 @@ public abstract class AbstractMappedMetaData<T extends MappableMetaData> extends
 
     @Override
     public void clear() {
+        assertNotFrozen();
         if (map != null)
             for (T t : map.values())
                 removeNotification(t);
@@ -158,6 +165,7 @@ public abstract class AbstractMappedMetaData<T extends MappableMetaData> extends
 
     @Override
     public boolean remove(Object o) {
+        assertNotFrozen();
         if (o == null)
             throw new IllegalArgumentException("Null object");
         if (o instanceof MappableMetaData)
@@ -289,6 +297,34 @@ public abstract class AbstractMappedMetaData<T extends MappableMetaData> extends
         return map.values().toString();
     }
 
+    /**
+     * Freeze the contents, any further attempt to add or remove metadata fails. The metadata itself is not frozen.
+     * <p/>
+     * Once frozen, and safely published, the contents can be read by any number of threads at the same time.
+     */
+    public void freeze() {
+        frozen = true;
+    }
+
+    /**
+     * Whether the contents are frozen
+     *
+     * @return true when frozen
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Check the contents can still be changed
+     *
+     * @throws IllegalStateException when frozen
+     */
+    protected void assertNotFrozen() {
+        if (frozen)
+            throw new IllegalStateException(getClass().getSimpleName() + " is frozen");
+    }
+
     /**
      * Notification that something was added
      *
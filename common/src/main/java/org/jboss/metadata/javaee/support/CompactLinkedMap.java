@@ -0,0 +1,319 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.metadata.javaee.support;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A map with the semantics of a {@link NonNullLinkedHashMap}, which keeps a few entries in plain arrays.
+ * <p/>
+ * Most mapped metadata holds only a handful of entries, for which a linked hash map with its table and entry objects
+ * costs far more memory than the entries themselves. Up to {@link #THRESHOLD} entries are kept in two parallel arrays
+ * and looked up by a linear scan. Once there are more, the entries move to a {@link NonNullLinkedHashMap} for good.
+ * Either way the map iterates in insertion order, and replacing the value of a key keeps its position.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class CompactLinkedMap<K, V> extends AbstractMap<K, V> implements Serializable {
+    /**
+     * The serialVersionUID
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The maximum number of entries kept in arrays
+     */
+    static final int THRESHOLD = 8;
+
+    private Object[] keys;
+    private Object[] values;
+    private int size;
+    private NonNullLinkedHashMap<K, V> hashed;
+    private transient int modCount;
+
+    /**
+     * Create a new CompactLinkedMap.
+     */
+    public CompactLinkedMap() {
+        // For serialization
+    }
+
+    @Override
+    public int size() {
+        if (hashed != null)
+            return hashed.size();
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (hashed != null)
+            return hashed.containsKey(key);
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        if (hashed != null)
+            return hashed.containsValue(value);
+        for (int i = 0; i < size; i++) {
+            if (values[i].equals(value))
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (hashed != null)
+            return hashed.get(key);
+        final int i = indexOf(key);
+        return i >= 0 ? (V) values[i] : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        if (key == null)
+            throw new IllegalArgumentException("Null key");
+        if (value == null)
+            throw new IllegalArgumentException("Null value");
+        if (hashed != null)
+            return hashed.put(key, value);
+
+        final int i = indexOf(key);
+        if (i >= 0) {
+            final V previous = (V) values[i];
+            values[i] = value;
+            return previous;
+        }
+        if (size == THRESHOLD) {
+            hashed = new NonNullLinkedHashMap<K, V>();
+            for (int j = 0; j < size; j++)
+                hashed.put((K) keys[j], (V) values[j]);
+            hashed.put(key, value);
+            keys = null;
+            values = null;
+            size = 0;
+            modCount++;
+            return null;
+        }
+        if (keys == null) {
+            keys = new Object[2];
+            values = new Object[2];
+        } else if (size == keys.length) {
+            final int capacity = Math.min(size * 2, THRESHOLD);
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        keys[size] = key;
+        values[size] = value;
+        size++;
+        modCount++;
+        return null;
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        if (m == null)
+            throw new IllegalArgumentException("Null map");
+        for (Entry<? extends K, ? extends V> entry : m.entrySet()) {
+            if (entry.getKey() == null)
+                throw new IllegalArgumentException("Map contains a null key: " + m);
+            if (entry.getValue() == null)
+                throw new IllegalArgumentException("Map contains a null value: " + m);
+        }
+        for (Entry<? extends K, ? extends V> entry : m.entrySet())
+            put(entry.getKey(), entry.getValue());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        if (hashed != null)
+            return hashed.remove(key);
+        final int i = indexOf(key);
+        if (i < 0)
+            return null;
+        final V previous = (V) values[i];
+        removeAt(i);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        if (hashed != null) {
+            hashed.clear();
+            return;
+        }
+        if (keys != null) {
+            Arrays.fill(keys, 0, size, null);
+            Arrays.fill(values, 0, size, null);
+        }
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new EntrySet();
+    }
+
+    private int indexOf(Object key) {
+        if (key == null)
+            return -1;
+        for (int i = 0; i < size; i++) {
+            if (keys[i].equals(key))
+                return i;
+        }
+        return -1;
+    }
+
+    private void removeAt(int i) {
+        final int moved = size - i - 1;
+        if (moved > 0) {
+            System.arraycopy(keys, i + 1, keys, i, moved);
+            System.arraycopy(values, i + 1, values, i, moved);
+        }
+        size--;
+        keys[size] = null;
+        values[size] = null;
+        modCount++;
+    }
+
+    /**
+     * The entries, which follow the map when it switches to hashing.
+     */
+    private class EntrySet extends AbstractSet<Entry<K, V>> {
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            if (hashed != null)
+                return hashed.entrySet().iterator();
+            return new ArrayIterator();
+        }
+
+        @Override
+        public int size() {
+            return CompactLinkedMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            CompactLinkedMap.this.clear();
+        }
+    }
+
+    private class ArrayIterator implements Iterator<Entry<K, V>> {
+        private int next;
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            checkForComodification();
+            if (next >= size)
+                throw new NoSuchElementException();
+            last = next++;
+            return new ArrayEntry(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0)
+                throw new IllegalStateException();
+            checkForComodification();
+            removeAt(last);
+            next = last;
+            last = -1;
+            expectedModCount = modCount;
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+        }
+    }
+
+    private class ArrayEntry implements Entry<K, V> {
+        private final int index;
+
+        ArrayEntry(int index) {
+            this.index = index;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public K getKey() {
+            return (K) keys[index];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V getValue() {
+            return (V) values[index];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V setValue(V value) {
+            if (value == null)
+                throw new IllegalArgumentException("Null value");
+            final V previous = (V) values[index];
+            values[index] = value;
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof Entry == false)
+                return false;
+            final Entry<?, ?> other = (Entry<?, ?>) obj;
+            return getKey().equals(other.getKey()) && getValue().equals(other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return getKey().hashCode() ^ getValue().hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
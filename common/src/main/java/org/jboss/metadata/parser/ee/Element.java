@@ -25,6 +25,8 @@ package org.jboss.metadata.parser.ee;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.jboss.metadata.parser.util.LocalNameIndex;
+
 /**
  * An enumeration of all the possible XML elements in the EE schema, by name.
  *
@@ -201,7 +203,7 @@ public enum Element {
         return name;
     }
 
-    private static final Map<String, Element> MAP;
+    private static final LocalNameIndex<Element> MAP;
 
     static {
         final Map<String, Element> map = new HashMap<String, Element>();
@@ -209,7 +211,7 @@ public enum Element {
             final String name = element.getLocalName();
             if (name != null) map.put(name, element);
         }
-        MAP = map;
+        MAP = LocalNameIndex.create(map);
     }
 
     public static Element forName(String localName) {
@@ -25,6 +25,8 @@ package org.jboss.metadata.parser.jbossee;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.jboss.metadata.parser.util.LocalNameIndex;
+
 /**
  * An enumeration of all the possible XML attributes in the EE schema, by name.
  *
@@ -54,7 +56,7 @@ public enum Attribute {
         return name;
     }
 
-    private static final Map<String, Attribute> MAP;
+    private static final LocalNameIndex<Attribute> MAP;
 
     static {
         final Map<String, Attribute> map = new HashMap<String, Attribute>();
@@ -62,7 +64,7 @@ public enum Attribute {
             final String name = element.getLocalName();
             if (name != null) map.put(name, element);
         }
-        MAP = map;
+        MAP = LocalNameIndex.create(map);
     }
 
     public static Attribute forName(String localName) {
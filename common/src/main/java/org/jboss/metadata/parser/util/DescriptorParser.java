@@ -0,0 +1,49 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.metadata.parser.util;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.jboss.metadata.parser.util.MetaDataElementParser.DTDInfo;
+import org.jboss.metadata.property.PropertyReplacer;
+
+/**
+ * Parses a complete deployment descriptor document into its metadata.
+ *
+ * @param <T> the type of the metadata
+ * @see DescriptorReader
+ */
+public interface DescriptorParser<T> {
+
+    /**
+     * Parse the document.
+     *
+     * @param reader           the reader, positioned at the start of the document
+     * @param info             the DTD information gathered while reading the document
+     * @param propertyReplacer the property replacer
+     * @return the metadata
+     * @throws XMLStreamException if the document cannot be parsed
+     */
+    T parse(XMLStreamReader reader, DTDInfo info, PropertyReplacer propertyReplacer) throws XMLStreamException;
+}
@@ -0,0 +1,214 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.metadata.parser.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLResolver;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.jboss.metadata.parser.util.MetaDataElementParser.DTDInfo;
+import org.jboss.metadata.property.PropertyReplacer;
+
+/**
+ * Reads deployment descriptors of one kind, for example ejb-jar.xml or web.xml.
+ * <p/>
+ * The {@link XMLInputFactory} is looked up and configured once per descriptor reader and shared by all
+ * documents read through it, instead of once per document. After configuration only its factory methods
+ * are used, which is safe for concurrent use. The {@link DTDInfo} of the document being read is kept per
+ * thread, so a descriptor reader can be used by any number of threads at the same time.
+ * <p/>
+ * If schema validation is enabled, documents are validated while they are parsed, see
+ * {@link XMLSchemaValidator#createValidatingReader(XMLStreamReader)}.
+ *
+ * @param <T> the type of the metadata
+ */
+public final class DescriptorReader<T> {
+
+    private final DescriptorParser<T> parser;
+    private final XMLSchemaValidator validator;
+    private final ThreadLocal<DTDInfo> currentInfo = new ThreadLocal<DTDInfo>();
+    private volatile XMLInputFactory inputFactory;
+
+    /**
+     * Create a descriptor reader which validates documents if the
+     * {@link XMLSchemaValidator#PROPERTY_SCHEMA_VALIDATION} system property is set.
+     *
+     * @param parser the parser of the documents
+     */
+    public DescriptorReader(DescriptorParser<T> parser) {
+        this(parser, Boolean.getBoolean(XMLSchemaValidator.PROPERTY_SCHEMA_VALIDATION));
+    }
+
+    /**
+     * Create a descriptor reader.
+     *
+     * @param parser     the parser of the documents
+     * @param validation whether documents are validated against their schema
+     */
+    public DescriptorReader(DescriptorParser<T> parser, boolean validation) {
+        if (parser == null)
+            throw new IllegalArgumentException("Null parser");
+        this.parser = parser;
+        this.validator = validation ? new XMLSchemaValidator(new XMLResourceResolver()) : null;
+    }
+
+    public boolean isValidation() {
+        return validator != null;
+    }
+
+    /**
+     * Read a descriptor from a stream. The stream is not closed.
+     *
+     * @param input            the descriptor document
+     * @param propertyReplacer the property replacer
+     * @return the metadata
+     * @throws XMLStreamException if the document cannot be parsed
+     */
+    public T read(InputStream input, PropertyReplacer propertyReplacer) throws XMLStreamException {
+        return read(null, input, propertyReplacer);
+    }
+
+    /**
+     * Read a descriptor from a file.
+     *
+     * @param path             the descriptor document
+     * @param propertyReplacer the property replacer
+     * @return the metadata
+     * @throws IOException        if the file cannot be read
+     * @throws XMLStreamException if the document cannot be parsed
+     */
+    public T read(Path path, PropertyReplacer propertyReplacer) throws IOException, XMLStreamException {
+        if (path == null)
+            throw new IllegalArgumentException("Null path");
+
+        InputStream input = Files.newInputStream(path);
+        try {
+            return read(path.toUri().toString(), input, propertyReplacer);
+        } finally {
+            input.close();
+        }
+    }
+
+    /**
+     * Read a descriptor from the remaining bytes of a buffer. The position of the buffer is not changed.
+     *
+     * @param buffer           the descriptor document
+     * @param propertyReplacer the property replacer
+     * @return the metadata
+     * @throws XMLStreamException if the document cannot be parsed
+     */
+    public T read(ByteBuffer buffer, PropertyReplacer propertyReplacer) throws XMLStreamException {
+        if (buffer == null)
+            throw new IllegalArgumentException("Null buffer");
+
+        return read(null, new ByteBufferInputStream(buffer.duplicate()), propertyReplacer);
+    }
+
+    private T read(String systemId, InputStream input, PropertyReplacer propertyReplacer) throws XMLStreamException {
+        if (input == null)
+            throw new IllegalArgumentException("Null input");
+        if (propertyReplacer == null)
+            throw new IllegalArgumentException("Null propertyReplacer");
+
+        final XMLInputFactory factory = getInputFactory();
+        final DTDInfo info = new DTDInfo();
+        currentInfo.set(info);
+        try {
+            XMLStreamReader reader = systemId != null ? factory.createXMLStreamReader(systemId, input) : factory.createXMLStreamReader(input);
+            try {
+                if (validator != null)
+                    reader = validator.createValidatingReader(reader);
+                return parser.parse(reader, info, propertyReplacer);
+            } finally {
+                reader.close();
+            }
+        } finally {
+            currentInfo.remove();
+        }
+    }
+
+    private XMLInputFactory getInputFactory() {
+        XMLInputFactory factory = inputFactory;
+        if (factory == null) {
+            synchronized (this) {
+                factory = inputFactory;
+                if (factory == null) {
+                    factory = XMLInputFactory.newInstance();
+                    factory.setXMLResolver(new XMLResolver() {
+                        public Object resolveEntity(String publicID, String systemID, String baseURI, String namespace) throws XMLStreamException {
+                            final DTDInfo info = currentInfo.get();
+                            if (info == null)
+                                return NoopXMLResolver.create().resolveEntity(publicID, systemID, baseURI, namespace);
+                            return info.resolveEntity(publicID, systemID, baseURI, namespace);
+                        }
+                    });
+                    inputFactory = factory;
+                }
+            }
+        }
+        return factory;
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0)
+                return 0;
+            if (!buffer.hasRemaining())
+                return -1;
+            len = Math.min(len, buffer.remaining());
+            buffer.get(b, off, len);
+            return len;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
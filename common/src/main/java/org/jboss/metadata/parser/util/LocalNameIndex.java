@@ -0,0 +1,166 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.metadata.parser.util;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A read-only lookup of values, typically the constants of an element or attribute enumeration,
+ * by XML local name.
+ * <p/>
+ * The names are laid out in a perfect hash table which is computed once, when the index is created.
+ * If possible, the hash only samples the length and a few characters of a name, so that a lookup costs
+ * a constant number of character reads plus a single {@link String#equals(Object)}, independent of
+ * the length of the name and without allocating. Should the sampled characters not tell the names
+ * apart, the full {@link String#hashCode()} is used instead.
+ *
+ * @param <E> the type of the values
+ */
+public final class LocalNameIndex<E> {
+
+    private static final int MAX_SEEDS = 1024;
+    private static final int MAX_GROWTH = 4;
+
+    private final String[] names;
+    private final Object[] values;
+    private final int mask;
+    private final int seed;
+    private final boolean sampled;
+    private final Map<String, E> fallback;
+
+    private LocalNameIndex(String[] names, Object[] values, int seed, boolean sampled) {
+        this.names = names;
+        this.values = values;
+        this.mask = names.length - 1;
+        this.seed = seed;
+        this.sampled = sampled;
+        this.fallback = null;
+    }
+
+    private LocalNameIndex(Map<String, E> fallback) {
+        this.names = null;
+        this.values = null;
+        this.mask = 0;
+        this.seed = 0;
+        this.sampled = false;
+        this.fallback = fallback;
+    }
+
+    /**
+     * Create an index of the given values by name.
+     *
+     * @param map the values by local name
+     * @param <E> the type of the values
+     * @return the index
+     */
+    public static <E> LocalNameIndex<E> create(Map<String, E> map) {
+        if (map == null)
+            throw new IllegalArgumentException("Null map");
+
+        final String[] keys = map.keySet().toArray(new String[map.size()]);
+        final boolean sampled = distinctSamples(keys);
+        int size = Integer.highestOneBit(Math.max(1, keys.length * 2 - 1)) << 1;
+        for (int growth = 0; growth < MAX_GROWTH; growth++, size <<= 1) {
+            final int mask = size - 1;
+            for (int seed = 0; seed < MAX_SEEDS; seed++) {
+                final String[] names = new String[size];
+                if (place(keys, names, seed, mask, sampled)) {
+                    final Object[] values = new Object[size];
+                    for (int i = 0; i < size; i++) {
+                        if (names[i] != null)
+                            values[i] = map.get(names[i]);
+                    }
+                    return new LocalNameIndex<E>(names, values, seed, sampled);
+                }
+            }
+        }
+        // should not happen for any sensible set of names
+        return new LocalNameIndex<E>(new HashMap<String, E>(map));
+    }
+
+    /**
+     * Get the value for a local name.
+     *
+     * @param name the local name
+     * @return the value, or null if the name is not known
+     */
+    @SuppressWarnings("unchecked")
+    public E get(String name) {
+        if (name == null)
+            return null;
+        if (fallback != null)
+            return fallback.get(name);
+        final int i = index(name, seed, mask, sampled);
+        final String candidate = names[i];
+        if (candidate == name || (candidate != null && candidate.equals(name)))
+            return (E) values[i];
+        return null;
+    }
+
+    private static boolean place(String[] keys, String[] names, int seed, int mask, boolean sampled) {
+        for (String key : keys) {
+            final int i = index(key, seed, mask, sampled);
+            if (names[i] != null)
+                return false;
+            names[i] = key;
+        }
+        return true;
+    }
+
+    private static boolean distinctSamples(String[] keys) {
+        final Set<Long> samples = new HashSet<Long>();
+        for (String key : keys) {
+            if (!samples.add(sample(key)))
+                return false;
+        }
+        return true;
+    }
+
+    private static long sample(String name) {
+        final int length = name.length();
+        if (length == 0)
+            return 0;
+        return (long) length << 48 | (long) name.charAt(0) << 32 | (long) name.charAt(length >> 1) << 16 | name.charAt(length - 1);
+    }
+
+    private static int index(String name, int seed, int mask, boolean sampled) {
+        int h;
+        if (sampled) {
+            final int length = name.length();
+            h = mix(seed ^ length);
+            if (length > 0)
+                h = mix(mix(mix(h ^ name.charAt(0)) ^ name.charAt(length >> 1)) ^ name.charAt(length - 1));
+        } else {
+            h = mix(seed ^ name.hashCode());
+        }
+        return h & mask;
+    }
+
+    private static int mix(int h) {
+        h *= 0x9E3779B1;
+        return h ^ (h >>> 16);
+    }
+}
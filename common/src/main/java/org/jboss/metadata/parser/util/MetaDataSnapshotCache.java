@@ -0,0 +1,229 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.metadata.parser.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.jboss.logging.Logger;
+
+/**
+ * A cache of parsed and merged metadata trees in a local directory, so that unchanged deployments do not have to be
+ * parsed, validated and merged again, for example after a restart.
+ * <p/>
+ * A snapshot is stored under its {@link SnapshotKey}, which has to cover everything the metadata was built from:
+ * the source descriptors and the inputs of the property replacer. The metadata tree is written with Java serialization,
+ * which all metadata classes support, and compressed. A snapshot file starts with a header carrying the format version
+ * and the type of the metadata, so that a snapshot written by an incompatible version is never handed out.
+ * <p/>
+ * Any snapshot which cannot be read is treated as missing and removed. Snapshots are written to a temporary file which is
+ * moved into place afterwards, so concurrent readers never see a partially written snapshot. Only classes of the metadata
+ * model, the Java EE API and the Java platform are accepted when reading, still the cache directory must not be writable
+ * by anyone who is not trusted.
+ */
+public final class MetaDataSnapshotCache {
+
+    private static final Logger log = Logger.getLogger(MetaDataSnapshotCache.class);
+
+    private static final int MAGIC = 0x4a424d44;
+    private static final int FORMAT_VERSION = 1;
+    private static final String SUFFIX = ".snapshot";
+
+    private final Path directory;
+
+    /**
+     * Create a snapshot cache.
+     *
+     * @param directory the directory holding the snapshots, it is created if it does not exist yet
+     * @throws IOException if the directory cannot be created
+     */
+    public MetaDataSnapshotCache(Path directory) throws IOException {
+        if (directory == null)
+            throw new IllegalArgumentException("Null directory");
+        this.directory = Files.createDirectories(directory);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Load a snapshot.
+     *
+     * @param key  the key of the snapshot
+     * @param type the type of the metadata
+     * @param <T>  the type of the metadata
+     * @return the metadata, or null if there is no usable snapshot for the key
+     */
+    public <T extends Serializable> T load(SnapshotKey key, Class<T> type) {
+        if (key == null)
+            throw new IllegalArgumentException("Null key");
+        if (type == null)
+            throw new IllegalArgumentException("Null type");
+
+        final Path file = getFile(key);
+        try {
+            final InputStream input = Files.newInputStream(file);
+            try {
+                final DataInputStream header = new DataInputStream(input);
+                if (header.readInt() != MAGIC || header.readInt() != FORMAT_VERSION || !type.getName().equals(header.readUTF())) {
+                    log.debug("Discarding incompatible metadata snapshot " + file);
+                    discard(file);
+                    return null;
+                }
+                final ObjectInputStream ois = new SnapshotInputStream(new BufferedInputStream(new InflaterInputStream(input)), type.getClassLoader());
+                return type.cast(ois.readObject());
+            } finally {
+                input.close();
+            }
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (Exception e) {
+            // stale classes, a truncated file and the like; the caller has to build the metadata from scratch
+            log.debugf(e, "Discarding unreadable metadata snapshot %s", file);
+            discard(file);
+            return null;
+        }
+    }
+
+    /**
+     * Store a snapshot, replacing any previous snapshot with the same key.
+     *
+     * @param key      the key of the snapshot
+     * @param metaData the metadata
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void store(SnapshotKey key, Serializable metaData) throws IOException {
+        if (key == null)
+            throw new IllegalArgumentException("Null key");
+        if (metaData == null)
+            throw new IllegalArgumentException("Null metaData");
+
+        final Path file = getFile(key);
+        final Path temp = Files.createTempFile(directory, key.getDigest(), ".tmp");
+        try {
+            final OutputStream output = Files.newOutputStream(temp);
+            try {
+                final DataOutputStream header = new DataOutputStream(output);
+                header.writeInt(MAGIC);
+                header.writeInt(FORMAT_VERSION);
+                header.writeUTF(metaData.getClass().getName());
+                header.flush();
+                final DeflaterOutputStream deflater = new DeflaterOutputStream(output, new Deflater(Deflater.BEST_SPEED));
+                final ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(deflater));
+                oos.writeObject(metaData);
+                oos.flush();
+                deflater.finish();
+            } finally {
+                output.close();
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Remove a snapshot.
+     *
+     * @param key the key of the snapshot
+     * @return true if a snapshot was removed
+     * @throws IOException if the snapshot cannot be removed
+     */
+    public boolean remove(SnapshotKey key) throws IOException {
+        if (key == null)
+            throw new IllegalArgumentException("Null key");
+        return Files.deleteIfExists(getFile(key));
+    }
+
+    private Path getFile(SnapshotKey key) {
+        return directory.resolve(key.getDigest() + SUFFIX);
+    }
+
+    private static void discard(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debugf(e, "Cannot delete metadata snapshot %s", file);
+        }
+    }
+
+    private static class SnapshotInputStream extends ObjectInputStream {
+        private final ClassLoader classLoader;
+
+        SnapshotInputStream(InputStream input, ClassLoader classLoader) throws IOException {
+            super(input);
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            final String name = desc.getName();
+            if (!isAllowed(name))
+                throw new ClassNotFoundException("Class " + name + " is not allowed in a metadata snapshot");
+            if (classLoader != null) {
+                try {
+                    return Class.forName(name, false, classLoader);
+                } catch (ClassNotFoundException e) {
+                    // fall through to the default, which also resolves primitive types
+                }
+            }
+            return super.resolveClass(desc);
+        }
+
+        private static boolean isAllowed(String name) {
+            // arrays are checked by their component type
+            int i = 0;
+            while (i < name.length() && name.charAt(i) == '[')
+                i++;
+            if (i > 0) {
+                if (i == name.length() - 1)
+                    return true; // primitive array
+                name = name.substring(i + 1, name.length() - 1);
+            }
+            return name.startsWith("org.jboss.metadata.") || name.startsWith("javax.") || name.startsWith("java.lang.")
+                    || name.startsWith("java.util.");
+        }
+    }
+}
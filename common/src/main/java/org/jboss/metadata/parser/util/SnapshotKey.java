@@ -0,0 +1,209 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.metadata.parser.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Identifies a snapshot in a {@link MetaDataSnapshotCache} by the content of everything the metadata was built from.
+ * <p/>
+ * The key is a SHA-256 digest over the source descriptors and the properties the {@link org.jboss.metadata.property.PropertyReplacer}
+ * resolved expressions against. The properties are hashed in name order, so the order they were added in does not matter.
+ * The order of the descriptors does matter, since the result of a merge depends on it.
+ */
+public final class SnapshotKey {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final String digest;
+
+    private SnapshotKey(String digest) {
+        this.digest = digest;
+    }
+
+    /**
+     * Get the digest of this key as a hexadecimal string, which is safe to use as file name.
+     *
+     * @return the digest
+     */
+    public String getDigest() {
+        return digest;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof SnapshotKey && digest.equals(((SnapshotKey) obj).digest);
+    }
+
+    @Override
+    public int hashCode() {
+        return digest.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return digest;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builds a {@link SnapshotKey}.
+     */
+    public static final class Builder {
+        private final MessageDigest md;
+        private final Map<String, String> properties = new TreeMap<String, String>();
+
+        private Builder() {
+            try {
+                md = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                // every Java platform is required to support SHA-256
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * Add a source descriptor.
+         *
+         * @param name    the name of the descriptor, for example META-INF/ejb-jar.xml
+         * @param content the content of the descriptor
+         * @return this builder
+         */
+        public Builder addDescriptor(String name, byte[] content) {
+            if (name == null)
+                throw new IllegalArgumentException("Null name");
+            if (content == null)
+                throw new IllegalArgumentException("Null content");
+            update(name);
+            updateLength(content.length);
+            md.update(content);
+            return this;
+        }
+
+        /**
+         * Add a source descriptor read from a file.
+         *
+         * @param name the name of the descriptor, for example META-INF/ejb-jar.xml
+         * @param path the descriptor file
+         * @return this builder
+         * @throws IOException if the file cannot be read
+         */
+        public Builder addDescriptor(String name, Path path) throws IOException {
+            if (path == null)
+                throw new IllegalArgumentException("Null path");
+            return addDescriptor(name, Files.readAllBytes(path));
+        }
+
+        /**
+         * Add a source descriptor read from a stream. The stream is read to its end but not closed.
+         *
+         * @param name  the name of the descriptor, for example META-INF/ejb-jar.xml
+         * @param input the descriptor
+         * @return this builder
+         * @throws IOException if the stream cannot be read
+         */
+        public Builder addDescriptor(String name, InputStream input) throws IOException {
+            if (input == null)
+                throw new IllegalArgumentException("Null input");
+            final ByteArrayOutputStream content = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1)
+                content.write(buffer, 0, read);
+            return addDescriptor(name, content.toByteArray());
+        }
+
+        /**
+         * Add a property the property replacer may resolve expressions in the descriptors against.
+         *
+         * @param name  the name of the property
+         * @param value the value of the property, may be null if the property is not set
+         * @return this builder
+         */
+        public Builder addProperty(String name, String value) {
+            if (name == null)
+                throw new IllegalArgumentException("Null name");
+            properties.put(name, value);
+            return this;
+        }
+
+        /**
+         * Add the properties the property replacer may resolve expressions in the descriptors against.
+         *
+         * @param properties the properties
+         * @return this builder
+         */
+        public Builder addProperties(Map<String, String> properties) {
+            if (properties == null)
+                throw new IllegalArgumentException("Null properties");
+            for (Map.Entry<String, String> entry : properties.entrySet())
+                addProperty(entry.getKey(), entry.getValue());
+            return this;
+        }
+
+        public SnapshotKey build() {
+            // separate the properties from the descriptors, so the two can never be confused
+            md.update((byte) 0);
+            for (Map.Entry<String, String> entry : properties.entrySet()) {
+                update(entry.getKey());
+                if (entry.getValue() == null) {
+                    md.update((byte) 0);
+                } else {
+                    md.update((byte) 1);
+                    update(entry.getValue());
+                }
+            }
+            final byte[] bytes = md.digest();
+            final char[] chars = new char[bytes.length * 2];
+            for (int i = 0; i < bytes.length; i++) {
+                chars[2 * i] = HEX[(bytes[i] >> 4) & 0xf];
+                chars[2 * i + 1] = HEX[bytes[i] & 0xf];
+            }
+            return new SnapshotKey(new String(chars));
+        }
+
+        private void update(String value) {
+            final byte[] bytes = value.getBytes(UTF_8);
+            updateLength(bytes.length);
+            md.update(bytes);
+        }
+
+        private void updateLength(long length) {
+            for (int shift = 56; shift >= 0; shift -= 8)
+                md.update((byte) (length >>> shift));
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.metadata.parser.util;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+import javax.xml.validation.Schema;
+import javax.xml.validation.ValidatorHandler;
+
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * An {@link XMLStreamReader} which validates the events it hands out against a schema.
+ * <p/>
+ * Every event pulled by the parser is forwarded to a {@link ValidatorHandler}, so the descriptor
+ * is parsed and validated in a single pass without building a DOM. The schema is determined when
+ * the root element is reached, either from the explicitly given location or from the
+ * <code>xsi:schemaLocation</code> attribute of the root element. If no schema can be obtained
+ * the events are passed through without validation.
+ * <p/>
+ * Validation errors are reported as {@link XMLStreamException}s carrying the current location
+ * and the original {@link org.xml.sax.SAXParseException} as cause.
+ *
+ * @see XMLSchemaValidator#createValidatingReader(XMLStreamReader)
+ */
+class ValidatingXMLStreamReader extends StreamReaderDelegate {
+
+    private final XMLSchemaValidator validator;
+    private final AttributesImpl attributes = new AttributesImpl();
+    private String schemaLocation;
+    private ValidatorHandler handler;
+    private int depth;
+
+    ValidatingXMLStreamReader(XMLSchemaValidator validator, String schemaLocation, XMLStreamReader reader) throws XMLStreamException {
+        super(reader);
+        this.validator = validator;
+        this.schemaLocation = schemaLocation;
+        // the reader may already be positioned on the root element
+        if (reader.getEventType() == START_ELEMENT) {
+            handleEvent(START_ELEMENT);
+        }
+    }
+
+    @Override
+    public int next() throws XMLStreamException {
+        final int event = super.next();
+        handleEvent(event);
+        return event;
+    }
+
+    @Override
+    public int nextTag() throws XMLStreamException {
+        // the delegate would skip events without us seeing them
+        int event = next();
+        while ((event == CHARACTERS && isWhiteSpace()) || (event == CDATA && isWhiteSpace()) || event == SPACE
+                || event == PROCESSING_INSTRUCTION || event == COMMENT) {
+            event = next();
+        }
+        if (event != START_ELEMENT && event != END_ELEMENT) {
+            throw new XMLStreamException("Expected start or end tag", getLocation());
+        }
+        return event;
+    }
+
+    @Override
+    public String getElementText() throws XMLStreamException {
+        // the delegate would skip events without us seeing them
+        if (getEventType() != START_ELEMENT) {
+            throw new XMLStreamException("Parser must be on START_ELEMENT to read next text", getLocation());
+        }
+        final StringBuilder content = new StringBuilder();
+        int event = next();
+        while (event != END_ELEMENT) {
+            switch (event) {
+                case CHARACTERS:
+                case CDATA:
+                case SPACE:
+                case ENTITY_REFERENCE:
+                    content.append(getText());
+                    break;
+                case PROCESSING_INSTRUCTION:
+                case COMMENT:
+                    break;
+                case END_DOCUMENT:
+                    throw new XMLStreamException("Unexpected end of document when reading element text content", getLocation());
+                case START_ELEMENT:
+                    throw new XMLStreamException("Element text content may not contain START_ELEMENT", getLocation());
+                default:
+                    throw new XMLStreamException("Unexpected event type " + event, getLocation());
+            }
+            event = next();
+        }
+        return content.toString();
+    }
+
+    private void handleEvent(final int event) throws XMLStreamException {
+        try {
+            switch (event) {
+                case START_ELEMENT:
+                    if (depth == 0) {
+                        startDocument();
+                    }
+                    depth++;
+                    if (handler != null) {
+                        startElement();
+                    }
+                    break;
+                case END_ELEMENT:
+                    if (handler != null) {
+                        endElement();
+                    }
+                    depth--;
+                    if (depth == 0 && handler != null) {
+                        handler.endDocument();
+                        handler = null;
+                    }
+                    break;
+                case CHARACTERS:
+                case CDATA:
+                case SPACE:
+                    if (handler != null && depth > 0) {
+                        handler.characters(getTextCharacters(), getTextStart(), getTextLength());
+                    }
+                    break;
+                default:
+                    // comments, processing instructions and the like are irrelevant for validation
+            }
+        } catch (SAXException e) {
+            throw new XMLStreamException(e.getMessage(), getLocation(), e);
+        }
+    }
+
+    private void startDocument() throws SAXException {
+        if (schemaLocation == null) {
+            schemaLocation = readSchemaLocation();
+        }
+        if (schemaLocation == null) {
+            return;
+        }
+        final Schema schema = validator.getSchemaForLocation(schemaLocation);
+        if (schema == null) {
+            return;
+        }
+        handler = schema.newValidatorHandler();
+        handler.setResourceResolver(validator.getResourceResolver());
+        handler.setDocumentLocator(new Locator() {
+            public String getPublicId() {
+                final Location location = getLocation();
+                return location != null ? location.getPublicId() : null;
+            }
+
+            public String getSystemId() {
+                final Location location = getLocation();
+                return location != null ? location.getSystemId() : null;
+            }
+
+            public int getLineNumber() {
+                final Location location = getLocation();
+                return location != null ? location.getLineNumber() : -1;
+            }
+
+            public int getColumnNumber() {
+                final Location location = getLocation();
+                return location != null ? location.getColumnNumber() : -1;
+            }
+        });
+        handler.startDocument();
+    }
+
+    private void startElement() throws SAXException {
+        final int namespaceCount = getNamespaceCount();
+        for (int i = 0; i < namespaceCount; i++) {
+            handler.startPrefixMapping(nonNull(getNamespacePrefix(i)), nonNull(getNamespaceURI(i)));
+        }
+        attributes.clear();
+        final int attributeCount = getAttributeCount();
+        for (int i = 0; i < attributeCount; i++) {
+            final String localName = getAttributeLocalName(i);
+            attributes.addAttribute(nonNull(getAttributeNamespace(i)), localName,
+                    qualifiedName(getAttributePrefix(i), localName), "CDATA", getAttributeValue(i));
+        }
+        final String localName = getLocalName();
+        handler.startElement(nonNull(getNamespaceURI()), localName, qualifiedName(getPrefix(), localName), attributes);
+    }
+
+    private void endElement() throws SAXException {
+        final String localName = getLocalName();
+        handler.endElement(nonNull(getNamespaceURI()), localName, qualifiedName(getPrefix(), localName));
+        final int namespaceCount = getNamespaceCount();
+        for (int i = 0; i < namespaceCount; i++) {
+            handler.endPrefixMapping(nonNull(getNamespacePrefix(i)));
+        }
+    }
+
+    /**
+     * Pick the schema location for the namespace of the root element from its
+     * <code>xsi:schemaLocation</code> or <code>xsi:noNamespaceSchemaLocation</code> attribute.
+     */
+    private String readSchemaLocation() {
+        final String namespace = getNamespaceURI();
+        final String locations = getAttributeValue(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "schemaLocation");
+        if (locations != null) {
+            final String[] tokens = locations.trim().split("\\s+");
+            for (int i = 0; i + 1 < tokens.length; i += 2) {
+                if (tokens[i].equals(namespace)) {
+                    return tokens[i + 1];
+                }
+            }
+            // fall back to the last location, as MetaDataElementParser.readSchemaLocation does
+            return tokens[tokens.length - 1].length() > 0 ? tokens[tokens.length - 1] : null;
+        }
+        final String location = getAttributeValue(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "noNamespaceSchemaLocation");
+        return location != null ? location.trim() : null;
+    }
+
+    private static String qualifiedName(final String prefix, final String localName) {
+        if (prefix == null || prefix.length() == 0) {
+            return localName;
+        }
+        return prefix + ':' + localName;
+    }
+
+    private static String nonNull(final String value) {
+        return value != null ? value : XMLConstants.NULL_NS_URI;
+    }
+}
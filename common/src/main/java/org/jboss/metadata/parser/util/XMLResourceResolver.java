@@ -21,6 +21,8 @@
  */
 package org.jboss.metadata.parser.util;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
@@ -31,8 +33,13 @@ import java.net.URL;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.xml.stream.XMLResolver;
 import javax.xml.stream.XMLStreamException;
@@ -47,6 +54,10 @@ import org.xml.sax.SAXException;
 /**
  * Local entity resolver to handle standard J2EE DTDs and Schemas as well as JBoss
  * specific DTDs.
+ * <p/>
+ * The contents of the registered DTDs and Schemas bundled with this resolver are kept in memory
+ * once read, up to a total of {@link #PROPERTY_ENTITY_CACHE_SIZE} bytes, so that resolving them
+ * again does not require a classpath lookup. {@link #preloadEntities()} reads all of them upfront.
  *
  * @author Scott.Stark@jboss.org
  * @author Thomas.Diesler@jboss.org
@@ -54,6 +65,11 @@ import org.xml.sax.SAXException;
  * @author Eduardo Martins
  */
 public class XMLResourceResolver implements XMLResolver, EntityResolver, LSResourceResolver {
+    /**
+     * The system property which limits the number of bytes of the in-memory entity cache.
+     */
+    public static final String PROPERTY_ENTITY_CACHE_SIZE = "org.jboss.metadata.parser.entityCacheSize";
+
     private static final Logger log = Logger.getLogger(XMLResourceResolver.class);
 
     /**
@@ -66,6 +82,13 @@ public class XMLResourceResolver implements XMLResolver, EntityResolver, LSResou
      */
     private static boolean warnOnNonFileURLs;
 
+    /**
+     * The contents of the bundled entities by file name, never modified once cached
+     */
+    private static final ConcurrentMap<String, byte[]> entityCache = new ConcurrentHashMap<String, byte[]>();
+    private static final AtomicLong entityCacheSize = new AtomicLong();
+    private static long maxEntityCacheSize;
+
     /**
      * A local entities map that overrides the class level entities
      */
@@ -77,6 +100,7 @@ public class XMLResourceResolver implements XMLResolver, EntityResolver, LSResou
         AccessController.doPrivileged(new PrivilegedAction() {
             public Object run() {
                 warnOnNonFileURLs = new Boolean(System.getProperty("org.jboss.resolver.warning", "false")).booleanValue();
+                maxEntityCacheSize = Long.getLong(PROPERTY_ENTITY_CACHE_SIZE, 4 * 1024 * 1024).longValue();
                 return null;
             }
         });
@@ -238,6 +262,48 @@ public class XMLResourceResolver implements XMLResolver, EntityResolver, LSResou
         return Collections.unmodifiableMap(entities);
     }
 
+    /**
+     * Get the system IDs of the registered schemas which can be loaded from the classpath.
+     * <p/>
+     * This is used to compile the known schemas upfront, see {@link XMLSchemaValidator#preloadSchemas(java.util.concurrent.Executor)}.
+     *
+     * @return the schema system IDs
+     */
+    public Set<String> getAvailableSchemaLocations() {
+        Set<String> locations = new LinkedHashSet<String>();
+        for (Object o : entities.entrySet()) {
+            Map.Entry entry = (Map.Entry) o;
+            String id = (String) entry.getKey();
+            String filename = (String) entry.getValue();
+            if (!id.endsWith(".xsd") || !filename.endsWith(".xsd"))
+                continue;
+            InputStream ins = loadEntity(filename, false);
+            if (ins != null) {
+                locations.add(id);
+                try {
+                    ins.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+        return locations;
+    }
+
+    /**
+     * Read all registered entities bundled with this resolver into memory, as far as the
+     * cache size permits.
+     *
+     * @return the number of entities held in memory
+     */
+    public static int preloadEntities() {
+        Set<String> filenames = new HashSet<String>();
+        for (Object filename : entities.values())
+            filenames.add((String) filename);
+        for (String filename : filenames)
+            cacheEntity(filename);
+        return entityCache.size();
+    }
+
     public static boolean isWarnOnNonFileURLs() {
         return warnOnNonFileURLs;
     }
@@ -300,7 +366,16 @@ public class XMLResourceResolver implements XMLResolver, EntityResolver, LSResou
      */
     public InputSource resolveEntity(String publicId, String systemId) throws SAXException, IOException {
         entityResolved.set(Boolean.FALSE);
+        InputSource inputSource = resolve(publicId, systemId);
+        entityResolved.set(Boolean.valueOf(inputSource != null));
+        return inputSource;
+    }
 
+    /**
+     * Resolve the DTD/Schema as described in {@link #resolveEntity(String, String)}, without
+     * recording the outcome for {@link #isEntityResolved()}.
+     */
+    private InputSource resolve(String publicId, String systemId) {
         // nothing to resolve
         if (publicId == null && systemId == null)
             return null;
@@ -346,8 +421,6 @@ public class XMLResourceResolver implements XMLResolver, EntityResolver, LSResou
             inputSource = resolveSystemIDasURL(systemId, trace);
         }
 
-        entityResolved.set(new Boolean(inputSource != null));
-
         if (inputSource == null)
             log.debug("Cannot resolve [publicID=" + publicId + ",systemID=" + systemId + "]");
 
@@ -357,6 +430,8 @@ public class XMLResourceResolver implements XMLResolver, EntityResolver, LSResou
     /**
      * Returns the boolean value to inform id DTD was found in the XML file or not
      * <p/>
+     * This reflects the last call to {@link #resolveEntity(String, String)} on the current thread,
+     * resolutions through the {@link XMLResolver} and {@link LSResourceResolver} interfaces are not recorded.
      * This is here to avoid validation errors in descriptors that do not have a DOCTYPE declaration.
      *
      * @return boolean - true if DTD was found in XML
@@ -394,7 +469,7 @@ public class XMLResourceResolver implements XMLResolver, EntityResolver, LSResou
             if (trace)
                 log.trace("Found entity from publicId=" + publicId + " fileName=" + filename);
 
-            InputStream ins = loadResource(filename, trace);
+            InputStream ins = loadEntity(filename, trace);
             if (ins != null) {
                 inputSource = new InputSource(ins);
                 inputSource.setPublicId(publicId);
@@ -442,7 +517,7 @@ public class XMLResourceResolver implements XMLResolver, EntityResolver, LSResou
             if (trace)
                 log.trace("Found entity systemId=" + systemId + " fileName=" + filename);
 
-            InputStream ins = loadResource(filename, trace);
+            InputStream ins = loadEntity(filename, trace);
             if (ins != null) {
                 inputSource = new InputSource(ins);
                 inputSource.setSystemId(systemId);
@@ -550,6 +625,69 @@ public class XMLResourceResolver implements XMLResolver, EntityResolver, LSResou
         return inputSource;
     }
 
+    /**
+     * Load a registered DTD/Schema file. Files bundled with this resolver are served from memory,
+     * others are looked up with {@link #loadResource(String, boolean)}.
+     *
+     * @param filename - the registered file name of the DTD/Schema
+     * @param trace    - trace level logging flag
+     * @return the resource InputStream if found, null if not found.
+     */
+    protected InputStream loadEntity(String filename, boolean trace) {
+        byte[] bytes = entityCache.get(filename);
+        if (bytes == null)
+            bytes = cacheEntity(filename);
+        if (bytes == null)
+            return loadResource(filename, trace);
+        if (trace)
+            log.trace("Loaded entity from memory: " + filename);
+        return new ByteArrayInputStream(bytes);
+    }
+
+    /**
+     * Read a file bundled with this resolver and keep it in memory if the cache size permits.
+     *
+     * @param filename - the file name of the DTD/Schema
+     * @return the contents, or null if the file is not bundled with this resolver
+     */
+    private static byte[] cacheEntity(String filename) {
+        byte[] bytes = entityCache.get(filename);
+        if (bytes != null)
+            return bytes;
+        ClassLoader classLoader = XMLResourceResolver.class.getClassLoader();
+        if (classLoader == null)
+            return null;
+        URL url = findResource(classLoader, filename);
+        if (url == null)
+            return null;
+        try {
+            InputStream in = url.openStream();
+            try {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1)
+                    out.write(buffer, 0, read);
+                bytes = out.toByteArray();
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            log.debug("Failed to read " + url, e);
+            return null;
+        }
+        if (entityCacheSize.addAndGet(bytes.length) <= maxEntityCacheSize) {
+            byte[] existing = entityCache.putIfAbsent(filename, bytes);
+            if (existing != null) {
+                entityCacheSize.addAndGet(-bytes.length);
+                return existing;
+            }
+        } else {
+            entityCacheSize.addAndGet(-bytes.length);
+        }
+        return bytes;
+    }
+
     /**
      * Look for the resource on the class loader that loaded this resolver.
      * If not found try the thread context class loader.
@@ -584,17 +722,7 @@ public class XMLResourceResolver implements XMLResolver, EntityResolver, LSResou
      * @return the resource InputStream if found, null if not found.
      */
     protected InputStream loadResource(ClassLoader loader, String resource, boolean trace) {
-        URL url = loader.getResource(resource);
-        if (url == null) {
-            /* Prefix the simple filename with the schema type patch as this is the
-               naming convention for the jboss bundled schemas.
-            */
-            if (resource.endsWith(".dtd"))
-                resource = "dtd/" + resource;
-            else if (resource.endsWith(".xsd"))
-                resource = "schema/" + resource;
-            url = loader.getResource(resource);
-        }
+        URL url = findResource(loader, resource);
 
         InputStream inputStream = null;
         if (url != null) {
@@ -609,10 +737,25 @@ public class XMLResourceResolver implements XMLResolver, EntityResolver, LSResou
         return inputStream;
     }
 
+    private static URL findResource(ClassLoader loader, String resource) {
+        URL url = loader.getResource(resource);
+        if (url == null) {
+            /* Prefix the simple filename with the schema type patch as this is the
+               naming convention for the jboss bundled schemas.
+            */
+            if (resource.endsWith(".dtd"))
+                resource = "dtd/" + resource;
+            else if (resource.endsWith(".xsd"))
+                resource = "schema/" + resource;
+            url = loader.getResource(resource);
+        }
+        return url;
+    }
+
     public Object resolveEntity(String publicID, String systemID, String baseURI, String namespace) throws XMLStreamException {
         InputSource inputSource = null;
         try {
-            inputSource = resolveEntity(publicID, systemID);
+            inputSource = resolve(publicID, systemID);
         } catch (Exception e) {
             log.debug("Failed to resolve entity", e);
         }
@@ -622,7 +765,7 @@ public class XMLResourceResolver implements XMLResolver, EntityResolver, LSResou
     public LSInput resolveResource(String type, String namespaceURI, String publicID, String systemID, String baseURI) {
         InputSource inputSource = null;
         try {
-            inputSource = resolveEntity(publicID, systemID);
+            inputSource = resolve(publicID, systemID);
         } catch (Exception e) {
             log.debug("Failed to resolve resource", e);
         }
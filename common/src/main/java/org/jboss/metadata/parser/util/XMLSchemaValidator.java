@@ -25,13 +25,30 @@ package org.jboss.metadata.parser.util;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
@@ -48,7 +65,15 @@ import org.xml.sax.SAXException;
 /**
  * Utility class to validate a given XML input stream agains a schema.
  * <p/>
- * Schema object creation is expensive. Therefore they are cached by this class.
+ * Schema object creation is expensive. Therefore they are cached by this class. The cache is shared by all
+ * validators and safe for concurrent use; each schema location is compiled at most once, even if it is
+ * requested by several threads at the same time. The schemas known to {@link XMLResourceResolver} can be
+ * compiled upfront with {@link #preloadSchemas(Executor)}, and {@link #getStatistics()} reports how the
+ * cache performs.
+ * <p/>
+ * Besides validating a complete input stream, the validator can wrap the {@link XMLStreamReader} handed
+ * to a parser, so that the descriptor is validated while it is being parsed. This avoids reading the
+ * descriptor twice and building a DOM for it.
  *
  * @author Thomas.Diesler@jboss.com
  * @since 02-Dec-2011
@@ -61,7 +86,10 @@ public class XMLSchemaValidator {
 
     private final EntityResolver entityResolver;
     private final LSResourceResolver resourceResolver;
-    private static Map<String, Schema> schemaMap = new HashMap<String, Schema>();
+    private static final ConcurrentMap<String, Future<Schema>> schemaMap = new ConcurrentHashMap<String, Future<Schema>>();
+    private static final ConcurrentMap<String, Long> compileTimes = new ConcurrentHashMap<String, Long>();
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
 
     public XMLSchemaValidator(XMLResourceResolver resolver) {
         this(resolver, resolver);
@@ -100,31 +128,241 @@ public class XMLSchemaValidator {
         }
     }
 
-    private Schema getSchemaForLocation(String schemaLocation) {
-        Schema schema = schemaMap.get(schemaLocation);
-        if (schema == null) {
-            SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-            factory.setResourceResolver(resourceResolver);
-            try {
-                InputStream inputStream = null;
-                InputSource inputSource = entityResolver.resolveEntity(schemaLocation, null);
-                if (inputSource != null) {
-                    inputStream = inputSource.getByteStream();
-                } else {
-                    inputStream = new URL(schemaLocation).openStream();
+    /**
+     * Wrap the given reader so that the events consumed from it are validated against the schema
+     * referenced by the <code>xsi:schemaLocation</code> of the root element.
+     * <p/>
+     * If the document does not reference a schema, or the schema cannot be obtained, the returned
+     * reader does not validate.
+     *
+     * @param reader the reader to validate, positioned on or before the root element
+     * @return the validating reader
+     * @throws XMLStreamException if the reader is positioned on an invalid root element
+     */
+    public XMLStreamReader createValidatingReader(XMLStreamReader reader) throws XMLStreamException {
+        return createValidatingReader(null, reader);
+    }
+
+    /**
+     * Wrap the given reader so that the events consumed from it are validated against the given schema.
+     *
+     * @param schemaLocation the schema location, or null to use the one referenced by the document
+     * @param reader         the reader to validate, positioned on or before the root element
+     * @return the validating reader
+     * @throws XMLStreamException if the reader is positioned on an invalid root element
+     */
+    public XMLStreamReader createValidatingReader(String schemaLocation, XMLStreamReader reader) throws XMLStreamException {
+        if (reader == null)
+            throw new IllegalArgumentException("Null reader");
+
+        return new ValidatingXMLStreamReader(this, schemaLocation, reader);
+    }
+
+    LSResourceResolver getResourceResolver() {
+        return resourceResolver;
+    }
+
+    /**
+     * Compile all schemas registered with the {@link XMLResourceResolver} which are available on the classpath,
+     * using a thread per available processor.
+     *
+     * @return the number of schemas available in the cache afterwards
+     * @throws IllegalStateException if the entity resolver of this validator is not an {@link XMLResourceResolver}
+     */
+    public int preloadSchemas() {
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            return preloadSchemas(executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Compile all schemas registered with the {@link XMLResourceResolver} which are available on the classpath.
+     *
+     * @param executor the executor to compile the schemas on
+     * @return the number of schemas available in the cache afterwards
+     * @throws IllegalStateException if the entity resolver of this validator is not an {@link XMLResourceResolver}
+     */
+    public int preloadSchemas(Executor executor) {
+        if (!(entityResolver instanceof XMLResourceResolver))
+            throw new IllegalStateException("Cannot determine the available schemas from " + entityResolver);
+
+        return preloadSchemas(((XMLResourceResolver) entityResolver).getAvailableSchemaLocations(), executor);
+    }
+
+    /**
+     * Compile the given schemas, in parallel on the given executor, and wait for them to be available.
+     *
+     * @param schemaLocations the schema locations
+     * @param executor        the executor to compile the schemas on
+     * @return the number of the given schemas available in the cache afterwards
+     */
+    public int preloadSchemas(Collection<String> schemaLocations, Executor executor) {
+        if (schemaLocations == null)
+            throw new IllegalArgumentException("Null schemaLocations");
+        if (executor == null)
+            throw new IllegalArgumentException("Null executor");
+
+        List<FutureTask<Schema>> tasks = new ArrayList<FutureTask<Schema>>(schemaLocations.size());
+        for (final String schemaLocation : schemaLocations) {
+            FutureTask<Schema> task = new FutureTask<Schema>(new Callable<Schema>() {
+                public Schema call() {
+                    return getSchemaForLocation(schemaLocation);
                 }
-                if (inputStream != null) {
-                    schema = factory.newSchema(new StreamSource(inputStream, schemaLocation));
-                    schemaMap.put(schemaLocation, schema);
+            });
+            executor.execute(task);
+            tasks.add(task);
+        }
+        int count = 0;
+        for (FutureTask<Schema> task : tasks) {
+            try {
+                if (task.get() != null)
+                    count++;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException ex) {
+                log.debugf(ex.getCause(), "Cannot preload schema");
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get a snapshot of the statistics of the schema cache.
+     *
+     * @return the statistics
+     */
+    public static Statistics getStatistics() {
+        return new Statistics(hits.get(), misses.get(), new HashMap<String, Long>(compileTimes));
+    }
+
+    Schema getSchemaForLocation(final String schemaLocation) {
+        Future<Schema> future = schemaMap.get(schemaLocation);
+        if (future == null) {
+            FutureTask<Schema> task = new FutureTask<Schema>(new Callable<Schema>() {
+                public Schema call() {
+                    return compileSchema(schemaLocation);
                 }
-            } catch (Exception ex) {
-                log.errorf(ex, "Cannot get schema for location: %s", schemaLocation);
+            });
+            future = schemaMap.putIfAbsent(schemaLocation, task);
+            if (future == null) {
+                misses.incrementAndGet();
+                future = task;
+                task.run();
+            } else {
+                hits.incrementAndGet();
             }
+        } else {
+            hits.incrementAndGet();
+        }
+
+        Schema schema = null;
+        try {
+            schema = future.get();
+        } catch (InterruptedException ex) {
+            // another thread may still be compiling the schema, leave its future in place
+            Thread.currentThread().interrupt();
+            log.warnf("Interrupted while waiting for schema for location: %s", schemaLocation);
+            return null;
+        } catch (ExecutionException ex) {
+            log.errorf(ex.getCause(), "Cannot get schema for location: %s", schemaLocation);
         }
 
-        if (schema == null)
+        if (schema == null) {
+            // Do not cache the failure, the schema might become available later on
+            schemaMap.remove(schemaLocation, future);
             log.warnf("Cannot get schema for location: %s", schemaLocation);
+        }
 
         return schema;
     }
+
+    private Schema compileSchema(String schemaLocation) {
+        long start = System.nanoTime();
+        Schema schema = null;
+        SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+        factory.setResourceResolver(resourceResolver);
+        InputStream inputStream = null;
+        try {
+            InputSource inputSource = entityResolver.resolveEntity(schemaLocation, null);
+            if (inputSource != null) {
+                inputStream = inputSource.getByteStream();
+            } else {
+                inputStream = new URL(schemaLocation).openStream();
+            }
+            if (inputStream != null) {
+                schema = factory.newSchema(new StreamSource(inputStream, schemaLocation));
+            }
+        } catch (Exception ex) {
+            log.errorf(ex, "Cannot get schema for location: %s", schemaLocation);
+        } finally {
+            if (inputStream != null) {
+                try {
+                    inputStream.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+        if (schema != null) {
+            long time = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            compileTimes.put(schemaLocation, time);
+            if (log.isDebugEnabled())
+                log.debugf("Compiled schema %s in %d ms", schemaLocation, time);
+        }
+        return schema;
+    }
+
+    /**
+     * Statistics of the schema cache.
+     */
+    public static class Statistics {
+        private final long hits;
+        private final long misses;
+        private final Map<String, Long> compileTimes;
+
+        Statistics(long hits, long misses, Map<String, Long> compileTimes) {
+            this.hits = hits;
+            this.misses = misses;
+            this.compileTimes = Collections.unmodifiableMap(compileTimes);
+        }
+
+        /**
+         * @return the number of schema lookups served from the cache
+         */
+        public long getHits() {
+            return hits;
+        }
+
+        /**
+         * @return the number of schema lookups which required the schema to be compiled
+         */
+        public long getMisses() {
+            return misses;
+        }
+
+        /**
+         * @return the compile time in milliseconds of every compiled schema, by schema location
+         */
+        public Map<String, Long> getCompileTimes() {
+            return compileTimes;
+        }
+
+        /**
+         * @return the total time in milliseconds spent compiling schemas
+         */
+        public long getTotalCompileTime() {
+            long total = 0;
+            for (Long time : compileTimes.values())
+                total += time;
+            return total;
+        }
+
+        public String toString() {
+            return "XMLSchemaValidator.Statistics{hits=" + hits + ", misses=" + misses + ", schemas=" + compileTimes.size()
+                    + ", compileTime=" + getTotalCompileTime() + "ms}";
+        }
+    }
 }
@@ -23,7 +23,8 @@
 package org.jboss.metadata.property;
 
 import java.util.Stack;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * {@link org.jboss.metadata.property.PropertyReplacer} that can deal with nested expressions and
@@ -33,17 +34,25 @@ import java.util.regex.Pattern;
  */
 public class DefaultExpressionReplacer implements PropertyReplacer {
 
-    /** A {@link java.util.regex.Pattern} that can be used to identify strings that include expression syntax */
-    private Pattern EXPRESSION_PATTERN = Pattern.compile(".*\\$\\{.*\\}.*");
+    /** Marks expression content the resolver could not resolve in the cache */
+    private static final SimpleExpressionResolver.ResolutionResult UNRESOLVED = new SimpleExpressionResolver.ResolutionResult("", false);
 
     private static final int INITIAL = 0;
     private static final int GOT_DOLLAR = 1;
     private static final int GOT_OPEN_BRACE = 2;
 
     private final SimpleExpressionResolver resolver;
+    private final ConcurrentMap<String, SimpleExpressionResolver.ResolutionResult> cache;
+    private final int cacheSize;
 
     DefaultExpressionReplacer(SimpleExpressionResolver resolver) {
+        this(resolver, 0);
+    }
+
+    DefaultExpressionReplacer(SimpleExpressionResolver resolver, int cacheSize) {
         this.resolver = getDefaultCompatibleResolver(resolver);
+        this.cache = cacheSize > 0 ? new ConcurrentHashMap<String, SimpleExpressionResolver.ResolutionResult>() : null;
+        this.cacheSize = cacheSize;
     }
 
     @SuppressWarnings("deprecation")
@@ -52,6 +61,8 @@ public class DefaultExpressionReplacer implements PropertyReplacer {
                 ? (SimpleExpressionResolver) resolver
                 : new CompatibilityExpressionResolver(resolver);
         this.resolver = getDefaultCompatibleResolver(ser);
+        this.cache = null;
+        this.cacheSize = 0;
     }
 
     // DefaultPropertyReplacer used to provide the key1,key2:default semantics, so if the
@@ -73,9 +84,54 @@ public class DefaultExpressionReplacer implements PropertyReplacer {
 
     @Override
     public String replaceProperties(String text) {
+        // most text in a descriptor contains no expression at all
+        if (text.indexOf('$') < 0) {
+            return text;
+        }
         return resolveExpressionStringRecursively(text, false, true);
     }
 
+    /**
+     * Whether the string includes expression syntax, that is whether it would match the regular expression
+     * {@code .*\$\{.*\}.*}. Like the regular expression this rejects any string which contains a line terminator.
+     */
+    private static boolean isExpression(final String value) {
+        final int start = value.indexOf("${");
+        if (start < 0 || value.indexOf('}', start + 2) < 0) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            switch (value.charAt(i)) {
+                case '\n':
+                case '\r':
+                case '\u0085':
+                case '\u2028':
+                case '\u2029':
+                    return false;
+                default:
+            }
+        }
+        return true;
+    }
+
+    private SimpleExpressionResolver.ResolutionResult resolve(final String expressionContent) {
+        if (cache == null) {
+            return resolver.resolveExpressionContent(expressionContent);
+        }
+        SimpleExpressionResolver.ResolutionResult result = cache.get(expressionContent);
+        if (result == null) {
+            result = resolver.resolveExpressionContent(expressionContent);
+            if (result == null) {
+                result = UNRESOLVED;
+            }
+            // once the cache is full, further expressions are simply resolved each time
+            if (cache.size() < cacheSize) {
+                cache.putIfAbsent(expressionContent, result);
+            }
+        }
+        return result == UNRESOLVED ? null : result;
+    }
+
     /**
      * Attempt to resolve the given expression string, recursing if resolution of one string produces
      * another expression.
@@ -98,7 +154,7 @@ public class DefaultExpressionReplacer implements PropertyReplacer {
         } else if (resolved.modified) {
             // Typical case
             return resolved.result;
-        } else if (initial && EXPRESSION_PATTERN.matcher(expressionString).matches()) {
+        } else if (initial && isExpression(expressionString)) {
             // We should only get an unmodified expression string back if there was a resolution
             // failure that we ignored.
             assert ignoreResolutionFailure;
@@ -186,11 +242,11 @@ public class DefaultExpressionReplacer implements PropertyReplacer {
                                 continue;
                             }
                             String toResolve = getStringToResolve(initialValue, stack, i);
-                            final SimpleExpressionResolver.ResolutionResult rr = resolver.resolveExpressionContent(toResolve);
+                            final SimpleExpressionResolver.ResolutionResult rr = resolve(toResolve);
                             String resolved = rr == null ? null : rr.getValue();
                             // We only successfully resolved if toResolve != resolved
                             if (resolved != null) {
-                                if (EXPRESSION_PATTERN.matcher(resolved).matches()) {
+                                if (isExpression(resolved)) {
                                     // The resolved value is itself an expression, so
                                     // there will need to be another pass.
                                     // We need to discard any changes made from initialValue
@@ -77,4 +77,21 @@ public class PropertyReplacers {
     public static PropertyReplacer resolvingExpressionReplacer(final SimpleExpressionResolver resolver) {
         return new DefaultExpressionReplacer(resolver);
     }
+
+    /**
+     * Return a {@code PropertyReplacer} like {@link #resolvingExpressionReplacer(SimpleExpressionResolver)}, which
+     * additionally remembers the resolution of up to {@code cacheSize} distinct expressions, so that an expression
+     * occurring many times in a descriptor is passed to the {@code resolver} only once. Only use this if the values
+     * the {@code resolver} returns do not change while the replacer is in use.
+     *
+     * @param resolver The resolver used for any expressions being replaced. Cannot be {@code null}
+     * @param cacheSize The maximum number of distinct expressions remembered. If it is {@code 0}, nothing is remembered
+     * @return the replacer. Will not be {@code null}
+     */
+    public static PropertyReplacer resolvingExpressionReplacer(final SimpleExpressionResolver resolver, final int cacheSize) {
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("cacheSize must not be negative: " + cacheSize);
+        }
+        return new DefaultExpressionReplacer(resolver, cacheSize);
+    }
 }
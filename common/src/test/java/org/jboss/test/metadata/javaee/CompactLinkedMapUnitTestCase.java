@@ -0,0 +1,143 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.metadata.javaee;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.jboss.metadata.javaee.spec.SecurityRoleMetaData;
+import org.jboss.metadata.javaee.spec.SecurityRolesMetaData;
+import org.jboss.metadata.javaee.support.CompactLinkedMap;
+import org.junit.Test;
+
+/**
+ * Tests that {@link CompactLinkedMap} behaves like a linked hash map, below and above the size at which it starts hashing.
+ */
+public class CompactLinkedMapUnitTestCase {
+
+    @Test
+    public void testRandomOperations() {
+        final Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            final Map<String, Integer> expected = new LinkedHashMap<String, Integer>();
+            final Map<String, Integer> actual = new CompactLinkedMap<String, Integer>();
+            final int keyRange = 1 + random.nextInt(20);
+            for (int op = 0; op < 50; op++) {
+                final String key = "key" + random.nextInt(keyRange);
+                switch (random.nextInt(4)) {
+                    case 0:
+                    case 1:
+                        assertEquals(expected.put(key, op), actual.put(key, op));
+                        break;
+                    case 2:
+                        assertEquals(expected.remove(key), actual.remove(key));
+                        break;
+                    default:
+                        assertEquals(expected.get(key), actual.get(key));
+                        assertEquals(expected.containsKey(key), actual.containsKey(key));
+                }
+                assertEquals(expected.size(), actual.size());
+                assertEquals(new ArrayList<String>(expected.keySet()), new ArrayList<String>(actual.keySet()));
+                assertEquals(new ArrayList<Integer>(expected.values()), new ArrayList<Integer>(actual.values()));
+            }
+            assertEquals(expected, actual);
+            assertEquals(expected.hashCode(), actual.hashCode());
+        }
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        final Map<String, Integer> map = new CompactLinkedMap<String, Integer>();
+        for (int i = 0; i < 5; i++)
+            map.put("key" + i, i);
+        final Iterator<Integer> iterator = map.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() % 2 == 0)
+                iterator.remove();
+        }
+        assertEquals("{key1=1, key3=3}", map.toString());
+    }
+
+    @Test
+    public void testNulls() {
+        final Map<String, Integer> map = new CompactLinkedMap<String, Integer>();
+        assertNull(map.get(null));
+        assertFalse(map.containsKey(null));
+        try {
+            map.put(null, 1);
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            map.put("key", null);
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSerialization() throws Exception {
+        for (int size : new int[]{0, 3, 20}) {
+            final Map<String, Integer> map = new CompactLinkedMap<String, Integer>();
+            for (int i = size - 1; i >= 0; i--)
+                map.put("key" + i, i);
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final ObjectOutputStream out = new ObjectOutputStream(bytes);
+            out.writeObject(map);
+            out.close();
+            final Map<String, Integer> copy = (Map<String, Integer>) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+            assertEquals(new ArrayList<String>(map.keySet()), new ArrayList<String>(copy.keySet()));
+            // a deserialized map can still be modified
+            copy.put("another", -1);
+            assertEquals(size + 1, copy.size());
+        }
+    }
+
+    @Test
+    public void testMappedMetaData() {
+        final SecurityRolesMetaData roles = new SecurityRolesMetaData();
+        for (int i = 0; i < 12; i++) {
+            final SecurityRoleMetaData role = new SecurityRoleMetaData();
+            role.setRoleName("role" + i);
+            roles.add(role);
+            assertEquals(i + 1, roles.size());
+            assertEquals("role" + i, roles.get("role" + i).getRoleName());
+        }
+        int i = 0;
+        for (SecurityRoleMetaData role : roles)
+            assertEquals("role" + i++, role.getRoleName());
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.metadata.javaee;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.jboss.metadata.javaee.spec.SecurityRoleMetaData;
+import org.jboss.metadata.javaee.spec.SecurityRolesMetaData;
+import org.jboss.metadata.merge.javaee.spec.SecurityRolesMetaDataMerger;
+import org.junit.Test;
+
+/**
+ * Tests of the principal indexes of {@link SecurityRolesMetaData}.
+ */
+public class SecurityRolesPrincipalIndexUnitTestCase {
+
+    @Test
+    public void testAddAndReplace() {
+        final SecurityRolesMetaData roles = new SecurityRolesMetaData();
+        roles.add(role("admin", "alice", "bob"));
+        roles.add(role("user", "bob"));
+        roles.add(role("guest"));
+
+        assertEquals(set("admin"), roles.getSecurityRoleNamesByPrincipal("alice"));
+        assertEquals(set("admin", "user"), roles.getSecurityRoleNamesByPrincipal("bob"));
+        assertTrue(roles.getSecurityRoleNamesByPrincipal("carol").isEmpty());
+        assertEquals(set("alice", "bob"), roles.getPrincipalsByRoleName("admin"));
+        assertTrue(roles.getPrincipalsByRoleName("guest").isEmpty());
+        assertNull(roles.getPrincipalsByRoleName("nobody"));
+        assertEquals(2, roles.getSecurityRolesByPrincipal("bob").size());
+
+        // replacing a role drops the principals it no longer has
+        roles.add(role("admin", "carol"));
+        assertFalse(roles.getPrincipalVersusRolesMap().containsKey("alice"));
+        assertEquals(set("user"), roles.getSecurityRoleNamesByPrincipal("bob"));
+        assertEquals(set("admin"), roles.getSecurityRoleNamesByPrincipal("carol"));
+
+        roles.clear();
+        assertTrue(roles.getPrincipalVersusRolesMap().isEmpty());
+        assertNull(roles.getPrincipalsByRoleName("user"));
+    }
+
+    @Test
+    public void testViewsAreReadOnly() {
+        final SecurityRolesMetaData roles = new SecurityRolesMetaData();
+        final SecurityRoleMetaData admin = role("admin", "alice");
+        roles.add(admin);
+        try {
+            roles.getSecurityRoleNamesByPrincipal("alice").add("user");
+            fail("Expected an UnsupportedOperationException");
+        } catch (UnsupportedOperationException expected) {
+        }
+        try {
+            roles.getPrincipalVersusRolesMap().get("alice").clear();
+            fail("Expected an UnsupportedOperationException");
+        } catch (UnsupportedOperationException expected) {
+        }
+        try {
+            roles.getPrincipalsByRoleName("admin").add("bob");
+            fail("Expected an UnsupportedOperationException");
+        } catch (UnsupportedOperationException expected) {
+        }
+    }
+
+    @Test
+    public void testPrincipalsChangedAfterAdd() {
+        final SecurityRolesMetaData roles = new SecurityRolesMetaData();
+        final SecurityRoleMetaData admin = role("admin", "alice");
+        roles.add(admin);
+        roles.add(role("user", "bob"));
+        final Map<String, Set<String>> principalVersusRoles = roles.getPrincipalVersusRolesMap();
+
+        admin.getPrincipals().add("bob");
+        assertEquals(set("alice", "bob"), roles.getPrincipalsByRoleName("admin"));
+        assertEquals(set("admin", "user"), principalVersusRoles.get("bob"));
+
+        for (Iterator<String> i = admin.getPrincipals().iterator(); i.hasNext(); ) {
+            if ("alice".equals(i.next()))
+                i.remove();
+        }
+        assertFalse(principalVersusRoles.containsKey("alice"));
+        assertEquals(set("bob"), roles.getPrincipalsByRoleName("admin"));
+
+        admin.setPrincipals(set("carol"));
+        assertEquals(set("admin"), roles.getSecurityRoleNamesByPrincipal("carol"));
+        assertEquals(set("user"), principalVersusRoles.get("bob"));
+
+        admin.getPrincipals().clear();
+        assertTrue(roles.getPrincipalsByRoleName("admin").isEmpty());
+        assertFalse(principalVersusRoles.containsKey("carol"));
+
+        // a replaced role or a clone no longer changes the index
+        final SecurityRoleMetaData clone = (SecurityRoleMetaData) roles.get("user").clone();
+        clone.setPrincipals(set("dave"));
+        assertNull(principalVersusRoles.get("dave"));
+        roles.add(role("admin", "frank"));
+        admin.getPrincipals().add("erin");
+        assertNull(principalVersusRoles.get("erin"));
+        assertEquals(set("frank"), roles.getPrincipalsByRoleName("admin"));
+    }
+
+    @Test
+    public void testPrincipalsChangedAfterSerialization() throws Exception {
+        final SecurityRolesMetaData original = new SecurityRolesMetaData();
+        original.add(role("admin", "alice"));
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(original);
+        out.close();
+        final SecurityRolesMetaData roles = (SecurityRolesMetaData) new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray())).readObject();
+
+        roles.get("admin").getPrincipals().add("bob");
+        assertEquals(set("alice", "bob"), roles.getPrincipalsByRoleName("admin"));
+        assertEquals(set("admin"), roles.getSecurityRoleNamesByPrincipal("bob"));
+    }
+
+    @Test
+    public void testMerge() {
+        final SecurityRolesMetaData original = new SecurityRolesMetaData();
+        original.add(role("admin", "alice"));
+        original.add(role("user", "bob"));
+        final SecurityRolesMetaData override = new SecurityRolesMetaData();
+        override.add(role("admin", "carol"));
+        final SecurityRolesMetaData merged = new SecurityRolesMetaData();
+        SecurityRolesMetaDataMerger.merge(merged, override, original);
+
+        assertEquals(set("alice", "carol"), merged.getPrincipalsByRoleName("admin"));
+        assertEquals(set("admin"), merged.getSecurityRoleNamesByPrincipal("carol"));
+        assertEquals(set("user"), merged.getSecurityRoleNamesByPrincipal("bob"));
+    }
+
+    private static SecurityRoleMetaData role(String name, String... principals) {
+        final SecurityRoleMetaData role = new SecurityRoleMetaData();
+        role.setRoleName(name);
+        if (principals.length > 0)
+            role.setPrincipals(set(principals));
+        return role;
+    }
+
+    private static Set<String> set(String... values) {
+        final Set<String> set = new HashSet<String>();
+        Collections.addAll(set, values);
+        return set;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.metadata.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jboss.metadata.parser.ee.Attribute;
+import org.jboss.metadata.parser.ee.Element;
+import org.jboss.metadata.parser.util.LocalNameIndex;
+import org.junit.Test;
+
+/**
+ * Tests of {@link LocalNameIndex}.
+ */
+public class LocalNameIndexTestCase {
+
+    @Test
+    public void testElementRoundTrip() {
+        for (Element element : Element.values()) {
+            if (element.getLocalName() != null) {
+                assertSame(element, Element.forName(element.getLocalName()));
+                // the lookup must not depend on the name being interned
+                assertSame(element, Element.forName(new String(element.getLocalName())));
+            }
+        }
+        assertSame(Element.UNKNOWN, Element.forName("no-such-element"));
+        assertSame(Element.UNKNOWN, Element.forName(""));
+    }
+
+    @Test
+    public void testAttributeRoundTrip() {
+        for (Attribute attribute : Attribute.values()) {
+            if (attribute.getLocalName() != null) {
+                assertSame(attribute, Attribute.forName(new String(attribute.getLocalName())));
+            }
+        }
+        assertSame(Attribute.UNKNOWN, Attribute.forName("no-such-attribute"));
+    }
+
+    @Test
+    public void testCollidingSamples() {
+        // names which only differ in characters the sampled hash does not look at
+        final Map<String, Integer> map = new HashMap<String, Integer>();
+        map.put("aXXXXa", 1);
+        map.put("aYYYYa", 2);
+        map.put("aZZZZa", 3);
+        final LocalNameIndex<Integer> index = LocalNameIndex.create(map);
+        assertEquals(Integer.valueOf(1), index.get("aXXXXa"));
+        assertEquals(Integer.valueOf(2), index.get("aYYYYa"));
+        assertEquals(Integer.valueOf(3), index.get("aZZZZa"));
+        assertNull(index.get("aWWWWa"));
+        assertNull(index.get(null));
+    }
+
+    @Test
+    public void testEmpty() {
+        final LocalNameIndex<Integer> index = LocalNameIndex.create(new HashMap<String, Integer>());
+        assertNull(index.get("anything"));
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.metadata.parser;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.jboss.metadata.parser.util.XMLResourceResolver;
+import org.junit.Test;
+import org.w3c.dom.ls.LSInput;
+import org.xml.sax.InputSource;
+
+/**
+ * Tests the in-memory entity cache of {@link XMLResourceResolver}.
+ */
+public class XMLResourceResolverTestCase {
+
+    @Test
+    public void testResolveFromMemory() throws Exception {
+        assertTrue(XMLResourceResolver.preloadEntities() > 0);
+        final XMLResourceResolver resolver = new XMLResourceResolver();
+        final byte[] expected = read(getClass().getClassLoader().getResourceAsStream("schema/javaee_7.xsd"));
+
+        final InputSource source = resolver.resolveEntity(null, "http://xmlns.jcp.org/xml/ns/javaee/javaee_7.xsd");
+        assertNotNull(source);
+        assertTrue(resolver.isEntityResolved());
+        assertArrayEquals(expected, read(source.getByteStream()));
+
+        // every resolution hands out a fresh stream
+        final LSInput input = resolver.resolveResource(null, null, null, "http://xmlns.jcp.org/xml/ns/javaee/javaee_7.xsd", null);
+        assertNotNull(input);
+        assertArrayEquals(expected, read(input.getByteStream()));
+    }
+
+    private static byte[] read(final InputStream in) throws IOException {
+        assertNotNull(in);
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.metadata.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.jboss.metadata.parser.util.XMLResourceResolver;
+import org.jboss.metadata.parser.util.XMLSchemaValidator;
+import org.junit.Test;
+
+/**
+ * Tests the schema cache of {@link XMLSchemaValidator}.
+ */
+public class XMLSchemaValidatorTestCase {
+
+    private static final String JAVAEE_7 = "http://xmlns.jcp.org/xml/ns/javaee/javaee_7.xsd";
+    private static final String JBOSS_COMMON_5_1 = "http://www.jboss.org/j2ee/schema/jboss-common_5_1.xsd";
+
+    @Test
+    public void testAvailableSchemaLocations() {
+        final XMLResourceResolver resolver = new XMLResourceResolver();
+        assertTrue(resolver.getAvailableSchemaLocations().contains(JAVAEE_7));
+        assertTrue(resolver.getAvailableSchemaLocations().contains(JBOSS_COMMON_5_1));
+    }
+
+    @Test
+    public void testPreloadSchemas() {
+        final XMLSchemaValidator validator = new XMLSchemaValidator(new XMLResourceResolver());
+        final List<String> locations = Arrays.asList(JAVAEE_7, JBOSS_COMMON_5_1);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            assertEquals(2, validator.preloadSchemas(locations, executor));
+        } finally {
+            executor.shutdown();
+        }
+        final XMLSchemaValidator.Statistics before = XMLSchemaValidator.getStatistics();
+        assertTrue(before.getCompileTimes().containsKey(JAVAEE_7));
+        assertTrue(before.getCompileTimes().containsKey(JBOSS_COMMON_5_1));
+
+        // the second time around the schemas come from the cache
+        final ExecutorService again = Executors.newSingleThreadExecutor();
+        try {
+            assertEquals(1, validator.preloadSchemas(Collections.singleton(JAVAEE_7), again));
+        } finally {
+            again.shutdown();
+        }
+        final XMLSchemaValidator.Statistics after = XMLSchemaValidator.getStatistics();
+        assertEquals(before.getHits() + 1, after.getHits());
+        assertEquals(before.getMisses(), after.getMisses());
+    }
+}
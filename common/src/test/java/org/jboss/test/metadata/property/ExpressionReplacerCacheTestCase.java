@@ -0,0 +1,104 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.metadata.property;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jboss.metadata.property.PropertyReplacer;
+import org.jboss.metadata.property.PropertyReplacers;
+import org.jboss.metadata.property.SimpleExpressionResolver;
+import org.junit.Test;
+
+/**
+ * Tests the fast path and the resolution cache of the expression replacer.
+ */
+public class ExpressionReplacerCacheTestCase {
+
+    private final Map<String, Integer> calls = new HashMap<String, Integer>();
+
+    private final SimpleExpressionResolver resolver = new SimpleExpressionResolver() {
+        public ResolutionResult resolveExpressionContent(String expressionContent) {
+            final Integer count = calls.get(expressionContent);
+            calls.put(expressionContent, count == null ? 1 : count + 1);
+            if (expressionContent.startsWith("missing"))
+                return null;
+            return new ResolutionResult("<" + expressionContent + ">", false);
+        }
+    };
+
+    @Test
+    public void testNoExpression() {
+        final PropertyReplacer replacer = PropertyReplacers.resolvingExpressionReplacer(resolver);
+        final String text = "no expression here";
+        assertSame(text, replacer.replaceProperties(text));
+        assertEquals("a $ b", replacer.replaceProperties("a $ b"));
+        assertEquals(0, calls.size());
+    }
+
+    @Test
+    public void testCache() {
+        final PropertyReplacer replacer = PropertyReplacers.resolvingExpressionReplacer(resolver, 16);
+        for (int i = 0; i < 10; i++) {
+            assertEquals("x<a>y<b>", replacer.replaceProperties("x${a}y${b}"));
+        }
+        assertEquals(Integer.valueOf(1), calls.get("a"));
+        assertEquals(Integer.valueOf(1), calls.get("b"));
+    }
+
+    @Test
+    public void testCachedFailure() {
+        final PropertyReplacer replacer = PropertyReplacers.resolvingExpressionReplacer(resolver, 16);
+        for (int i = 0; i < 2; i++) {
+            try {
+                replacer.replaceProperties("${missing}");
+                fail("Expected an IllegalStateException");
+            } catch (IllegalStateException expected) {
+            }
+        }
+        assertEquals(Integer.valueOf(1), calls.get("missing"));
+    }
+
+    @Test
+    public void testCacheBound() {
+        final PropertyReplacer replacer = PropertyReplacers.resolvingExpressionReplacer(resolver, 1);
+        for (int i = 0; i < 3; i++) {
+            assertEquals("<a>", replacer.replaceProperties("${a}"));
+            assertEquals("<b>", replacer.replaceProperties("${b}"));
+        }
+        assertEquals(Integer.valueOf(1), calls.get("a"));
+        assertEquals(Integer.valueOf(3), calls.get("b"));
+    }
+
+    @Test
+    public void testNoCache() {
+        final PropertyReplacer replacer = PropertyReplacers.resolvingExpressionReplacer(resolver);
+        replacer.replaceProperties("${a}");
+        replacer.replaceProperties("${a}");
+        assertEquals(Integer.valueOf(2), calls.get("a"));
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.metadata.ear.pipeline;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.jboss.metadata.ear.spec.ModuleMetaData;
+
+/**
+ * Gives access to the content of the modules of an enterprise archive.
+ * <p/>
+ * A content provider is used by several threads of a {@link ModuleDescriptorPipeline} at the same time.
+ */
+public interface ModuleContentProvider {
+    /**
+     * Open a descriptor of a module.
+     *
+     * @param module the module
+     * @param path   the path of the descriptor within the module, for example WEB-INF/web.xml
+     * @return the content of the descriptor, or null if the module does not contain it
+     * @throws IOException if the descriptor cannot be opened
+     */
+    InputStream openDescriptor(ModuleMetaData module, String path) throws IOException;
+}
@@ -0,0 +1,51 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.metadata.ear.pipeline;
+
+import org.jboss.metadata.ear.spec.ModuleMetaData;
+
+/**
+ * Thrown by a {@link ModuleDescriptorPipeline} if the descriptors of a module cannot be processed.
+ * <p/>
+ * If several modules fail, the exception is about the first of them in the order of the application descriptor and the
+ * failures of the other modules are added as suppressed exceptions, independent of the order the modules were processed in.
+ */
+public class ModuleDescriptorException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    private final String fileName;
+
+    public ModuleDescriptorException(ModuleMetaData module, Throwable cause) {
+        super("Failed to process the descriptors of module " + module.getFileName(), cause);
+        this.fileName = module.getFileName();
+    }
+
+    /**
+     * Get the file name of the module which failed.
+     *
+     * @return the file name
+     */
+    public String getFileName() {
+        return fileName;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.metadata.ear.pipeline;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.metadata.ear.spec.EarMetaData;
+import org.jboss.metadata.ear.spec.ModuleMetaData;
+import org.jboss.metadata.ear.spec.ModulesMetaData;
+import org.jboss.metadata.property.PropertyReplacer;
+
+/**
+ * Processes the descriptors of the modules of an enterprise archive concurrently.
+ * <p/>
+ * The application descriptor is parsed once, by the caller, and the resulting {@link EarMetaData} drives the pipeline:
+ * every module it lists is handed to the {@link ModuleDescriptorProcessor}. At most <code>parallelism</code> modules are
+ * processed at the same time, one of them by the calling thread, the others by tasks submitted to the executor. Since the
+ * calling thread takes part, the pipeline makes progress even if the executor is busy or rejects the tasks.
+ * <p/>
+ * The outcome does not depend on the order the modules happen to be processed in. The metadata is returned in the order of
+ * the modules in the application descriptor, and failures are reported as described in {@link ModuleDescriptorException}.
+ *
+ * @param <T> the type of the metadata of a module
+ */
+public class ModuleDescriptorPipeline<T> {
+
+    private final ModuleDescriptorProcessor<T> processor;
+    private final Executor executor;
+    private final int parallelism;
+
+    /**
+     * Create a pipeline.
+     *
+     * @param processor   the processor of the module descriptors
+     * @param executor    the executor running the module tasks
+     * @param parallelism the maximum number of modules processed at the same time
+     */
+    public ModuleDescriptorPipeline(ModuleDescriptorProcessor<T> processor, Executor executor, int parallelism) {
+        if (processor == null)
+            throw new IllegalArgumentException("Null processor");
+        if (executor == null)
+            throw new IllegalArgumentException("Null executor");
+        if (parallelism < 1)
+            throw new IllegalArgumentException("parallelism must be at least 1: " + parallelism);
+        this.processor = processor;
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Process the descriptors of all modules of an application.
+     *
+     * @param ear              the application metadata
+     * @param contentProvider  the content of the modules
+     * @param propertyReplacer the property replacer for the module descriptors
+     * @return the metadata of the modules by module file name, in the order of the application descriptor; modules the
+     *         processor returned null for are left out
+     * @throws ModuleDescriptorException if the descriptors of a module cannot be processed
+     * @throws InterruptedException      if the calling thread is interrupted while waiting for the modules to be processed
+     */
+    public Map<String, T> process(EarMetaData ear, ModuleContentProvider contentProvider, PropertyReplacer propertyReplacer)
+            throws ModuleDescriptorException, InterruptedException {
+        if (ear == null)
+            throw new IllegalArgumentException("Null ear");
+        if (contentProvider == null)
+            throw new IllegalArgumentException("Null contentProvider");
+        if (propertyReplacer == null)
+            throw new IllegalArgumentException("Null propertyReplacer");
+
+        final List<ModuleMetaData> modules = new ArrayList<ModuleMetaData>();
+        final ModulesMetaData modulesMetaData = ear.getModules();
+        if (modulesMetaData != null)
+            modules.addAll(modulesMetaData);
+        if (modules.isEmpty())
+            return Collections.emptyMap();
+
+        final Run run = new Run(modules, contentProvider, propertyReplacer);
+        final int workers = Math.min(parallelism, modules.size());
+        for (int i = 1; i < workers; i++) {
+            try {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        run.work();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // the calling thread picks up the slack
+            }
+        }
+        run.work();
+        // wait for the modules other threads are still processing, not for queued tasks to start
+        run.done.await();
+
+        ModuleDescriptorException failure = null;
+        final Map<String, T> result = new LinkedHashMap<String, T>();
+        for (int i = 0; i < modules.size(); i++) {
+            final Throwable t = run.failures[i];
+            if (t != null) {
+                final ModuleDescriptorException e = new ModuleDescriptorException(modules.get(i), t);
+                if (failure == null)
+                    failure = e;
+                else
+                    failure.addSuppressed(e);
+            } else if (run.results[i] != null) {
+                result.put(modules.get(i).getFileName(), run.results[i]);
+            }
+        }
+        if (failure != null)
+            throw failure;
+        return result;
+    }
+
+    /**
+     * The state of a single call of {@link #process}. The arrays are published to the calling thread by the latch,
+     * which is released once every module has been processed. Tasks starting after all modules have been claimed
+     * return at once.
+     */
+    private class Run {
+        private final List<ModuleMetaData> modules;
+        private final ModuleContentProvider contentProvider;
+        private final PropertyReplacer propertyReplacer;
+        private final AtomicInteger next = new AtomicInteger();
+        private final CountDownLatch done;
+        private final T[] results;
+        private final Throwable[] failures;
+
+        @SuppressWarnings("unchecked")
+        Run(List<ModuleMetaData> modules, ModuleContentProvider contentProvider, PropertyReplacer propertyReplacer) {
+            this.modules = modules;
+            this.contentProvider = contentProvider;
+            this.propertyReplacer = propertyReplacer;
+            this.results = (T[]) new Object[modules.size()];
+            this.failures = new Throwable[modules.size()];
+            this.done = new CountDownLatch(modules.size());
+        }
+
+        void work() {
+            int i;
+            while ((i = next.getAndIncrement()) < modules.size()) {
+                try {
+                    results[i] = processor.process(new ModuleDescriptors(modules.get(i), contentProvider, propertyReplacer));
+                } catch (Throwable t) {
+                    failures[i] = t;
+                } finally {
+                    done.countDown();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.metadata.ear.pipeline;
+
+/**
+ * Parses and merges the descriptors of a single module, for example the ejb-jar.xml and jboss-ejb3.xml of an ejb module.
+ * <p/>
+ * A processor is called for the modules of an enterprise archive by several threads at the same time.
+ *
+ * @param <T> the type of the metadata of a module
+ */
+public interface ModuleDescriptorProcessor<T> {
+    /**
+     * Process the descriptors of a module.
+     *
+     * @param descriptors the descriptors of the module
+     * @return the metadata of the module, or null if there is none, for example because the processor does not handle this
+     *         type of module
+     * @throws Exception if the descriptors cannot be processed
+     */
+    T process(ModuleDescriptors descriptors) throws Exception;
+}
@@ -0,0 +1,97 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.metadata.ear.pipeline;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.jboss.metadata.ear.spec.ModuleMetaData;
+import org.jboss.metadata.parser.util.DescriptorReader;
+import org.jboss.metadata.property.PropertyReplacer;
+
+/**
+ * The descriptors of a module, as handed to a {@link ModuleDescriptorProcessor}.
+ */
+public final class ModuleDescriptors {
+
+    private final ModuleMetaData module;
+    private final ModuleContentProvider contentProvider;
+    private final PropertyReplacer propertyReplacer;
+
+    ModuleDescriptors(ModuleMetaData module, ModuleContentProvider contentProvider, PropertyReplacer propertyReplacer) {
+        this.module = module;
+        this.contentProvider = contentProvider;
+        this.propertyReplacer = propertyReplacer;
+    }
+
+    public ModuleMetaData getModule() {
+        return module;
+    }
+
+    public PropertyReplacer getPropertyReplacer() {
+        return propertyReplacer;
+    }
+
+    /**
+     * Open a descriptor of the module.
+     *
+     * @param path the path of the descriptor within the module
+     * @return the content of the descriptor, or null if the module does not contain it
+     * @throws IOException if the descriptor cannot be opened
+     */
+    public InputStream open(String path) throws IOException {
+        if (path == null)
+            throw new IllegalArgumentException("Null path");
+        return contentProvider.openDescriptor(module, path);
+    }
+
+    /**
+     * Read a descriptor of the module.
+     *
+     * @param path   the path of the descriptor within the module
+     * @param reader the descriptor reader
+     * @param <D>    the type of the metadata of the descriptor
+     * @return the metadata of the descriptor, or null if the module does not contain it
+     * @throws IOException        if the descriptor cannot be opened
+     * @throws XMLStreamException if the descriptor cannot be parsed
+     */
+    public <D> D read(String path, DescriptorReader<D> reader) throws IOException, XMLStreamException {
+        if (reader == null)
+            throw new IllegalArgumentException("Null reader");
+        final InputStream input = open(path);
+        if (input == null)
+            return null;
+        try {
+            return reader.read(input, propertyReplacer);
+        } finally {
+            input.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ModuleDescriptors{" + module.getFileName() + "}";
+    }
+}
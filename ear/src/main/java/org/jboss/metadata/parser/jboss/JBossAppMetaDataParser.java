@@ -43,6 +43,8 @@ import org.jboss.metadata.javaee.spec.MessageDestinationsMetaData;
 import org.jboss.metadata.javaee.spec.SecurityRolesMetaData;
 import org.jboss.metadata.parser.ee.SecurityRoleMetaDataParser;
 import org.jboss.metadata.parser.spec.EarMetaDataParser;
+import org.jboss.metadata.parser.util.DescriptorParser;
+import org.jboss.metadata.parser.util.DescriptorReader;
 import org.jboss.metadata.property.PropertyReplacer;
 import org.jboss.metadata.property.PropertyReplacers;
 
@@ -55,6 +57,15 @@ public class JBossAppMetaDataParser extends EarMetaDataParser {
 
     public static final JBossAppMetaDataParser INSTANCE = new JBossAppMetaDataParser();
 
+    /**
+     * Reads jboss-app.xml documents.
+     */
+    public static final DescriptorReader<JBossAppMetaData> DESCRIPTOR_READER = new DescriptorReader<JBossAppMetaData>(new DescriptorParser<JBossAppMetaData>() {
+        public JBossAppMetaData parse(XMLStreamReader reader, DTDInfo info, PropertyReplacer propertyReplacer) throws XMLStreamException {
+            return INSTANCE.parse(reader, propertyReplacer);
+        }
+    });
+
     public JBossAppMetaData parse(final XMLStreamReader reader) throws XMLStreamException {
         return parse(reader, PropertyReplacers.noop());
     }
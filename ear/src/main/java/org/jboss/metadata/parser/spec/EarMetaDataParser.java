@@ -36,6 +36,8 @@ import org.jboss.metadata.parser.ee.DescriptionGroupMetaDataParser;
 import org.jboss.metadata.parser.ee.EnvironmentRefsGroupMetaDataParser;
 import org.jboss.metadata.parser.ee.MessageDestinationMetaDataParser;
 import org.jboss.metadata.parser.ee.SecurityRoleMetaDataParser;
+import org.jboss.metadata.parser.util.DescriptorParser;
+import org.jboss.metadata.parser.util.DescriptorReader;
 import org.jboss.metadata.parser.util.MetaDataElementParser;
 import org.jboss.metadata.property.PropertyReplacer;
 import org.jboss.metadata.property.PropertyReplacers;
@@ -47,6 +49,15 @@ public class EarMetaDataParser extends MetaDataElementParser {
 
     public static final EarMetaDataParser INSTANCE = new EarMetaDataParser();
 
+    /**
+     * Reads application.xml documents.
+     */
+    public static final DescriptorReader<EarMetaData> DESCRIPTOR_READER = new DescriptorReader<EarMetaData>(new DescriptorParser<EarMetaData>() {
+        public EarMetaData parse(XMLStreamReader reader, DTDInfo info, PropertyReplacer propertyReplacer) throws XMLStreamException {
+            return INSTANCE.parse(reader, propertyReplacer);
+        }
+    });
+
     public EarMetaData parse(final XMLStreamReader reader) throws XMLStreamException {
         return parse(reader, PropertyReplacers.noop());
     }
@@ -25,6 +25,8 @@ package org.jboss.metadata.parser.spec;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.jboss.metadata.parser.util.LocalNameIndex;
+
 /**
  * @author John Bailey
  */
@@ -60,7 +62,7 @@ public enum Element {
         return name;
     }
 
-    private static final Map<String, Element> MAP;
+    private static final LocalNameIndex<Element> MAP;
 
     static {
         final Map<String, Element> map = new HashMap<String, Element>();
@@ -68,7 +70,7 @@ public enum Element {
             final String name = element.getLocalName();
             if (name != null) map.put(name, element);
         }
-        MAP = map;
+        MAP = LocalNameIndex.create(map);
     }
 
     public static Element forName(String localName) {
@@ -0,0 +1,206 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.metadata.ear;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.metadata.ear.pipeline.ModuleContentProvider;
+import org.jboss.metadata.ear.pipeline.ModuleDescriptorException;
+import org.jboss.metadata.ear.pipeline.ModuleDescriptorPipeline;
+import org.jboss.metadata.ear.pipeline.ModuleDescriptorProcessor;
+import org.jboss.metadata.ear.pipeline.ModuleDescriptors;
+import org.jboss.metadata.ear.spec.EarMetaData;
+import org.jboss.metadata.ear.spec.ModuleMetaData;
+import org.jboss.metadata.parser.spec.EarMetaDataParser;
+import org.jboss.metadata.property.PropertyReplacers;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of the {@link ModuleDescriptorPipeline}.
+ */
+public class ModuleDescriptorPipelineUnitTestCase {
+
+    private final ModuleContentProvider contentProvider = new ModuleContentProvider() {
+        public InputStream openDescriptor(ModuleMetaData module, String path) throws IOException {
+            if (!"META-INF/descriptor.txt".equals(path))
+                return null;
+            return new ByteArrayInputStream(module.getFileName().getBytes("UTF-8"));
+        }
+    };
+
+    private ExecutorService executor;
+    private EarMetaData ear;
+
+    @Before
+    public void before() throws Exception {
+        executor = Executors.newFixedThreadPool(4);
+        final InputStream input = getClass().getResourceAsStream("Ear6xEverything_testEverything.xml");
+        try {
+            ear = EarMetaDataParser.DESCRIPTOR_READER.read(input, PropertyReplacers.noop());
+        } finally {
+            input.close();
+        }
+    }
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testModuleOrder() throws Exception {
+        final ModuleDescriptorPipeline<String> pipeline = new ModuleDescriptorPipeline<String>(new ModuleDescriptorProcessor<String>() {
+            public String process(ModuleDescriptors descriptors) throws Exception {
+                if (descriptors.getModule().getType() == ModuleMetaData.ModuleType.Connector)
+                    return null;
+                assertNull(descriptors.open("META-INF/missing.xml"));
+                return read(descriptors.open("META-INF/descriptor.txt"));
+            }
+        }, executor, 3);
+
+        final Map<String, String> result = pipeline.process(ear, contentProvider, PropertyReplacers.noop());
+        final ArrayList<String> expected = new ArrayList<String>();
+        for (ModuleMetaData module : ear.getModules()) {
+            if (module.getType() != ModuleMetaData.ModuleType.Connector)
+                expected.add(module.getFileName());
+        }
+        assertTrue(expected.size() > 3);
+        assertEquals(expected, new ArrayList<String>(result.keySet()));
+        assertEquals(expected, new ArrayList<String>(result.values()));
+    }
+
+    @Test
+    public void testFailures() throws Exception {
+        final String first = ear.getModules().get(1).getFileName();
+        final String second = ear.getModules().get(3).getFileName();
+        final ModuleDescriptorPipeline<String> pipeline = new ModuleDescriptorPipeline<String>(new ModuleDescriptorProcessor<String>() {
+            public String process(ModuleDescriptors descriptors) throws Exception {
+                final String fileName = descriptors.getModule().getFileName();
+                if (fileName.equals(second))
+                    throw new IllegalStateException(second);
+                if (fileName.equals(first)) {
+                    // let the second failure happen first
+                    Thread.sleep(100);
+                    throw new IOException(first);
+                }
+                return fileName;
+            }
+        }, executor, 4);
+
+        try {
+            pipeline.process(ear, contentProvider, PropertyReplacers.noop());
+            fail("Expected a ModuleDescriptorException");
+        } catch (ModuleDescriptorException e) {
+            assertEquals(first, e.getFileName());
+            assertEquals(IOException.class, e.getCause().getClass());
+            assertEquals(1, e.getSuppressed().length);
+            assertEquals(second, ((ModuleDescriptorException) e.getSuppressed()[0]).getFileName());
+        }
+    }
+
+    @Test
+    public void testCallingThreadOnly() throws Exception {
+        final Thread caller = Thread.currentThread();
+        final ModuleDescriptorPipeline<String> pipeline = new ModuleDescriptorPipeline<String>(new ModuleDescriptorProcessor<String>() {
+            public String process(ModuleDescriptors descriptors) throws Exception {
+                assertSame(caller, Thread.currentThread());
+                return descriptors.getModule().getFileName();
+            }
+        }, executor, 1);
+        assertEquals(ear.getModules().size(), pipeline.process(ear, contentProvider, PropertyReplacers.noop()).size());
+    }
+
+    @Test
+    public void testBusyExecutor() throws Exception {
+        // the only thread of the executor is blocked, the submitted tasks stay queued
+        final ExecutorService busy = Executors.newSingleThreadExecutor();
+        final CountDownLatch blocked = new CountDownLatch(1);
+        try {
+            busy.execute(new Runnable() {
+                public void run() {
+                    try {
+                        blocked.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            final AtomicInteger processed = new AtomicInteger();
+            final ModuleDescriptorPipeline<String> pipeline = new ModuleDescriptorPipeline<String>(new ModuleDescriptorProcessor<String>() {
+                public String process(ModuleDescriptors descriptors) throws Exception {
+                    processed.incrementAndGet();
+                    return descriptors.getModule().getFileName();
+                }
+            }, busy, 3);
+            // the calling thread processes every module instead of waiting for the queued tasks to start
+            final Future<Map<String, String>> result = executor.submit(new Callable<Map<String, String>>() {
+                public Map<String, String> call() throws Exception {
+                    return pipeline.process(ear, contentProvider, PropertyReplacers.noop());
+                }
+            });
+            assertEquals(ear.getModules().size(), result.get(5, TimeUnit.SECONDS).size());
+
+            // the queued tasks find no modules left once they run
+            blocked.countDown();
+            busy.shutdown();
+            assertTrue(busy.awaitTermination(5, TimeUnit.SECONDS));
+            assertEquals(ear.getModules().size(), processed.get());
+        } finally {
+            blocked.countDown();
+            busy.shutdownNow();
+        }
+    }
+
+    private static String read(InputStream input) throws IOException {
+        try {
+            final byte[] buffer = new byte[256];
+            int length = 0;
+            int read;
+            while ((read = input.read(buffer, length, buffer.length - length)) > 0)
+                length += read;
+            return new String(Arrays.copyOf(buffer, length), "UTF-8");
+        } finally {
+            input.close();
+        }
+    }
+}
@@ -0,0 +1,331 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.metadata.ejb.jboss;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.jboss.metadata.ejb.spec.InterceptorBindingMetaData;
+import org.jboss.metadata.ejb.spec.InterceptorBindingsMetaData;
+import org.jboss.metadata.ejb.spec.InterceptorClassesMetaData;
+import org.jboss.metadata.ejb.spec.InterceptorMetaData;
+import org.jboss.metadata.ejb.spec.InterceptorsMetaData;
+import org.jboss.metadata.ejb.spec.MethodParametersMetaData;
+import org.jboss.metadata.ejb.spec.NamedMethodMetaData;
+
+/**
+ * The interceptor chains of the beans of a deployment, resolved from its interceptor bindings in one pass.
+ * <p/>
+ * The chain of a bean is made of the default interceptors, bound to ejb-name <code>*</code>, followed by
+ * the interceptors bound to the bean class, unless a class level binding excludes the default interceptors
+ * or names a total ordering. The chain of a business method continues with the interceptors bound to the
+ * method. Method level bindings can exclude the default and class interceptors for that method, or replace
+ * the whole chain with a total ordering. All lists are unmodifiable and the method chains are resolved once
+ * per method signature.
+ *
+ * @see JBossMetaData#getInterceptorChains()
+ */
+public class InterceptorChains {
+    /** The default interceptor classes */
+    private final List<String> defaultInterceptors;
+
+    /** The chains per bean */
+    private final Map<String, BeanChains> beans = new HashMap<String, BeanChains>();
+
+    /** The chains of beans without interceptor bindings */
+    private final BeanChains unbound;
+
+    /** The interceptors bound to beans by {@link JBossMetaData#getInterceptors(String, JBossMetaData)} */
+    private final Map<String, List<InterceptorMetaData>> boundInterceptors = new HashMap<String, List<InterceptorMetaData>>();
+
+    /** The default interceptors as returned with the bound interceptors */
+    private final List<InterceptorMetaData> boundDefaultInterceptors;
+
+    /** Whether a binding for all beans pulls in the default interceptors of every bean */
+    private final boolean includeDefaultInterceptors;
+
+    /** All interceptor classes */
+    private final Set<String> allInterceptorClasses;
+
+    InterceptorChains(InterceptorsMetaData interceptors, InterceptorBindingsMetaData bindings, Collection<String> allInterceptorClasses) {
+        final List<String> defaults = new ArrayList<String>();
+        final List<InterceptorMetaData> boundDefaults = new ArrayList<InterceptorMetaData>();
+        final Map<String, List<InterceptorBindingMetaData>> bindingsByBean = new HashMap<String, List<InterceptorBindingMetaData>>();
+        boolean includeDefaults = false;
+        if (bindings != null) {
+            for (InterceptorBindingMetaData binding : bindings) {
+                if (binding == null || binding.getEjbName() == null)
+                    continue;
+                if (binding.getEjbName().equals("*")) {
+                    final InterceptorClassesMetaData classes = getClasses(binding);
+                    if (classes == null || classes.isEmpty())
+                        continue;
+                    if (binding.isExcludeDefaultInterceptors() == false)
+                        includeDefaults = true;
+                    defaults.addAll(classes);
+                    addInterceptors(boundDefaults, classes, interceptors);
+                } else {
+                    List<InterceptorBindingMetaData> beanBindings = bindingsByBean.get(binding.getEjbName());
+                    if (beanBindings == null) {
+                        beanBindings = new ArrayList<InterceptorBindingMetaData>();
+                        bindingsByBean.put(binding.getEjbName(), beanBindings);
+                    }
+                    beanBindings.add(binding);
+                }
+            }
+        }
+        this.defaultInterceptors = Collections.unmodifiableList(defaults);
+        this.boundDefaultInterceptors = boundDefaults;
+        this.includeDefaultInterceptors = includeDefaults;
+        this.unbound = new BeanChains(defaultInterceptors, Collections.<InterceptorBindingMetaData>emptyList());
+        for (Map.Entry<String, List<InterceptorBindingMetaData>> entry : bindingsByBean.entrySet()) {
+            beans.put(entry.getKey(), new BeanChains(defaultInterceptors, entry.getValue()));
+            final List<InterceptorMetaData> bound = new ArrayList<InterceptorMetaData>();
+            for (InterceptorBindingMetaData binding : entry.getValue())
+                addInterceptors(bound, getClasses(binding), interceptors);
+            boundInterceptors.put(entry.getKey(), bound);
+        }
+        this.allInterceptorClasses = Collections.unmodifiableSet(new HashSet<String>(allInterceptorClasses));
+    }
+
+    /**
+     * Get the default interceptors.
+     *
+     * @return the default interceptor classes
+     */
+    public List<String> getDefaultInterceptors() {
+        return defaultInterceptors;
+    }
+
+    /**
+     * Get the interceptor chain of a bean, which applies to its lifecycle callbacks and is the start of the
+     * chain of its business methods.
+     *
+     * @param ejbName the ejb name
+     * @return the interceptor classes in invocation order
+     */
+    public List<String> getClassInterceptors(String ejbName) {
+        return getBeanChains(ejbName).classChain;
+    }
+
+    /**
+     * Get the interceptor chain of a business method of a bean.
+     *
+     * @param ejbName    the ejb name
+     * @param methodName the method name
+     * @param params     the parameter types as written in descriptors, may be null
+     * @return the interceptor classes in invocation order
+     * @see MethodParametersMetaData#getParameterTypeNames(Class[])
+     */
+    public List<String> getMethodInterceptors(String ejbName, String methodName, String[] params) {
+        if (methodName == null)
+            throw new IllegalArgumentException("Null methodName");
+        return getBeanChains(ejbName).getMethodChain(methodName, params);
+    }
+
+    /**
+     * Get all interceptor classes of the deployment.
+     *
+     * @return the interceptor classes
+     * @see JBossMetaData#getAllInterceptorClasses(JBossMetaData)
+     */
+    public Set<String> getAllInterceptorClasses() {
+        return allInterceptorClasses;
+    }
+
+    /**
+     * Get the interceptors as returned by {@link JBossMetaData#getInterceptors(String, JBossMetaData)}: the ones
+     * named by any binding of the bean, followed by the default interceptors unless all bindings of the bean
+     * and for all beans exclude them.
+     *
+     * @param ejbName the ejb name
+     * @return a new interceptors metadata
+     */
+    InterceptorsMetaData getBoundInterceptors(String ejbName) {
+        final InterceptorsMetaData result = new InterceptorsMetaData();
+        final List<InterceptorMetaData> bound = ejbName != null ? boundInterceptors.get(ejbName) : null;
+        boolean includeDefaults = includeDefaultInterceptors;
+        if (bound != null) {
+            for (InterceptorMetaData interceptor : bound)
+                result.add(interceptor);
+            for (InterceptorBindingMetaData binding : beans.get(ejbName).bindings) {
+                if (binding.isExcludeDefaultInterceptors() == false)
+                    includeDefaults = true;
+            }
+        }
+        if (includeDefaults) {
+            for (InterceptorMetaData interceptor : boundDefaultInterceptors)
+                result.add(interceptor);
+        }
+        return result;
+    }
+
+    private BeanChains getBeanChains(String ejbName) {
+        if (ejbName == null)
+            throw new IllegalArgumentException("Null ejbName");
+        final BeanChains chains = beans.get(ejbName);
+        return chains != null ? chains : unbound;
+    }
+
+    private static InterceptorClassesMetaData getClasses(InterceptorBindingMetaData binding) {
+        return binding.isTotalOrdering() ? binding.getInterceptorOrder() : binding.getInterceptorClasses();
+    }
+
+    private static void addInterceptors(List<InterceptorMetaData> target, InterceptorClassesMetaData classes, InterceptorsMetaData interceptors) {
+        if (classes == null || interceptors == null)
+            return;
+        for (String interceptorClass : classes) {
+            // interceptors without metadata are ignored, as they always have been
+            final InterceptorMetaData interceptor = interceptors.get(interceptorClass);
+            if (interceptor != null)
+                target.add(interceptor);
+        }
+    }
+
+    private static final class BeanChains {
+        /** The bindings of the bean */
+        private final List<InterceptorBindingMetaData> bindings;
+
+        /** The default interceptors, if not excluded at class level */
+        private final List<String> defaultInterceptors;
+
+        /** The class level interceptors without the default ones */
+        private final List<String> classInterceptors;
+
+        /** The class level chain */
+        private final List<String> classChain;
+
+        /** Whether a class level total ordering replaced the default and class interceptors */
+        private final boolean classOrdering;
+
+        /** The method level bindings by method name */
+        private final Map<String, List<InterceptorBindingMetaData>> methodBindings = new HashMap<String, List<InterceptorBindingMetaData>>();
+
+        /** The resolved method chains by signature */
+        private final ConcurrentMap<String, List<String>> methodChains = new ConcurrentHashMap<String, List<String>>();
+
+        BeanChains(List<String> defaults, List<InterceptorBindingMetaData> bindings) {
+            this.bindings = bindings;
+            boolean excludeDefaults = false;
+            List<String> order = null;
+            final List<String> classes = new ArrayList<String>();
+            for (InterceptorBindingMetaData binding : bindings) {
+                final NamedMethodMetaData method = binding.getMethod();
+                if (method != null && method.getMethodName() != null) {
+                    List<InterceptorBindingMetaData> named = methodBindings.get(method.getMethodName());
+                    if (named == null) {
+                        named = new ArrayList<InterceptorBindingMetaData>(1);
+                        methodBindings.put(method.getMethodName(), named);
+                    }
+                    named.add(binding);
+                    continue;
+                }
+                if (binding.isExcludeDefaultInterceptors())
+                    excludeDefaults = true;
+                if (binding.isTotalOrdering())
+                    order = binding.getInterceptorOrder();
+                else if (binding.getInterceptorClasses() != null)
+                    classes.addAll(binding.getInterceptorClasses());
+            }
+            this.defaultInterceptors = excludeDefaults ? Collections.<String>emptyList() : defaults;
+            this.classInterceptors = Collections.unmodifiableList(classes);
+            this.classOrdering = order != null;
+            if (order != null) {
+                classChain = Collections.unmodifiableList(new ArrayList<String>(order));
+            } else {
+                final List<String> chain = new ArrayList<String>(defaultInterceptors);
+                chain.addAll(classInterceptors);
+                classChain = Collections.unmodifiableList(chain);
+            }
+        }
+
+        List<String> getMethodChain(String methodName, String[] params) {
+            final List<InterceptorBindingMetaData> named = methodBindings.get(methodName);
+            if (named == null)
+                return classChain;
+
+            final String signature = signature(methodName, params);
+            List<String> chain = methodChains.get(signature);
+            if (chain != null)
+                return chain;
+
+            boolean excludeDefaults = false;
+            boolean excludeClass = false;
+            List<String> order = null;
+            final List<String> methodInterceptors = new ArrayList<String>();
+            boolean matched = false;
+            for (InterceptorBindingMetaData binding : named) {
+                if (binding.getMethod().matches(methodName, params) == false)
+                    continue;
+                matched = true;
+                if (binding.isExcludeDefaultInterceptors())
+                    excludeDefaults = true;
+                if (binding.isExcludeClassInterceptors())
+                    excludeClass = true;
+                if (binding.isTotalOrdering())
+                    order = binding.getInterceptorOrder();
+                else if (binding.getInterceptorClasses() != null)
+                    methodInterceptors.addAll(binding.getInterceptorClasses());
+            }
+            if (matched == false) {
+                chain = classChain;
+            } else if (order != null) {
+                chain = Collections.unmodifiableList(new ArrayList<String>(order));
+            } else {
+                final List<String> resolved = new ArrayList<String>();
+                if (classOrdering && excludeDefaults == false && excludeClass == false) {
+                    resolved.addAll(classChain);
+                } else {
+                    if (excludeDefaults == false)
+                        resolved.addAll(defaultInterceptors);
+                    if (excludeClass == false)
+                        resolved.addAll(classOrdering ? classChain : classInterceptors);
+                }
+                resolved.addAll(methodInterceptors);
+                chain = Collections.unmodifiableList(resolved);
+            }
+            final List<String> previous = methodChains.putIfAbsent(signature, chain);
+            return previous != null ? previous : chain;
+        }
+
+        private static String signature(String methodName, String[] params) {
+            if (params == null)
+                return methodName;
+            final StringBuilder signature = new StringBuilder(methodName).append('(');
+            for (int i = 0; i < params.length; i++) {
+                if (i > 0)
+                    signature.append(',');
+                signature.append(params[i]);
+            }
+            return signature.append(')').toString();
+        }
+    }
+}
@@ -26,6 +26,7 @@ import java.util.Map;
 import java.util.Set;
 
 import org.jboss.metadata.common.ejb.IAssemblyDescriptorMetaData;
+import org.jboss.metadata.ejb.spec.ApplicationExceptionMetaData;
 import org.jboss.metadata.ejb.spec.ApplicationExceptionsMetaData;
 import org.jboss.metadata.ejb.spec.AssemblyDescriptorMetaData;
 import org.jboss.metadata.ejb.spec.ContainerTransactionsMetaData;
@@ -274,20 +275,31 @@ public class JBossAssemblyDescriptorMetaData extends IdMetaDataImpl
         this.applicationExceptions = applicationExceptions;
     }
 
+    /**
+     * Get the application exception that applies to an exception class.
+     *
+     * @param exceptionClass the exception class
+     * @return the application exception or null if the class is not an application exception
+     * @see ApplicationExceptionsMetaData#getApplicationException(Class)
+     */
+    public ApplicationExceptionMetaData getApplicationException(Class<? extends Throwable> exceptionClass) {
+        if (applicationExceptions == null)
+            return null;
+        return applicationExceptions.getApplicationException(exceptionClass);
+    }
+
 
     /**
      * Get a security role's principals
      *
      * @param name the role name
-     * @return the security role principals or null if not found
+     * @return the read only security role principals or null if not found
+     * @see SecurityRolesMetaData#getPrincipalsByRoleName(String)
      */
     public Set<String> getSecurityRolePrincipals(String name) {
         if (securityRoles == null)
             return null;
-        SecurityRoleMetaData securityRole = securityRoles.get(name);
-        if (securityRole == null)
-            return null;
-        return securityRole.getPrincipals();
+        return securityRoles.getPrincipalsByRoleName(name);
     }
 
     /**
@@ -27,24 +27,25 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.ejb.TransactionAttributeType;
 import javax.ejb.TransactionManagementType;
 
 import org.jboss.metadata.common.ejb.IEnterpriseBeanMetaData;
-import org.jboss.metadata.ejb.spec.ContainerTransactionMetaData;
 import org.jboss.metadata.ejb.spec.ContainerTransactionsMetaData;
 import org.jboss.metadata.ejb.spec.EnterpriseBeanMetaData;
 import org.jboss.metadata.ejb.spec.EntityBeanMetaData;
 import org.jboss.metadata.ejb.spec.ExcludeListMetaData;
 import org.jboss.metadata.ejb.spec.MessageDrivenBeanMetaData;
 import org.jboss.metadata.ejb.spec.MethodInterfaceType;
-import org.jboss.metadata.ejb.spec.MethodMetaData;
 import org.jboss.metadata.ejb.spec.MethodPermissionMetaData;
 import org.jboss.metadata.ejb.spec.MethodPermissionsMetaData;
+import org.jboss.metadata.ejb.spec.MethodSignature;
 import org.jboss.metadata.ejb.spec.SecurityIdentityMetaData;
 import org.jboss.metadata.ejb.spec.SessionBean31MetaData;
 import org.jboss.metadata.ejb.spec.SessionBeanMetaData;
+import org.jboss.metadata.ejb.spec.TransactionAttributeResolver;
 import org.jboss.metadata.javaee.jboss.AnnotationsMetaData;
 import org.jboss.metadata.javaee.jboss.IgnoreDependencyMetaData;
 import org.jboss.metadata.javaee.jboss.JndiRefsMetaData;
@@ -221,9 +222,20 @@ public abstract class JBossEnterpriseBeanMetaData extends NamedMetaDataWithDescr
     private transient ContainerTransactionsMetaData cachedContainerTransactions;
 
     /**
-     * The transaction type cache
+     * The transaction attributes compiled from the container transactions, set when frozen
      */
-    private transient ConcurrentHashMap<Method, TransactionAttributeType> methodTx;
+    private transient volatile TransactionAttributeResolver transactionAttributeResolver;
+
+    /**
+     * The method permissions cache, set when frozen
+     */
+    private transient volatile MethodPermissionsIndex methodPermissionsIndex;
+
+    /**
+     * The method invocation tables, one map of views per interface type and a last one for no interface type, set
+     * when frozen
+     */
+    private transient volatile ConcurrentMap<Class<?>, MethodInvocationTable>[] methodInvocationTables;
     /**
      * The transaction type
      */
@@ -392,27 +404,10 @@ public abstract class JBossEnterpriseBeanMetaData extends NamedMetaDataWithDescr
      * @return the method transaction type
      */
     public TransactionAttributeType getMethodTransactionType(String methodName, Class<?>[] params, MethodInterfaceType iface) {
-        // default value
-        TransactionAttributeType result = null;
-
-        ContainerTransactionsMetaData containerTransactions = getContainerTransactions();
-        if (containerTransactions == null || containerTransactions.isEmpty())
-            return result;
-
-        ContainerTransactionMetaData bestMatchTransaction = null;
-        MethodMetaData bestMatch = null;
-        for (ContainerTransactionMetaData transaction : containerTransactions) {
-            MethodMetaData match = transaction.bestMatch(methodName, params, iface, bestMatch);
-            if (match != bestMatch) {
-                bestMatchTransaction = transaction;
-                bestMatch = match;
-            }
-        }
-
-        if (bestMatchTransaction != null)
-            result = bestMatchTransaction.getTransAttribute();
-
-        return result;
+        final TransactionAttributeResolver resolver = getTransactionAttributeResolver();
+        if (resolver == null)
+            return null;
+        return resolver.resolve(methodName, params, iface);
     }
 
     /**
@@ -426,23 +421,30 @@ public abstract class JBossEnterpriseBeanMetaData extends NamedMetaDataWithDescr
         if (m == null)
             return TransactionAttributeType.SUPPORTS;
 
-        TransactionAttributeType result = null;
-        if (methodTx != null) {
-            result = methodTx.get(m);
-            if (result != null)
-                return result;
-        }
-
-        result = getMethodTransactionType(m.getName(), m.getParameterTypes(), iface);
-
-        // provide default if method is not found in descriptor
-        if (result == null)
-            result = TransactionAttributeType.REQUIRED;
+        final TransactionAttributeResolver resolver = getTransactionAttributeResolver();
+        // provide default if there are no container transactions
+        if (resolver == null)
+            return TransactionAttributeType.REQUIRED;
+        return resolver.getTransactionAttribute(m, iface);
+    }
 
-        if (methodTx == null)
-            methodTx = new ConcurrentHashMap<Method, TransactionAttributeType>();
-        methodTx.put(m, result);
-        return result;
+    /**
+     * Get the transaction attributes of this bean. Once the bean is frozen they are compiled only once, before that
+     * the container transactions of the assembly descriptor keep them until they change.
+     *
+     * @return the transaction attribute resolver or null if there are no container transactions
+     */
+    private TransactionAttributeResolver getTransactionAttributeResolver() {
+        final TransactionAttributeResolver resolver = this.transactionAttributeResolver;
+        if (resolver != null)
+            return resolver;
+        JBossAssemblyDescriptorMetaData assemblyDescriptor = getAssemblyDescriptor();
+        if (assemblyDescriptor == null)
+            return null;
+        ContainerTransactionsMetaData containerTransactions = assemblyDescriptor.getContainerTransactions();
+        if (containerTransactions == null)
+            return null;
+        return containerTransactions.getTransactionAttributeResolver(getEjbName());
     }
 
     /**
@@ -1200,13 +1202,15 @@ public abstract class JBossEnterpriseBeanMetaData extends NamedMetaDataWithDescr
      */
     public Set<String> getMethodPermissions(String methodName, Class<?>[] params, MethodInterfaceType interfaceType) {
         Set<String> result = null;
+        // convert the parameter types once for all the matching below
+        final MethodSignature signature = MethodSignature.of(methodName, params);
 
         JBossMetaData jbossMetaData = getJBossMetaDataWithCheck();
 
         // First check the excluded method list as this takes priority over
         // all other assignments
         ExcludeListMetaData excluded = getExcludeList();
-        if (excluded != null && excluded.matches(methodName, params, interfaceType)) {
+        if (excluded != null && excluded.matches(signature, interfaceType)) {
             // No one is allowed to execute this method so add a role that
             // fails to equate to any Principal or Principal name and return.
             // We don't return null to differentiate between an explicit
@@ -1221,13 +1225,13 @@ public abstract class JBossEnterpriseBeanMetaData extends NamedMetaDataWithDescr
         MethodPermissionsMetaData permissions = getMethodPermissions();
         if (permissions != null) {
             for (MethodPermissionMetaData permission : permissions) {
-                if (permission.isNotChecked(methodName, params, interfaceType)) {
+                if (permission.isNotChecked(signature, interfaceType)) {
                     if (result == null)
                         result = new HashSet<String>();
                     result.clear();
                     result.add(SecurityRoleNames.ANYBODY_PRINCIPAL);
                     break;
-                } else if (permission.matches(methodName, params, interfaceType)) {
+                } else if (permission.matches(signature, interfaceType)) {
                     Set<String> roles = permission.getRoles();
                     if (roles != null) {
                         if (result == null)
@@ -1258,6 +1262,27 @@ public abstract class JBossEnterpriseBeanMetaData extends NamedMetaDataWithDescr
         return result;
     }
 
+    /**
+     * Get the roles that have been assigned permission to execute a method. The roles are resolved as by
+     * {@link #getMethodPermissions(String, Class[], MethodInterfaceType)}. Once the bean is frozen they are
+     * resolved the first time a method is seen, later calls for the same method and interface type return the
+     * same set.
+     *
+     * @param method        the method
+     * @param interfaceType the interface type
+     * @return the unmodifiable set of roles caller principals are to be validated against
+     * @throws IllegalArgumentException for a null method
+     */
+    public Set<String> getMethodPermissions(Method method, MethodInterfaceType interfaceType) {
+        if (method == null)
+            throw new IllegalArgumentException("Null method");
+
+        final MethodPermissionsIndex index = this.methodPermissionsIndex;
+        if (index != null)
+            return index.getRoles(method, interfaceType);
+        return Collections.unmodifiableSet(getMethodPermissions(method.getName(), method.getParameterTypes(), interfaceType));
+    }
+
     /**
      * Check to see if there was a method-permission or exclude-list statement
      * for the given method.
@@ -1268,17 +1293,19 @@ public abstract class JBossEnterpriseBeanMetaData extends NamedMetaDataWithDescr
      * @return true if a matching method permission exists, false if no match
      */
     public boolean hasMethodPermissions(String methodName, Class<?>[] params, MethodInterfaceType interfaceType) {
+        // convert the parameter types once for all the matching below
+        final MethodSignature signature = MethodSignature.of(methodName, params);
         // First check the excluded method list as this takes priority over
         // all other assignments
         ExcludeListMetaData excluded = getExcludeList();
-        if (excluded != null && excluded.matches(methodName, params, interfaceType))
+        if (excluded != null && excluded.matches(signature, interfaceType))
             return true;
 
         // Check the permissioned methods list
         MethodPermissionsMetaData permissions = getMethodPermissions();
         if (permissions != null) {
             for (MethodPermissionMetaData permission : permissions) {
-                if (permission.matches(methodName, params, interfaceType))
+                if (permission.matches(signature, interfaceType))
                     return true;
             }
         }
@@ -1398,6 +1425,54 @@ public abstract class JBossEnterpriseBeanMetaData extends NamedMetaDataWithDescr
         return getMethodTransactionTimeout(method.getName());
     }
 
+    /**
+     * Get the invocation metadata of the business methods of a view of this bean. The table is built from the
+     * container transactions, method attributes and method permissions of the bean. Once the bean is frozen it
+     * is built only the first time it is asked for, before that on every call.
+     *
+     * @param view          the view class
+     * @param interfaceType the interface type of the view
+     * @return the method invocation table
+     * @throws IllegalArgumentException for a null view
+     */
+    public MethodInvocationTable getMethodInvocationTable(Class<?> view, MethodInterfaceType interfaceType) {
+        if (view == null)
+            throw new IllegalArgumentException("Null view");
+
+        final ConcurrentMap<Class<?>, MethodInvocationTable>[] tables = this.methodInvocationTables;
+        if (tables == null)
+            return new MethodInvocationTable(this, view, interfaceType);
+        final ConcurrentMap<Class<?>, MethodInvocationTable> views = tables[interfaceType != null ? interfaceType.ordinal() : tables.length - 1];
+        MethodInvocationTable table = views.get(view);
+        if (table == null) {
+            table = new MethodInvocationTable(this, view, interfaceType);
+            final MethodInvocationTable previous = views.putIfAbsent(view, table);
+            if (previous != null)
+                table = previous;
+        }
+        return table;
+    }
+
+    /**
+     * Resolve the invocation metadata of a method for a {@link MethodInvocationTable}.
+     *
+     * @param method        the method
+     * @param interfaceType the interface type
+     * @return the invocation metadata
+     */
+    protected MethodInvocationMetaData createMethodInvocation(Method method, MethodInterfaceType interfaceType) {
+        return new MethodInvocationMetaData(method, getMethodTransactionType(method, interfaceType),
+                getMethodTransactionTimeout(method), isMethodReadOnly(method), getMethodPermissions(method, interfaceType));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ConcurrentMap<Class<?>, MethodInvocationTable>[] newMethodInvocationTables() {
+        final ConcurrentMap<Class<?>, MethodInvocationTable>[] tables = new ConcurrentMap[MethodInterfaceType.values().length + 1];
+        for (int i = 0; i < tables.length; i++)
+            tables[i] = new ConcurrentHashMap<Class<?>, MethodInvocationTable>();
+        return tables;
+    }
+
     /**
      * Get the securityIdentity.
      *
@@ -1407,6 +1482,35 @@ public abstract class JBossEnterpriseBeanMetaData extends NamedMetaDataWithDescr
         return securityIdentity;
     }
 
+    /**
+     * Prepare this bean for being read by any number of threads at the same time, once it is no longer modified.
+     * The container transactions of the bean are resolved once instead of on every lookup, the method
+     * attributes are frozen and the transaction attributes and method permission cache are set up.
+     *
+     * @see JBossMetaData#freeze()
+     */
+    public void freeze() {
+        cachedContainerTransactions = getContainerTransactions();
+        if (methodAttributes != null)
+            methodAttributes.freeze();
+        transactionAttributeResolver = new TransactionAttributeResolver(cachedContainerTransactions);
+        if (methodPermissionsIndex == null)
+            methodPermissionsIndex = new MethodPermissionsIndex(this);
+        if (methodInvocationTables == null)
+            methodInvocationTables = newMethodInvocationTables();
+    }
+
+    @Override
+    public JBossEnterpriseBeanMetaData clone() {
+        final JBossEnterpriseBeanMetaData clone = (JBossEnterpriseBeanMetaData) super.clone();
+        // the caches were built for this bean, the clone builds its own
+        clone.cachedContainerTransactions = null;
+        clone.transactionAttributeResolver = null;
+        clone.methodPermissionsIndex = null;
+        clone.methodInvocationTables = null;
+        return clone;
+    }
+
     /**
      * Set the securityIdentity.
      *
@@ -21,6 +21,11 @@
  */
 package org.jboss.metadata.ejb.jboss;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 import org.jboss.metadata.ejb.spec.AbstractEnterpriseBeanMetaData;
 import org.jboss.metadata.ejb.spec.EnterpriseBeanMetaData;
 import org.jboss.metadata.ejb.spec.EnterpriseBeansMap;
@@ -108,44 +113,43 @@ public class JBossEnterpriseBeansMetaData
      */
     public void merge(JBossEnterpriseBeansMetaData override, EnterpriseBeansMetaData original,
                       String overridenFile, String overrideFile, boolean mustOverride) {
+        merge(override, original, overridenFile, overrideFile, mustOverride, null);
+    }
+
+    /**
+     * Merge override + original into this, merging the beans in the given pool. The merged beans are added
+     * in the order of the original beans once all of them are merged, so the result is the same as the one of a
+     * sequential merge. If merging a bean fails, the beans before it are added and the first failure is thrown.
+     *
+     * @param override
+     * @param original
+     * @param pool     the pool to merge the beans in, or null to merge them on the calling thread
+     */
+    public void merge(JBossEnterpriseBeansMetaData override, EnterpriseBeansMetaData original,
+                      String overridenFile, String overrideFile, boolean mustOverride, ForkJoinPool pool) {
         IdMetaDataImplMerger.merge(this, override, original);
         // Add all override beans
         if (original == null && override != null)
             addAll(override);
             // Merge original beans with this
         else if (original != null) {
-            for (AbstractEnterpriseBeanMetaData ejb : original) {
-                JBossEnterpriseBeanMetaData mergedEJB = null;
-                // First look for an override JBossEnterpriseBeanMetaData
-                JBossEnterpriseBeanMetaData jejb = null;
-                if (override != null)
-                    jejb = override.get(ejb.getEjbName());
-                // Then to an existing one in this
-                mergedEJB = get(ejb.getEjbName());
-                // Check for a generic bean that maps to a session bean
-                if (jejb instanceof JBossGenericBeanMetaData) {
-                    JBossGenericBeanMetaData gejb = (JBossGenericBeanMetaData) jejb;
-                    if (ejb.isSession()) {
-                        mergedEJB = new JBossSessionBean31MetaData();
-                        jejb = new JBossSessionGenericWrapper(gejb);
-                    } else if (ejb.isMessageDriven()) {
-                        mergedEJB = new JBossMessageDrivenBeanMetaData();
-                        jejb = new JBossMessageDrivenBeanGenericWrapper(gejb);
-                    } else { // must be entity
-                        mergedEJB = new JBossEntityBeanMetaData();
-                        jejb = new JBossEntityGenericWrapper(gejb);
-                    }
+            final List<AbstractEnterpriseBeanMetaData> originalBeans = new ArrayList<AbstractEnterpriseBeanMetaData>(original);
+            if (pool == null || originalBeans.size() < 2) {
+                for (AbstractEnterpriseBeanMetaData ejb : originalBeans)
+                    this.add(mergeBean(override, ejb, overridenFile, overrideFile, mustOverride));
+            } else {
+                final BeanMerges merges = new BeanMerges(override, originalBeans, overridenFile, overrideFile, mustOverride);
+                pool.invoke(new BeanMerge(merges, 0, originalBeans.size()));
+                for (int i = 0; i < originalBeans.size(); i++) {
+                    final Throwable failure = merges.failures[i];
+                    if (failure instanceof RuntimeException)
+                        throw (RuntimeException) failure;
+                    if (failure instanceof Error)
+                        throw (Error) failure;
+                    if (failure != null)
+                        throw new IllegalStateException("Failed to merge " + originalBeans.get(i).getEjbName(), failure);
+                    this.add(merges.merged[i]);
                 }
-
-                if (mergedEJB == null) {
-                    if (jejb != null)
-                        mergedEJB = (JBossEnterpriseBeanMetaData) jejb.clone();
-                    else
-                        mergedEJB = JBossEnterpriseBeanMetaData.newBean(ejb);
-                }
-                mergedEJB.setEnterpriseBeansMetaData(this);
-                mergedEJB.merge(jejb, ejb, overridenFile, overrideFile, mustOverride);
-                this.add(mergedEJB);
             }
 
             // Add any beans only declared in the override
@@ -166,6 +170,104 @@ public class JBossEnterpriseBeansMetaData
         }
     }
 
+    private JBossEnterpriseBeanMetaData mergeBean(JBossEnterpriseBeansMetaData override, AbstractEnterpriseBeanMetaData ejb,
+                                                  String overridenFile, String overrideFile, boolean mustOverride) {
+        JBossEnterpriseBeanMetaData mergedEJB = null;
+        // First look for an override JBossEnterpriseBeanMetaData
+        JBossEnterpriseBeanMetaData jejb = null;
+        if (override != null)
+            jejb = override.get(ejb.getEjbName());
+        // Then to an existing one in this
+        mergedEJB = get(ejb.getEjbName());
+        // Check for a generic bean that maps to a session bean
+        if (jejb instanceof JBossGenericBeanMetaData) {
+            JBossGenericBeanMetaData gejb = (JBossGenericBeanMetaData) jejb;
+            if (ejb.isSession()) {
+                mergedEJB = new JBossSessionBean31MetaData();
+                jejb = new JBossSessionGenericWrapper(gejb);
+            } else if (ejb.isMessageDriven()) {
+                mergedEJB = new JBossMessageDrivenBeanMetaData();
+                jejb = new JBossMessageDrivenBeanGenericWrapper(gejb);
+            } else { // must be entity
+                mergedEJB = new JBossEntityBeanMetaData();
+                jejb = new JBossEntityGenericWrapper(gejb);
+            }
+        }
+
+        if (mergedEJB == null) {
+            if (jejb != null)
+                mergedEJB = (JBossEnterpriseBeanMetaData) jejb.clone();
+            else
+                mergedEJB = JBossEnterpriseBeanMetaData.newBean(ejb);
+        }
+        mergedEJB.setEnterpriseBeansMetaData(this);
+        mergedEJB.merge(jejb, ejb, overridenFile, overrideFile, mustOverride);
+        return mergedEJB;
+    }
+
+    /**
+     * The per bean merges of a parallel merge and their results, by position of the original bean.
+     */
+    private final class BeanMerges {
+        private final JBossEnterpriseBeansMetaData override;
+        private final List<AbstractEnterpriseBeanMetaData> originalBeans;
+        private final String overridenFile;
+        private final String overrideFile;
+        private final boolean mustOverride;
+        private final JBossEnterpriseBeanMetaData[] merged;
+        private final Throwable[] failures;
+
+        BeanMerges(JBossEnterpriseBeansMetaData override, List<AbstractEnterpriseBeanMetaData> originalBeans,
+                   String overridenFile, String overrideFile, boolean mustOverride) {
+            this.override = override;
+            this.originalBeans = originalBeans;
+            this.overridenFile = overridenFile;
+            this.overrideFile = overrideFile;
+            this.mustOverride = mustOverride;
+            this.merged = new JBossEnterpriseBeanMetaData[originalBeans.size()];
+            this.failures = new Throwable[originalBeans.size()];
+        }
+
+        void merge(int index) {
+            try {
+                merged[index] = mergeBean(override, originalBeans.get(index), overridenFile, overrideFile, mustOverride);
+            } catch (Throwable t) {
+                failures[index] = t;
+            }
+        }
+    }
+
+    /**
+     * Merges a range of beans, splitting it until it is small enough.
+     */
+    private static final class BeanMerge extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        /** The number of beans merged by a single task */
+        private static final int THRESHOLD = 16;
+
+        private final transient BeanMerges merges;
+        private final int from;
+        private final int to;
+
+        BeanMerge(BeanMerges merges, int from, int to) {
+            this.merges = merges;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= THRESHOLD) {
+                for (int i = from; i < to; i++)
+                    merges.merge(i);
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(new BeanMerge(merges, from, middle), new BeanMerge(merges, middle, to));
+        }
+    }
+
     public void merge(JBossEnterpriseBeansMetaData override, JBossEnterpriseBeansMetaData original) {
         IdMetaDataImplMerger.merge(this, override, original);
 
@@ -292,6 +292,11 @@ class JBossEntityGenericWrapper extends JBossEntityBeanMetaData {
         return delegate.getMethodPermissions(methodName, params, interfaceType);
     }
 
+    @Override
+    public Set<String> getMethodPermissions(Method method, MethodInterfaceType interfaceType) {
+        return delegate.getMethodPermissions(method, interfaceType);
+    }
+
     @Override
     public int getMethodTransactionTimeout(Method method) {
         return delegate.getMethodTransactionTimeout(method);
@@ -260,6 +260,10 @@ public class JBossMessageDrivenBeanGenericWrapper extends JBossMessageDrivenBean
         return delegate.getMethodPermissions(methodName, params, interfaceType);
     }
 
+    public Set<String> getMethodPermissions(Method method, MethodInterfaceType interfaceType) {
+        return delegate.getMethodPermissions(method, interfaceType);
+    }
+
     public int getMethodTransactionTimeout(Method method) {
         return delegate.getMethodTransactionTimeout(method);
     }
@@ -22,10 +22,14 @@
 package org.jboss.metadata.ejb.jboss;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.interceptor.Interceptors;
 
@@ -166,8 +170,19 @@ public class JBossMetaData extends NamedModuleImpl
      * The interceptors
      */
     private InterceptorsMetaData interceptors;
+
+    /**
+     * Whether this metadata is frozen
+     */
+    private boolean frozen;
+
+    /**
+     * The interceptor chains, resolved when frozen
+     */
+    private transient volatile InterceptorChains interceptorChains;
+
     /** */
-    private Map<String, RunAsIdentityMetaData> runAsIdentity = new HashMap<String, RunAsIdentityMetaData>();
+    private Map<String, RunAsIdentityMetaData> runAsIdentity = new ConcurrentHashMap<String, RunAsIdentityMetaData>();
     /**
      * Is this a complete metadata description
      */
@@ -235,6 +250,7 @@ public class JBossMetaData extends NamedModuleImpl
             throw new IllegalArgumentException("Cannot set null InterceptorsMetaData");
         }
         this.interceptors = interceptors;
+        this.interceptorChains = null;
     }
 
     /**
@@ -472,6 +488,7 @@ public class JBossMetaData extends NamedModuleImpl
             throw new IllegalArgumentException("Null enterpriseBeans");
         this.enterpriseBeans = enterpriseBeans;
         this.enterpriseBeans.setJBossMetaData(this);
+        this.interceptorChains = null;
     }
 
     /**
@@ -626,6 +643,7 @@ public class JBossMetaData extends NamedModuleImpl
         if (assemblyDescriptor == null)
             throw new IllegalArgumentException("Null assemblyDescriptor");
         this.assemblyDescriptor = assemblyDescriptor;
+        this.interceptorChains = null;
     }
 
     public String getJndiBindingPolicy() {
@@ -651,20 +669,22 @@ public class JBossMetaData extends NamedModuleImpl
      * @return RunAsIdentity for the servet if one exists, null otherwise
      */
     public RunAsIdentityMetaData getRunAsIdentity(String ejbName) {
+        if (ejbName == null)
+            return null;
         RunAsIdentityMetaData identity = runAsIdentity.get(ejbName);
         if (identity == null) {
             JBossEnterpriseBeanMetaData ejb = this.getEnterpriseBean(ejbName);
-            if (ejb != null) {
+            if (ejb != null && !frozen) {
                 // Check for a ejb-jar.xml run-as only specification
-                synchronized (runAsIdentity) {
-                    SecurityIdentityMetaData si = ejb.getSecurityIdentity();
-                    if (si != null) {
-                        RunAsMetaData runAs = si.getRunAs();
-                        if (runAs != null) {
-                            String roleName = runAs.getRoleName();
-                            identity = new RunAsIdentityMetaData(roleName, null);
-                            runAsIdentity.put(ejbName, identity);
-                        }
+                SecurityIdentityMetaData si = ejb.getSecurityIdentity();
+                if (si != null) {
+                    RunAsMetaData runAs = si.getRunAs();
+                    if (runAs != null) {
+                        String roleName = runAs.getRoleName();
+                        identity = new RunAsIdentityMetaData(roleName, null);
+                        RunAsIdentityMetaData previous = ((ConcurrentMap<String, RunAsIdentityMetaData>) runAsIdentity).putIfAbsent(ejbName, identity);
+                        if (previous != null)
+                            identity = previous;
                     }
                 }
             }
@@ -672,6 +692,69 @@ public class JBossMetaData extends NamedModuleImpl
         return identity;
     }
 
+    /**
+     * Freeze this metadata once it has been merged, so that it can be read by any number of threads at the same time
+     * without locking. The run-as identities of all beans are resolved up front, the enterprise beans are frozen, and
+     * the beans, security roles, message destinations and application exceptions can no longer be added to or removed.
+     * The frozen metadata has to be published safely to the reading threads, for example through a volatile field or a
+     * concurrent collection.
+     */
+    public void freeze() {
+        if (frozen)
+            return;
+        if (enterpriseBeans != null) {
+            for (JBossEnterpriseBeanMetaData bean : enterpriseBeans) {
+                getRunAsIdentity(bean.getEjbName());
+                bean.freeze();
+            }
+            enterpriseBeans.freeze();
+        }
+        if (assemblyDescriptor != null) {
+            if (assemblyDescriptor.getSecurityRoles() != null)
+                assemblyDescriptor.getSecurityRoles().freeze();
+            if (assemblyDescriptor.getMessageDestinations() != null)
+                assemblyDescriptor.getMessageDestinations().freeze();
+            if (assemblyDescriptor.getApplicationExceptions() != null)
+                assemblyDescriptor.getApplicationExceptions().freeze();
+        }
+        runAsIdentity = Collections.unmodifiableMap(new HashMap<String, RunAsIdentityMetaData>(runAsIdentity));
+        frozen = true;
+        interceptorChains = createInterceptorChains();
+    }
+
+    /**
+     * Whether this metadata is frozen
+     *
+     * @return true when frozen
+     * @see #freeze()
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Get the interceptor chains of the beans. Once this metadata is frozen the chains are resolved only once,
+     * before that they are resolved from the current interceptors and bindings on every call.
+     *
+     * @return the interceptor chains
+     */
+    public InterceptorChains getInterceptorChains() {
+        if (frozen == false)
+            return createInterceptorChains();
+        InterceptorChains chains = interceptorChains;
+        if (chains == null) {
+            // a lost race only costs resolving the chains twice
+            chains = createInterceptorChains();
+            interceptorChains = chains;
+        }
+        return chains;
+    }
+
+    private InterceptorChains createInterceptorChains() {
+        final InterceptorBindingsMetaData bindings = assemblyDescriptor != null ? assemblyDescriptor.getInterceptorBindings() : null;
+        return new InterceptorChains(interceptors, bindings, collectInterceptorClasses(this));
+    }
+
     /**
      * Merge the contents of override with original into this.
      *
@@ -679,6 +762,20 @@ public class JBossMetaData extends NamedModuleImpl
      * @param original the original data
      */
     public void merge(JBossMetaData override, EjbJarMetaData original) {
+        merge(override, original, null);
+    }
+
+    /**
+     * Merge the contents of override with original into this, merging the enterprise beans in the given pool.
+     * The result is the same as the one of {@link #merge(JBossMetaData, EjbJarMetaData)}, the beans are merged
+     * in parallel and added in order once they are all merged.
+     *
+     * @param override data which overrides original
+     * @param original the original data
+     * @param pool     the pool to merge the enterprise beans in, or null to merge them on the calling thread
+     * @see JBossEnterpriseBeansMetaData#merge(JBossEnterpriseBeansMetaData, EnterpriseBeansMetaData, String, String, boolean, ForkJoinPool)
+     */
+    public void merge(JBossMetaData override, EjbJarMetaData original, ForkJoinPool pool) {
         IdMetaDataImplWithDescriptionGroupMerger.merge(this, override, original);
 
         if (override != null && override.getModuleName() != null) {
@@ -767,7 +864,7 @@ public class JBossMetaData extends NamedModuleImpl
             beans = original.getEnterpriseBeans();
 
         boolean isEJB3x = (original == null || original.isEJB3x());
-        enterpriseBeans.merge(jbeans, beans, "ejb-jar.xml", "jboss.xml", !isEJB3x);
+        enterpriseBeans.merge(jbeans, beans, "ejb-jar.xml", "jboss.xml", !isEJB3x, pool);
 
         // Update run-as indentity for a run-as-principal
         if (enterpriseBeans != null) {
@@ -1010,6 +1107,9 @@ public class JBossMetaData extends NamedModuleImpl
      *                              is null
      */
     public static InterceptorsMetaData getInterceptors(String beanName, JBossMetaData jbossMetaData) {
+        if (jbossMetaData.isFrozen()) {
+            return jbossMetaData.getInterceptorChains().getBoundInterceptors(beanName);
+        }
         InterceptorsMetaData beanApplicableInterceptors = new InterceptorsMetaData();
         if (jbossMetaData.getAssemblyDescriptor() == null) {
             return beanApplicableInterceptors;
@@ -1044,6 +1144,13 @@ public class JBossMetaData extends NamedModuleImpl
      * @return
      */
     public static Collection<String> getAllInterceptorClasses(JBossMetaData jbossMetaData) {
+        if (jbossMetaData.isFrozen()) {
+            return new HashSet<String>(jbossMetaData.getInterceptorChains().getAllInterceptorClasses());
+        }
+        return collectInterceptorClasses(jbossMetaData);
+    }
+
+    private static Collection<String> collectInterceptorClasses(JBossMetaData jbossMetaData) {
         Collection<String> allInterceptorClassNames = new HashSet<String>();
 
         // process <interceptors>
@@ -21,6 +21,7 @@
  */
 package org.jboss.metadata.ejb.jboss;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -35,10 +36,13 @@ import javax.ejb.Schedule;
 import org.jboss.metadata.common.ejb.IScheduleTarget;
 import org.jboss.metadata.common.ejb.ITimeoutTarget;
 import org.jboss.metadata.ejb.spec.AccessTimeoutMetaData;
+import org.jboss.metadata.ejb.spec.AsyncMethodMetaData;
 import org.jboss.metadata.ejb.spec.AsyncMethodsMetaData;
 import org.jboss.metadata.ejb.spec.ConcurrentMethodMetaData;
 import org.jboss.metadata.ejb.spec.ConcurrentMethodsMetaData;
 import org.jboss.metadata.ejb.spec.EnterpriseBeanMetaData;
+import org.jboss.metadata.ejb.spec.MethodInterfaceType;
+import org.jboss.metadata.ejb.spec.MethodSignature;
 import org.jboss.metadata.ejb.spec.NamedMethodMetaData;
 import org.jboss.metadata.ejb.spec.SessionBean31MetaData;
 import org.jboss.metadata.ejb.spec.SessionType;
@@ -397,6 +401,95 @@ public class JBossSessionBean31MetaData extends JBossSessionBeanMetaData impleme
         return super.hasEJB3xView();
     }
 
+    /**
+     * Returns the effective {@link LockType lock type} of a method: the one of the best matching concurrent
+     * method, else the one on the bean class or superclass declaring the implementation of the method, else the
+     * one at the bean level.
+     *
+     * @param method the method, of the bean class or of a business interface
+     * @return the lock type or null if none is specified
+     */
+    public LockType getLockType(Method method) {
+        if (method == null)
+            throw new IllegalArgumentException("Null method");
+        final ConcurrentMethodMetaData concurrentMethod = getConcurrentMethod(method);
+        if (concurrentMethod != null && concurrentMethod.getLockType() != null)
+            return concurrentMethod.getLockType();
+        final LockType classLockType = getLockType(getBeanMethod(method).getDeclaringClass().getName());
+        if (classLockType != null)
+            return classLockType;
+        return getLockType();
+    }
+
+    /**
+     * Get the method of the bean class implementing a method of a business interface. The bean class is loaded
+     * by the class loader of the interface.
+     *
+     * @param method the method
+     * @return the implementing method, or the method itself if it is not an interface method or the bean class
+     *         or its method can't be found
+     */
+    private Method getBeanMethod(Method method) {
+        final Class<?> declaringClass = method.getDeclaringClass();
+        final String ejbClass = getEjbClass();
+        if (declaringClass.isInterface() == false || ejbClass == null)
+            return method;
+        try {
+            final Class<?> beanClass = Class.forName(ejbClass, false, declaringClass.getClassLoader());
+            return beanClass.getMethod(method.getName(), method.getParameterTypes());
+        } catch (ClassNotFoundException e) {
+            return method;
+        } catch (NoSuchMethodException e) {
+            return method;
+        }
+    }
+
+    /**
+     * Returns the effective access timeout of a method: the one of the best matching concurrent method, else
+     * the one at the bean level.
+     *
+     * @param method the method
+     * @return the access timeout or null if none is specified
+     */
+    public AccessTimeoutMetaData getAccessTimeout(Method method) {
+        if (method == null)
+            throw new IllegalArgumentException("Null method");
+        final ConcurrentMethodMetaData concurrentMethod = getConcurrentMethod(method);
+        if (concurrentMethod != null && concurrentMethod.getAccessTimeout() != null)
+            return concurrentMethod.getAccessTimeout();
+        return getAccessTimeout();
+    }
+
+    private ConcurrentMethodMetaData getConcurrentMethod(Method method) {
+        if (concurrentMethods == null)
+            return null;
+        return concurrentMethods.bestMatch(MethodSignature.of(method));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * The lock type and access timeout are the effective ones of the method.
+     */
+    @Override
+    protected MethodInvocationMetaData createMethodInvocation(Method method, MethodInterfaceType interfaceType) {
+        final MethodInvocationMetaData invocation = super.createMethodInvocation(method, interfaceType);
+        return new MethodInvocationMetaData(invocation, getLockType(method), getAccessTimeout(method), isAsync(MethodSignature.of(method)));
+    }
+
+    private boolean isAsync(MethodSignature signature) {
+        if (asyncMethods == null)
+            return false;
+        for (AsyncMethodMetaData asyncMethod : asyncMethods) {
+            final String asyncMethodName = asyncMethod.getMethodName();
+            if ("*".equals(asyncMethodName) == false && signature.getName().equals(asyncMethodName) == false)
+                continue;
+            if (signature.matchesParameters(asyncMethod.getMethodParams()))
+                return true;
+        }
+        return false;
+    }
+
     private static <T> T override(T override, T original) {
         if (override != null)
             return override;
@@ -332,6 +332,11 @@ class JBossSessionGenericWrapper extends JBossSessionBean31MetaData {
         return delegate.getMethodPermissions(methodName, params, interfaceType);
     }
 
+    @Override
+    public Set<String> getMethodPermissions(Method method, MethodInterfaceType interfaceType) {
+        return delegate.getMethodPermissions(method, interfaceType);
+    }
+
     @Override
     public int getMethodTransactionTimeout(Method method) {
         return delegate.getMethodTransactionTimeout(method);
@@ -0,0 +1,152 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.metadata.ejb.jboss;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The method name patterns of {@link MethodAttributesMetaData}, compiled for lookups.
+ * <p/>
+ * Patterns without a wildcard go into a map by method name, the others into a trie over the part in front
+ * of the wildcard. A lookup does one map lookup and walks the trie along the method name, and returns the
+ * attribute of the first pattern in declaration order which {@link MethodAttributeMetaData#matches(String) matches},
+ * like the linear scan it replaces. Nothing is remembered per looked up method name.
+ */
+class MethodAttributeMatcher {
+    /** The attributes in declaration order */
+    private final MethodAttributeMetaData[] attributes;
+
+    /** The position of the first exact pattern per method name */
+    private final Map<String, Integer> exact = new HashMap<String, Integer>();
+
+    /** The root of the prefix trie */
+    private final Node root = new Node();
+
+    /** Whether there are any wildcard patterns */
+    private final boolean wildcards;
+
+    MethodAttributeMatcher(Iterable<MethodAttributeMetaData> attributes) {
+        int count = 0;
+        for (MethodAttributeMetaData ignored : attributes)
+            count++;
+        this.attributes = new MethodAttributeMetaData[count];
+        boolean wildcards = false;
+        int index = 0;
+        for (MethodAttributeMetaData attribute : attributes) {
+            this.attributes[index] = attribute;
+            final String pattern = attribute.getMethodName();
+            if (pattern != null) {
+                final int star = pattern.indexOf('*');
+                if (star < 0) {
+                    if (exact.containsKey(pattern) == false)
+                        exact.put(pattern, index);
+                } else {
+                    // the method name must be at least as long as the whole pattern
+                    root.add(pattern, 0, star, index, pattern.length());
+                    wildcards = true;
+                }
+            }
+            index++;
+        }
+        this.wildcards = wildcards;
+    }
+
+    /**
+     * Get the attribute of the first pattern matching a method name.
+     *
+     * @param methodName the method name
+     * @return the attribute or null when no pattern matches
+     */
+    MethodAttributeMetaData match(String methodName) {
+        final Integer exactIndex = exact.get(methodName);
+        int best = exactIndex != null ? exactIndex : Integer.MAX_VALUE;
+        if (wildcards) {
+            final int length = methodName.length();
+            Node node = root;
+            int depth = 0;
+            while (node != null) {
+                best = node.first(length, best);
+                if (depth == length)
+                    break;
+                node = node.child(methodName.charAt(depth++));
+            }
+        }
+        return best != Integer.MAX_VALUE ? attributes[best] : null;
+    }
+
+    private static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+        private static final int[] NO_PATTERNS = new int[0];
+
+        /** The characters leading to the children */
+        private char[] keys = NO_KEYS;
+
+        /** The children */
+        private Node[] children = NO_CHILDREN;
+
+        /** The positions of the patterns ending here, in declaration order */
+        private int[] patterns = NO_PATTERNS;
+
+        /** The minimum method name length of each pattern */
+        private int[] minLengths = NO_PATTERNS;
+
+        void add(String pattern, int offset, int end, int index, int minLength) {
+            if (offset == end) {
+                patterns = Arrays.copyOf(patterns, patterns.length + 1);
+                patterns[patterns.length - 1] = index;
+                minLengths = Arrays.copyOf(minLengths, minLengths.length + 1);
+                minLengths[minLengths.length - 1] = minLength;
+                return;
+            }
+            final char c = pattern.charAt(offset);
+            Node next = child(c);
+            if (next == null) {
+                next = new Node();
+                keys = Arrays.copyOf(keys, keys.length + 1);
+                keys[keys.length - 1] = c;
+                children = Arrays.copyOf(children, children.length + 1);
+                children[children.length - 1] = next;
+            }
+            next.add(pattern, offset + 1, end, index, minLength);
+        }
+
+        Node child(char c) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == c)
+                    return children[i];
+            }
+            return null;
+        }
+
+        int first(int length, int best) {
+            for (int i = 0; i < patterns.length && patterns[i] < best; i++) {
+                if (minLengths[i] <= length)
+                    return patterns[i];
+            }
+            return best;
+        }
+    }
+}
@@ -21,8 +21,6 @@
  */
 package org.jboss.metadata.ejb.jboss;
 
-import java.util.concurrent.ConcurrentHashMap;
-
 import org.jboss.metadata.javaee.support.AbstractMappedMetaData;
 import org.jboss.metadata.merge.javaee.support.IdMetaDataImplMerger;
 
@@ -33,9 +31,9 @@ public class MethodAttributesMetaData extends AbstractMappedMetaData<MethodAttri
     private static final long serialVersionUID = 4074287842839442989L;
 
     /**
-     * The cache
+     * The compiled method name patterns
      */
-    private transient ConcurrentHashMap<String, MethodAttributeMetaData> cache;
+    private transient volatile MethodAttributeMatcher matcher;
 
     /**
      * Create a new MethodAttributesMetaData.
@@ -76,27 +74,37 @@ public class MethodAttributesMetaData extends AbstractMappedMetaData<MethodAttri
         if (methodName == null)
             return MethodAttributeMetaData.DEFAULT;
 
-        MethodAttributeMetaData result = null;
-        if (cache != null) {
-            result = cache.get(methodName);
-            if (result != null)
-                return result;
-        }
+        final MethodAttributeMetaData result = getMatcher().match(methodName);
+        return result != null ? result : MethodAttributeMetaData.DEFAULT;
+    }
 
-        for (MethodAttributeMetaData attribute : this) {
-            if (attribute.matches(methodName)) {
-                result = attribute;
-                break;
-            }
-        }
+    /**
+     * Freeze the method attributes and compile their method name patterns up front.
+     */
+    @Override
+    public void freeze() {
+        super.freeze();
+        matcher = new MethodAttributeMatcher(this);
+    }
 
-        if (result == null)
-            result = MethodAttributeMetaData.DEFAULT;
+    @Override
+    protected void addNotification(MethodAttributeMetaData added) {
+        // recompiled on the next lookup
+        matcher = null;
+    }
 
-        if (cache == null)
-            cache = new ConcurrentHashMap<String, MethodAttributeMetaData>();
-        cache.put(methodName, result);
+    @Override
+    protected void removeNotification(MethodAttributeMetaData removed) {
+        matcher = null;
+    }
 
+    private MethodAttributeMatcher getMatcher() {
+        MethodAttributeMatcher result = matcher;
+        if (result == null) {
+            // a lost race only costs compiling the patterns twice
+            result = new MethodAttributeMatcher(this);
+            matcher = result;
+        }
         return result;
     }
 
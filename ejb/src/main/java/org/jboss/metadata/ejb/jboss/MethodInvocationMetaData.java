@@ -0,0 +1,166 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.metadata.ejb.jboss;
+
+import java.lang.reflect.Method;
+import java.util.Set;
+
+import javax.ejb.LockType;
+import javax.ejb.TransactionAttributeType;
+
+import org.jboss.metadata.ejb.spec.AccessTimeoutMetaData;
+
+/**
+ * Everything the container needs to know to invoke one business method of a bean view.
+ * <p/>
+ * The attributes are resolved from the descriptors once, when the {@link MethodInvocationTable} of the
+ * view is built. Instances are immutable.
+ *
+ * @see JBossEnterpriseBeanMetaData#getMethodInvocationTable(Class, org.jboss.metadata.ejb.spec.MethodInterfaceType)
+ */
+public class MethodInvocationMetaData {
+    /** The method */
+    private final Method method;
+
+    /** The transaction attribute */
+    private final TransactionAttributeType transactionAttribute;
+
+    /** The transaction timeout */
+    private final int transactionTimeout;
+
+    /** Whether the method is read only */
+    private final boolean readOnly;
+
+    /** The roles allowed to invoke the method */
+    private final Set<String> roles;
+
+    /** The lock type */
+    private final LockType lockType;
+
+    /** The access timeout */
+    private final AccessTimeoutMetaData accessTimeout;
+
+    /** Whether the method is asynchronous */
+    private final boolean async;
+
+    MethodInvocationMetaData(Method method, TransactionAttributeType transactionAttribute, int transactionTimeout,
+                             boolean readOnly, Set<String> roles) {
+        this(method, transactionAttribute, transactionTimeout, readOnly, roles, null, null, false);
+    }
+
+    MethodInvocationMetaData(MethodInvocationMetaData invocation, LockType lockType, AccessTimeoutMetaData accessTimeout,
+                             boolean async) {
+        this(invocation.method, invocation.transactionAttribute, invocation.transactionTimeout, invocation.readOnly,
+                invocation.roles, lockType, accessTimeout, async);
+    }
+
+    private MethodInvocationMetaData(Method method, TransactionAttributeType transactionAttribute, int transactionTimeout,
+                                     boolean readOnly, Set<String> roles, LockType lockType,
+                                     AccessTimeoutMetaData accessTimeout, boolean async) {
+        this.method = method;
+        this.transactionAttribute = transactionAttribute;
+        this.transactionTimeout = transactionTimeout;
+        this.readOnly = readOnly;
+        this.roles = roles;
+        this.lockType = lockType;
+        this.accessTimeout = accessTimeout;
+        this.async = async;
+    }
+
+    /**
+     * Get the method.
+     *
+     * @return the method
+     */
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * Get the transaction attribute.
+     *
+     * @return the transaction attribute
+     */
+    public TransactionAttributeType getTransactionAttribute() {
+        return transactionAttribute;
+    }
+
+    /**
+     * Get the transaction timeout.
+     *
+     * @return the transaction timeout or 0 for the default
+     */
+    public int getTransactionTimeout() {
+        return transactionTimeout;
+    }
+
+    /**
+     * Whether the method is read only.
+     *
+     * @return true for read only
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Get the roles allowed to invoke the method.
+     *
+     * @return the unmodifiable roles
+     */
+    public Set<String> getRoles() {
+        return roles;
+    }
+
+    /**
+     * Get the lock type.
+     *
+     * @return the lock type or null if none is specified
+     */
+    public LockType getLockType() {
+        return lockType;
+    }
+
+    /**
+     * Get the access timeout.
+     *
+     * @return the access timeout or null if none is specified
+     */
+    public AccessTimeoutMetaData getAccessTimeout() {
+        return accessTimeout;
+    }
+
+    /**
+     * Whether the method is asynchronous.
+     *
+     * @return true for an asynchronous method
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    @Override
+    public String toString() {
+        return method.toString();
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.metadata.ejb.jboss;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jboss.metadata.ejb.spec.MethodInterfaceType;
+
+/**
+ * The invocation metadata of all business methods of a bean view.
+ * <p/>
+ * The methods are the public methods of the view class, without the ones declared by {@link Object}, sorted
+ * by name and parameter types so the index of a method is the same on every build. A container can look
+ * the metadata of an invocation up by {@link Method}, or remember the {@link #indexOf(Method) index} of
+ * each method and use {@link #get(int)}.
+ *
+ * @see JBossEnterpriseBeanMetaData#getMethodInvocationTable(Class, MethodInterfaceType)
+ */
+public class MethodInvocationTable {
+    /** Orders methods by name and parameter types */
+    private static final Comparator<Method> METHOD_ORDER = new Comparator<Method>() {
+        public int compare(Method m1, Method m2) {
+            int result = m1.getName().compareTo(m2.getName());
+            if (result != 0)
+                return result;
+            final Class<?>[] params1 = m1.getParameterTypes();
+            final Class<?>[] params2 = m2.getParameterTypes();
+            result = params1.length - params2.length;
+            for (int i = 0; result == 0 && i < params1.length; i++)
+                result = params1[i].getName().compareTo(params2[i].getName());
+            if (result == 0)
+                result = m1.getDeclaringClass().getName().compareTo(m2.getDeclaringClass().getName());
+            return result;
+        }
+    };
+
+    /** The view */
+    private final Class<?> view;
+
+    /** The interface type */
+    private final MethodInterfaceType interfaceType;
+
+    /** The invocations in method order */
+    private final MethodInvocationMetaData[] invocations;
+
+    /** The index of each method */
+    private final Map<Method, Integer> indexes;
+
+    MethodInvocationTable(JBossEnterpriseBeanMetaData bean, Class<?> view, MethodInterfaceType interfaceType) {
+        this.view = view;
+        this.interfaceType = interfaceType;
+        Method[] methods = view.getMethods();
+        int count = 0;
+        for (Method method : methods) {
+            if (method.getDeclaringClass() != Object.class)
+                methods[count++] = method;
+        }
+        methods = Arrays.copyOf(methods, count);
+        Arrays.sort(methods, METHOD_ORDER);
+        invocations = new MethodInvocationMetaData[count];
+        indexes = new HashMap<Method, Integer>(count * 4 / 3 + 1);
+        for (int i = 0; i < count; i++) {
+            invocations[i] = bean.createMethodInvocation(methods[i], interfaceType);
+            indexes.put(methods[i], i);
+        }
+    }
+
+    /**
+     * Get the view.
+     *
+     * @return the view class
+     */
+    public Class<?> getView() {
+        return view;
+    }
+
+    /**
+     * Get the interface type.
+     *
+     * @return the interface type
+     */
+    public MethodInterfaceType getInterfaceType() {
+        return interfaceType;
+    }
+
+    /**
+     * Get the number of methods.
+     *
+     * @return the number of methods
+     */
+    public int size() {
+        return invocations.length;
+    }
+
+    /**
+     * Get the index of a method.
+     *
+     * @param method the method
+     * @return the index or -1 if the method is not a method of the view
+     */
+    public int indexOf(Method method) {
+        final Integer index = indexes.get(method);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Get the invocation metadata by index.
+     *
+     * @param index the index
+     * @return the invocation metadata
+     * @throws IndexOutOfBoundsException for an index which is not an index of this table
+     */
+    public MethodInvocationMetaData get(int index) {
+        return invocations[index];
+    }
+
+    /**
+     * Get the invocation metadata of a method.
+     *
+     * @param method the method
+     * @return the invocation metadata or null if the method is not a method of the view
+     */
+    public MethodInvocationMetaData get(Method method) {
+        final Integer index = indexes.get(method);
+        return index != null ? invocations[index] : null;
+    }
+
+    @Override
+    public String toString() {
+        return "MethodInvocationTable(" + view.getName() + ", " + interfaceType + ")";
+    }
+}
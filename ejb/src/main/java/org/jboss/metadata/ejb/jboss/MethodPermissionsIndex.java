@@ -0,0 +1,88 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.metadata.ejb.jboss;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.jboss.metadata.ejb.spec.MethodInterfaceType;
+
+/**
+ * The roles allowed to invoke the methods of a bean, resolved once per method and interface type.
+ * <p/>
+ * The first lookup of a method walks the exclude list and the method permissions of the bean, the
+ * following ones are a single map lookup. Equal role sets are shared between methods and are
+ * unmodifiable, so they can be handed out to the callers without copying.
+ *
+ * @see JBossEnterpriseBeanMetaData#getMethodPermissions(Method, MethodInterfaceType)
+ */
+class MethodPermissionsIndex {
+    /** The bean */
+    private final JBossEnterpriseBeanMetaData bean;
+
+    /** The roles per method, one map per interface type and a last one for no interface type */
+    private final ConcurrentMap<Method, Set<String>>[] roles;
+
+    /** The distinct role sets */
+    private final ConcurrentMap<Set<String>, Set<String>> sharedRoles = new ConcurrentHashMap<Set<String>, Set<String>>();
+
+    @SuppressWarnings("unchecked")
+    MethodPermissionsIndex(JBossEnterpriseBeanMetaData bean) {
+        this.bean = bean;
+        roles = new ConcurrentMap[MethodInterfaceType.values().length + 1];
+        for (int i = 0; i < roles.length; i++)
+            roles[i] = new ConcurrentHashMap<Method, Set<String>>();
+    }
+
+    /**
+     * Get the roles allowed to invoke a method.
+     *
+     * @param method        the method
+     * @param interfaceType the interface type, may be null
+     * @return the unmodifiable roles
+     */
+    Set<String> getRoles(Method method, MethodInterfaceType interfaceType) {
+        final ConcurrentMap<Method, Set<String>> methodRoles = roles[interfaceType != null ? interfaceType.ordinal() : roles.length - 1];
+        Set<String> result = methodRoles.get(method);
+        if (result != null)
+            return result;
+        result = share(bean.getMethodPermissions(method.getName(), method.getParameterTypes(), interfaceType));
+        final Set<String> previous = methodRoles.putIfAbsent(method, result);
+        return previous != null ? previous : result;
+    }
+
+    private Set<String> share(Set<String> roles) {
+        if (roles.isEmpty())
+            return Collections.emptySet();
+        final Set<String> shared = sharedRoles.get(roles);
+        if (shared != null)
+            return shared;
+        final Set<String> copy = Collections.unmodifiableSet(new HashSet<String>(roles));
+        final Set<String> previous = sharedRoles.putIfAbsent(copy, copy);
+        return previous != null ? previous : copy;
+    }
+}
@@ -24,6 +24,8 @@ package org.jboss.metadata.ejb.parser.jboss.ejb3;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.jboss.metadata.parser.util.LocalNameIndex;
+
 /**
  * @author <a href="mailto:cdewolf@redhat.com">Carlo de Wolf</a>
  */
@@ -34,7 +36,7 @@ public enum Attribute {
 
     private String attributeName;
 
-    private static final Map<String, Attribute> ATTRIBUTE_MAP;
+    private static final LocalNameIndex<Attribute> ATTRIBUTE_MAP;
 
     static {
         final Map<String, Attribute> map = new HashMap<String, Attribute>();
@@ -44,7 +46,7 @@ public enum Attribute {
                 map.put(name, element);
             }
         }
-        ATTRIBUTE_MAP = map;
+        ATTRIBUTE_MAP = LocalNameIndex.create(map);
     }
 
     Attribute(String name) {
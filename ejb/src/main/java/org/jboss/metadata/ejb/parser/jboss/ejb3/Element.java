@@ -24,6 +24,8 @@ package org.jboss.metadata.ejb.parser.jboss.ejb3;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.jboss.metadata.parser.util.LocalNameIndex;
+
 /**
  * @author <a href="mailto:cdewolf@redhat.com">Carlo de Wolf</a>
  */
@@ -46,7 +48,7 @@ public enum Element {
         return name;
     }
 
-    private static final Map<String, Element> MAP;
+    private static final LocalNameIndex<Element> MAP;
 
     static {
         final Map<String, Element> map = new HashMap<String, Element>();
@@ -54,7 +56,7 @@ public enum Element {
             final String name = element.getLocalName();
             if (name != null) map.put(name, element);
         }
-        MAP = map;
+        MAP = LocalNameIndex.create(map);
     }
 
     public static Element forName(final String localName) {
@@ -34,6 +34,7 @@ import org.jboss.metadata.ejb.jboss.IORASContextMetaData;
 import org.jboss.metadata.ejb.jboss.IORSASContextMetaData;
 import org.jboss.metadata.ejb.jboss.IORSecurityConfigMetaData;
 import org.jboss.metadata.ejb.jboss.IORTransportConfigMetaData;
+import org.jboss.metadata.parser.util.LocalNameIndex;
 import org.jboss.metadata.property.PropertyReplacer;
 
 /**
@@ -371,7 +372,7 @@ public class IIOPMetaDataParser extends AbstractEJBBoundMetaDataParser<IIOPMetaD
         }
 
         // a map that caches all available elements by name.
-        private static final Map<String, Element> MAP;
+        private static final LocalNameIndex<Element> MAP;
 
         static {
             final Map<String, Element> map = new HashMap<String, Element>();
@@ -380,7 +381,7 @@ public class IIOPMetaDataParser extends AbstractEJBBoundMetaDataParser<IIOPMetaD
                 if (name != null)
                     map.put(name, element);
             }
-            MAP = map;
+            MAP = LocalNameIndex.create(map);
         }
 
 
@@ -24,6 +24,8 @@ package org.jboss.metadata.ejb.parser.jboss.ejb3;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.jboss.metadata.parser.util.LocalNameIndex;
+
 /**
  * @author <a href="mailto:cdewolf@redhat.com">Carlo de Wolf</a>
  */
@@ -41,7 +43,7 @@ public enum TransactionTimeoutElement {
     /**
      * Elements map
      */
-    private static final Map<String, TransactionTimeoutElement> ELEMENT_MAP;
+    private static final LocalNameIndex<TransactionTimeoutElement> ELEMENT_MAP;
 
     static {
         final Map<String, TransactionTimeoutElement> map = new HashMap<String, TransactionTimeoutElement>();
@@ -51,7 +53,7 @@ public enum TransactionTimeoutElement {
                 map.put(name, element);
             }
         }
-        ELEMENT_MAP = map;
+        ELEMENT_MAP = LocalNameIndex.create(map);
     }
 
 
@@ -25,6 +25,8 @@ package org.jboss.metadata.ejb.parser.spec;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.jboss.metadata.parser.util.LocalNameIndex;
+
 /**
  * An enumeration of possible version independent XML attributes in the ejb-jar schema, by name.
  * <p/>
@@ -43,7 +45,7 @@ public enum EjbJarAttribute {
 
     private String attributeName;
 
-    private static final Map<String, EjbJarAttribute> ATTRIBUTE_MAP;
+    private static final LocalNameIndex<EjbJarAttribute> ATTRIBUTE_MAP;
 
     static {
         final Map<String, EjbJarAttribute> map = new HashMap<String, EjbJarAttribute>();
@@ -53,7 +55,7 @@ public enum EjbJarAttribute {
                 map.put(name, element);
             }
         }
-        ATTRIBUTE_MAP = map;
+        ATTRIBUTE_MAP = LocalNameIndex.create(map);
     }
 
     EjbJarAttribute(String name) {
@@ -25,6 +25,8 @@ package org.jboss.metadata.ejb.parser.spec;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.jboss.metadata.parser.util.LocalNameIndex;
+
 /**
  * Enumeration of all XML elements that are allowed in a ejb-jar.xml
  * <p/>
@@ -182,7 +184,7 @@ public enum EjbJarElement {
     /**
      * Elements map
      */
-    private static final Map<String, EjbJarElement> ELEMENT_MAP;
+    private static final LocalNameIndex<EjbJarElement> ELEMENT_MAP;
 
     static {
         final Map<String, EjbJarElement> map = new HashMap<String, EjbJarElement>();
@@ -192,7 +194,7 @@ public enum EjbJarElement {
                 map.put(name, element);
             }
         }
-        ELEMENT_MAP = map;
+        ELEMENT_MAP = LocalNameIndex.create(map);
     }
 
 
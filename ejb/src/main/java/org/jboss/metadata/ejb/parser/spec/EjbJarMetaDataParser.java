@@ -27,6 +27,8 @@ import javax.xml.stream.XMLStreamReader;
 
 import org.jboss.metadata.ejb.spec.EjbJarMetaData;
 import org.jboss.metadata.ejb.spec.EjbJarVersion;
+import org.jboss.metadata.parser.util.DescriptorParser;
+import org.jboss.metadata.parser.util.DescriptorReader;
 import org.jboss.metadata.property.PropertyReplacer;
 
 /**
@@ -35,6 +37,16 @@ import org.jboss.metadata.property.PropertyReplacer;
  * User: Jaikiran Pai
  */
 public class EjbJarMetaDataParser extends AbstractEjbJarMetaDataParser {
+
+    /**
+     * Reads ejb-jar.xml documents.
+     */
+    public static final DescriptorReader<EjbJarMetaData> DESCRIPTOR_READER = new DescriptorReader<EjbJarMetaData>(new DescriptorParser<EjbJarMetaData>() {
+        public EjbJarMetaData parse(XMLStreamReader reader, DTDInfo info, PropertyReplacer propertyReplacer) throws XMLStreamException {
+            return EjbJarMetaDataParser.parse(reader, info, propertyReplacer);
+        }
+    });
+
     @Override
     public EjbJarMetaData parse(XMLStreamReader reader, PropertyReplacer propertyReplacer) throws XMLStreamException {
         throw new UnsupportedOperationException("org.jboss.metadata.ejb.parser.spec.EjbJarMetaDataParser.parse");
@@ -23,7 +23,6 @@ package org.jboss.metadata.ejb.spec;
 
 import java.lang.reflect.Method;
 import java.util.Collection;
-import java.util.concurrent.ConcurrentHashMap;
 
 import javax.ejb.TransactionAttributeType;
 import javax.ejb.TransactionManagementType;
@@ -120,11 +119,6 @@ public abstract class AbstractEnterpriseBeanMetaData extends NamedMetaDataWithDe
      */
     private transient ContainerTransactionsMetaData cachedContainerTransactions;
 
-    /**
-     * The transaction type cache
-     */
-    private transient ConcurrentHashMap<Method, TransactionAttributeType> methodTx;
-
     /**
      * The security role ref
      */
@@ -559,27 +553,10 @@ public abstract class AbstractEnterpriseBeanMetaData extends NamedMetaDataWithDe
      * @return the method transaction type
      */
     public TransactionAttributeType getMethodTransactionType(String methodName, Class<?>[] params, MethodInterfaceType iface) {
-        // default value
-        TransactionAttributeType result = null;
-
-        ContainerTransactionsMetaData containerTransactions = getContainerTransactions();
-        if (containerTransactions == null || containerTransactions.isEmpty())
-            return result;
-
-        ContainerTransactionMetaData bestMatchTransaction = null;
-        MethodMetaData bestMatch = null;
-        for (ContainerTransactionMetaData transaction : containerTransactions) {
-            MethodMetaData match = transaction.bestMatch(methodName, params, iface, bestMatch);
-            if (match != bestMatch) {
-                bestMatchTransaction = transaction;
-                bestMatch = match;
-            }
-        }
-
-        if (bestMatchTransaction != null)
-            result = bestMatchTransaction.getTransAttribute();
-
-        return result;
+        final TransactionAttributeResolver resolver = getTransactionAttributeResolver();
+        if (resolver == null)
+            return null;
+        return resolver.resolve(methodName, params, iface);
     }
 
     /**
@@ -593,23 +570,27 @@ public abstract class AbstractEnterpriseBeanMetaData extends NamedMetaDataWithDe
         if (m == null)
             return TransactionAttributeType.SUPPORTS;
 
-        TransactionAttributeType result = null;
-        if (methodTx != null) {
-            result = methodTx.get(m);
-            if (result != null)
-                return result;
-        }
-
-        result = getMethodTransactionType(m.getName(), m.getParameterTypes(), iface);
-
-        // provide default if method is not found in descriptor
-        if (result == null)
-            result = TransactionAttributeType.REQUIRED;
+        final TransactionAttributeResolver resolver = getTransactionAttributeResolver();
+        // provide default if there are no container transactions
+        if (resolver == null)
+            return TransactionAttributeType.REQUIRED;
+        return resolver.getTransactionAttribute(m, iface);
+    }
 
-        if (methodTx == null)
-            methodTx = new ConcurrentHashMap<Method, TransactionAttributeType>();
-        methodTx.put(m, result);
-        return result;
+    /**
+     * Get the transaction attributes of this bean. They are compiled once from the container transactions of the
+     * assembly descriptor, which keeps them until its container transactions change.
+     *
+     * @return the transaction attribute resolver or null if there are no container transactions
+     */
+    private TransactionAttributeResolver getTransactionAttributeResolver() {
+        org.jboss.metadata.common.ejb.IAssemblyDescriptorMetaData assemblyDescriptor = getAssemblyDescriptor();
+        if (assemblyDescriptor == null)
+            return null;
+        ContainerTransactionsMetaData containerTransactions = assemblyDescriptor.getContainerTransactions();
+        if (containerTransactions == null)
+            return null;
+        return containerTransactions.getTransactionAttributeResolver(getEjbName());
     }
 
     /**
@@ -37,6 +37,11 @@ public class ApplicationExceptionsMetaData extends AbstractMappedMetaData<Applic
      */
     private static final long serialVersionUID = -5880146271705804091L;
 
+    /**
+     * The effective application exception per exception class
+     */
+    private transient volatile ClassValue<Resolution> resolutions;
+
     /**
      * Create a new ApplicationExceptionsMetaData.
      */
@@ -44,8 +49,80 @@ public class ApplicationExceptionsMetaData extends AbstractMappedMetaData<Applic
         super("application exception class");
     }
 
+    /**
+     * Get the application exception that applies to an exception class. That is the application exception
+     * declared for the class itself, or else the one declared for the nearest superclass if that one is
+     * inherited. The answer is remembered per class, so exceptions thrown again don't walk the hierarchy.
+     *
+     * @param exceptionClass the exception class
+     * @return the application exception or null if the class is not an application exception
+     * @throws IllegalArgumentException for a null exceptionClass
+     */
+    public ApplicationExceptionMetaData getApplicationException(Class<? extends Throwable> exceptionClass) {
+        if (exceptionClass == null)
+            throw new IllegalArgumentException("Null exceptionClass");
+        if (isEmpty())
+            return null;
+
+        ClassValue<Resolution> resolutions = this.resolutions;
+        if (resolutions == null) {
+            // a lost race only costs a few hierarchy walks
+            resolutions = new Resolutions(this);
+            this.resolutions = resolutions;
+        }
+        return resolutions.get(exceptionClass).applicationException;
+    }
+
+    @Override
+    protected void addNotification(ApplicationExceptionMetaData added) {
+        resolutions = null;
+    }
+
+    @Override
+    protected void removeNotification(ApplicationExceptionMetaData removed) {
+        resolutions = null;
+    }
+
     public void merge(ApplicationExceptionsMetaData override, ApplicationExceptionsMetaData original) {
         IdMetaDataImplMerger.merge(this, override, original);
         MergeUtil.merge(this, override, original);
     }
+
+    private static final class Resolutions extends ClassValue<Resolution> {
+        private final ApplicationExceptionsMetaData applicationExceptions;
+
+        Resolutions(ApplicationExceptionsMetaData applicationExceptions) {
+            this.applicationExceptions = applicationExceptions;
+        }
+
+        @Override
+        protected Resolution computeValue(Class<?> type) {
+            ApplicationExceptionMetaData result = applicationExceptions.get(type.getName());
+            if (result == null) {
+                for (Class<?> superClass = type.getSuperclass(); superClass != null; superClass = superClass.getSuperclass()) {
+                    result = applicationExceptions.get(superClass.getName());
+                    if (result != null) {
+                        // inherited unless explicitly marked otherwise
+                        if (Boolean.FALSE.equals(result.isInherited()))
+                            result = null;
+                        break;
+                    }
+                }
+            }
+            return result != null ? new Resolution(result) : Resolution.NONE;
+        }
+    }
+
+    /**
+     * A resolved application exception, since a {@link ClassValue} can't hold null.
+     */
+    private static final class Resolution {
+        private static final Resolution NONE = new Resolution(null);
+
+        private final ApplicationExceptionMetaData applicationException;
+
+        Resolution(ApplicationExceptionMetaData applicationException) {
+            this.applicationException = applicationException;
+        }
+    }
 }
@@ -316,6 +316,19 @@ public class AssemblyDescriptorMetaData extends IdMetaDataImpl
         this.applicationExceptions = applicationExceptions;
     }
 
+    /**
+     * Get the application exception that applies to an exception class.
+     *
+     * @param exceptionClass the exception class
+     * @return the application exception or null if the class is not an application exception
+     * @see ApplicationExceptionsMetaData#getApplicationException(Class)
+     */
+    public ApplicationExceptionMetaData getApplicationException(Class<? extends Throwable> exceptionClass) {
+        if (applicationExceptions == null)
+            return null;
+        return applicationExceptions.getApplicationException(exceptionClass);
+    }
+
     public void merge(AssemblyDescriptorMetaData override, AssemblyDescriptorMetaData original) {
         IdMetaDataImplMerger.merge(this, override, original);
 
@@ -97,4 +97,8 @@ public class ConcurrentMethodMetaData implements Serializable {
     public boolean matches(String methodName, String[] params) {
         return getMethod().matches(methodName, params);
     }
+
+    public boolean matches(MethodSignature signature) {
+        return getMethod().matches(signature);
+    }
 }
@@ -22,6 +22,9 @@
 package org.jboss.metadata.ejb.spec;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.jboss.metadata.javaee.support.IdMetaData;
 import org.jboss.metadata.merge.MergeUtil;
@@ -34,31 +37,23 @@ public class ConcurrentMethodsMetaData extends ArrayList<ConcurrentMethodMetaDat
 
     private String id;
 
+    /**
+     * The lookup structure, built on the first lookup after the list changed
+     */
+    private transient volatile Index index;
+
     public ConcurrentMethodMetaData bestMatch(String methodName, String[] params) {
-        ConcurrentMethodMetaData bestMatch = null;
-        for (ConcurrentMethodMetaData method : this) {
-            if (method.matches(methodName, params)) {
-                // No previous best match
-                if (bestMatch == null)
-                    bestMatch = method;
-                    // better match because the previous was a wildcard
-                else if ("*".equals(bestMatch.getMethod().getMethodName()))
-                    bestMatch = method;
-                    // better because it specifies parameters
-                else if (method.getMethod().getMethodParams() != null)
-                    bestMatch = method;
-            }
-        }
-        return bestMatch;
+        return getIndex().bestMatch(methodName, params, null);
+    }
+
+    public ConcurrentMethodMetaData bestMatch(MethodSignature signature) {
+        if (signature == null)
+            throw new IllegalArgumentException("Null signature");
+        return getIndex().bestMatch(signature.getName(), null, signature);
     }
 
     public ConcurrentMethodMetaData find(NamedMethodMetaData equivalent) {
-        for (ConcurrentMethodMetaData method : this) {
-            if (method.getMethod().equals(equivalent)) {
-                return method;
-            }
-        }
-        return null;
+        return getIndex().find(equivalent);
     }
 
     @Deprecated
@@ -76,7 +71,122 @@ public class ConcurrentMethodsMetaData extends ArrayList<ConcurrentMethodMetaDat
         this.id = id;
     }
 
+    @Override
+    public ConcurrentMethodMetaData set(int index, ConcurrentMethodMetaData element) {
+        // unlike the structural changes this is not counted in modCount
+        this.index = null;
+        return super.set(index, element);
+    }
+
     public void merge(ConcurrentMethodsMetaData override, ConcurrentMethodsMetaData original) {
         MergeUtil.merge(this, override, original);
+        this.index = null;
+    }
+
+    private Index getIndex() {
+        Index result = index;
+        if (result == null || result.modCount != modCount) {
+            // a lost race only costs building the index twice
+            result = new Index(this, modCount);
+            index = result;
+        }
+        return result;
+    }
+
+    /**
+     * The concurrent methods by method name and by signature. The best match is picked among the methods with
+     * the given name and the wildcard methods, with the same rules and in the same order as a scan of the list.
+     */
+    private static final class Index {
+        private final int modCount;
+        private final Map<String, Entry[]> byName = new HashMap<String, Entry[]>();
+        private final Entry[] wildcards;
+        private final Map<String, ConcurrentMethodMetaData> bySignature = new HashMap<String, ConcurrentMethodMetaData>();
+
+        Index(List<ConcurrentMethodMetaData> methods, int modCount) {
+            this.modCount = modCount;
+            final Map<String, List<Entry>> named = new HashMap<String, List<Entry>>();
+            final List<Entry> wildcards = new ArrayList<Entry>();
+            int order = 0;
+            for (ConcurrentMethodMetaData method : methods) {
+                final NamedMethodMetaData namedMethod = method.getMethod();
+                if (namedMethod == null)
+                    continue;
+                final String signature = signature(namedMethod);
+                if (bySignature.containsKey(signature) == false)
+                    bySignature.put(signature, method);
+                final Entry entry = new Entry(order++, method);
+                if (entry.wildcard) {
+                    wildcards.add(entry);
+                } else {
+                    List<Entry> entries = named.get(namedMethod.getMethodName());
+                    if (entries == null) {
+                        entries = new ArrayList<Entry>(1);
+                        named.put(namedMethod.getMethodName(), entries);
+                    }
+                    entries.add(entry);
+                }
+            }
+            for (Map.Entry<String, List<Entry>> entries : named.entrySet())
+                byName.put(entries.getKey(), entries.getValue().toArray(new Entry[entries.getValue().size()]));
+            this.wildcards = wildcards.toArray(new Entry[wildcards.size()]);
+        }
+
+        ConcurrentMethodMetaData bestMatch(String methodName, String[] params, MethodSignature signature) {
+            final Entry[] named = byName.get(methodName);
+            final int namedCount = named != null ? named.length : 0;
+            Entry best = null;
+            int n = 0;
+            int w = 0;
+            while (n < namedCount || w < wildcards.length) {
+                final Entry entry;
+                if (w == wildcards.length || (n < namedCount && named[n].order < wildcards[w].order))
+                    entry = named[n++];
+                else
+                    entry = wildcards[w++];
+                if ((signature != null ? entry.method.matches(signature) : entry.method.matches(methodName, params)) == false)
+                    continue;
+                // No previous best match, or a better match because the previous was a wildcard,
+                // or better because it specifies parameters
+                if (best == null || best.wildcard || entry.method.getMethod().getMethodParams() != null)
+                    best = entry;
+            }
+            return best != null ? best.method : null;
+        }
+
+        ConcurrentMethodMetaData find(NamedMethodMetaData equivalent) {
+            if (equivalent == null)
+                return null;
+            return bySignature.get(signature(equivalent));
+        }
+
+        /**
+         * The key of a method under {@link NamedMethodMetaData#equals(Object)}, which does not tell apart no
+         * parameters and an empty parameter list. Its hashCode does, so it can't be the key itself.
+         */
+        private static String signature(NamedMethodMetaData method) {
+            final StringBuilder signature = new StringBuilder().append(method.getMethodName()).append('(');
+            final MethodParametersMetaData params = method.getMethodParams();
+            if (params != null) {
+                for (int i = 0; i < params.size(); i++) {
+                    if (i > 0)
+                        signature.append(',');
+                    signature.append(params.get(i));
+                }
+            }
+            return signature.append(')').toString();
+        }
+    }
+
+    private static final class Entry {
+        private final int order;
+        private final ConcurrentMethodMetaData method;
+        private final boolean wildcard;
+
+        Entry(int order, ConcurrentMethodMetaData method) {
+            this.order = order;
+            this.method = method;
+            this.wildcard = "*".equals(method.getMethod().getMethodName());
+        }
     }
 }
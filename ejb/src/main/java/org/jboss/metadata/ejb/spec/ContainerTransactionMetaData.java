@@ -148,6 +148,19 @@ public class ContainerTransactionMetaData extends IdMetaDataImplWithDescriptions
         return methods.matches(methodName, params, interfaceType);
     }
 
+    /**
+     * Whether this matches
+     *
+     * @param signature     the method signature
+     * @param interfaceType the interface type
+     * @return true when it matches
+     */
+    public boolean matches(MethodSignature signature, MethodInterfaceType interfaceType) {
+        if (methods == null)
+            return false;
+        return methods.matches(signature, interfaceType);
+    }
+
     /**
      * Whether this matches
      *
@@ -163,6 +176,20 @@ public class ContainerTransactionMetaData extends IdMetaDataImplWithDescriptions
         return methods.bestMatch(methodName, params, interfaceType, bestMatch);
     }
 
+    /**
+     * Whether this matches
+     *
+     * @param signature     the method signature
+     * @param interfaceType the interface type
+     * @param bestMatch     the previous best match
+     * @return the best match
+     */
+    public MethodMetaData bestMatch(MethodSignature signature, MethodInterfaceType interfaceType, MethodMetaData bestMatch) {
+        if (methods == null)
+            return bestMatch;
+        return methods.bestMatch(signature, interfaceType, bestMatch);
+    }
+
     @Override
     public ContainerTransactionMetaData clone() {
         return (ContainerTransactionMetaData) super.clone();
@@ -22,6 +22,8 @@
 package org.jboss.metadata.ejb.spec;
 
 import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.jboss.metadata.merge.MergeUtil;
 
@@ -37,6 +39,11 @@ public class ContainerTransactionsMetaData extends ArrayList<ContainerTransactio
      */
     private static final long serialVersionUID = -1360496515258292681L;
 
+    /**
+     * The transaction attribute resolvers by ejb name, built on the first lookup after the list changed
+     */
+    private transient volatile Resolvers resolvers;
+
     /**
      * Create a new ContainerTransactionsMetaData.
      */
@@ -70,7 +77,60 @@ public class ContainerTransactionsMetaData extends ArrayList<ContainerTransactio
         return result;
     }
 
+    /**
+     * Get the transaction attributes of an ejb, compiled from its container transactions. The resolver is
+     * compiled once and kept until this list changes.
+     *
+     * @param ejbName the ejb name
+     * @return the transaction attribute resolver
+     * @throws IllegalArgumentException for a null ejb name
+     */
+    public TransactionAttributeResolver getTransactionAttributeResolver(String ejbName) {
+        if (ejbName == null)
+            throw new IllegalArgumentException("Null ejbName");
+
+        Resolvers current = resolvers;
+        if (current == null || current.modCount != modCount) {
+            // a lost race only costs compiling the resolvers twice
+            current = new Resolvers(modCount);
+            resolvers = current;
+        }
+        TransactionAttributeResolver resolver = current.byEjbName.get(ejbName);
+        if (resolver == null) {
+            resolver = new TransactionAttributeResolver(getContainerTransactionsByEjbName(ejbName));
+            final TransactionAttributeResolver previous = current.byEjbName.putIfAbsent(ejbName, resolver);
+            if (previous != null)
+                resolver = previous;
+        }
+        return resolver;
+    }
+
+    @Override
+    public ContainerTransactionMetaData set(int index, ContainerTransactionMetaData element) {
+        // unlike the structural changes this is not counted in modCount
+        this.resolvers = null;
+        return super.set(index, element);
+    }
+
+    @Override
+    public Object clone() {
+        final ContainerTransactionsMetaData clone = (ContainerTransactionsMetaData) super.clone();
+        // the clone starts counting its changes from zero again
+        clone.resolvers = null;
+        return clone;
+    }
+
     public void merge(ContainerTransactionsMetaData override, ContainerTransactionsMetaData original) {
         MergeUtil.merge(this, override, original);
+        this.resolvers = null;
+    }
+
+    private static final class Resolvers {
+        private final int modCount;
+        private final ConcurrentMap<String, TransactionAttributeResolver> byEjbName = new ConcurrentHashMap<String, TransactionAttributeResolver>();
+
+        Resolvers(int modCount) {
+            this.modCount = modCount;
+        }
     }
 }
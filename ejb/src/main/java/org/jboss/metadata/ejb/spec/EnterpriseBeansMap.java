@@ -22,6 +22,7 @@
 package org.jboss.metadata.ejb.spec;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -45,11 +46,13 @@ public abstract class EnterpriseBeansMap<A extends IAssemblyDescriptorMetaData,
         implements IdMetaData, Collection<E>, IEnterpriseBeansMetaData<A, C, E, J> {
     private static final long serialVersionUID = 1;
     private Map<String, E> map = new HashMap<String, E>();
+    private boolean frozen;
 
     public EnterpriseBeansMap() {
     }
 
     public boolean add(E o) {
+        assertNotFrozen();
         o.setEnterpriseBeansMetaData((C) this);
         String key = o.getKey();
         if (key == null)
@@ -64,6 +67,7 @@ public abstract class EnterpriseBeansMap<A extends IAssemblyDescriptorMetaData,
     }
 
     public void clear() {
+        assertNotFrozen();
         map.clear();
     }
 
@@ -90,15 +94,19 @@ public abstract class EnterpriseBeansMap<A extends IAssemblyDescriptorMetaData,
     }
 
     public Iterator<E> iterator() {
+        if (frozen)
+            return Collections.unmodifiableCollection(map.values()).iterator();
         return map.values().iterator();
     }
 
     public boolean remove(Object o) {
+        assertNotFrozen();
         E t = (E) o;
         return map.remove(t.getKey()) != null;
     }
 
     public boolean removeAll(Collection<?> c) {
+        assertNotFrozen();
         boolean removeAll = true;
         for (Object o : c) {
             E t = (E) o;
@@ -108,6 +116,7 @@ public abstract class EnterpriseBeansMap<A extends IAssemblyDescriptorMetaData,
     }
 
     public boolean retainAll(Collection<?> c) {
+        assertNotFrozen();
         HashMap<String, E> newmap = new HashMap<String, E>();
         for (Object o : c) {
             E t = (E) o;
@@ -128,4 +137,20 @@ public abstract class EnterpriseBeansMap<A extends IAssemblyDescriptorMetaData,
     public <T> T[] toArray(T[] a) {
         return map.values().toArray(a);
     }
+
+    /**
+     * Freeze the beans, any further attempt to add or remove beans fails. The beans themselves are not frozen.
+     */
+    public void freeze() {
+        frozen = true;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    private void assertNotFrozen() {
+        if (frozen)
+            throw new IllegalStateException(getClass().getSimpleName() + " is frozen");
+    }
 }
@@ -83,6 +83,19 @@ public class ExcludeListMetaData extends IdMetaDataImplWithDescriptions {
         return methods.matches(methodName, params, interfaceType);
     }
 
+    /**
+     * Whether this matches
+     *
+     * @param signature     the method signature
+     * @param interfaceType the interface type
+     * @return true when it matches
+     */
+    public boolean matches(MethodSignature signature, MethodInterfaceType interfaceType) {
+        if (methods == null)
+            return false;
+        return methods.matches(signature, interfaceType);
+    }
+
     /**
      * Get the exclude list for an ejb
      *
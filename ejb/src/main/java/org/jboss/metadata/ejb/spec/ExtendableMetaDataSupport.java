@@ -21,6 +21,7 @@
  */
 package org.jboss.metadata.ejb.spec;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -29,7 +30,9 @@ import java.util.Map;
 /**
  * @author <a href="mailto:cdewolf@redhat.com">Carlo de Wolf</a>
  */
-class ExtendableMetaDataSupport implements ExtendableMetaData {
+class ExtendableMetaDataSupport implements ExtendableMetaData, Serializable {
+    private static final long serialVersionUID = 1L;
+
     /**
      * Any additional attachments
      */
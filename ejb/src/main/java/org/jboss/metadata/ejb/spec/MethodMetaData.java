@@ -191,6 +191,32 @@ public class MethodMetaData extends IdMetaDataImplWithDescriptions {
         return true;
     }
 
+    /**
+     * Whether this matches
+     *
+     * @param signature     the method signature
+     * @param interfaceType the interface type
+     * @return true when it matches
+     */
+    public boolean matches(MethodSignature signature, MethodInterfaceType interfaceType) {
+        if (signature == null)
+            throw new IllegalArgumentException("Null signature");
+
+        // Check the type
+        if (methodInterface != null && methodInterface != interfaceType)
+            return false;
+
+        // the wildcard matches everything
+        if (getMethodName().equals("*"))
+            return true;
+
+        // Method name does not match
+        if (getMethodName().equals(signature.getName()) == false)
+            return false;
+
+        return signature.matchesParameters(methodParams);
+    }
+
     /**
      * Whether this is a home method
      *
@@ -35,10 +35,54 @@ public class MethodParametersMetaData extends ArrayList<String> {
      */
     private static final long serialVersionUID = -9138498601978922673L;
 
+    /**
+     * The descriptor names of parameter types
+     */
+    private static final ClassValue<String> TYPE_NAMES = new ClassValue<String>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            if (type.isArray() == false)
+                return type.getName();
+            final StringBuilder brackets = new StringBuilder();
+            while (type.isArray()) {
+                brackets.append("[]");
+                type = type.getComponentType();
+            }
+            return (type.getName() + brackets).intern();
+        }
+    };
+
     /**
      * Create a new MethodParametersMetaData.
      */
     public MethodParametersMetaData() {
         // For serialization
     }
+
+    /**
+     * Get the names of parameter types as they are written in descriptors, with array types
+     * written as the component type followed by brackets.
+     *
+     * @param types the parameter types
+     * @return the names or null for null types
+     */
+    public static String[] getParameterTypeNames(Class<?>[] types) {
+        if (types == null)
+            return null;
+
+        final String[] names = new String[types.length];
+        for (int i = 0; i < names.length; i++)
+            names[i] = getParameterTypeName(types[i]);
+        return names;
+    }
+
+    /**
+     * Get the name of a parameter type as it is written in descriptors. The name is computed once per type.
+     *
+     * @param type the parameter type
+     * @return the name
+     */
+    public static String getParameterTypeName(Class<?> type) {
+        return TYPE_NAMES.get(type);
+    }
 }
@@ -168,6 +168,19 @@ public class MethodPermissionMetaData extends IdMetaDataImplWithDescriptions {
         return methods.matches(methodName, params, interfaceType);
     }
 
+    /**
+     * Whether this matches
+     *
+     * @param signature     the method signature
+     * @param interfaceType the interface type
+     * @return true when it matches
+     */
+    public boolean matches(MethodSignature signature, MethodInterfaceType interfaceType) {
+        if (methods == null)
+            return false;
+        return methods.matches(signature, interfaceType);
+    }
+
     /**
      * Whether this is not checked
      *
@@ -182,6 +195,19 @@ public class MethodPermissionMetaData extends IdMetaDataImplWithDescriptions {
         return matches(methodName, params, interfaceType);
     }
 
+    /**
+     * Whether this is not checked
+     *
+     * @param signature     the method signature
+     * @param interfaceType the interface type
+     * @return true when it is not checked and it matches matches
+     */
+    public boolean isNotChecked(MethodSignature signature, MethodInterfaceType interfaceType) {
+        if (isNotChecked() == false)
+            return false;
+        return matches(signature, interfaceType);
+    }
+
     @Override
     public String toString() {
         StringBuilder tmp = new StringBuilder("MethodPermissionMetaData(id=");
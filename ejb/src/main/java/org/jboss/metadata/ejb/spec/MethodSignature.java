@@ -0,0 +1,204 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.metadata.ejb.spec;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The name and parameter types of a method, with the parameter types written as in descriptors.
+ * <p/>
+ * Matching metadata against a signature compares the parameter type names directly, so a signature can be
+ * matched any number of times without converting classes to names again. The signature of a {@link Method}
+ * is created once and shared, its parameter type names are shared by all signatures using the same types.
+ * A signature without parameters matches the same methods as one with unspecified parameters, so both are
+ * equal.
+ *
+ * @see MethodParametersMetaData#getParameterTypeName(Class)
+ */
+public final class MethodSignature {
+    private static final String[] NO_PARAMETERS = new String[0];
+
+    /** The signatures of the methods of a class */
+    private static final ClassValue<ConcurrentMap<Method, MethodSignature>> SIGNATURES = new ClassValue<ConcurrentMap<Method, MethodSignature>>() {
+        @Override
+        protected ConcurrentMap<Method, MethodSignature> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<Method, MethodSignature>();
+        }
+    };
+
+    /** The method name */
+    private final String name;
+
+    /** The parameter type names */
+    private final String[] parameterTypes;
+
+    /** The hash code */
+    private final int hash;
+
+    private MethodSignature(String name, String[] parameterTypes) {
+        this.name = name;
+        this.parameterTypes = parameterTypes;
+        this.hash = 31 * name.hashCode() + Arrays.hashCode(parameterTypes);
+    }
+
+    /**
+     * Get the signature of a method.
+     *
+     * @param method the method
+     * @return the shared signature of the method
+     * @throws IllegalArgumentException for a null method
+     */
+    public static MethodSignature of(Method method) {
+        if (method == null)
+            throw new IllegalArgumentException("Null method");
+        final ConcurrentMap<Method, MethodSignature> signatures = SIGNATURES.get(method.getDeclaringClass());
+        MethodSignature signature = signatures.get(method);
+        if (signature == null) {
+            signature = of(method.getName(), method.getParameterTypes());
+            final MethodSignature previous = signatures.putIfAbsent(method, signature);
+            if (previous != null)
+                signature = previous;
+        }
+        return signature;
+    }
+
+    /**
+     * Create a signature.
+     *
+     * @param name   the method name
+     * @param params the parameter types, may be null
+     * @return the signature
+     * @throws IllegalArgumentException for a null name
+     */
+    public static MethodSignature of(String name, Class<?>[] params) {
+        if (name == null)
+            throw new IllegalArgumentException("Null name");
+        if (params == null || params.length == 0)
+            return new MethodSignature(name, NO_PARAMETERS);
+        final String[] parameterTypes = new String[params.length];
+        for (int i = 0; i < params.length; i++)
+            parameterTypes[i] = MethodParametersMetaData.getParameterTypeName(params[i]);
+        return new MethodSignature(name, parameterTypes);
+    }
+
+    /**
+     * Create a signature.
+     *
+     * @param name   the method name
+     * @param params the parameter type names as written in descriptors, may be null
+     * @return the signature
+     * @throws IllegalArgumentException for a null name
+     */
+    public static MethodSignature of(String name, String[] params) {
+        if (name == null)
+            throw new IllegalArgumentException("Null name");
+        if (params == null || params.length == 0)
+            return new MethodSignature(name, NO_PARAMETERS);
+        return new MethodSignature(name, params.clone());
+    }
+
+    /**
+     * Get the method name.
+     *
+     * @return the method name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the number of parameters.
+     *
+     * @return the number of parameters
+     */
+    public int getParameterCount() {
+        return parameterTypes.length;
+    }
+
+    /**
+     * Get a parameter type name.
+     *
+     * @param index the index of the parameter
+     * @return the parameter type name
+     */
+    public String getParameterType(int index) {
+        return parameterTypes[index];
+    }
+
+    /**
+     * Get the parameter type names.
+     *
+     * @return a copy of the parameter type names
+     */
+    public String[] getParameterTypes() {
+        return parameterTypes.clone();
+    }
+
+    /**
+     * Whether the parameters of this signature are the given ones.
+     *
+     * @param params the parameter type names of a method in a descriptor, null for unspecified parameters
+     * @return true when the parameters are unspecified or equal
+     */
+    public boolean matchesParameters(List<String> params) {
+        if (params == null)
+            return true;
+        if (params.size() != parameterTypes.length)
+            return false;
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (parameterTypes[i].equals(params.get(i)) == false)
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj instanceof MethodSignature == false)
+            return false;
+        final MethodSignature other = (MethodSignature) obj;
+        return hash == other.hash && name.equals(other.name) && Arrays.equals(parameterTypes, other.parameterTypes);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder(name).append('(');
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0)
+                builder.append(',');
+            builder.append(parameterTypes[i]);
+        }
+        return builder.append(')').toString();
+    }
+}
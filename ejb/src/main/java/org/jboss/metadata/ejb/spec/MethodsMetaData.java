@@ -46,7 +46,27 @@ public class MethodsMetaData extends ArrayList<MethodMetaData> {
      * @return true when it matches
      */
     public boolean matches(String methodName, Class[] params, MethodInterfaceType interfaceType) {
-        return matches(methodName, getParametersAsStrings(params), interfaceType);
+        if (isEmpty())
+            return false;
+        return matches(MethodSignature.of(methodName, params), interfaceType);
+    }
+
+    /**
+     * Whether this matches
+     *
+     * @param signature     the method signature
+     * @param interfaceType the interface type
+     * @return true when it matches
+     */
+    public boolean matches(MethodSignature signature, MethodInterfaceType interfaceType) {
+        if (isEmpty())
+            return false;
+
+        for (MethodMetaData method : this) {
+            if (method.matches(signature, interfaceType))
+                return true;
+        }
+        return false;
     }
 
     /**
@@ -78,7 +98,37 @@ public class MethodsMetaData extends ArrayList<MethodMetaData> {
      * @return best match
      */
     public MethodMetaData bestMatch(String methodName, Class[] params, MethodInterfaceType interfaceType, MethodMetaData bestMatch) {
-        return bestMatch(methodName, getParametersAsStrings(params), interfaceType, bestMatch);
+        if (isEmpty())
+            return bestMatch;
+        return bestMatch(MethodSignature.of(methodName, params), interfaceType, bestMatch);
+    }
+
+    /**
+     * Whether this matches
+     *
+     * @param signature     the method signature
+     * @param interfaceType the interface type
+     * @param bestMatch     the previous best match
+     * @return best match
+     */
+    public MethodMetaData bestMatch(MethodSignature signature, MethodInterfaceType interfaceType, MethodMetaData bestMatch) {
+        if (isEmpty())
+            return bestMatch;
+
+        for (MethodMetaData method : this) {
+            if (method.matches(signature, interfaceType)) {
+                // No previous best match
+                if (bestMatch == null)
+                    bestMatch = method;
+                    // better match because the previous was a wildcard
+                else if ("*".equals(bestMatch.getMethodName()))
+                    bestMatch = method;
+                    // better because it specifies parameters
+                else if (method.getMethodParams() != null)
+                    bestMatch = method;
+            }
+        }
+        return bestMatch;
     }
 
     /**
@@ -132,29 +182,6 @@ public class MethodsMetaData extends ArrayList<MethodMetaData> {
         return result;
     }
 
-    /**
-     * Get string names of classes
-     *
-     * @param classes the classes
-     * @return the string names
-     */
-    private String[] getParametersAsStrings(Class[] classes) {
-        if (classes == null)
-            return null;
-
-        String[] out = new String[classes.length];
-        for (int i = 0; i < out.length; i++) {
-            String brackets = "";
-            Class cls = classes[i];
-            while (cls.isArray()) {
-                brackets += "[]";
-                cls = cls.getComponentType();
-            }
-            out[i] = cls.getName() + brackets;
-        }
-        return out;
-    }
-
     public void merge(MethodsMetaData override, MethodsMetaData original) {
         MergeUtil.merge(this, override, original);
     }
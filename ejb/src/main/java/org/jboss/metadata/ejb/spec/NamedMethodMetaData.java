@@ -159,4 +159,16 @@ public class NamedMethodMetaData extends NamedMetaData {
         // We match
         return true;
     }
+
+    public boolean matches(MethodSignature signature) {
+        // the wildcard matches everything
+        if (getMethodName().equals("*"))
+            return true;
+
+        // Method name does not match
+        if (!getMethodName().equals(signature.getName()))
+            return false;
+
+        return signature.matchesParameters(methodParams);
+    }
 }
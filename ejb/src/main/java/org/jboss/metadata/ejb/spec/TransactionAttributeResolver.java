@@ -0,0 +1,192 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.metadata.ejb.spec;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.ejb.TransactionAttributeType;
+
+/**
+ * The transaction attributes of the methods of a bean, compiled from its container transactions.
+ * <p/>
+ * The methods of the container transactions are indexed by method name, with the wildcard methods kept
+ * apart, so a lookup only looks at the entries that can match the method. Among those the best match is
+ * picked with the same rules as {@link MethodsMetaData#bestMatch(String, String[], MethodInterfaceType, MethodMetaData)}
+ * applied in descriptor order. The transaction attribute of a {@link Method} is resolved once per
+ * interface type.
+ */
+public class TransactionAttributeResolver {
+    /** No entries */
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    /** The entries per method name */
+    private final Map<String, Entry[]> entriesByName = new HashMap<String, Entry[]>();
+
+    /** The wildcard entries */
+    private final Entry[] wildcardEntries;
+
+    /** The resolved transaction attributes, one map per interface type and a last one for no interface type */
+    private final ConcurrentMap<Method, TransactionAttributeType>[] resolved;
+
+    /**
+     * Create a new TransactionAttributeResolver.
+     *
+     * @param containerTransactions the container transactions of the bean, may be null
+     */
+    @SuppressWarnings("unchecked")
+    public TransactionAttributeResolver(ContainerTransactionsMetaData containerTransactions) {
+        final Map<String, List<Entry>> byName = new HashMap<String, List<Entry>>();
+        final List<Entry> wildcards = new ArrayList<Entry>();
+        if (containerTransactions != null) {
+            int order = 0;
+            for (ContainerTransactionMetaData transaction : containerTransactions) {
+                final MethodsMetaData methods = transaction.getMethods();
+                if (methods == null)
+                    continue;
+                for (MethodMetaData method : methods) {
+                    final Entry entry = new Entry(order++, method, transaction.getTransAttribute());
+                    final String methodName = method.getMethodName();
+                    if ("*".equals(methodName)) {
+                        wildcards.add(entry);
+                    } else {
+                        List<Entry> entries = byName.get(methodName);
+                        if (entries == null) {
+                            entries = new ArrayList<Entry>(1);
+                            byName.put(methodName, entries);
+                        }
+                        entries.add(entry);
+                    }
+                }
+            }
+        }
+        for (Map.Entry<String, List<Entry>> entries : byName.entrySet())
+            entriesByName.put(entries.getKey(), entries.getValue().toArray(new Entry[entries.getValue().size()]));
+        wildcardEntries = wildcards.toArray(new Entry[wildcards.size()]);
+        resolved = new ConcurrentMap[MethodInterfaceType.values().length + 1];
+        for (int i = 0; i < resolved.length; i++)
+            resolved[i] = new ConcurrentHashMap<Method, TransactionAttributeType>();
+    }
+
+    /**
+     * Get the transaction attribute of a method, resolving it the first time the method is seen.
+     *
+     * @param method the method
+     * @param iface  the interface type, may be null
+     * @return the transaction attribute, {@link TransactionAttributeType#REQUIRED} if none is declared
+     * @throws IllegalArgumentException for a null method
+     */
+    public TransactionAttributeType getTransactionAttribute(Method method, MethodInterfaceType iface) {
+        if (method == null)
+            throw new IllegalArgumentException("Null method");
+
+        final ConcurrentMap<Method, TransactionAttributeType> methodTx = resolved[iface != null ? iface.ordinal() : resolved.length - 1];
+        TransactionAttributeType result = methodTx.get(method);
+        if (result != null)
+            return result;
+
+        result = resolve(MethodSignature.of(method), iface);
+        // provide default if method is not found in descriptor
+        if (result == null)
+            result = TransactionAttributeType.REQUIRED;
+        methodTx.putIfAbsent(method, result);
+        return result;
+    }
+
+    /**
+     * Resolve the transaction attribute of a method.
+     *
+     * @param methodName the method name
+     * @param params     the parameters
+     * @param iface      the interface type, may be null
+     * @return the declared transaction attribute or null if none is declared
+     */
+    public TransactionAttributeType resolve(String methodName, Class<?>[] params, MethodInterfaceType iface) {
+        if (methodName == null)
+            throw new IllegalArgumentException("Null methodName");
+        if (entriesByName.containsKey(methodName) == false && wildcardEntries.length == 0)
+            return null;
+        return resolve(MethodSignature.of(methodName, params), iface);
+    }
+
+    /**
+     * Resolve the transaction attribute of a method.
+     *
+     * @param signature the method signature
+     * @param iface     the interface type, may be null
+     * @return the declared transaction attribute or null if none is declared
+     */
+    public TransactionAttributeType resolve(MethodSignature signature, MethodInterfaceType iface) {
+        if (signature == null)
+            throw new IllegalArgumentException("Null signature");
+
+        Entry[] named = entriesByName.get(signature.getName());
+        if (named == null)
+            named = NO_ENTRIES;
+        if (named.length == 0 && wildcardEntries.length == 0)
+            return null;
+
+        Entry best = null;
+        // walk both lists in descriptor order, as bestMatch does over the whole descriptor
+        int n = 0;
+        int w = 0;
+        while (n < named.length || w < wildcardEntries.length) {
+            final Entry entry;
+            if (w == wildcardEntries.length || (n < named.length && named[n].order < wildcardEntries[w].order))
+                entry = named[n++];
+            else
+                entry = wildcardEntries[w++];
+            if (entry.method.matches(signature, iface) == false)
+                continue;
+            if (best == null || best.wildcard || entry.method.getMethodParams() != null)
+                best = entry;
+        }
+        return best != null ? best.transAttribute : null;
+    }
+
+    private static final class Entry {
+        /** The position of the method in the container transactions */
+        private final int order;
+
+        /** The method */
+        private final MethodMetaData method;
+
+        /** Whether the method is the wildcard */
+        private final boolean wildcard;
+
+        /** The transaction attribute */
+        private final TransactionAttributeType transAttribute;
+
+        Entry(int order, MethodMetaData method, TransactionAttributeType transAttribute) {
+            this.order = order;
+            this.method = method;
+            this.wildcard = "*".equals(method.getMethodName());
+            this.transAttribute = transAttribute;
+        }
+    }
+}
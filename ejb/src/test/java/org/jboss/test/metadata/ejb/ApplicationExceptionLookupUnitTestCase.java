@@ -0,0 +1,91 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.metadata.ejb;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.jboss.metadata.ejb.jboss.JBossAssemblyDescriptorMetaData;
+import org.jboss.metadata.ejb.spec.ApplicationExceptionMetaData;
+import org.jboss.metadata.ejb.spec.ApplicationExceptionsMetaData;
+import org.junit.Test;
+
+/**
+ * Tests of {@link ApplicationExceptionsMetaData#getApplicationException(Class)}.
+ */
+public class ApplicationExceptionLookupUnitTestCase {
+
+    public static class BusinessException extends Exception {
+        private static final long serialVersionUID = 1L;
+    }
+
+    public static class OrderException extends BusinessException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    public static class LocalException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    public static class SpecialLocalException extends LocalException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    @Test
+    public void testHierarchy() {
+        final ApplicationExceptionsMetaData applicationExceptions = new ApplicationExceptionsMetaData();
+        final ApplicationExceptionMetaData business = applicationException(BusinessException.class, null);
+        applicationExceptions.add(business);
+        final ApplicationExceptionMetaData local = applicationException(LocalException.class, Boolean.FALSE);
+        applicationExceptions.add(local);
+
+        assertSame(business, applicationExceptions.getApplicationException(BusinessException.class));
+        assertSame(business, applicationExceptions.getApplicationException(OrderException.class));
+        assertSame(local, applicationExceptions.getApplicationException(LocalException.class));
+        assertNull(applicationExceptions.getApplicationException(SpecialLocalException.class));
+        assertNull(applicationExceptions.getApplicationException(IllegalStateException.class));
+
+        // a closer declaration added later takes over
+        final ApplicationExceptionMetaData order = applicationException(OrderException.class, Boolean.TRUE);
+        applicationExceptions.add(order);
+        assertSame(order, applicationExceptions.getApplicationException(OrderException.class));
+    }
+
+    @Test
+    public void testAssemblyDescriptor() {
+        final JBossAssemblyDescriptorMetaData assemblyDescriptor = new JBossAssemblyDescriptorMetaData();
+        assertNull(assemblyDescriptor.getApplicationException(BusinessException.class));
+        final ApplicationExceptionsMetaData applicationExceptions = new ApplicationExceptionsMetaData();
+        final ApplicationExceptionMetaData business = applicationException(BusinessException.class, Boolean.TRUE);
+        applicationExceptions.add(business);
+        assemblyDescriptor.setApplicationExceptions(applicationExceptions);
+        assertSame(business, assemblyDescriptor.getApplicationException(OrderException.class));
+    }
+
+    private static ApplicationExceptionMetaData applicationException(Class<?> exceptionClass, Boolean inherited) {
+        final ApplicationExceptionMetaData applicationException = new ApplicationExceptionMetaData();
+        applicationException.setExceptionClass(exceptionClass.getName());
+        applicationException.setInherited(inherited);
+        return applicationException;
+    }
+}
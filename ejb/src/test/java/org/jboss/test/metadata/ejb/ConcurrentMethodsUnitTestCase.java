@@ -0,0 +1,147 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.metadata.ejb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Random;
+
+import javax.ejb.LockType;
+
+import org.jboss.metadata.ejb.jboss.JBossSessionBean31MetaData;
+import org.jboss.metadata.ejb.spec.ConcurrentMethodMetaData;
+import org.jboss.metadata.ejb.spec.ConcurrentMethodsMetaData;
+import org.jboss.metadata.ejb.spec.MethodParametersMetaData;
+import org.jboss.metadata.ejb.spec.NamedMethodMetaData;
+import org.junit.Test;
+
+/**
+ * Tests of the lookups of {@link ConcurrentMethodsMetaData}.
+ */
+public class ConcurrentMethodsUnitTestCase {
+
+    public interface Cache {
+        Object get(String key);
+
+        void put(String key, Object value);
+
+        void clear();
+    }
+
+    @Test
+    public void testFind() {
+        final ConcurrentMethodsMetaData methods = new ConcurrentMethodsMetaData();
+        final ConcurrentMethodMetaData clear = concurrentMethod("clear", null, LockType.WRITE);
+        methods.add(clear);
+        final ConcurrentMethodMetaData get = concurrentMethod("get", new String[]{"java.lang.String"}, LockType.READ);
+        methods.add(get);
+
+        // no parameters and an empty parameter list are equivalent
+        assertSame(clear, methods.find(method("clear", new String[0])));
+        assertSame(get, methods.find(method("get", new String[]{"java.lang.String"})));
+        assertNull(methods.find(method("get", null)));
+        assertNull(methods.find(null));
+
+        // changes are seen by the next lookup
+        final ConcurrentMethodMetaData put = concurrentMethod("put", null, LockType.WRITE);
+        methods.add(put);
+        assertSame(put, methods.bestMatch("put", new String[]{"java.lang.String", "java.lang.Object"}));
+        final ConcurrentMethodMetaData replacement = concurrentMethod("put", null, LockType.READ);
+        methods.set(methods.indexOf(put), replacement);
+        assertSame(replacement, methods.find(method("put", null)));
+    }
+
+    /**
+     * Compare with a scan of the list in order.
+     */
+    @Test
+    public void testSameAsLinearScan() {
+        final Random random = new Random(3);
+        final String[] names = {"*", "get", "put", "clear"};
+        final String[][] signatures = {null, {}, {"java.lang.String"}, {"java.lang.String", "java.lang.Object"}};
+        for (int round = 0; round < 500; round++) {
+            final ConcurrentMethodsMetaData methods = new ConcurrentMethodsMetaData();
+            final int count = random.nextInt(7);
+            for (int i = 0; i < count; i++)
+                methods.add(concurrentMethod(names[random.nextInt(names.length)], signatures[random.nextInt(signatures.length)],
+                        random.nextBoolean() ? LockType.READ : LockType.WRITE));
+            for (String name : new String[]{"get", "put", "clear", "size"}) {
+                for (String[] params : signatures) {
+                    assertSame(linearScan(methods, name, params), methods.bestMatch(name, params));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEffectiveLockType() throws Exception {
+        final JBossSessionBean31MetaData bean = new JBossSessionBean31MetaData();
+        bean.setEjbName("CacheBean");
+        bean.setEjbClass("org.example.CacheBean");
+        assertNull(bean.getLockType(Cache.class.getMethod("clear")));
+        bean.setLockType(Cache.class.getName(), LockType.READ);
+        assertEquals(LockType.READ, bean.getLockType(Cache.class.getMethod("clear")));
+        final ConcurrentMethodsMetaData methods = new ConcurrentMethodsMetaData();
+        methods.add(concurrentMethod("clear", null, LockType.WRITE));
+        bean.setConcurrentMethods(methods);
+        assertEquals(LockType.WRITE, bean.getLockType(Cache.class.getMethod("clear")));
+        assertEquals(LockType.READ, bean.getLockType(Cache.class.getMethod("get", String.class)));
+        assertNull(bean.getAccessTimeout(Cache.class.getMethod("clear")));
+    }
+
+    private static ConcurrentMethodMetaData linearScan(ConcurrentMethodsMetaData methods, String methodName, String[] params) {
+        ConcurrentMethodMetaData bestMatch = null;
+        for (ConcurrentMethodMetaData method : methods) {
+            if (method.matches(methodName, params)) {
+                if (bestMatch == null)
+                    bestMatch = method;
+                else if ("*".equals(bestMatch.getMethod().getMethodName()))
+                    bestMatch = method;
+                else if (method.getMethod().getMethodParams() != null)
+                    bestMatch = method;
+            }
+        }
+        return bestMatch;
+    }
+
+    private static ConcurrentMethodMetaData concurrentMethod(String name, String[] params, LockType lockType) {
+        final ConcurrentMethodMetaData concurrentMethod = new ConcurrentMethodMetaData();
+        concurrentMethod.setMethod(method(name, params));
+        concurrentMethod.setLockType(lockType);
+        return concurrentMethod;
+    }
+
+    private static NamedMethodMetaData method(String name, String[] params) {
+        final NamedMethodMetaData method = new NamedMethodMetaData();
+        method.setMethodName(name);
+        if (params != null) {
+            final MethodParametersMetaData methodParams = new MethodParametersMetaData();
+            for (String param : params)
+                methodParams.add(param);
+            method.setMethodParams(methodParams);
+        }
+        return method;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.metadata.ejb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.jboss.metadata.ejb.jboss.InterceptorChains;
+import org.jboss.metadata.ejb.jboss.JBossAssemblyDescriptorMetaData;
+import org.jboss.metadata.ejb.jboss.JBossMetaData;
+import org.jboss.metadata.ejb.spec.InterceptorBindingMetaData;
+import org.jboss.metadata.ejb.spec.InterceptorBindingsMetaData;
+import org.jboss.metadata.ejb.spec.InterceptorClassesMetaData;
+import org.jboss.metadata.ejb.spec.InterceptorMetaData;
+import org.jboss.metadata.ejb.spec.InterceptorOrderMetaData;
+import org.jboss.metadata.ejb.spec.InterceptorsMetaData;
+import org.jboss.metadata.ejb.spec.MethodParametersMetaData;
+import org.jboss.metadata.ejb.spec.NamedMethodMetaData;
+import org.junit.Test;
+
+/**
+ * Tests of {@link InterceptorChains}.
+ */
+public class InterceptorChainsUnitTestCase {
+
+    @Test
+    public void testClassChains() {
+        final InterceptorBindingsMetaData bindings = new InterceptorBindingsMetaData();
+        bindings.add(binding("*", null, "D1", "D2"));
+        bindings.add(binding("Bean", null, "C1"));
+        bindings.add(binding("Bean", null, "C2"));
+        final InterceptorBindingMetaData excluding = binding("Excluding", null, "C1");
+        excluding.setExcludeDefaultInterceptors(true);
+        bindings.add(excluding);
+        final InterceptorBindingMetaData ordered = new InterceptorBindingMetaData();
+        ordered.setEjbName("Ordered");
+        ordered.setInterceptorOrder(order("C2", "D1"));
+        bindings.add(ordered);
+        final InterceptorChains chains = metaData(bindings).getInterceptorChains();
+
+        assertEquals(Arrays.asList("D1", "D2"), chains.getDefaultInterceptors());
+        assertEquals(Arrays.asList("D1", "D2", "C1", "C2"), chains.getClassInterceptors("Bean"));
+        assertEquals(Arrays.asList("C1"), chains.getClassInterceptors("Excluding"));
+        assertEquals(Arrays.asList("C2", "D1"), chains.getClassInterceptors("Ordered"));
+        assertEquals(Arrays.asList("D1", "D2"), chains.getClassInterceptors("Unbound"));
+        assertEquals(Arrays.asList("D1", "D2"), chains.getMethodInterceptors("Unbound", "run", null));
+    }
+
+    @Test
+    public void testMethodChains() {
+        final InterceptorBindingsMetaData bindings = new InterceptorBindingsMetaData();
+        bindings.add(binding("*", null, "D1"));
+        bindings.add(binding("Bean", null, "C1"));
+        bindings.add(binding("Bean", method("run"), "M1"));
+        final InterceptorBindingMetaData noClass = binding("Bean", method("stop", "int"), "M2");
+        noClass.setExcludeClassInterceptors(true);
+        bindings.add(noClass);
+        final InterceptorBindingMetaData noDefault = binding("Bean", method("stop", "java.lang.String"), "M3");
+        noDefault.setExcludeDefaultInterceptors(true);
+        bindings.add(noDefault);
+        final InterceptorBindingMetaData ordered = new InterceptorBindingMetaData();
+        ordered.setEjbName("Bean");
+        ordered.setMethod(method("ordered"));
+        ordered.setInterceptorOrder(order("M1", "C1", "D1"));
+        bindings.add(ordered);
+        final JBossMetaData metaData = metaData(bindings);
+        metaData.freeze();
+        final InterceptorChains chains = metaData.getInterceptorChains();
+        assertSame(chains, metaData.getInterceptorChains());
+
+        assertEquals(Arrays.asList("D1", "C1"), chains.getMethodInterceptors("Bean", "walk", null));
+        assertEquals(Arrays.asList("D1", "C1", "M1"), chains.getMethodInterceptors("Bean", "run", new String[] { "int" }));
+        assertEquals(Arrays.asList("D1", "M2"), chains.getMethodInterceptors("Bean", "stop", new String[] { "int" }));
+        assertEquals(Arrays.asList("C1", "M3"), chains.getMethodInterceptors("Bean", "stop", new String[] { "java.lang.String" }));
+        assertEquals(Arrays.asList("D1", "C1"), chains.getMethodInterceptors("Bean", "stop", new String[0]));
+        assertEquals(Arrays.asList("M1", "C1", "D1"), chains.getMethodInterceptors("Bean", "ordered", null));
+        assertSame(chains.getMethodInterceptors("Bean", "run", null), chains.getMethodInterceptors("Bean", "run", null));
+    }
+
+    @Test
+    public void testLegacyViewsAreUnchanged() {
+        final InterceptorBindingsMetaData bindings = new InterceptorBindingsMetaData();
+        bindings.add(binding("*", null, "D1"));
+        bindings.add(binding("Bean", null, "C1", "Unknown"));
+        final InterceptorBindingMetaData excluding = binding("Excluding", null, "C2");
+        excluding.setExcludeDefaultInterceptors(true);
+        bindings.add(excluding);
+        final JBossMetaData unfrozen = metaData(bindings);
+        final JBossMetaData frozen = metaData(bindings);
+        frozen.freeze();
+
+        for (String ejbName : new String[] { "Bean", "Excluding", "Unbound" }) {
+            assertEquals(ejbName, classes(JBossMetaData.getInterceptors(ejbName, unfrozen)),
+                    classes(JBossMetaData.getInterceptors(ejbName, frozen)));
+        }
+        assertEquals(Arrays.asList("C1", "D1"), classes(JBossMetaData.getInterceptors("Bean", frozen)));
+        // the default binding itself does not exclude the default interceptors
+        assertEquals(Arrays.asList("C2", "D1"), classes(JBossMetaData.getInterceptors("Excluding", frozen)));
+        assertEquals(JBossMetaData.getAllInterceptorClasses(unfrozen), JBossMetaData.getAllInterceptorClasses(frozen));
+        assertTrue(JBossMetaData.getAllInterceptorClasses(frozen).contains("Unknown"));
+    }
+
+    private static JBossMetaData metaData(InterceptorBindingsMetaData bindings) {
+        final JBossMetaData metaData = new JBossMetaData();
+        final InterceptorsMetaData interceptors = new InterceptorsMetaData();
+        for (String interceptorClass : new String[] { "D1", "D2", "C1", "C2", "M1", "M2", "M3" }) {
+            final InterceptorMetaData interceptor = new InterceptorMetaData();
+            interceptor.setInterceptorClass(interceptorClass);
+            interceptors.add(interceptor);
+        }
+        metaData.setInterceptors(interceptors);
+        final JBossAssemblyDescriptorMetaData assemblyDescriptor = new JBossAssemblyDescriptorMetaData();
+        assemblyDescriptor.setInterceptorBindings(bindings);
+        metaData.setAssemblyDescriptor(assemblyDescriptor);
+        return metaData;
+    }
+
+    private static InterceptorBindingMetaData binding(String ejbName, NamedMethodMetaData method, String... classes) {
+        final InterceptorBindingMetaData binding = new InterceptorBindingMetaData();
+        binding.setEjbName(ejbName);
+        if (method != null)
+            binding.setMethod(method);
+        final InterceptorClassesMetaData interceptorClasses = new InterceptorClassesMetaData();
+        Collections.addAll(interceptorClasses, classes);
+        binding.setInterceptorClasses(interceptorClasses);
+        return binding;
+    }
+
+    private static InterceptorOrderMetaData order(String... classes) {
+        final InterceptorOrderMetaData order = new InterceptorOrderMetaData();
+        Collections.addAll(order, classes);
+        return order;
+    }
+
+    private static NamedMethodMetaData method(String name, String... params) {
+        final NamedMethodMetaData method = new NamedMethodMetaData();
+        method.setMethodName(name);
+        if (params.length > 0) {
+            final MethodParametersMetaData methodParams = new MethodParametersMetaData();
+            Collections.addAll(methodParams, params);
+            method.setMethodParams(methodParams);
+        }
+        return method;
+    }
+
+    private static List<String> classes(InterceptorsMetaData interceptors) {
+        final List<String> classes = new ArrayList<String>();
+        for (InterceptorMetaData interceptor : interceptors)
+            classes.add(interceptor.getInterceptorClass());
+        return classes;
+    }
+}
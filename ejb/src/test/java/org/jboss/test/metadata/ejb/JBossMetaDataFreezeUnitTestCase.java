@@ -0,0 +1,104 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.metadata.ejb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.jboss.metadata.ejb.jboss.JBossEnterpriseBeansMetaData;
+import org.jboss.metadata.ejb.jboss.JBossMetaData;
+import org.jboss.metadata.ejb.jboss.JBossSessionBean31MetaData;
+import org.jboss.metadata.ejb.jboss.MethodAttributeMetaData;
+import org.jboss.metadata.ejb.jboss.MethodAttributesMetaData;
+import org.jboss.metadata.ejb.spec.SecurityIdentityMetaData;
+import org.jboss.metadata.javaee.jboss.RunAsIdentityMetaData;
+import org.jboss.metadata.javaee.spec.RunAsMetaData;
+import org.junit.Test;
+
+/**
+ * Tests of {@link JBossMetaData#freeze()}.
+ */
+public class JBossMetaDataFreezeUnitTestCase {
+
+    @Test
+    public void testFreeze() {
+        final JBossMetaData metaData = new JBossMetaData();
+        final JBossEnterpriseBeansMetaData beans = new JBossEnterpriseBeansMetaData();
+        metaData.setEnterpriseBeans(beans);
+        final JBossSessionBean31MetaData runAsBean = bean("RunAsBean");
+        final SecurityIdentityMetaData securityIdentity = new SecurityIdentityMetaData();
+        final RunAsMetaData runAs = new RunAsMetaData();
+        runAs.setRoleName("admin");
+        securityIdentity.setRunAs(runAs);
+        runAsBean.setSecurityIdentity(securityIdentity);
+        beans.add(runAsBean);
+        final JBossSessionBean31MetaData plainBean = bean("PlainBean");
+        final MethodAttributesMetaData methodAttributes = new MethodAttributesMetaData();
+        final MethodAttributeMetaData getters = new MethodAttributeMetaData();
+        getters.setMethodName("get*");
+        getters.setReadOnly(true);
+        methodAttributes.add(getters);
+        plainBean.setMethodAttributes(methodAttributes);
+        beans.add(plainBean);
+
+        metaData.freeze();
+        assertTrue(metaData.isFrozen());
+
+        final RunAsIdentityMetaData identity = metaData.getRunAsIdentity("RunAsBean");
+        assertEquals("admin", identity.getRoleName());
+        assertSame(identity, metaData.getRunAsIdentity("RunAsBean"));
+        assertNull(metaData.getRunAsIdentity("PlainBean"));
+        assertNull(metaData.getRunAsIdentity("NoSuchBean"));
+        assertTrue(methodAttributes.isMethodReadOnly("getName"));
+
+        try {
+            beans.add(bean("AnotherBean"));
+            fail("Expected an IllegalStateException");
+        } catch (IllegalStateException expected) {
+        }
+        try {
+            methodAttributes.add(new MethodAttributeMetaData());
+            fail("Expected an IllegalStateException");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    @Test
+    public void testMethodAttributesCacheFollowsChanges() {
+        final MethodAttributesMetaData methodAttributes = new MethodAttributesMetaData();
+        assertSame(MethodAttributeMetaData.DEFAULT, methodAttributes.getMethodAttribute("getName"));
+        final MethodAttributeMetaData getters = new MethodAttributeMetaData();
+        getters.setMethodName("get*");
+        methodAttributes.add(getters);
+        assertSame(getters, methodAttributes.getMethodAttribute("getName"));
+    }
+
+    private static JBossSessionBean31MetaData bean(String name) {
+        final JBossSessionBean31MetaData bean = new JBossSessionBean31MetaData();
+        bean.setEjbName(name);
+        return bean;
+    }
+}
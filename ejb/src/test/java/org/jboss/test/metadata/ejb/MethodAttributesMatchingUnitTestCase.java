@@ -0,0 +1,106 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.metadata.ejb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.jboss.metadata.ejb.jboss.MethodAttributeMetaData;
+import org.jboss.metadata.ejb.jboss.MethodAttributesMetaData;
+import org.junit.Test;
+
+/**
+ * Tests of the method name pattern lookup of {@link MethodAttributesMetaData}.
+ */
+public class MethodAttributesMatchingUnitTestCase {
+
+    @Test
+    public void testFirstMatchWins() {
+        final MethodAttributesMetaData attributes = new MethodAttributesMetaData();
+        final MethodAttributeMetaData getters = attribute("get*", true, 0);
+        attributes.add(getters);
+        final MethodAttributeMetaData getName = attribute("getName", false, 10);
+        attributes.add(getName);
+        final MethodAttributeMetaData all = attribute("*", false, 20);
+        attributes.add(all);
+
+        assertSame(getters, attributes.getMethodAttribute("getName"));
+        assertTrue(attributes.isMethodReadOnly("getAddress"));
+        assertSame(all, attributes.getMethodAttribute("setName"));
+        assertEquals(20, attributes.getMethodTransactionTimeout("get"));
+        assertSame(MethodAttributeMetaData.DEFAULT, attributes.getMethodAttribute(null));
+    }
+
+    @Test
+    public void testPatternLength() {
+        final MethodAttributesMetaData attributes = new MethodAttributesMetaData();
+        final MethodAttributeMetaData pattern = attribute("ab*cd", true, 0);
+        attributes.add(pattern);
+        // the text after the wildcard is not compared, but counts towards the length
+        assertSame(pattern, attributes.getMethodAttribute("abxyz"));
+        assertSame(pattern, attributes.getMethodAttribute("abcdefg"));
+        assertFalse(attributes.isMethodReadOnly("abcd"));
+        assertFalse(attributes.isMethodReadOnly("ab"));
+    }
+
+    /**
+     * Compare with {@link MethodAttributeMetaData#matches(String)} applied in order.
+     */
+    @Test
+    public void testSameAsLinearScan() {
+        final Random random = new Random(7);
+        final String[] patterns = {"*", "a*", "ab*", "abc", "ab", "a", "b*", "abc*d", "ba", "a*b", "bab*"};
+        final String[] names = {"", "a", "ab", "abc", "abcd", "abcde", "b", "ba", "bab", "babe", "c"};
+        for (int round = 0; round < 300; round++) {
+            final MethodAttributesMetaData attributes = new MethodAttributesMetaData();
+            final int count = random.nextInt(patterns.length);
+            for (int i = 0; i < count; i++) {
+                final String pattern = patterns[random.nextInt(patterns.length)];
+                if (attributes.get(pattern) == null)
+                    attributes.add(attribute(pattern, random.nextBoolean(), i));
+            }
+            for (String name : names) {
+                MethodAttributeMetaData expected = MethodAttributeMetaData.DEFAULT;
+                for (MethodAttributeMetaData attribute : attributes) {
+                    if (attribute.matches(name)) {
+                        expected = attribute;
+                        break;
+                    }
+                }
+                assertSame(attributes + " " + name, expected, attributes.getMethodAttribute(name));
+            }
+        }
+    }
+
+    private static MethodAttributeMetaData attribute(String methodName, boolean readOnly, int timeout) {
+        final MethodAttributeMetaData attribute = new MethodAttributeMetaData();
+        attribute.setMethodName(methodName);
+        attribute.setReadOnly(readOnly);
+        attribute.setTransactionTimeout(timeout);
+        return attribute;
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.metadata.ejb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import javax.ejb.LockType;
+import javax.ejb.TransactionAttributeType;
+
+import org.jboss.metadata.ejb.jboss.JBossAssemblyDescriptorMetaData;
+import org.jboss.metadata.ejb.jboss.JBossEnterpriseBeansMetaData;
+import org.jboss.metadata.ejb.jboss.JBossMetaData;
+import org.jboss.metadata.ejb.jboss.JBossSessionBean31MetaData;
+import org.jboss.metadata.ejb.jboss.MethodAttributeMetaData;
+import org.jboss.metadata.ejb.jboss.MethodAttributesMetaData;
+import org.jboss.metadata.ejb.jboss.MethodInvocationMetaData;
+import org.jboss.metadata.ejb.jboss.MethodInvocationTable;
+import org.jboss.metadata.ejb.spec.AccessTimeoutMetaData;
+import org.jboss.metadata.ejb.spec.AsyncMethodMetaData;
+import org.jboss.metadata.ejb.spec.AsyncMethodsMetaData;
+import org.jboss.metadata.ejb.spec.ConcurrentMethodMetaData;
+import org.jboss.metadata.ejb.spec.ConcurrentMethodsMetaData;
+import org.jboss.metadata.ejb.spec.ContainerTransactionMetaData;
+import org.jboss.metadata.ejb.spec.ContainerTransactionsMetaData;
+import org.jboss.metadata.ejb.spec.MethodInterfaceType;
+import org.jboss.metadata.ejb.spec.MethodMetaData;
+import org.jboss.metadata.ejb.spec.MethodPermissionMetaData;
+import org.jboss.metadata.ejb.spec.MethodPermissionsMetaData;
+import org.jboss.metadata.ejb.spec.MethodsMetaData;
+import org.jboss.metadata.ejb.spec.NamedMethodMetaData;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link MethodInvocationTable}.
+ */
+public class MethodInvocationTableUnitTestCase {
+
+    public interface Counter {
+        int getValue();
+
+        void increment();
+
+        void reset();
+    }
+
+    public static class BaseCounter {
+        public void increment() {
+        }
+    }
+
+    public static class CounterBean extends BaseCounter implements Counter {
+        public int getValue() {
+            return 0;
+        }
+
+        public void reset() {
+        }
+    }
+
+    private JBossMetaData metaData;
+
+    private JBossSessionBean31MetaData bean;
+
+    @Before
+    public void setUp() {
+        metaData = new JBossMetaData();
+        metaData.setEnterpriseBeans(new JBossEnterpriseBeansMetaData());
+        bean = new JBossSessionBean31MetaData();
+        bean.setEjbName("CounterBean");
+        bean.setEjbClass(CounterBean.class.getName());
+        metaData.getEnterpriseBeans().add(bean);
+
+        final JBossAssemblyDescriptorMetaData assemblyDescriptor = new JBossAssemblyDescriptorMetaData();
+        final ContainerTransactionsMetaData transactions = new ContainerTransactionsMetaData();
+        final ContainerTransactionMetaData transaction = new ContainerTransactionMetaData();
+        transaction.setTransAttribute(TransactionAttributeType.SUPPORTS);
+        transaction.setMethods(methods("getValue"));
+        transactions.add(transaction);
+        assemblyDescriptor.setContainerTransactions(transactions);
+        final MethodPermissionsMetaData permissions = new MethodPermissionsMetaData();
+        final MethodPermissionMetaData permission = new MethodPermissionMetaData();
+        permission.setRoles(new HashSet<String>(Collections.singleton("Admin")));
+        permission.setMethods(methods("*"));
+        permissions.add(permission);
+        assemblyDescriptor.setMethodPermissions(permissions);
+        metaData.setAssemblyDescriptor(assemblyDescriptor);
+
+        final MethodAttributesMetaData methodAttributes = new MethodAttributesMetaData();
+        final MethodAttributeMetaData getters = new MethodAttributeMetaData();
+        getters.setMethodName("get*");
+        getters.setReadOnly(true);
+        getters.setTransactionTimeout(5);
+        methodAttributes.add(getters);
+        bean.setMethodAttributes(methodAttributes);
+
+        bean.setLockType(LockType.WRITE);
+        final ConcurrentMethodsMetaData concurrentMethods = new ConcurrentMethodsMetaData();
+        final ConcurrentMethodMetaData read = new ConcurrentMethodMetaData();
+        final NamedMethodMetaData get = new NamedMethodMetaData();
+        get.setMethodName("getValue");
+        read.setMethod(get);
+        read.setLockType(LockType.READ);
+        final AccessTimeoutMetaData accessTimeout = new AccessTimeoutMetaData();
+        accessTimeout.setTimeout(10);
+        read.setAccessTimeout(accessTimeout);
+        concurrentMethods.add(read);
+        bean.setConcurrentMethods(concurrentMethods);
+
+        final AsyncMethodsMetaData asyncMethods = new AsyncMethodsMetaData();
+        final AsyncMethodMetaData reset = new AsyncMethodMetaData();
+        reset.setMethodName("reset");
+        asyncMethods.add(reset);
+        bean.setAsyncMethods(asyncMethods);
+    }
+
+    @Test
+    public void testTable() throws Exception {
+        metaData.freeze();
+        final MethodInvocationTable table = bean.getMethodInvocationTable(Counter.class, MethodInterfaceType.Local);
+        assertSame(table, bean.getMethodInvocationTable(Counter.class, MethodInterfaceType.Local));
+        assertEquals(3, table.size());
+        assertNull(table.get(Object.class.getMethod("hashCode")));
+        assertEquals(-1, table.indexOf(Object.class.getMethod("hashCode")));
+
+        final Method getMethod = Counter.class.getMethod("getValue");
+        assertEquals(0, table.indexOf(getMethod));
+        final MethodInvocationMetaData get = table.get(0);
+        assertSame(get, table.get(getMethod));
+        assertEquals(TransactionAttributeType.SUPPORTS, get.getTransactionAttribute());
+        assertEquals(5, get.getTransactionTimeout());
+        assertTrue(get.isReadOnly());
+        assertEquals(Collections.singleton("Admin"), get.getRoles());
+        assertEquals(LockType.READ, get.getLockType());
+        assertEquals(10, get.getAccessTimeout().getTimeout());
+        assertFalse(get.isAsync());
+
+        final MethodInvocationMetaData increment = table.get(Counter.class.getMethod("increment"));
+        assertEquals(TransactionAttributeType.REQUIRED, increment.getTransactionAttribute());
+        assertFalse(increment.isReadOnly());
+        assertEquals(LockType.WRITE, increment.getLockType());
+        assertNull(increment.getAccessTimeout());
+        assertFalse(increment.isAsync());
+
+        assertTrue(table.get(Counter.class.getMethod("reset")).isAsync());
+    }
+
+    @Test
+    public void testSameAsSingleLookups() throws Exception {
+        final MethodInvocationTable table = bean.getMethodInvocationTable(Counter.class, MethodInterfaceType.Remote);
+        for (Method method : Counter.class.getMethods()) {
+            final MethodInvocationMetaData invocation = table.get(method);
+            assertEquals(bean.getMethodTransactionType(method, MethodInterfaceType.Remote), invocation.getTransactionAttribute());
+            assertEquals(bean.getMethodTransactionTimeout(method), invocation.getTransactionTimeout());
+            assertEquals(bean.isMethodReadOnly(method), invocation.isReadOnly());
+            assertEquals(bean.getMethodPermissions(method, MethodInterfaceType.Remote), invocation.getRoles());
+        }
+    }
+
+    @Test
+    public void testChangedBeforeFreeze() throws Exception {
+        final Method increment = Counter.class.getMethod("increment");
+        assertEquals(TransactionAttributeType.REQUIRED, bean.getMethodInvocationTable(Counter.class, MethodInterfaceType.Local).get(increment).getTransactionAttribute());
+
+        // the table follows the metadata until it is frozen
+        final ContainerTransactionMetaData transaction = new ContainerTransactionMetaData();
+        transaction.setTransAttribute(TransactionAttributeType.MANDATORY);
+        transaction.setMethods(methods("increment"));
+        metaData.getAssemblyDescriptor().getContainerTransactions().add(transaction);
+        metaData.getAssemblyDescriptor().getMethodPermissions().get(0).getRoles().add("User");
+        bean.setLockType(LockType.READ);
+        final MethodInvocationMetaData changed = bean.getMethodInvocationTable(Counter.class, MethodInterfaceType.Local).get(increment);
+        assertEquals(TransactionAttributeType.MANDATORY, changed.getTransactionAttribute());
+        assertEquals(new HashSet<String>(Arrays.asList("Admin", "User")), changed.getRoles());
+        assertEquals(LockType.READ, changed.getLockType());
+
+        metaData.freeze();
+        final MethodInvocationTable table = bean.getMethodInvocationTable(Counter.class, MethodInterfaceType.Local);
+        assertSame(table, bean.getMethodInvocationTable(Counter.class, MethodInterfaceType.Local));
+        assertEquals(TransactionAttributeType.MANDATORY, table.get(increment).getTransactionAttribute());
+    }
+
+    @Test
+    public void testClassLockTypeOfBusinessInterfaceMethod() throws Exception {
+        bean.setLockType(BaseCounter.class.getName(), LockType.READ);
+        final MethodInvocationTable table = bean.getMethodInvocationTable(Counter.class, MethodInterfaceType.Local);
+        // increment is implemented by the superclass, reset by the bean class
+        assertEquals(LockType.READ, table.get(Counter.class.getMethod("increment")).getLockType());
+        assertEquals(LockType.WRITE, table.get(Counter.class.getMethod("reset")).getLockType());
+        assertEquals(LockType.READ, bean.getLockType(BaseCounter.class.getMethod("increment")));
+        assertEquals(LockType.WRITE, bean.getLockType(CounterBean.class.getMethod("reset")));
+    }
+
+    /**
+     * The caches of a frozen bean, the transaction attributes, method permissions and method invocation tables,
+     * are not carried over to a clone.
+     */
+    @Test
+    public void testCloneOfFrozenBean() throws Exception {
+        metaData.freeze();
+        final Method getValue = Counter.class.getMethod("getValue");
+        final MethodInvocationTable table = bean.getMethodInvocationTable(Counter.class, MethodInterfaceType.Local);
+        assertEquals(TransactionAttributeType.SUPPORTS, bean.getMethodTransactionType(getValue, MethodInterfaceType.Local));
+        assertEquals(Collections.singleton("Admin"), bean.getMethodPermissions(getValue, MethodInterfaceType.Local));
+
+        final JBossSessionBean31MetaData clone = (JBossSessionBean31MetaData) bean.clone();
+        clone.setEjbName("OtherBean");
+        assertEquals(TransactionAttributeType.REQUIRED, clone.getMethodTransactionType(getValue, MethodInterfaceType.Local));
+        assertTrue(clone.getMethodPermissions(getValue, MethodInterfaceType.Local).isEmpty());
+        final MethodInvocationTable cloneTable = clone.getMethodInvocationTable(Counter.class, MethodInterfaceType.Local);
+        assertNotSame(table, cloneTable);
+        assertTrue(cloneTable.get(getValue).getRoles().isEmpty());
+
+        assertSame(table, bean.getMethodInvocationTable(Counter.class, MethodInterfaceType.Local));
+        assertEquals(TransactionAttributeType.SUPPORTS, bean.getMethodTransactionType(getValue, MethodInterfaceType.Local));
+        assertEquals(Collections.singleton("Admin"), bean.getMethodPermissions(getValue, MethodInterfaceType.Local));
+    }
+
+    private static MethodsMetaData methods(String methodName) {
+        final MethodMetaData method = new MethodMetaData();
+        method.setEjbName("CounterBean");
+        method.setMethodName(methodName);
+        final MethodsMetaData methods = new MethodsMetaData();
+        methods.add(method);
+        return methods;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.metadata.ejb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.jboss.metadata.ejb.jboss.JBossAssemblyDescriptorMetaData;
+import org.jboss.metadata.ejb.jboss.JBossEnterpriseBeansMetaData;
+import org.jboss.metadata.ejb.jboss.JBossMetaData;
+import org.jboss.metadata.ejb.jboss.JBossSessionBean31MetaData;
+import org.jboss.metadata.ejb.jboss.SecurityRoleNames;
+import org.jboss.metadata.ejb.spec.ExcludeListMetaData;
+import org.jboss.metadata.ejb.spec.MethodInterfaceType;
+import org.jboss.metadata.ejb.spec.MethodMetaData;
+import org.jboss.metadata.ejb.spec.MethodPermissionMetaData;
+import org.jboss.metadata.ejb.spec.MethodPermissionsMetaData;
+import org.jboss.metadata.ejb.spec.MethodsMetaData;
+import org.jboss.metadata.javaee.spec.EmptyMetaData;
+import org.jboss.metadata.javaee.spec.SecurityRoleMetaData;
+import org.jboss.metadata.javaee.spec.SecurityRolesMetaData;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of the method permission lookup by {@link Method}.
+ */
+public class MethodPermissionsIndexUnitTestCase {
+
+    public interface Echo {
+        String echo(String message);
+
+        void ping();
+
+        void shutdown();
+
+        void other();
+    }
+
+    private JBossMetaData metaData;
+
+    private JBossSessionBean31MetaData bean;
+
+    @Before
+    public void setUp() {
+        metaData = new JBossMetaData();
+        metaData.setEnterpriseBeans(new JBossEnterpriseBeansMetaData());
+        bean = new JBossSessionBean31MetaData();
+        bean.setEjbName("EchoBean");
+        metaData.getEnterpriseBeans().add(bean);
+
+        final JBossAssemblyDescriptorMetaData assemblyDescriptor = new JBossAssemblyDescriptorMetaData();
+        final MethodPermissionsMetaData permissions = new MethodPermissionsMetaData();
+        final MethodPermissionMetaData echo = new MethodPermissionMetaData();
+        echo.setRoles(new HashSet<String>(Collections.singleton("Echo")));
+        echo.setMethods(methods(method("echo", null)));
+        permissions.add(echo);
+        final MethodPermissionMetaData ping = new MethodPermissionMetaData();
+        ping.setUnchecked(new EmptyMetaData());
+        ping.setMethods(methods(method("ping", null)));
+        permissions.add(ping);
+        assemblyDescriptor.setMethodPermissions(permissions);
+
+        final ExcludeListMetaData excludeList = new ExcludeListMetaData();
+        excludeList.setMethods(methods(method("shutdown", MethodInterfaceType.Remote)));
+        assemblyDescriptor.setExcludeList(excludeList);
+
+        final SecurityRolesMetaData securityRoles = new SecurityRolesMetaData();
+        final SecurityRoleMetaData role = new SecurityRoleMetaData();
+        role.setRoleName("Echo");
+        role.setPrincipals(new HashSet<String>(Collections.singleton("alice")));
+        securityRoles.add(role);
+        assemblyDescriptor.setSecurityRoles(securityRoles);
+        metaData.setAssemblyDescriptor(assemblyDescriptor);
+    }
+
+    @Test
+    public void testSameAsStringLookup() throws Exception {
+        for (Method method : Echo.class.getMethods()) {
+            for (MethodInterfaceType type : new MethodInterfaceType[]{null, MethodInterfaceType.Local, MethodInterfaceType.Remote}) {
+                assertEquals(method + " " + type, bean.getMethodPermissions(method.getName(), method.getParameterTypes(), type),
+                        bean.getMethodPermissions(method, type));
+            }
+        }
+        final Method echo = Echo.class.getMethod("echo", String.class);
+        assertEquals(new HashSet<String>(Arrays.asList("Echo", "alice")), bean.getMethodPermissions(echo, MethodInterfaceType.Local));
+        assertEquals(Collections.singleton(SecurityRoleNames.ANYBODY_PRINCIPAL), bean.getMethodPermissions(Echo.class.getMethod("ping"), MethodInterfaceType.Local));
+        assertEquals(Collections.singleton(SecurityRoleNames.NOBODY_PRINCIPAL), bean.getMethodPermissions(Echo.class.getMethod("shutdown"), MethodInterfaceType.Remote));
+        assertTrue(bean.getMethodPermissions(Echo.class.getMethod("shutdown"), MethodInterfaceType.Local).isEmpty());
+        assertTrue(bean.getMethodPermissions(Echo.class.getMethod("other"), MethodInterfaceType.Local).isEmpty());
+    }
+
+    @Test
+    public void testSharedRoles() throws Exception {
+        final Method echo = Echo.class.getMethod("echo", String.class);
+        try {
+            bean.getMethodPermissions(echo, MethodInterfaceType.Local).add("Intruder");
+            fail("Expected an UnsupportedOperationException");
+        } catch (UnsupportedOperationException expected) {
+        }
+
+        // once frozen the roles are resolved once and equal role sets are shared
+        metaData.freeze();
+        final Set<String> roles = bean.getMethodPermissions(echo, MethodInterfaceType.Local);
+        assertSame(roles, bean.getMethodPermissions(echo, MethodInterfaceType.Local));
+        assertSame(roles, bean.getMethodPermissions(echo, MethodInterfaceType.Remote));
+        try {
+            roles.add("Intruder");
+            fail("Expected an UnsupportedOperationException");
+        } catch (UnsupportedOperationException expected) {
+        }
+    }
+
+    @Test
+    public void testPermissionsChangedBeforeFreeze() throws Exception {
+        final Method echo = Echo.class.getMethod("echo", String.class);
+        final Method other = Echo.class.getMethod("other");
+        assertEquals(new HashSet<String>(Arrays.asList("Echo", "alice")), bean.getMethodPermissions(echo, MethodInterfaceType.Local));
+        assertTrue(bean.getMethodPermissions(other, MethodInterfaceType.Local).isEmpty());
+
+        // the permissions, exclude list and security roles are read again until the metadata is frozen
+        final JBossAssemblyDescriptorMetaData assemblyDescriptor = metaData.getAssemblyDescriptor();
+        final MethodPermissionMetaData permission = new MethodPermissionMetaData();
+        permission.setRoles(new HashSet<String>(Collections.singleton("Other")));
+        permission.setMethods(methods(method("other", null)));
+        assemblyDescriptor.getMethodPermissions().add(permission);
+        assemblyDescriptor.getExcludeList().getMethods().add(method("echo", MethodInterfaceType.Remote));
+        final SecurityRoleMetaData role = assemblyDescriptor.getSecurityRoles().get("Echo");
+        role.setPrincipals(new HashSet<String>(Collections.singleton("bob")));
+        assertEquals(Collections.singleton("Other"), bean.getMethodPermissions(other, MethodInterfaceType.Local));
+        assertEquals(Collections.singleton(SecurityRoleNames.NOBODY_PRINCIPAL), bean.getMethodPermissions(echo, MethodInterfaceType.Remote));
+        assertEquals(new HashSet<String>(Arrays.asList("Echo", "bob")), bean.getMethodPermissions(echo, MethodInterfaceType.Local));
+
+        metaData.freeze();
+        assertEquals(Collections.singleton("Other"), bean.getMethodPermissions(other, MethodInterfaceType.Local));
+        assertEquals(new HashSet<String>(Arrays.asList("Echo", "bob")), bean.getMethodPermissions(echo, MethodInterfaceType.Local));
+    }
+
+    private static MethodsMetaData methods(MethodMetaData method) {
+        final MethodsMetaData methods = new MethodsMetaData();
+        methods.add(method);
+        return methods;
+    }
+
+    private static MethodMetaData method(String name, MethodInterfaceType type) {
+        final MethodMetaData method = new MethodMetaData();
+        method.setEjbName("EchoBean");
+        method.setMethodName(name);
+        if (type != null)
+            method.setMethodIntf(type);
+        return method;
+    }
+}
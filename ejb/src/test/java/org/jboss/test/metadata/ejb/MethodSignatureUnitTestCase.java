@@ -0,0 +1,139 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.metadata.ejb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+
+import org.jboss.metadata.ejb.spec.ConcurrentMethodMetaData;
+import org.jboss.metadata.ejb.spec.ConcurrentMethodsMetaData;
+import org.jboss.metadata.ejb.spec.MethodInterfaceType;
+import org.jboss.metadata.ejb.spec.MethodMetaData;
+import org.jboss.metadata.ejb.spec.MethodParametersMetaData;
+import org.jboss.metadata.ejb.spec.MethodSignature;
+import org.jboss.metadata.ejb.spec.MethodsMetaData;
+import org.jboss.metadata.ejb.spec.NamedMethodMetaData;
+import org.junit.Test;
+
+/**
+ * Tests of {@link MethodSignature} and the matching of method metadata against it.
+ */
+public class MethodSignatureUnitTestCase {
+
+    public interface Service {
+        void process(String[][] values, int count);
+
+        void process();
+    }
+
+    @Test
+    public void testSignatureOfMethod() throws Exception {
+        final Method method = Service.class.getMethod("process", String[][].class, int.class);
+        final MethodSignature signature = MethodSignature.of(method);
+        assertSame(signature, MethodSignature.of(Service.class.getMethod("process", String[][].class, int.class)));
+        assertEquals("process", signature.getName());
+        assertEquals(2, signature.getParameterCount());
+        assertEquals("java.lang.String[][]", signature.getParameterType(0));
+        assertEquals("int", signature.getParameterType(1));
+        assertEquals(MethodSignature.of("process", new String[] { "java.lang.String[][]", "int" }), signature);
+        assertEquals(MethodSignature.of("process", new Class<?>[] { String[][].class, int.class }), signature);
+        assertEquals("process(java.lang.String[][],int)", signature.toString());
+
+        // no parameters and unspecified parameters match the same methods
+        assertEquals(MethodSignature.of("process", (String[]) null), MethodSignature.of(Service.class.getMethod("process")));
+        assertEquals(MethodSignature.of("process", new String[0]).hashCode(), MethodSignature.of("process", (Class<?>[]) null).hashCode());
+    }
+
+    @Test
+    public void testMatchesLikeParameterNames() {
+        final MethodsMetaData methods = new MethodsMetaData();
+        methods.add(method("*", null));
+        methods.add(method("process", null));
+        methods.add(method("process", MethodInterfaceType.Local, "java.lang.String[][]", "int"));
+        methods.add(method("process", null, "int"));
+        methods.add(method("noParams", null, new String[0]));
+
+        final Class<?>[][] signatures = { {}, { int.class }, { String[][].class, int.class }, { String.class }, null };
+        for (String name : new String[] { "process", "noParams", "other" }) {
+            for (Class<?>[] params : signatures) {
+                final String[] names = MethodParametersMetaData.getParameterTypeNames(params);
+                final MethodSignature signature = MethodSignature.of(name, params);
+                for (MethodInterfaceType iface : new MethodInterfaceType[] { MethodInterfaceType.Local, MethodInterfaceType.Remote, null }) {
+                    for (MethodMetaData method : methods)
+                        assertEquals(method.matches(name, names, iface), method.matches(signature, iface));
+                    assertSame(methods.bestMatch(name, names, iface, null), methods.bestMatch(signature, iface, null));
+                    assertSame(methods.bestMatch(name, params, iface, null), methods.bestMatch(signature, iface, null));
+                }
+            }
+        }
+        assertSame(methods.get(2), methods.bestMatch(MethodSignature.of("process", new Class<?>[] { String[][].class, int.class }), MethodInterfaceType.Local, null));
+        assertSame(methods.get(1), methods.bestMatch(MethodSignature.of("process", new Class<?>[] { String[][].class, int.class }), MethodInterfaceType.Remote, null));
+    }
+
+    @Test
+    public void testConcurrentMethods() throws Exception {
+        final ConcurrentMethodsMetaData concurrentMethods = new ConcurrentMethodsMetaData();
+        concurrentMethods.add(concurrentMethod("*"));
+        concurrentMethods.add(concurrentMethod("process", "java.lang.String[][]", "int"));
+
+        final MethodSignature withParams = MethodSignature.of(Service.class.getMethod("process", String[][].class, int.class));
+        final MethodSignature withoutParams = MethodSignature.of(Service.class.getMethod("process"));
+        assertSame(concurrentMethods.get(1), concurrentMethods.bestMatch(withParams));
+        assertSame(concurrentMethods.get(0), concurrentMethods.bestMatch(withoutParams));
+        assertTrue(concurrentMethods.get(1).matches(withParams));
+        assertFalse(concurrentMethods.get(1).matches(withoutParams));
+    }
+
+    private static MethodMetaData method(String name, MethodInterfaceType iface, String... params) {
+        final MethodMetaData method = new MethodMetaData();
+        method.setEjbName("Bean");
+        method.setMethodName(name);
+        if (iface != null)
+            method.setMethodIntf(iface);
+        if (params != null && (params.length > 0 || name.equals("noParams"))) {
+            final MethodParametersMetaData methodParams = new MethodParametersMetaData();
+            for (String param : params)
+                methodParams.add(param);
+            method.setMethodParams(methodParams);
+        }
+        return method;
+    }
+
+    private static ConcurrentMethodMetaData concurrentMethod(String name, String... params) {
+        final NamedMethodMetaData method = new NamedMethodMetaData();
+        method.setMethodName(name);
+        if (params.length > 0) {
+            final MethodParametersMetaData methodParams = new MethodParametersMetaData();
+            for (String param : params)
+                methodParams.add(param);
+            method.setMethodParams(methodParams);
+        }
+        final ConcurrentMethodMetaData concurrentMethod = new ConcurrentMethodMetaData();
+        concurrentMethod.setMethod(method);
+        return concurrentMethod;
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.metadata.ejb;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.jboss.metadata.ejb.jboss.JBossEnterpriseBeanMetaData;
+import org.jboss.metadata.ejb.jboss.JBossEnterpriseBeansMetaData;
+import org.jboss.metadata.ejb.jboss.JBossEntityBeanMetaData;
+import org.jboss.metadata.ejb.jboss.JBossMetaData;
+import org.jboss.metadata.ejb.jboss.JBossSessionBean31MetaData;
+import org.jboss.metadata.ejb.spec.EjbJarMetaData;
+import org.jboss.metadata.ejb.spec.EjbJarVersion;
+import org.jboss.metadata.ejb.spec.EjbType;
+import org.jboss.metadata.ejb.spec.EnterpriseBeansMetaData;
+import org.jboss.metadata.ejb.spec.GenericBeanMetaData;
+import org.jboss.metadata.javaee.spec.EnvironmentEntriesMetaData;
+import org.jboss.metadata.javaee.spec.EnvironmentEntryMetaData;
+import org.jboss.metadata.javaee.spec.EnvironmentRefsGroupMetaData;
+import org.junit.Test;
+
+/**
+ * Tests that merging the enterprise beans in a pool gives the same result as merging them sequentially.
+ */
+public class ParallelMergeUnitTestCase {
+    private static final int BEANS = 500;
+
+    @Test
+    public void testSameAsSequential() throws Exception {
+        final JBossMetaData sequential = new JBossMetaData();
+        sequential.merge(createOverride(), createOriginal());
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final JBossMetaData parallel = new JBossMetaData();
+            parallel.merge(createOverride(), createOriginal(), pool);
+
+            assertEquals(BEANS + 1, parallel.getEnterpriseBeans().size());
+            assertEquals(names(sequential), names(parallel));
+            assertArrayEquals(serialize(sequential), serialize(parallel));
+
+            final JBossEnterpriseBeanMetaData overridden = parallel.getEnterpriseBean("Bean3");
+            assertEquals("jndi/Bean3", overridden.getMappedName());
+            assertNotNull(overridden.getJndiEnvironmentRefsGroup().getEnvironmentEntries().get("entry3"));
+            assertNotNull(parallel.getEnterpriseBean("OverrideOnly"));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testFailureOfABean() throws Exception {
+        final EjbJarMetaData original = createOriginal();
+        // a generic session bean is merged as an entity bean, which fails
+        final GenericBeanMetaData broken = new GenericBeanMetaData(EjbType.SESSION);
+        broken.setEjbName("Broken");
+        original.getEnterpriseBeans().add(broken);
+        RuntimeException sequentialFailure = null;
+        try {
+            new JBossMetaData().merge(null, original);
+            fail("Expected a failure");
+        } catch (RuntimeException e) {
+            sequentialFailure = e;
+        }
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            new JBossMetaData().merge(null, original, pool);
+            fail("Expected " + sequentialFailure);
+        } catch (RuntimeException e) {
+            assertEquals(sequentialFailure.getClass(), e.getClass());
+            assertEquals(sequentialFailure.getMessage(), e.getMessage());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static EjbJarMetaData createOriginal() {
+        final EjbJarMetaData original = new EjbJarMetaData(EjbJarVersion.EJB_3_1);
+        original.setEnterpriseBeans(new EnterpriseBeansMetaData());
+        for (int i = 0; i < BEANS; i++) {
+            final GenericBeanMetaData bean = new GenericBeanMetaData();
+            bean.setEjbName("Bean" + i);
+            bean.setEjbClass("org.acme.Bean" + i);
+            final EnvironmentRefsGroupMetaData env = new EnvironmentRefsGroupMetaData();
+            env.setEnvironmentEntries(entries("entry" + i));
+            bean.setJndiEnvironmentRefsGroup(env);
+            original.getEnterpriseBeans().add(bean);
+        }
+        return original;
+    }
+
+    private static JBossMetaData createOverride() {
+        final JBossMetaData override = new JBossMetaData();
+        final JBossEnterpriseBeansMetaData beans = new JBossEnterpriseBeansMetaData();
+        override.setEnterpriseBeans(beans);
+        for (int i = 0; i < BEANS; i += 3) {
+            final JBossEntityBeanMetaData bean = new JBossEntityBeanMetaData();
+            bean.setEjbName("Bean" + i);
+            bean.setMappedName("jndi/Bean" + i);
+            bean.setConfigurationName("Configuration" + (i % 7));
+            beans.add(bean);
+        }
+        final JBossSessionBean31MetaData overrideOnly = new JBossSessionBean31MetaData();
+        overrideOnly.setEjbName("OverrideOnly");
+        overrideOnly.setEjbClass("org.acme.OverrideOnly");
+        beans.add(overrideOnly);
+        return override;
+    }
+
+    private static EnvironmentEntriesMetaData entries(String name) {
+        final EnvironmentEntriesMetaData entries = new EnvironmentEntriesMetaData();
+        final EnvironmentEntryMetaData entry = new EnvironmentEntryMetaData();
+        entry.setEnvEntryName(name);
+        entry.setType("java.lang.String");
+        entry.setValue(name);
+        entries.add(entry);
+        return entries;
+    }
+
+    private static List<String> names(JBossMetaData metaData) {
+        final List<String> names = new ArrayList<String>();
+        for (JBossEnterpriseBeanMetaData bean : metaData.getEnterpriseBeans())
+            names.add(bean.getEjbName());
+        return names;
+    }
+
+    private static byte[] serialize(Object object) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(object);
+        out.close();
+        return bytes.toByteArray();
+    }
+}
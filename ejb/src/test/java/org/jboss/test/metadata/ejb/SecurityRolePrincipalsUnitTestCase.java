@@ -0,0 +1,66 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.test.metadata.ejb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.jboss.metadata.ejb.jboss.JBossAssemblyDescriptorMetaData;
+import org.jboss.metadata.javaee.spec.SecurityRoleMetaData;
+import org.jboss.metadata.javaee.spec.SecurityRolesMetaData;
+import org.junit.Test;
+
+/**
+ * Tests of {@link JBossAssemblyDescriptorMetaData#getSecurityRolePrincipals(String)}.
+ */
+public class SecurityRolePrincipalsUnitTestCase {
+
+    @Test
+    public void testPrincipalsChangedAfterAdd() {
+        final JBossAssemblyDescriptorMetaData assemblyDescriptor = new JBossAssemblyDescriptorMetaData();
+        assertNull(assemblyDescriptor.getSecurityRolePrincipals("admin"));
+        final SecurityRolesMetaData roles = new SecurityRolesMetaData();
+        final SecurityRoleMetaData admin = new SecurityRoleMetaData();
+        admin.setRoleName("admin");
+        admin.setPrincipals(set("alice"));
+        roles.add(admin);
+        assemblyDescriptor.setSecurityRoles(roles);
+        assertEquals(set("alice"), assemblyDescriptor.getSecurityRolePrincipals("admin"));
+        assertNull(assemblyDescriptor.getSecurityRolePrincipals("user"));
+
+        // the principals follow the changes made to the role after it was added
+        admin.getPrincipals().add("bob");
+        assertEquals(set("alice", "bob"), assemblyDescriptor.getSecurityRolePrincipals("admin"));
+        admin.setPrincipals(set("carol"));
+        assertEquals(set("carol"), assemblyDescriptor.getSecurityRolePrincipals("admin"));
+    }
+
+    private static Set<String> set(String... values) {
+        final Set<String> set = new HashSet<String>();
+        Collections.addAll(set, values);
+        return set;
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.metadata.ejb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.lang.reflect.Method;
+import java.util.Random;
+
+import javax.ejb.TransactionAttributeType;
+
+import org.jboss.metadata.ejb.jboss.JBossAssemblyDescriptorMetaData;
+import org.jboss.metadata.ejb.jboss.JBossEnterpriseBeansMetaData;
+import org.jboss.metadata.ejb.jboss.JBossMetaData;
+import org.jboss.metadata.ejb.jboss.JBossSessionBean31MetaData;
+import org.jboss.metadata.ejb.spec.ContainerTransactionMetaData;
+import org.jboss.metadata.ejb.spec.ContainerTransactionsMetaData;
+import org.jboss.metadata.ejb.spec.MethodInterfaceType;
+import org.jboss.metadata.ejb.spec.MethodMetaData;
+import org.jboss.metadata.ejb.spec.MethodParametersMetaData;
+import org.jboss.metadata.ejb.spec.MethodsMetaData;
+import org.jboss.metadata.ejb.spec.TransactionAttributeResolver;
+import org.junit.Test;
+
+/**
+ * Tests of {@link TransactionAttributeResolver}.
+ */
+public class TransactionAttributeResolverUnitTestCase {
+
+    public interface Account {
+        void deposit(int amount);
+
+        void deposit(long amount);
+
+        int balance();
+
+        void close(String[] reasons);
+    }
+
+    @Test
+    public void testSpecificity() throws Exception {
+        final ContainerTransactionsMetaData transactions = new ContainerTransactionsMetaData();
+        transactions.add(transaction(TransactionAttributeType.SUPPORTS, method("*", null, null)));
+        transactions.add(transaction(TransactionAttributeType.MANDATORY, method("deposit", null, null)));
+        transactions.add(transaction(TransactionAttributeType.NEVER, method("deposit", null, new String[]{"long"})));
+        transactions.add(transaction(TransactionAttributeType.REQUIRES_NEW, method("close", MethodInterfaceType.Remote, new String[]{"java.lang.String[]"})));
+        final TransactionAttributeResolver resolver = new TransactionAttributeResolver(transactions);
+
+        assertEquals(TransactionAttributeType.MANDATORY, resolver.getTransactionAttribute(Account.class.getMethod("deposit", int.class), MethodInterfaceType.Local));
+        assertEquals(TransactionAttributeType.NEVER, resolver.getTransactionAttribute(Account.class.getMethod("deposit", long.class), MethodInterfaceType.Local));
+        assertEquals(TransactionAttributeType.SUPPORTS, resolver.getTransactionAttribute(Account.class.getMethod("balance"), MethodInterfaceType.Local));
+        final Method close = Account.class.getMethod("close", String[].class);
+        assertEquals(TransactionAttributeType.REQUIRES_NEW, resolver.getTransactionAttribute(close, MethodInterfaceType.Remote));
+        // the interface type is part of the key
+        assertEquals(TransactionAttributeType.SUPPORTS, resolver.getTransactionAttribute(close, MethodInterfaceType.Local));
+        assertEquals(TransactionAttributeType.REQUIRES_NEW, resolver.getTransactionAttribute(close, MethodInterfaceType.Remote));
+    }
+
+    @Test
+    public void testNoTransactions() throws Exception {
+        final TransactionAttributeResolver resolver = new TransactionAttributeResolver(null);
+        assertNull(resolver.resolve("balance", new Class<?>[0], null));
+        assertSame(TransactionAttributeType.REQUIRED, resolver.getTransactionAttribute(Account.class.getMethod("balance"), null));
+    }
+
+    @Test
+    public void testContainerTransactionsChangedBeforeFreeze() throws Exception {
+        final JBossMetaData metaData = new JBossMetaData();
+        metaData.setEnterpriseBeans(new JBossEnterpriseBeansMetaData());
+        final JBossSessionBean31MetaData bean = new JBossSessionBean31MetaData();
+        bean.setEjbName("AccountBean");
+        metaData.getEnterpriseBeans().add(bean);
+        final Method balance = Account.class.getMethod("balance");
+        assertNull(bean.getMethodTransactionType("balance", new Class<?>[0], MethodInterfaceType.Local));
+        assertEquals(TransactionAttributeType.REQUIRED, bean.getMethodTransactionType(balance, MethodInterfaceType.Local));
+
+        // the container transactions are read again until the metadata is frozen
+        final JBossAssemblyDescriptorMetaData assemblyDescriptor = new JBossAssemblyDescriptorMetaData();
+        final ContainerTransactionsMetaData transactions = new ContainerTransactionsMetaData();
+        transactions.add(transaction(TransactionAttributeType.MANDATORY, method("balance", null, null)));
+        assemblyDescriptor.setContainerTransactions(transactions);
+        metaData.setAssemblyDescriptor(assemblyDescriptor);
+        assertEquals(TransactionAttributeType.MANDATORY, bean.getMethodTransactionType("balance", new Class<?>[0], MethodInterfaceType.Local));
+        transactions.add(transaction(TransactionAttributeType.NEVER, method("deposit", null, null)));
+        assertEquals(TransactionAttributeType.NEVER, bean.getMethodTransactionType(Account.class.getMethod("deposit", int.class), MethodInterfaceType.Local));
+
+        metaData.freeze();
+        assertEquals(TransactionAttributeType.MANDATORY, bean.getMethodTransactionType(balance, MethodInterfaceType.Local));
+        assertEquals(TransactionAttributeType.NEVER, bean.getMethodTransactionType("deposit", new Class<?>[]{int.class}, MethodInterfaceType.Local));
+    }
+
+    @Test
+    public void testResolverKeptUntilChanged() throws Exception {
+        final ContainerTransactionsMetaData transactions = new ContainerTransactionsMetaData();
+        transactions.add(transaction(TransactionAttributeType.MANDATORY, method("balance", null, null)));
+        final TransactionAttributeResolver resolver = transactions.getTransactionAttributeResolver("AccountBean");
+        assertSame(resolver, transactions.getTransactionAttributeResolver("AccountBean"));
+        assertNull(transactions.getTransactionAttributeResolver("OtherBean").resolve("balance", new Class<?>[0], null));
+
+        transactions.add(transaction(TransactionAttributeType.NEVER, method("deposit", null, null)));
+        final TransactionAttributeResolver added = transactions.getTransactionAttributeResolver("AccountBean");
+        assertNotSame(resolver, added);
+        assertEquals(TransactionAttributeType.NEVER, added.resolve("deposit", new Class<?>[]{int.class}, null));
+
+        transactions.set(1, transaction(TransactionAttributeType.SUPPORTS, method("deposit", null, null)));
+        assertEquals(TransactionAttributeType.SUPPORTS, transactions.getTransactionAttributeResolver("AccountBean").resolve("deposit", new Class<?>[]{int.class}, null));
+
+        final ContainerTransactionsMetaData override = new ContainerTransactionsMetaData();
+        override.add(transaction(TransactionAttributeType.REQUIRES_NEW, method("close", null, null)));
+        transactions.merge(override, null);
+        assertEquals(TransactionAttributeType.REQUIRES_NEW, transactions.getTransactionAttributeResolver("AccountBean").resolve("close", new Class<?>[]{String[].class}, null));
+    }
+
+    /**
+     * Compare with the linear scan over {@link ContainerTransactionMetaData#bestMatch} for random descriptors.
+     */
+    @Test
+    public void testSameAsBestMatch() {
+        final Random random = new Random(42);
+        final String[] names = {"*", "deposit", "balance", "close"};
+        final String[][] signatures = {null, {}, {"int"}, {"long"}, {"java.lang.String[]"}};
+        final MethodInterfaceType[] types = {null, MethodInterfaceType.Local, MethodInterfaceType.Remote};
+        final TransactionAttributeType[] attributes = TransactionAttributeType.values();
+        final Method[] methods = Account.class.getMethods();
+        for (int round = 0; round < 500; round++) {
+            final ContainerTransactionsMetaData transactions = new ContainerTransactionsMetaData();
+            final int count = random.nextInt(6);
+            for (int i = 0; i < count; i++) {
+                final MethodsMetaData methodsMetaData = new MethodsMetaData();
+                final int methodCount = 1 + random.nextInt(3);
+                for (int j = 0; j < methodCount; j++)
+                    methodsMetaData.add(method(names[random.nextInt(names.length)], types[random.nextInt(types.length)],
+                            signatures[random.nextInt(signatures.length)]));
+                final ContainerTransactionMetaData transaction = new ContainerTransactionMetaData();
+                transaction.setTransAttribute(attributes[random.nextInt(attributes.length)]);
+                transaction.setMethods(methodsMetaData);
+                transactions.add(transaction);
+            }
+            final TransactionAttributeResolver resolver = new TransactionAttributeResolver(transactions);
+            for (Method method : methods) {
+                for (MethodInterfaceType type : types) {
+                    assertEquals(transactions + " " + method + " " + type, linearScan(transactions, method, type),
+                            resolver.resolve(method.getName(), method.getParameterTypes(), type));
+                }
+            }
+        }
+    }
+
+    private static TransactionAttributeType linearScan(ContainerTransactionsMetaData transactions, Method method, MethodInterfaceType type) {
+        ContainerTransactionMetaData bestMatchTransaction = null;
+        MethodMetaData bestMatch = null;
+        for (ContainerTransactionMetaData transaction : transactions) {
+            MethodMetaData match = transaction.bestMatch(method.getName(), method.getParameterTypes(), type, bestMatch);
+            if (match != bestMatch) {
+                bestMatchTransaction = transaction;
+                bestMatch = match;
+            }
+        }
+        return bestMatchTransaction != null ? bestMatchTransaction.getTransAttribute() : null;
+    }
+
+    private static ContainerTransactionMetaData transaction(TransactionAttributeType type, MethodMetaData method) {
+        final MethodsMetaData methods = new MethodsMetaData();
+        methods.add(method);
+        final ContainerTransactionMetaData transaction = new ContainerTransactionMetaData();
+        transaction.setTransAttribute(type);
+        transaction.setMethods(methods);
+        return transaction;
+    }
+
+    private static MethodMetaData method(String name, MethodInterfaceType type, String[] params) {
+        final MethodMetaData method = new MethodMetaData();
+        method.setEjbName("AccountBean");
+        method.setMethodName(name);
+        if (type != null)
+            method.setMethodIntf(type);
+        if (params != null) {
+            final MethodParametersMetaData methodParams = new MethodParametersMetaData();
+            for (String param : params)
+                methodParams.add(param);
+            method.setMethodParams(methodParams);
+        }
+        return method;
+    }
+}
@@ -27,6 +27,8 @@ import java.util.Set;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 
+import org.jboss.metadata.parser.util.DescriptorParser;
+import org.jboss.metadata.parser.util.DescriptorReader;
 import org.jboss.metadata.parser.util.MetaDataElementParser;
 import org.jboss.metadata.permissions.spec.Permissions70MetaData;
 import org.jboss.metadata.permissions.spec.Version;
@@ -40,6 +42,15 @@ import org.jboss.metadata.property.PropertyReplacer;
  */
 public class PermissionsMetaDataParser extends MetaDataElementParser {
 
+    /**
+     * Reads permissions.xml documents.
+     */
+    public static final DescriptorReader<Permissions70MetaData> DESCRIPTOR_READER = new DescriptorReader<Permissions70MetaData>(new DescriptorParser<Permissions70MetaData>() {
+        public Permissions70MetaData parse(XMLStreamReader reader, DTDInfo info, PropertyReplacer propertyReplacer) throws XMLStreamException {
+            return new PermissionsMetaDataParser().parse(reader, propertyReplacer);
+        }
+    });
+
     public Permissions70MetaData parse(XMLStreamReader reader, PropertyReplacer propertyReplacer)
             throws XMLStreamException {
 
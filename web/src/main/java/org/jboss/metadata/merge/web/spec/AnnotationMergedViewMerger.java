@@ -22,7 +22,11 @@
 package org.jboss.metadata.merge.web.spec;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.jboss.metadata.javaee.spec.Environment;
 import org.jboss.metadata.javaee.spec.EnvironmentRefsGroupMetaData;
@@ -103,145 +107,103 @@ public class AnnotationMergedViewMerger {
 
     private static void mergeS(List<ServletMappingMetaData> merged, List<ServletMappingMetaData> xml,
                                List<ServletMappingMetaData> annotation) {
+        // the merged mappings by servlet name, xml descriptors may map a servlet more than once
+        Map<String, List<MergedServletMapping>> mappings = new HashMap<String, List<MergedServletMapping>>();
         if (xml != null) {
             for (ServletMappingMetaData servletMapping : xml) {
-                ServletMappingMetaData newServletMapping = new ServletMappingMetaData();
-                newServletMapping.setServletName(servletMapping.getServletName());
-                if (servletMapping.getUrlPatterns() != null) {
-                    List<String> urlPatterns = new ArrayList<String>();
-                    for (String urlPattern : servletMapping.getUrlPatterns()) {
-                        urlPatterns.add(urlPattern);
-                    }
-                    newServletMapping.setUrlPatterns(urlPatterns);
-                }
-                merged.add(newServletMapping);
+                add(merged, mappings, servletMapping);
             }
         }
         if (annotation != null) {
             for (ServletMappingMetaData servletMapping : annotation) {
-                boolean found = false;
-                for (ServletMappingMetaData check : merged) {
-                    if (check.getServletName().equals(servletMapping.getServletName())) {
-                        found = true;
-                        for (String urlPattern : servletMapping.getUrlPatterns()) {
-                            if (!check.getUrlPatterns().contains(urlPattern))
-                                check.getUrlPatterns().add(urlPattern);
-                        }
-                    }
-                }
-                if (!found) {
-                    ServletMappingMetaData newServletMapping = new ServletMappingMetaData();
-                    newServletMapping.setServletName(servletMapping.getServletName());
-                    if (servletMapping.getUrlPatterns() != null) {
-                        List<String> urlPatterns = new ArrayList<String>();
-                        for (String urlPattern : servletMapping.getUrlPatterns()) {
-                            urlPatterns.add(urlPattern);
-                        }
-                        newServletMapping.setUrlPatterns(urlPatterns);
+                List<MergedServletMapping> checks = mappings.get(servletMapping.getServletName());
+                if (checks != null) {
+                    for (MergedServletMapping check : checks) {
+                        check.urlPatterns.addAll(servletMapping.getUrlPatterns());
                     }
-                    merged.add(newServletMapping);
+                } else {
+                    add(merged, mappings, servletMapping);
                 }
             }
         }
     }
 
+    private static void add(List<ServletMappingMetaData> merged, Map<String, List<MergedServletMapping>> mappings,
+                            ServletMappingMetaData servletMapping) {
+        ServletMappingMetaData newServletMapping = new ServletMappingMetaData();
+        newServletMapping.setServletName(servletMapping.getServletName());
+        if (servletMapping.getUrlPatterns() != null) {
+            newServletMapping.setUrlPatterns(new ArrayList<String>(servletMapping.getUrlPatterns()));
+        }
+        merged.add(newServletMapping);
+        List<MergedServletMapping> checks = mappings.get(servletMapping.getServletName());
+        if (checks == null) {
+            checks = new ArrayList<MergedServletMapping>(1);
+            mappings.put(servletMapping.getServletName(), checks);
+        }
+        checks.add(new MergedServletMapping(newServletMapping));
+    }
+
     private static void mergeF(List<FilterMappingMetaData> merged, List<FilterMappingMetaData> xml,
                                List<FilterMappingMetaData> annotation) {
+        // the merged mappings by filter name, xml descriptors may map a filter more than once
+        Map<String, List<MergedFilterMapping>> mappings = new HashMap<String, List<MergedFilterMapping>>();
         if (xml != null) {
             for (FilterMappingMetaData filterMapping : xml) {
-                FilterMappingMetaData newFilterMapping = new FilterMappingMetaData();
-                newFilterMapping.setFilterName(filterMapping.getFilterName());
-                if (filterMapping.getUrlPatterns() != null) {
-                    List<String> urlPatterns = new ArrayList<String>();
-                    for (String urlPattern : filterMapping.getUrlPatterns()) {
-                        urlPatterns.add(urlPattern);
-                    }
-                    newFilterMapping.setUrlPatterns(urlPatterns);
-                }
-                if (filterMapping.getServletNames() != null) {
-                    List<String> servletNames = new ArrayList<String>();
-                    for (String servletName : filterMapping.getServletNames()) {
-                        servletNames.add(servletName);
-                    }
-                    newFilterMapping.setServletNames(servletNames);
-                }
-                if (filterMapping.getDispatchers() != null) {
-                    List<DispatcherType> dispatchers = new ArrayList<DispatcherType>();
-                    for (DispatcherType dispatcher : filterMapping.getDispatchers()) {
-                        dispatchers.add(dispatcher);
-                    }
-                    newFilterMapping.setDispatchers(dispatchers);
-                }
-                merged.add(newFilterMapping);
+                add(merged, mappings, filterMapping);
             }
         }
         if (annotation != null) {
             for (FilterMappingMetaData filterMapping : annotation) {
-                boolean found = false;
-                for (FilterMappingMetaData check : merged) {
-                    if (check.getFilterName().equals(filterMapping.getFilterName())) {
-                        found = true;
-                        for (String urlPattern : filterMapping.getUrlPatterns()) {
-                            if (!check.getUrlPatterns().contains(urlPattern))
-                                check.getUrlPatterns().add(urlPattern);
-                        }
-                        for (String servletName : filterMapping.getServletNames()) {
-                            if (!check.getServletNames().contains(servletName))
-                                check.getServletNames().add(servletName);
-                        }
-                        for (DispatcherType dispatcher : filterMapping.getDispatchers()) {
-                            if (!check.getDispatchers().contains(dispatcher))
-                                check.getDispatchers().add(dispatcher);
-                        }
-                    }
-                }
-                if (!found) {
-                    FilterMappingMetaData newFilterMapping = new FilterMappingMetaData();
-                    newFilterMapping.setFilterName(filterMapping.getFilterName());
-                    if (filterMapping.getUrlPatterns() != null) {
-                        List<String> urlPatterns = new ArrayList<String>();
-                        for (String urlPattern : filterMapping.getUrlPatterns()) {
-                            urlPatterns.add(urlPattern);
-                        }
-                        newFilterMapping.setUrlPatterns(urlPatterns);
+                List<MergedFilterMapping> checks = mappings.get(filterMapping.getFilterName());
+                if (checks != null) {
+                    for (MergedFilterMapping check : checks) {
+                        check.urlPatterns.addAll(filterMapping.getUrlPatterns());
+                        check.servletNames.addAll(filterMapping.getServletNames());
+                        check.dispatchers.addAll(filterMapping.getDispatchers());
                     }
-                    if (filterMapping.getServletNames() != null) {
-                        List<String> servletNames = new ArrayList<String>();
-                        for (String servletName : filterMapping.getServletNames()) {
-                            servletNames.add(servletName);
-                        }
-                        newFilterMapping.setServletNames(servletNames);
-                    }
-                    if (filterMapping.getDispatchers() != null) {
-                        List<DispatcherType> dispatchers = new ArrayList<DispatcherType>();
-                        for (DispatcherType dispatcher : filterMapping.getDispatchers()) {
-                            dispatchers.add(dispatcher);
-                        }
-                        newFilterMapping.setDispatchers(dispatchers);
-                    }
-                    merged.add(newFilterMapping);
+                } else {
+                    add(merged, mappings, filterMapping);
                 }
             }
         }
     }
 
+    private static void add(List<FilterMappingMetaData> merged, Map<String, List<MergedFilterMapping>> mappings,
+                            FilterMappingMetaData filterMapping) {
+        FilterMappingMetaData newFilterMapping = new FilterMappingMetaData();
+        newFilterMapping.setFilterName(filterMapping.getFilterName());
+        if (filterMapping.getUrlPatterns() != null) {
+            newFilterMapping.setUrlPatterns(new ArrayList<String>(filterMapping.getUrlPatterns()));
+        }
+        if (filterMapping.getServletNames() != null) {
+            newFilterMapping.setServletNames(new ArrayList<String>(filterMapping.getServletNames()));
+        }
+        if (filterMapping.getDispatchers() != null) {
+            newFilterMapping.setDispatchers(new ArrayList<DispatcherType>(filterMapping.getDispatchers()));
+        }
+        merged.add(newFilterMapping);
+        List<MergedFilterMapping> checks = mappings.get(filterMapping.getFilterName());
+        if (checks == null) {
+            checks = new ArrayList<MergedFilterMapping>(1);
+            mappings.put(filterMapping.getFilterName(), checks);
+        }
+        checks.add(new MergedFilterMapping(newFilterMapping));
+    }
+
     private static void mergeL(List<ListenerMetaData> merged, List<ListenerMetaData> xml, List<ListenerMetaData> annotation) {
+        Set<String> listenerClasses = new HashSet<String>();
         if (xml != null) {
             for (ListenerMetaData listener : xml) {
                 ListenerMetaData newListener = new ListenerMetaData();
                 newListener.setListenerClass(listener.getListenerClass());
                 merged.add(newListener);
+                listenerClasses.add(listener.getListenerClass());
             }
         }
         if (annotation != null) {
             for (ListenerMetaData listener : annotation) {
-                boolean found = false;
-                for (ListenerMetaData check : merged) {
-                    if (check.getListenerClass().equals(listener.getListenerClass())) {
-                        found = true;
-                    }
-                }
-                if (!found) {
+                if (listenerClasses.add(listener.getListenerClass())) {
                     ListenerMetaData newListener = new ListenerMetaData();
                     newListener.setListenerClass(listener.getListenerClass());
                     merged.add(newListener);
@@ -381,4 +343,69 @@ public class AnnotationMergedViewMerger {
             merged.setAnnotations(xml.getAnnotations());
 
     }
+
+    private static final class MergedServletMapping {
+        private final UniqueValues<String> urlPatterns;
+
+        MergedServletMapping(final ServletMappingMetaData mapping) {
+            urlPatterns = new UniqueValues<String>(mapping.getUrlPatterns()) {
+                void set(List<String> values) {
+                    mapping.setUrlPatterns(values);
+                }
+            };
+        }
+    }
+
+    private static final class MergedFilterMapping {
+        private final UniqueValues<String> urlPatterns;
+        private final UniqueValues<String> servletNames;
+        private final UniqueValues<DispatcherType> dispatchers;
+
+        MergedFilterMapping(final FilterMappingMetaData mapping) {
+            urlPatterns = new UniqueValues<String>(mapping.getUrlPatterns()) {
+                void set(List<String> values) {
+                    mapping.setUrlPatterns(values);
+                }
+            };
+            servletNames = new UniqueValues<String>(mapping.getServletNames()) {
+                void set(List<String> values) {
+                    mapping.setServletNames(values);
+                }
+            };
+            dispatchers = new UniqueValues<DispatcherType>(mapping.getDispatchers()) {
+                void set(List<DispatcherType> values) {
+                    mapping.setDispatchers(values);
+                }
+            };
+        }
+    }
+
+    /**
+     * The values of a merged mapping, which only appends values it does not contain yet.
+     */
+    private abstract static class UniqueValues<T> {
+        private List<T> values;
+        private final Set<T> present;
+
+        UniqueValues(List<T> values) {
+            this.values = values;
+            this.present = values != null ? new HashSet<T>(values) : new HashSet<T>();
+        }
+
+        abstract void set(List<T> values);
+
+        void addAll(List<T> added) {
+            if (added == null)
+                return;
+            for (T value : added) {
+                if (present.add(value)) {
+                    if (values == null) {
+                        values = new ArrayList<T>();
+                        set(values);
+                    }
+                    values.add(value);
+                }
+            }
+        }
+    }
 }
@@ -22,8 +22,12 @@
 package org.jboss.metadata.merge.web.spec;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.jboss.metadata.javaee.spec.ParamValueMetaData;
@@ -66,70 +70,107 @@ public class WebCommonMetaDataMerger {
      */
     public static void augment(WebCommonMetaData dest, WebCommonMetaData webFragmentMetaData, WebCommonMetaData webMetaData,
                                boolean resolveConflicts) {
+        new Augmenter(dest).augment(webFragmentMetaData, webMetaData, resolveConflicts);
+    }
+
+    /**
+     * Augments the same web meta data with any number of fragments, as
+     * {@link WebCommonMetaDataMerger#augment(WebCommonMetaData, WebCommonMetaData, WebCommonMetaData, boolean)}
+     * does for one fragment.
+     * <p/>
+     * The entries of the web meta data are indexed by name, so each entry of a fragment is matched without
+     * scanning the entries merged so far, and the names in the main web meta data are indexed the same way for
+     * the conflict checks. The merged lists are created once and later fragments are appended to them, as long
+     * as they are not replaced in between.
+     */
+    public static final class Augmenter {
+        private final WebCommonMetaData dest;
+        private final MergedList<ParamValueMetaData> contextParams = new MergedList<ParamValueMetaData>(PARAM_NAME);
+        private final MergedList<FilterMappingMetaData> filterMappings = new MergedList<FilterMappingMetaData>(FILTER_NAME);
+        private final MergedList<ErrorPageMetaData> errorPages = new MergedList<ErrorPageMetaData>(ERROR_CODE, EXCEPTION_TYPE);
+        private final MergedList<ListenerMetaData> listeners = new MergedList<ListenerMetaData>(LISTENER_CLASS);
+        private final MergedList<MimeMappingMetaData> mimeMappings = new MergedList<MimeMappingMetaData>(EXTENSION);
+        private final MergedList<ServletMappingMetaData> servletMappings = new MergedList<ServletMappingMetaData>(SERVLET_NAME);
+        private final MergedList<SecurityConstraintMetaData> securityConstraints = new MergedList<SecurityConstraintMetaData>(URL_PATTERNS);
+        private final KeySet<ParamValueMetaData> webContextParams = new KeySet<ParamValueMetaData>(PARAM_NAME);
+        private final KeySet<ErrorPageMetaData> webErrorCodes = new KeySet<ErrorPageMetaData>(ERROR_CODE);
+        private final KeySet<ErrorPageMetaData> webExceptionTypes = new KeySet<ErrorPageMetaData>(EXCEPTION_TYPE);
+        private final KeySet<MimeMappingMetaData> webExtensions = new KeySet<MimeMappingMetaData>(EXTENSION);
 
-        // Distributable
-        if (!resolveConflicts && webFragmentMetaData.getDistributable() == null && webMetaData != null) {
-            webMetaData.setDistributable(null);
+        /**
+         * Create an augmenter.
+         *
+         * @param dest the web meta data to augment
+         */
+        public Augmenter(WebCommonMetaData dest) {
+            if (dest == null)
+                throw new IllegalArgumentException("Null dest");
+            this.dest = dest;
         }
 
-        // Context params
-        if (dest.getContextParams() == null) {
-            dest.setContextParams(webFragmentMetaData.getContextParams());
-        } else if (webFragmentMetaData.getContextParams() != null) {
-            List<ParamValueMetaData> mergedContextParams = new ArrayList<ParamValueMetaData>();
-            for (ParamValueMetaData contextParam : dest.getContextParams()) {
-                mergedContextParams.add(contextParam);
+        /**
+         * Merge a fragment into the web meta data.
+         *
+         * @param webFragmentMetaData The web meta data which will be merged into
+         *                            this one
+         * @param webMetaData         The base web meta data, used for conflict error
+         *                            checking
+         * @param resolveConflicts    If true, any conflict will be skipped without an
+         *                            error. Otherwise, an error will be thrown.
+         * @see WebCommonMetaDataMerger#augment(WebCommonMetaData, WebCommonMetaData, WebCommonMetaData, boolean)
+         */
+        public void augment(WebCommonMetaData webFragmentMetaData, WebCommonMetaData webMetaData, boolean resolveConflicts) {
+
+            // Distributable
+            if (!resolveConflicts && webFragmentMetaData.getDistributable() == null && webMetaData != null) {
+                webMetaData.setDistributable(null);
             }
-            for (ParamValueMetaData contextParam : webFragmentMetaData.getContextParams()) {
-                boolean found = false;
-                for (ParamValueMetaData check : dest.getContextParams()) {
-                    if (check.getParamName().equals(contextParam.getParamName())) {
+
+            // Context params
+            if (dest.getContextParams() == null) {
+                dest.setContextParams(webFragmentMetaData.getContextParams());
+            } else if (webFragmentMetaData.getContextParams() != null) {
+                List<ParamValueMetaData> mergedContextParams = contextParams.prepare(dest.getContextParams());
+                List<ParamValueMetaData> added = new ArrayList<ParamValueMetaData>();
+                for (ParamValueMetaData contextParam : webFragmentMetaData.getContextParams()) {
+                    boolean found = false;
+                    for (int position : contextParams.positions(0, contextParam.getParamName())) {
+                        ParamValueMetaData check = mergedContextParams.get(position);
                         found = true;
                         // Check for a conflict
                         if (!resolveConflicts && !check.getParamValue().equals(contextParam.getParamValue())) {
                             // If the parameter name does not exist in the main
                             // web, it's an error
-                            boolean found2 = false;
-                            if (webMetaData.getContextParams() != null) {
-                                for (ParamValueMetaData check1 : webMetaData.getContextParams()) {
-                                    if (check1.getParamName().equals(check.getParamName())) {
-                                        found2 = true;
-                                        break;
-                                    }
-                                }
-                            }
-                            if (!found2)
+                            if (!webContextParams.get(webMetaData.getContextParams()).contains(check.getParamName()))
                                 throw new IllegalStateException("Unresolved conflict on init parameter: "
                                         + check.getParamName());
                         }
                     }
+                    if (!found)
+                        added.add(contextParam);
                 }
-                if (!found)
-                    mergedContextParams.add(contextParam);
+                contextParams.addAll(added);
+                dest.setContextParams(mergedContextParams);
             }
-            dest.setContextParams(mergedContextParams);
-        }
 
-        // Session config
-        if (dest.getSessionConfig() == null) {
-            dest.setSessionConfig(webFragmentMetaData.getSessionConfig());
-        } else if (webFragmentMetaData.getSessionConfig() != null) {
-            SessionConfigMetaDataMerger.augment(dest.getSessionConfig(), webFragmentMetaData.getSessionConfig(),
-                    (webMetaData != null) ? webMetaData.getSessionConfig() : null, resolveConflicts);
-        }
-
-        // Filter mappings
-        if (dest.getFilterMappings() == null) {
-            dest.setFilterMappings(webFragmentMetaData.getFilterMappings());
-        } else if (webFragmentMetaData.getFilterMappings() != null) {
-            List<FilterMappingMetaData> mergedFilterMappings = new ArrayList<FilterMappingMetaData>();
-            for (FilterMappingMetaData filterMapping : dest.getFilterMappings()) {
-                mergedFilterMappings.add(filterMapping);
+            // Session config
+            if (dest.getSessionConfig() == null) {
+                dest.setSessionConfig(webFragmentMetaData.getSessionConfig());
+            } else if (webFragmentMetaData.getSessionConfig() != null) {
+                SessionConfigMetaDataMerger.augment(dest.getSessionConfig(), webFragmentMetaData.getSessionConfig(),
+                        (webMetaData != null) ? webMetaData.getSessionConfig() : null, resolveConflicts);
             }
-            for (FilterMappingMetaData filterMapping : webFragmentMetaData.getFilterMappings()) {
-                boolean found = false;
-                for (FilterMappingMetaData check : dest.getFilterMappings()) {
-                    if (check.getFilterName().equals(filterMapping.getFilterName())) {
+
+            // Filter mappings
+            if (dest.getFilterMappings() == null) {
+                dest.setFilterMappings(webFragmentMetaData.getFilterMappings());
+            } else if (webFragmentMetaData.getFilterMappings() != null) {
+                List<FilterMappingMetaData> mergedFilterMappings = filterMappings.prepare(dest.getFilterMappings());
+                List<FilterMappingMetaData> added = new ArrayList<FilterMappingMetaData>();
+                for (FilterMappingMetaData filterMapping : webFragmentMetaData.getFilterMappings()) {
+                    boolean found = false;
+                    for (int position : filterMappings.positions(0, filterMapping.getFilterName())) {
+                        FilterMappingMetaData check = mergedFilterMappings.get(position);
                         found = true;
                         // Augment unless an overriding descriptor redefines
                         // patterns
@@ -137,161 +178,130 @@ public class WebCommonMetaDataMerger {
                             FilterMappingMetaDataMerger.augment(check, filterMapping, null, resolveConflicts);
                         }
                     }
+                    if (!found)
+                        added.add(filterMapping);
                 }
-                if (!found)
-                    mergedFilterMappings.add(filterMapping);
+                filterMappings.addAll(added);
+                dest.setFilterMappings(mergedFilterMappings);
             }
-            dest.setFilterMappings(mergedFilterMappings);
-        }
-
-        // Filters
-        if (dest.getFilters() == null) {
-            dest.setFilters(webFragmentMetaData.getFilters());
-        } else if (webFragmentMetaData.getFilters() != null) {
-            FiltersMetaDataMerger.augment(dest.getFilters(), webFragmentMetaData.getFilters(),
-                    (webMetaData != null) ? webMetaData.getFilters() : null, resolveConflicts);
-        }
 
-        // Error page
-        if (dest.getErrorPages() == null) {
-            dest.setErrorPages(webFragmentMetaData.getErrorPages());
-        } else if (webFragmentMetaData.getErrorPages() != null) {
-            List<ErrorPageMetaData> mergedErrorPages = new ArrayList<ErrorPageMetaData>();
-            for (ErrorPageMetaData errorPage : dest.getErrorPages()) {
-                mergedErrorPages.add(errorPage);
+            // Filters
+            if (dest.getFilters() == null) {
+                dest.setFilters(webFragmentMetaData.getFilters());
+            } else if (webFragmentMetaData.getFilters() != null) {
+                FiltersMetaDataMerger.augment(dest.getFilters(), webFragmentMetaData.getFilters(),
+                        (webMetaData != null) ? webMetaData.getFilters() : null, resolveConflicts);
             }
-            for (ErrorPageMetaData errorPage : webFragmentMetaData.getErrorPages()) {
-                boolean found = false;
-                for (ErrorPageMetaData check : dest.getErrorPages()) {
-                    if (check.getErrorCode() != null && check.getErrorCode().equals(errorPage.getErrorCode())) {
-                        found = true;
-                        if (!resolveConflicts && check.getLocation() != null
-                                && !check.getLocation().equals(errorPage.getLocation())) {
-                            boolean found2 = false;
-                            if (webMetaData.getErrorPages() != null) {
-                                for (ErrorPageMetaData check1 : webMetaData.getErrorPages()) {
-                                    if (check1.getErrorCode() != null && check1.getErrorCode().equals(check.getErrorCode())) {
-                                        found2 = true;
-                                        break;
-                                    }
-                                }
+
+            // Error page
+            if (dest.getErrorPages() == null) {
+                dest.setErrorPages(webFragmentMetaData.getErrorPages());
+            } else if (webFragmentMetaData.getErrorPages() != null) {
+                List<ErrorPageMetaData> mergedErrorPages = errorPages.prepare(dest.getErrorPages());
+                List<ErrorPageMetaData> added = new ArrayList<ErrorPageMetaData>();
+                for (ErrorPageMetaData errorPage : webFragmentMetaData.getErrorPages()) {
+                    boolean found = false;
+                    List<Integer> byCode = errorPages.positions(0, errorPage.getErrorCode());
+                    List<Integer> byType = errorPages.positions(1, errorPage.getExceptionType());
+                    // check the matches in the order of the error pages
+                    int c = 0;
+                    int t = 0;
+                    while (c < byCode.size() || t < byType.size()) {
+                        ErrorPageMetaData check;
+                        if (t == byType.size() || (c < byCode.size() && byCode.get(c) <= byType.get(t))) {
+                            check = mergedErrorPages.get(byCode.get(c++));
+                            found = true;
+                            if (!resolveConflicts && check.getLocation() != null
+                                    && !check.getLocation().equals(errorPage.getLocation())) {
+                                if (!webErrorCodes.get(webMetaData.getErrorPages()).contains(check.getErrorCode()))
+                                    throw new IllegalStateException("Unresolved conflict on error page for code: "
+                                            + errorPage.getErrorCode());
                             }
-                            if (!found2)
-                                throw new IllegalStateException("Unresolved conflict on error page for code: "
-                                        + errorPage.getErrorCode());
+                            // the same page may match the exception type as well
+                            if (t == byType.size() || byType.get(t).intValue() != byCode.get(c - 1).intValue())
+                                continue;
                         }
-                    }
-                    if (check.getExceptionType() != null && check.getExceptionType().equals(errorPage.getExceptionType())) {
+                        check = mergedErrorPages.get(byType.get(t++));
                         found = true;
                         if (!resolveConflicts && check.getLocation() != null
                                 && !check.getLocation().equals(errorPage.getLocation())) {
-                            boolean found2 = false;
-                            if (webMetaData.getErrorPages() != null) {
-                                for (ErrorPageMetaData check1 : webMetaData.getErrorPages()) {
-                                    if (check1.getExceptionType() != null
-                                            && check1.getExceptionType().equals(check.getExceptionType())) {
-                                        found2 = true;
-                                        break;
-                                    }
-                                }
-                            }
-                            if (!found2)
+                            if (!webExceptionTypes.get(webMetaData.getErrorPages()).contains(check.getExceptionType()))
                                 throw new IllegalStateException("Unresolved conflict on error page for exception type: "
                                         + errorPage.getExceptionType());
                         }
                     }
+                    if (!found)
+                        added.add(errorPage);
                 }
-                if (!found)
-                    mergedErrorPages.add(errorPage);
+                errorPages.addAll(added);
+                dest.setErrorPages(mergedErrorPages);
             }
-            dest.setErrorPages(mergedErrorPages);
-        }
-
-        // JSP config
-        if (dest.getJspConfig() == null) {
-            dest.setJspConfig(webFragmentMetaData.getJspConfig());
-        } else if (webFragmentMetaData.getJspConfig() != null) {
-            JspConfigMetaDataMerger.augment(dest.getJspConfig(), webFragmentMetaData.getJspConfig(),
-                    (webMetaData != null) ? webMetaData.getJspConfig() : null, resolveConflicts);
-        }
 
-        // Listeners
-        if (dest.getListeners() == null) {
-            dest.setListeners(webFragmentMetaData.getListeners());
-        } else if (webFragmentMetaData.getListeners() != null) {
-            List<ListenerMetaData> mergedListeners = new ArrayList<ListenerMetaData>();
-            for (ListenerMetaData listener : dest.getListeners()) {
-                mergedListeners.add(listener);
+            // JSP config
+            if (dest.getJspConfig() == null) {
+                dest.setJspConfig(webFragmentMetaData.getJspConfig());
+            } else if (webFragmentMetaData.getJspConfig() != null) {
+                JspConfigMetaDataMerger.augment(dest.getJspConfig(), webFragmentMetaData.getJspConfig(),
+                        (webMetaData != null) ? webMetaData.getJspConfig() : null, resolveConflicts);
             }
-            for (ListenerMetaData listener : webFragmentMetaData.getListeners()) {
-                boolean found = false;
-                for (ListenerMetaData check : dest.getListeners()) {
-                    if (check.getListenerClass().equals(listener.getListenerClass())) {
-                        found = true;
-                    }
+
+            // Listeners
+            if (dest.getListeners() == null) {
+                dest.setListeners(webFragmentMetaData.getListeners());
+            } else if (webFragmentMetaData.getListeners() != null) {
+                List<ListenerMetaData> mergedListeners = listeners.prepare(dest.getListeners());
+                List<ListenerMetaData> added = new ArrayList<ListenerMetaData>();
+                for (ListenerMetaData listener : webFragmentMetaData.getListeners()) {
+                    if (listeners.positions(0, listener.getListenerClass()).isEmpty())
+                        added.add(listener);
                 }
-                if (!found)
-                    mergedListeners.add(listener);
+                listeners.addAll(added);
+                dest.setListeners(mergedListeners);
             }
-            dest.setListeners(mergedListeners);
-        }
 
-        // Login config
-        if (dest.getLoginConfig() == null) {
-            dest.setLoginConfig(webFragmentMetaData.getLoginConfig());
-        } else if (webFragmentMetaData.getLoginConfig() != null) {
-            LoginConfigMetaDataMerger.augment(dest.getLoginConfig(), webFragmentMetaData.getLoginConfig(),
-                    (webMetaData != null) ? webMetaData.getLoginConfig() : null, resolveConflicts);
-        }
-
-        // Mime mappings
-        if (dest.getMimeMappings() == null) {
-            dest.setMimeMappings(webFragmentMetaData.getMimeMappings());
-        } else if (webFragmentMetaData.getMimeMappings() != null) {
-            List<MimeMappingMetaData> mergedMimeMappings = new ArrayList<MimeMappingMetaData>();
-            for (MimeMappingMetaData mimeMapping : dest.getMimeMappings()) {
-                mergedMimeMappings.add(mimeMapping);
+            // Login config
+            if (dest.getLoginConfig() == null) {
+                dest.setLoginConfig(webFragmentMetaData.getLoginConfig());
+            } else if (webFragmentMetaData.getLoginConfig() != null) {
+                LoginConfigMetaDataMerger.augment(dest.getLoginConfig(), webFragmentMetaData.getLoginConfig(),
+                        (webMetaData != null) ? webMetaData.getLoginConfig() : null, resolveConflicts);
             }
-            for (MimeMappingMetaData mimeMapping : webFragmentMetaData.getMimeMappings()) {
-                boolean found = false;
-                for (MimeMappingMetaData check : dest.getMimeMappings()) {
-                    if (check.getExtension().equals(mimeMapping.getExtension())) {
+
+            // Mime mappings
+            if (dest.getMimeMappings() == null) {
+                dest.setMimeMappings(webFragmentMetaData.getMimeMappings());
+            } else if (webFragmentMetaData.getMimeMappings() != null) {
+                List<MimeMappingMetaData> mergedMimeMappings = mimeMappings.prepare(dest.getMimeMappings());
+                List<MimeMappingMetaData> added = new ArrayList<MimeMappingMetaData>();
+                for (MimeMappingMetaData mimeMapping : webFragmentMetaData.getMimeMappings()) {
+                    boolean found = false;
+                    for (int position : mimeMappings.positions(0, mimeMapping.getExtension())) {
+                        MimeMappingMetaData check = mergedMimeMappings.get(position);
                         found = true;
                         if (!resolveConflicts && check.getMimeType() != null
                                 && !check.getMimeType().equals(mimeMapping.getMimeType())) {
-                            boolean found2 = false;
-                            if (webMetaData.getMimeMappings() != null) {
-                                for (MimeMappingMetaData check1 : webMetaData.getMimeMappings()) {
-                                    if (check1.getExtension() != null && check1.getExtension().equals(check.getExtension())) {
-                                        found2 = true;
-                                        break;
-                                    }
-                                }
-                            }
-                            if (!found2)
+                            if (!webExtensions.get(webMetaData.getMimeMappings()).contains(check.getExtension()))
                                 throw new IllegalStateException("Unresolved conflict on mime mapping for extension: "
                                         + mimeMapping.getExtension());
                         }
                     }
+                    if (!found)
+                        added.add(mimeMapping);
                 }
-                if (!found)
-                    mergedMimeMappings.add(mimeMapping);
+                mimeMappings.addAll(added);
+                dest.setMimeMappings(mergedMimeMappings);
             }
-            dest.setMimeMappings(mergedMimeMappings);
-        }
 
-        // Servlet mappings
-        if (dest.getServletMappings() == null) {
-            dest.setServletMappings(webFragmentMetaData.getServletMappings());
-        } else if (webFragmentMetaData.getServletMappings() != null) {
-            List<ServletMappingMetaData> mergedServletMappings = new ArrayList<ServletMappingMetaData>();
-            for (ServletMappingMetaData servletMapping : dest.getServletMappings()) {
-                mergedServletMappings.add(servletMapping);
-            }
-            for (ServletMappingMetaData servletMapping : webFragmentMetaData.getServletMappings()) {
-                boolean found = false;
-                for (ServletMappingMetaData check : dest.getServletMappings()) {
-                    if (check.getServletName().equals(servletMapping.getServletName())) {
+            // Servlet mappings
+            if (dest.getServletMappings() == null) {
+                dest.setServletMappings(webFragmentMetaData.getServletMappings());
+            } else if (webFragmentMetaData.getServletMappings() != null) {
+                List<ServletMappingMetaData> mergedServletMappings = servletMappings.prepare(dest.getServletMappings());
+                List<ServletMappingMetaData> added = new ArrayList<ServletMappingMetaData>();
+                for (ServletMappingMetaData servletMapping : webFragmentMetaData.getServletMappings()) {
+                    boolean found = false;
+                    for (int position : servletMappings.positions(0, servletMapping.getServletName())) {
+                        ServletMappingMetaData check = mergedServletMappings.get(position);
                         found = true;
                         // Augment unless an overriding descriptor redefines
                         // patterns
@@ -299,109 +309,256 @@ public class WebCommonMetaDataMerger {
                             ServletMappingMetaDataMerger.augment(check, servletMapping, null, resolveConflicts);
                         }
                     }
+                    if (!found)
+                        added.add(servletMapping);
                 }
-                if (!found)
-                    mergedServletMappings.add(servletMapping);
+                servletMappings.addAll(added);
+                dest.setServletMappings(mergedServletMappings);
             }
-            dest.setServletMappings(mergedServletMappings);
-        }
 
-        // Servlets
-        if (dest.getServlets() == null) {
-            dest.setServlets(webFragmentMetaData.getServlets());
-        } else if (webFragmentMetaData.getServlets() != null) {
-            ServletsMetaDataMerger.augment(dest.getServlets(), webFragmentMetaData.getServlets(),
-                    (webMetaData != null) ? webMetaData.getServlets() : null, resolveConflicts);
-        }
-
-        // Security constraints
-        if (dest.getSecurityConstraints() == null) {
-            dest.setSecurityConstraints(webFragmentMetaData.getSecurityConstraints());
-        } else if (webFragmentMetaData.getSecurityConstraints() != null) {
-            List<SecurityConstraintMetaData> mergedSecurityConstraints = new ArrayList<SecurityConstraintMetaData>();
-            // No conflict, but URL patterns which are already present are
-            // ignored
-            Set<String> urlPatterns = new HashSet<String>();
-            for (SecurityConstraintMetaData securityConstraint : dest.getSecurityConstraints()) {
-                mergedSecurityConstraints.add(securityConstraint);
-                // Collect URL patterns for existing constraints
-                if (securityConstraint.getResourceCollections() != null) {
-                    for (WebResourceCollectionMetaData wrc : securityConstraint.getResourceCollections()) {
-                        if (wrc.getUrlPatterns() != null) {
-                            urlPatterns.addAll(wrc.getUrlPatterns());
-                        }
-                    }
-                }
+            // Servlets
+            if (dest.getServlets() == null) {
+                dest.setServlets(webFragmentMetaData.getServlets());
+            } else if (webFragmentMetaData.getServlets() != null) {
+                ServletsMetaDataMerger.augment(dest.getServlets(), webFragmentMetaData.getServlets(),
+                        (webMetaData != null) ? webMetaData.getServlets() : null, resolveConflicts);
             }
-            for (SecurityConstraintMetaData securityConstraint : webFragmentMetaData.getSecurityConstraints()) {
-                if (securityConstraint.getResourceCollections() != null && urlPatterns.size() > 0) {
-                    for (WebResourceCollectionMetaData wrc : securityConstraint.getResourceCollections()) {
-                        if (wrc.getUrlPatterns() != null) {
-                            List<String> newUrlPatterns = new ArrayList<String>();
-                            for (String urlPattern : wrc.getUrlPatterns()) {
-                                if (!urlPatterns.contains(urlPattern)) {
-                                    newUrlPatterns.add(urlPattern);
+
+            // Security constraints
+            if (dest.getSecurityConstraints() == null) {
+                dest.setSecurityConstraints(webFragmentMetaData.getSecurityConstraints());
+            } else if (webFragmentMetaData.getSecurityConstraints() != null) {
+                List<SecurityConstraintMetaData> mergedSecurityConstraints = securityConstraints.prepare(dest.getSecurityConstraints());
+                // No conflict, but URL patterns which are already present are
+                // ignored
+                Set<String> urlPatterns = securityConstraints.keys(0);
+                for (SecurityConstraintMetaData securityConstraint : webFragmentMetaData.getSecurityConstraints()) {
+                    if (securityConstraint.getResourceCollections() != null && urlPatterns.size() > 0) {
+                        for (WebResourceCollectionMetaData wrc : securityConstraint.getResourceCollections()) {
+                            if (wrc.getUrlPatterns() != null) {
+                                List<String> newUrlPatterns = new ArrayList<String>();
+                                for (String urlPattern : wrc.getUrlPatterns()) {
+                                    if (!urlPatterns.contains(urlPattern)) {
+                                        newUrlPatterns.add(urlPattern);
+                                    }
                                 }
+                                wrc.setUrlPatterns(newUrlPatterns);
                             }
-                            wrc.setUrlPatterns(newUrlPatterns);
                         }
                     }
                 }
-                mergedSecurityConstraints.add(securityConstraint);
+                securityConstraints.addAll(webFragmentMetaData.getSecurityConstraints());
+                dest.setSecurityConstraints(mergedSecurityConstraints);
+            }
+
+            // Security roles
+            if (dest.getSecurityRoles() == null) {
+                dest.setSecurityRoles(webFragmentMetaData.getSecurityRoles());
+            } else if (webFragmentMetaData.getSecurityRoles() != null) {
+                // The merge seems to be doing what we want, and this is additive
+                SecurityRolesMetaDataMerger.merge(dest.getSecurityRoles(), webFragmentMetaData.getSecurityRoles(), null);
             }
-            dest.setSecurityConstraints(mergedSecurityConstraints);
+
+            // Welcome file list
+            if (dest.getWelcomeFileList() == null) {
+                dest.setWelcomeFileList(webFragmentMetaData.getWelcomeFileList());
+            } else if (webFragmentMetaData.getWelcomeFileList() != null) {
+                WelcomeFileListMetaDataMerger.augment(dest.getWelcomeFileList(), webFragmentMetaData.getWelcomeFileList(), null, resolveConflicts);
+            }
+
+            // Locale encoding
+            if (dest.getLocalEncodings() == null) {
+                dest.setLocalEncodings(webFragmentMetaData.getLocalEncodings());
+            } else if (webFragmentMetaData.getLocalEncodings() != null) {
+                LocaleEncodingsMetaDataMerger.augment(dest.getLocalEncodings(), webFragmentMetaData.getLocalEncodings(),
+                        (webMetaData != null) ? webMetaData.getLocalEncodings() : null, resolveConflicts);
+            }
+
+            // All ENC elements except message destinations
+            if (dest.getJndiEnvironmentRefsGroup() == null) {
+                if (webFragmentMetaData.getJndiEnvironmentRefsGroup() != null)
+                    dest.setJndiEnvironmentRefsGroup(webFragmentMetaData.getJndiEnvironmentRefsGroup());
+            } else if (webFragmentMetaData.getJndiEnvironmentRefsGroup() != null) {
+                EnvironmentRefsGroupMetaDataMerger.augment(dest.getJndiEnvironmentRefsGroup(),
+                        webFragmentMetaData.getJndiEnvironmentRefsGroup(),
+                        (webMetaData != null) ? webMetaData.getJndiEnvironmentRefsGroup() : null, resolveConflicts);
+            }
+
+            // Message destinations
+            if (dest.getMessageDestinations() == null) {
+                dest.setMessageDestinations(webFragmentMetaData.getMessageDestinations());
+            } else if (webFragmentMetaData.getMessageDestinations() != null) {
+                MessageDestinationsMetaDataMerger.augment(dest.getMessageDestinations(), webFragmentMetaData
+                        .getMessageDestinations(), (webMetaData != null) ? webMetaData.getMessageDestinations() : null,
+                        resolveConflicts);
+            }
+
+            // Annotations
+            if (dest.getAnnotations() == null) {
+                dest.setAnnotations(webFragmentMetaData.getAnnotations());
+            } else if (webFragmentMetaData.getAnnotations() != null) {
+                AnnotationsMetaDataMerger.augment(dest.getAnnotations(), webFragmentMetaData.getAnnotations(), null,
+                        resolveConflicts);
+            }
+
+        }
+    }
+
+    private static final Key<ParamValueMetaData> PARAM_NAME = new Key<ParamValueMetaData>() {
+        void collect(ParamValueMetaData param, Collection<String> keys) {
+            keys.add(param.getParamName());
+        }
+    };
+
+    private static final Key<FilterMappingMetaData> FILTER_NAME = new Key<FilterMappingMetaData>() {
+        void collect(FilterMappingMetaData mapping, Collection<String> keys) {
+            keys.add(mapping.getFilterName());
+        }
+    };
+
+    private static final Key<ErrorPageMetaData> ERROR_CODE = new Key<ErrorPageMetaData>() {
+        void collect(ErrorPageMetaData page, Collection<String> keys) {
+            keys.add(page.getErrorCode());
+        }
+    };
+
+    private static final Key<ErrorPageMetaData> EXCEPTION_TYPE = new Key<ErrorPageMetaData>() {
+        void collect(ErrorPageMetaData page, Collection<String> keys) {
+            keys.add(page.getExceptionType());
+        }
+    };
+
+    private static final Key<ListenerMetaData> LISTENER_CLASS = new Key<ListenerMetaData>() {
+        void collect(ListenerMetaData listener, Collection<String> keys) {
+            keys.add(listener.getListenerClass());
+        }
+    };
+
+    private static final Key<MimeMappingMetaData> EXTENSION = new Key<MimeMappingMetaData>() {
+        void collect(MimeMappingMetaData mapping, Collection<String> keys) {
+            keys.add(mapping.getExtension());
+        }
+    };
+
+    private static final Key<ServletMappingMetaData> SERVLET_NAME = new Key<ServletMappingMetaData>() {
+        void collect(ServletMappingMetaData mapping, Collection<String> keys) {
+            keys.add(mapping.getServletName());
         }
+    };
 
-        // Security roles
-        if (dest.getSecurityRoles() == null) {
-            dest.setSecurityRoles(webFragmentMetaData.getSecurityRoles());
-        } else if (webFragmentMetaData.getSecurityRoles() != null) {
-            // The merge seems to be doing what we want, and this is additive
-            SecurityRolesMetaDataMerger.merge(dest.getSecurityRoles(), webFragmentMetaData.getSecurityRoles(), null);
+    private static final Key<SecurityConstraintMetaData> URL_PATTERNS = new Key<SecurityConstraintMetaData>() {
+        void collect(SecurityConstraintMetaData securityConstraint, Collection<String> keys) {
+            if (securityConstraint.getResourceCollections() != null) {
+                for (WebResourceCollectionMetaData wrc : securityConstraint.getResourceCollections()) {
+                    if (wrc.getUrlPatterns() != null) {
+                        keys.addAll(wrc.getUrlPatterns());
+                    }
+                }
+            }
         }
+    };
 
-        // Welcome file list
-        if (dest.getWelcomeFileList() == null) {
-            dest.setWelcomeFileList(webFragmentMetaData.getWelcomeFileList());
-        } else if (webFragmentMetaData.getWelcomeFileList() != null) {
-            WelcomeFileListMetaDataMerger.augment(dest.getWelcomeFileList(), webFragmentMetaData.getWelcomeFileList(), null, resolveConflicts);
+    /**
+     * The names an entry is matched by.
+     */
+    private abstract static class Key<T> {
+        abstract void collect(T element, Collection<String> keys);
+    }
+
+    /**
+     * A merged list with the positions of its entries by key. The list is a copy of the list it was prepared
+     * from and is only extended through {@link #addAll(List)}.
+     */
+    private static final class MergedList<T> {
+        private final Key<T>[] keys;
+        private final List<Map<String, List<Integer>>> positions;
+        private final List<String> collected = new ArrayList<String>();
+        private List<T> list;
+        private int indexed;
+
+        MergedList(Key<T>... keys) {
+            this.keys = keys;
+            this.positions = new ArrayList<Map<String, List<Integer>>>(keys.length);
+            for (int i = 0; i < keys.length; i++)
+                positions.add(new HashMap<String, List<Integer>>());
         }
 
-        // Locale encoding
-        if (dest.getLocalEncodings() == null) {
-            dest.setLocalEncodings(webFragmentMetaData.getLocalEncodings());
-        } else if (webFragmentMetaData.getLocalEncodings() != null) {
-            LocaleEncodingsMetaDataMerger.augment(dest.getLocalEncodings(), webFragmentMetaData.getLocalEncodings(),
-                    (webMetaData != null) ? webMetaData.getLocalEncodings() : null, resolveConflicts);
+        /**
+         * Get the merged list for the current list of the web meta data, which is reused if it is the merged
+         * list of the previous fragment.
+         */
+        List<T> prepare(List<T> current) {
+            if (current != list || current.size() != indexed) {
+                list = new ArrayList<T>(current);
+                indexed = 0;
+                for (Map<String, List<Integer>> keyPositions : positions)
+                    keyPositions.clear();
+                index();
+            }
+            return list;
         }
 
-        // All ENC elements except message destinations
-        if (dest.getJndiEnvironmentRefsGroup() == null) {
-            if (webFragmentMetaData.getJndiEnvironmentRefsGroup() != null)
-                dest.setJndiEnvironmentRefsGroup(webFragmentMetaData.getJndiEnvironmentRefsGroup());
-        } else if (webFragmentMetaData.getJndiEnvironmentRefsGroup() != null) {
-            EnvironmentRefsGroupMetaDataMerger.augment(dest.getJndiEnvironmentRefsGroup(),
-                    webFragmentMetaData.getJndiEnvironmentRefsGroup(),
-                    (webMetaData != null) ? webMetaData.getJndiEnvironmentRefsGroup() : null, resolveConflicts);
+        List<Integer> positions(int key, String value) {
+            if (value == null)
+                return Collections.emptyList();
+            List<Integer> result = positions.get(key).get(value);
+            return result != null ? result : Collections.<Integer>emptyList();
         }
 
-        // Message destinations
-        if (dest.getMessageDestinations() == null) {
-            dest.setMessageDestinations(webFragmentMetaData.getMessageDestinations());
-        } else if (webFragmentMetaData.getMessageDestinations() != null) {
-            MessageDestinationsMetaDataMerger.augment(dest.getMessageDestinations(), webFragmentMetaData
-                    .getMessageDestinations(), (webMetaData != null) ? webMetaData.getMessageDestinations() : null,
-                    resolveConflicts);
+        Set<String> keys(int key) {
+            return positions.get(key).keySet();
         }
 
-        // Annotations
-        if (dest.getAnnotations() == null) {
-            dest.setAnnotations(webFragmentMetaData.getAnnotations());
-        } else if (webFragmentMetaData.getAnnotations() != null) {
-            AnnotationsMetaDataMerger.augment(dest.getAnnotations(), webFragmentMetaData.getAnnotations(), null,
-                    resolveConflicts);
+        void addAll(List<T> added) {
+            list.addAll(added);
+            index();
         }
 
+        private void index() {
+            for (; indexed < list.size(); indexed++) {
+                for (int key = 0; key < keys.length; key++) {
+                    collected.clear();
+                    keys[key].collect(list.get(indexed), collected);
+                    for (String value : collected) {
+                        if (value == null)
+                            continue;
+                        List<Integer> valuePositions = positions.get(key).get(value);
+                        if (valuePositions == null) {
+                            valuePositions = new ArrayList<Integer>(1);
+                            positions.get(key).put(value, valuePositions);
+                        }
+                        valuePositions.add(indexed);
+                    }
+                }
+            }
+        }
     }
 
+    /**
+     * The keys of the entries of a list of the main web meta data.
+     */
+    private static final class KeySet<T> {
+        private final Key<T> key;
+        private final Set<String> keys = new HashSet<String>();
+        private List<T> list;
+        private int indexed;
+
+        KeySet(Key<T> key) {
+            this.key = key;
+        }
+
+        Set<String> get(List<T> current) {
+            if (current == null)
+                return Collections.emptySet();
+            if (current != list || current.size() != indexed) {
+                list = current;
+                keys.clear();
+                for (T element : current)
+                    key.collect(element, keys);
+                keys.remove(null);
+                indexed = current.size();
+            }
+            return keys;
+        }
+    }
 }
@@ -37,6 +37,8 @@ import org.jboss.metadata.javaee.spec.SecurityRolesMetaData;
 import org.jboss.metadata.parser.ee.EnvironmentRefsGroupMetaDataParser;
 import org.jboss.metadata.parser.ee.SecurityRoleMetaDataParser;
 import org.jboss.metadata.parser.servlet.SessionConfigMetaDataParser;
+import org.jboss.metadata.parser.util.DescriptorParser;
+import org.jboss.metadata.parser.util.DescriptorReader;
 import org.jboss.metadata.parser.util.MetaDataElementParser;
 import org.jboss.metadata.property.PropertyReplacer;
 import org.jboss.metadata.web.jboss.ContainerListenerMetaData;
@@ -56,6 +58,16 @@ import org.jboss.metadata.web.jboss.ValveMetaData;
  * @author Remy Maucherat
  */
 public class JBossWebMetaDataParser extends MetaDataElementParser {
+
+    /**
+     * Reads jboss-web.xml documents.
+     */
+    public static final DescriptorReader<JBossWebMetaData> DESCRIPTOR_READER = new DescriptorReader<JBossWebMetaData>(new DescriptorParser<JBossWebMetaData>() {
+        public JBossWebMetaData parse(XMLStreamReader reader, DTDInfo info, PropertyReplacer propertyReplacer) throws XMLStreamException {
+            return JBossWebMetaDataParser.parse(reader, propertyReplacer);
+        }
+    });
+
     private static final Logger log = Logger.getLogger(JBossWebMetaDataParser.class);
     private static final Set<String> DEPRECATED_ELEMENTS = new HashSet<>(Arrays.asList(
             "passivation-config"
@@ -30,7 +30,10 @@ import javax.xml.stream.XMLStreamReader;
 
 import org.jboss.metadata.javaee.spec.DescriptionGroupMetaData;
 import org.jboss.metadata.parser.ee.DescriptionGroupMetaDataParser;
+import org.jboss.metadata.parser.util.DescriptorParser;
+import org.jboss.metadata.parser.util.DescriptorReader;
 import org.jboss.metadata.parser.util.MetaDataElementParser;
+import org.jboss.metadata.property.PropertyReplacer;
 import org.jboss.metadata.web.spec.FunctionMetaData;
 import org.jboss.metadata.web.spec.ListenerMetaData;
 import org.jboss.metadata.web.spec.TagFileMetaData;
@@ -48,6 +51,15 @@ import org.jboss.metadata.web.spec.TldMetaData;
  */
 public class TldMetaDataParser extends MetaDataElementParser {
 
+    /**
+     * Reads tag library descriptors documents.
+     */
+    public static final DescriptorReader<TldMetaData> DESCRIPTOR_READER = new DescriptorReader<TldMetaData>(new DescriptorParser<TldMetaData>() {
+        public TldMetaData parse(XMLStreamReader reader, DTDInfo info, PropertyReplacer propertyReplacer) throws XMLStreamException {
+            return TldMetaDataParser.parse(reader);
+        }
+    });
+
     public static TldMetaData parse(XMLStreamReader reader) throws XMLStreamException {
 
         reader.require(START_DOCUMENT, null, null);
@@ -29,6 +29,8 @@ import org.jboss.metadata.javaee.spec.DescriptionGroupMetaData;
 import org.jboss.metadata.javaee.spec.EnvironmentRefsGroupMetaData;
 import org.jboss.metadata.parser.ee.DescriptionGroupMetaDataParser;
 import org.jboss.metadata.parser.ee.EnvironmentRefsGroupMetaDataParser;
+import org.jboss.metadata.parser.util.DescriptorParser;
+import org.jboss.metadata.parser.util.DescriptorReader;
 import org.jboss.metadata.parser.util.MetaDataElementParser;
 import org.jboss.metadata.property.PropertyReplacer;
 import org.jboss.metadata.web.spec.WebFragment30MetaData;
@@ -40,6 +42,15 @@ import org.jboss.metadata.web.spec.WebFragmentMetaData;
  */
 public class WebFragmentMetaDataParser extends MetaDataElementParser {
 
+    /**
+     * Reads web-fragment.xml documents.
+     */
+    public static final DescriptorReader<WebFragmentMetaData> DESCRIPTOR_READER = new DescriptorReader<WebFragmentMetaData>(new DescriptorParser<WebFragmentMetaData>() {
+        public WebFragmentMetaData parse(XMLStreamReader reader, DTDInfo info, PropertyReplacer propertyReplacer) throws XMLStreamException {
+            return WebFragmentMetaDataParser.parse(reader, propertyReplacer);
+        }
+    });
+
     public static WebFragmentMetaData parse(XMLStreamReader reader, PropertyReplacer propertyReplacer) throws XMLStreamException {
 
         reader.require(START_DOCUMENT, null, null);
@@ -32,7 +32,11 @@ import org.jboss.metadata.javaee.spec.DescriptionGroupMetaData;
 import org.jboss.metadata.javaee.spec.EnvironmentRefsGroupMetaData;
 import org.jboss.metadata.parser.ee.DescriptionGroupMetaDataParser;
 import org.jboss.metadata.parser.ee.EnvironmentRefsGroupMetaDataParser;
+import org.jboss.metadata.parser.util.DescriptorParser;
+import org.jboss.metadata.parser.util.DescriptorReader;
 import org.jboss.metadata.parser.util.MetaDataElementParser;
+import org.jboss.metadata.parser.util.XMLResourceResolver;
+import org.jboss.metadata.parser.util.XMLSchemaValidator;
 import org.jboss.metadata.property.PropertyReplacer;
 import org.jboss.metadata.web.spec.JspConfigMetaData;
 import org.jboss.metadata.web.spec.TaglibMetaData;
@@ -53,6 +57,15 @@ import org.jboss.metadata.web.spec.WebMetaData;
  */
 public class WebMetaDataParser extends MetaDataElementParser {
 
+    /**
+     * Reads web.xml documents.
+     */
+    public static final DescriptorReader<WebMetaData> DESCRIPTOR_READER = new DescriptorReader<WebMetaData>(new DescriptorParser<WebMetaData>() {
+        public WebMetaData parse(XMLStreamReader reader, DTDInfo info, PropertyReplacer propertyReplacer) throws XMLStreamException {
+            return WebMetaDataParser.parse(reader, info, propertyReplacer);
+        }
+    });
+
     public static WebMetaData parse(XMLStreamReader reader, DTDInfo info, PropertyReplacer propertyReplacer) throws XMLStreamException {
         return parse(reader, info, false, propertyReplacer);
     }
@@ -63,6 +76,10 @@ public class WebMetaDataParser extends MetaDataElementParser {
         if (info == null)
             throw new IllegalArgumentException("Null info");
 
+        // Validate the descriptor while parsing it
+        if (validation)
+            reader = new XMLSchemaValidator(new XMLResourceResolver()).createValidatingReader(reader);
+
         reader.require(START_DOCUMENT, null, null);
 
         // Read until the first start element
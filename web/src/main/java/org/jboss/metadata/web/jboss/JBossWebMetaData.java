@@ -22,6 +22,7 @@
 package org.jboss.metadata.web.jboss;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -38,7 +39,6 @@ import org.jboss.metadata.javaee.spec.EnvironmentRefsGroupMetaData;
 import org.jboss.metadata.javaee.spec.JavaEEMetaDataConstants;
 import org.jboss.metadata.javaee.spec.ParamValueMetaData;
 import org.jboss.metadata.javaee.spec.RunAsMetaData;
-import org.jboss.metadata.javaee.spec.SecurityRoleMetaData;
 import org.jboss.metadata.javaee.spec.SecurityRoleRefsMetaData;
 import org.jboss.metadata.javaee.spec.SecurityRolesMetaData;
 import org.jboss.metadata.javaee.support.NamedModuleImpl;
@@ -128,6 +128,18 @@ public class JBossWebMetaData extends NamedModuleImpl {
     private boolean useJBossAuthorization = false;
     private boolean disableAudit = true;
     private boolean symbolicLinkingEnabled = false;
+    /**
+     * Whether this metadata is frozen
+     */
+    private boolean frozen;
+    /**
+     * The servlet mapping index, compiled when frozen
+     */
+    private transient volatile ServletMappingIndex servletMappingIndex;
+    /**
+     * The security constraint table, compiled when frozen
+     */
+    private transient volatile SecurityConstraintTable securityConstraintTable;
 
     private List<ContainerListenerMetaData> containerListeners;
     private List<ValveMetaData> valves;
@@ -360,6 +372,7 @@ public class JBossWebMetaData extends NamedModuleImpl {
 
     public void setServlets(JBossServletsMetaData servlets) {
         this.servlets = servlets;
+        this.securityConstraintTable = null;
     }
 
     public List<ServletMappingMetaData> getServletMappings() {
@@ -368,6 +381,26 @@ public class JBossWebMetaData extends NamedModuleImpl {
 
     public void setServletMappings(List<ServletMappingMetaData> servletMappings) {
         this.servletMappings = servletMappings;
+        this.servletMappingIndex = null;
+        this.securityConstraintTable = null;
+    }
+
+    /**
+     * Get the servlet mappings compiled for mapping request paths to servlets. Once this metadata is frozen the
+     * index is compiled only once, before that it is compiled from the current mappings on every call.
+     *
+     * @return the servlet mapping index
+     */
+    public ServletMappingIndex getServletMappingIndex() {
+        if (frozen == false)
+            return new ServletMappingIndex(servletMappings);
+        ServletMappingIndex index = servletMappingIndex;
+        if (index == null) {
+            // a lost race only costs compiling the index twice
+            index = new ServletMappingIndex(servletMappings);
+            servletMappingIndex = index;
+        }
+        return index;
     }
 
     public List<SecurityConstraintMetaData> getSecurityConstraints() {
@@ -376,6 +409,26 @@ public class JBossWebMetaData extends NamedModuleImpl {
 
     public void setSecurityConstraints(List<SecurityConstraintMetaData> securityConstraints) {
         this.securityConstraints = securityConstraints;
+        this.securityConstraintTable = null;
+    }
+
+    /**
+     * Get the security constraints of the descriptors and of the <code>@ServletSecurity</code> of the servlets,
+     * combined per URL pattern and HTTP method. Once this metadata is frozen the table is compiled only once, before
+     * that it is compiled from the current constraints on every call.
+     *
+     * @return the security constraint table
+     */
+    public SecurityConstraintTable getSecurityConstraintTable() {
+        if (frozen == false)
+            return new SecurityConstraintTable(this);
+        SecurityConstraintTable table = securityConstraintTable;
+        if (table == null) {
+            // a lost race only costs compiling the table twice
+            table = new SecurityConstraintTable(this);
+            securityConstraintTable = table;
+        }
+        return table;
     }
 
     public SecurityRolesMetaData getSecurityRoles() {
@@ -574,22 +627,16 @@ public class JBossWebMetaData extends NamedModuleImpl {
         return refs;
     }
 
+    /**
+     * Get the role names keyed by principal name
+     *
+     * @return the read only role names by principal name or null if there are no security roles
+     * @see SecurityRolesMetaData#getPrincipalVersusRolesMap()
+     */
     public Map<String, Set<String>> getPrincipalVersusRolesMap() {
-        Map<String, Set<String>> principalRolesMap = null;
-
-        for (SecurityRoleMetaData srm : securityRoles) {
-            String rolename = srm.getRoleName();
-            if (principalRolesMap == null) { principalRolesMap = new HashMap<String, Set<String>>(); }
-            if (srm.getPrincipals() != null) {
-                for (String pr : srm.getPrincipals()) {
-                    Set<String> roleset = principalRolesMap.get(pr);
-                    if (roleset == null) { roleset = new HashSet<String>(); }
-                    if (!roleset.contains(rolename)) { roleset.add(rolename); }
-                    principalRolesMap.put(pr, roleset);
-                }
-            }
-        }
-        return principalRolesMap;
+        if (securityRoles == null || securityRoles.isEmpty())
+            return null;
+        return securityRoles.getPrincipalVersusRolesMap();
     }
 
     /**
@@ -675,64 +722,122 @@ public class JBossWebMetaData extends NamedModuleImpl {
         this.runAsIdentity.putAll(runAsIdentity);
     }
 
+    /**
+     * Freeze this metadata once it has been merged, so that it can be read by any number of threads at the same time
+     * without locking. The run-as identities of all servlets are resolved up front, the servlets and security roles can
+     * no longer be added to or removed, and the lists of mappings, constraints, parameters and pages become read only.
+     * The frozen metadata has to be published safely to the reading threads, for example through a volatile field or a
+     * concurrent collection.
+     */
+    public void freeze() {
+        if (frozen)
+            return;
+        if (servlets != null) {
+            for (JBossServletMetaData servlet : servlets)
+                getRunAsIdentity(servlet.getServletName());
+            servlets.freeze();
+        }
+        if (securityRoles != null)
+            securityRoles.freeze();
+        runAsIdentity = Collections.unmodifiableMap(new HashMap<String, RunAsIdentityMetaData>(runAsIdentity));
+        contextParams = unmodifiable(contextParams);
+        filterMappings = unmodifiable(filterMappings);
+        errorPages = unmodifiable(errorPages);
+        listeners = unmodifiable(listeners);
+        mimeMappings = unmodifiable(mimeMappings);
+        servletMappings = unmodifiable(servletMappings);
+        securityConstraints = unmodifiable(securityConstraints);
+        depends = unmodifiable(depends);
+        virtualHosts = unmodifiable(virtualHosts);
+        frozen = true;
+        servletMappingIndex = new ServletMappingIndex(servletMappings);
+        securityConstraintTable = new SecurityConstraintTable(this);
+    }
+
+    /**
+     * Whether this metadata is frozen
+     *
+     * @return true when frozen
+     * @see #freeze()
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    private static <T> List<T> unmodifiable(List<T> list) {
+        return list != null ? Collections.unmodifiableList(new ArrayList<T>(list)) : null;
+    }
+
     public void mergeSecurityRoles(SecurityRolesMetaData roles) {
         securityRoles = roles;
     }
 
     public void resolveAnnotations() {
         if (annotations != null) {
+            // index the servlets by class, a class may back several servlets
+            Map<String, List<JBossServletMetaData>> servletsByClass = new HashMap<String, List<JBossServletMetaData>>();
+            for (JBossServletMetaData servlet : servlets) {
+                if (servlet.getServletClass() != null) {
+                    List<JBossServletMetaData> classServlets = servletsByClass.get(servlet.getServletClass());
+                    if (classServlets == null) {
+                        classServlets = new ArrayList<JBossServletMetaData>(1);
+                        servletsByClass.put(servlet.getServletClass(), classServlets);
+                    }
+                    classServlets.add(servlet);
+                }
+            }
             for (AnnotationMetaData annotation : annotations) {
-                String className = annotation.getClassName();
-                for (JBossServletMetaData servlet : servlets) {
-                    if (servlet.getServletClass() != null && servlet.getServletClass().equals(className)) {
-                        // Merge @RunAs
-                        if (annotation.getRunAs() != null && servlet.getRunAs() == null) {
-                            RunAsMetaData runAs = new RunAsMetaData();
-                            runAs.setRoleName(annotation.getRunAs().getRoleName());
-                            servlet.setRunAs(runAs);
+                List<JBossServletMetaData> classServlets = servletsByClass.get(annotation.getClassName());
+                if (classServlets == null)
+                    continue;
+                for (JBossServletMetaData servlet : classServlets) {
+                    // Merge @RunAs
+                    if (annotation.getRunAs() != null && servlet.getRunAs() == null) {
+                        RunAsMetaData runAs = new RunAsMetaData();
+                        runAs.setRoleName(annotation.getRunAs().getRoleName());
+                        servlet.setRunAs(runAs);
+                    }
+                    // Merge @MultipartConfig
+                    if (annotation.getMultipartConfig() != null && servlet.getMultipartConfig() == null) {
+                        MultipartConfigMetaData multipartConfig = new MultipartConfigMetaData();
+                        MultipartConfigMetaData webFragmentMetaData = annotation.getMultipartConfig();
+                        multipartConfig.setLocation(webFragmentMetaData.getLocation());
+                        if (webFragmentMetaData.getMaxFileSizeSet()) {
+                            multipartConfig.setMaxFileSize(webFragmentMetaData.getMaxFileSize());
                         }
-                        // Merge @MultipartConfig
-                        if (annotation.getMultipartConfig() != null && servlet.getMultipartConfig() == null) {
-                            MultipartConfigMetaData multipartConfig = new MultipartConfigMetaData();
-                            MultipartConfigMetaData webFragmentMetaData = annotation.getMultipartConfig();
-                            multipartConfig.setLocation(webFragmentMetaData.getLocation());
-                            if (webFragmentMetaData.getMaxFileSizeSet()) {
-                                multipartConfig.setMaxFileSize(webFragmentMetaData.getMaxFileSize());
-                            }
-                            if (webFragmentMetaData.getMaxRequestSizeSet()) {
-                                multipartConfig.setMaxRequestSize(webFragmentMetaData.getMaxRequestSize());
-                            }
-                            if (webFragmentMetaData.getFileSizeThresholdSet()) {
-                                multipartConfig.setFileSizeThreshold(webFragmentMetaData.getFileSizeThreshold());
-                            }
-                            servlet.setMultipartConfig(multipartConfig);
+                        if (webFragmentMetaData.getMaxRequestSizeSet()) {
+                            multipartConfig.setMaxRequestSize(webFragmentMetaData.getMaxRequestSize());
                         }
-                        // Merge @ServletSecurity
-                        if (annotation.getServletSecurity() != null && servlet.getServletSecurity() == null) {
-                            ServletSecurityMetaData servletSecurityAnnotation = annotation.getServletSecurity();
-                            ServletSecurityMetaData servletSecurity = new ServletSecurityMetaData();
-                            servletSecurity.setEmptyRoleSemantic(servletSecurityAnnotation.getEmptyRoleSemantic());
-                            servletSecurity.setTransportGuarantee(servletSecurityAnnotation.getTransportGuarantee());
-                            List<String> roleNames = new ArrayList<String>();
-                            roleNames.addAll(servletSecurityAnnotation.getRolesAllowed());
-                            servletSecurity.setRolesAllowed(roleNames);
-                            if (servletSecurityAnnotation.getHttpMethodConstraints() != null) {
-                                List<HttpMethodConstraintMetaData> methodConstraints = new ArrayList<HttpMethodConstraintMetaData>();
-                                for (HttpMethodConstraintMetaData annotationMethodConstraint : servletSecurityAnnotation
-                                        .getHttpMethodConstraints()) {
-                                    HttpMethodConstraintMetaData methodConstraint = new HttpMethodConstraintMetaData();
-                                    methodConstraint.setMethod(annotationMethodConstraint.getMethod());
-                                    methodConstraint.setEmptyRoleSemantic(annotationMethodConstraint.getEmptyRoleSemantic());
-                                    methodConstraint.setTransportGuarantee(annotationMethodConstraint.getTransportGuarantee());
-                                    roleNames = new ArrayList<String>();
-                                    roleNames.addAll(annotationMethodConstraint.getRolesAllowed());
-                                    methodConstraint.setRolesAllowed(roleNames);
-                                    methodConstraints.add(methodConstraint);
-                                }
-                                servletSecurity.setHttpMethodConstraints(methodConstraints);
+                        if (webFragmentMetaData.getFileSizeThresholdSet()) {
+                            multipartConfig.setFileSizeThreshold(webFragmentMetaData.getFileSizeThreshold());
+                        }
+                        servlet.setMultipartConfig(multipartConfig);
+                    }
+                    // Merge @ServletSecurity
+                    if (annotation.getServletSecurity() != null && servlet.getServletSecurity() == null) {
+                        ServletSecurityMetaData servletSecurityAnnotation = annotation.getServletSecurity();
+                        ServletSecurityMetaData servletSecurity = new ServletSecurityMetaData();
+                        servletSecurity.setEmptyRoleSemantic(servletSecurityAnnotation.getEmptyRoleSemantic());
+                        servletSecurity.setTransportGuarantee(servletSecurityAnnotation.getTransportGuarantee());
+                        List<String> roleNames = new ArrayList<String>();
+                        roleNames.addAll(servletSecurityAnnotation.getRolesAllowed());
+                        servletSecurity.setRolesAllowed(roleNames);
+                        if (servletSecurityAnnotation.getHttpMethodConstraints() != null) {
+                            List<HttpMethodConstraintMetaData> methodConstraints = new ArrayList<HttpMethodConstraintMetaData>();
+                            for (HttpMethodConstraintMetaData annotationMethodConstraint : servletSecurityAnnotation
+                                    .getHttpMethodConstraints()) {
+                                HttpMethodConstraintMetaData methodConstraint = new HttpMethodConstraintMetaData();
+                                methodConstraint.setMethod(annotationMethodConstraint.getMethod());
+                                methodConstraint.setEmptyRoleSemantic(annotationMethodConstraint.getEmptyRoleSemantic());
+                                methodConstraint.setTransportGuarantee(annotationMethodConstraint.getTransportGuarantee());
+                                roleNames = new ArrayList<String>();
+                                roleNames.addAll(annotationMethodConstraint.getRolesAllowed());
+                                methodConstraint.setRolesAllowed(roleNames);
+                                methodConstraints.add(methodConstraint);
                             }
-                            servlet.setServletSecurity(servletSecurity);
+                            servletSecurity.setHttpMethodConstraints(methodConstraints);
                         }
+                        servlet.setServletSecurity(servletSecurity);
                     }
                 }
             }
@@ -792,6 +897,7 @@ public class JBossWebMetaData extends NamedModuleImpl {
 
     public void setDenyUncoveredHttpMethods(final Boolean denyUncoveredHttpMethods) {
         this.denyUncoveredHttpMethods = denyUncoveredHttpMethods;
+        this.securityConstraintTable = null;
     }
 
     public String getExecutorName() {
@@ -0,0 +1,321 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.metadata.web.jboss;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jboss.metadata.web.spec.EmptyRoleSemanticType;
+import org.jboss.metadata.web.spec.HttpConstraintMetaData;
+import org.jboss.metadata.web.spec.HttpMethodConstraintMetaData;
+import org.jboss.metadata.web.spec.SecurityConstraintMetaData;
+import org.jboss.metadata.web.spec.ServletMappingMetaData;
+import org.jboss.metadata.web.spec.ServletSecurityMetaData;
+import org.jboss.metadata.web.spec.TransportGuaranteeType;
+import org.jboss.metadata.web.spec.WebResourceCollectionMetaData;
+
+/**
+ * The security constraints of a web application, combined per URL pattern and HTTP method.
+ * <p/>
+ * The constraints are taken from the security-constraint elements of the descriptors and from the
+ * <code>@ServletSecurity</code> of the servlets, which applies to the URL patterns the servlet is mapped to
+ * unless the descriptors constrain the same pattern. The constraints on the same pattern and method are combined
+ * as the servlet specification defines it: an excluding constraint excludes, a constraint without
+ * auth-constraint leaves the request unchecked, otherwise the roles add up, and the least constraining transport
+ * guarantee wins. A request is constrained by the best matching pattern only, methods which are not constrained
+ * at that pattern are uncovered and denied only if the application denies uncovered HTTP methods.
+ *
+ * @see JBossWebMetaData#getSecurityConstraintTable()
+ */
+public class SecurityConstraintTable {
+    /**
+     * The effective constraint on a URL pattern and HTTP method.
+     */
+    public static final class Constraint {
+        private final boolean excluded;
+        private final Set<String> rolesAllowed;
+        private final TransportGuaranteeType transportGuarantee;
+
+        Constraint(boolean excluded, Set<String> rolesAllowed, TransportGuaranteeType transportGuarantee) {
+            this.excluded = excluded;
+            this.rolesAllowed = rolesAllowed;
+            this.transportGuarantee = transportGuarantee;
+        }
+
+        /**
+         * Whether no caller is allowed
+         *
+         * @return true if the request is denied
+         */
+        public boolean isExcluded() {
+            return excluded;
+        }
+
+        /**
+         * Whether any caller is allowed
+         *
+         * @return true if no role is required
+         */
+        public boolean isUnchecked() {
+            return !excluded && rolesAllowed.isEmpty();
+        }
+
+        /**
+         * Get the role semantic when no role is allowed
+         *
+         * @return DENY if the request is excluded, PERMIT otherwise
+         */
+        public EmptyRoleSemanticType getEmptyRoleSemantic() {
+            return excluded ? EmptyRoleSemanticType.DENY : EmptyRoleSemanticType.PERMIT;
+        }
+
+        /**
+         * Get the roles of which the caller needs one
+         *
+         * @return the unmodifiable, possibly empty roles
+         */
+        public Set<String> getRolesAllowed() {
+            return rolesAllowed;
+        }
+
+        /**
+         * Get the required transport guarantee
+         *
+         * @return the transport guarantee
+         */
+        public TransportGuaranteeType getTransportGuarantee() {
+            return transportGuarantee;
+        }
+
+        @Override
+        public String toString() {
+            return (excluded ? "excluded" : rolesAllowed.isEmpty() ? "unchecked" : rolesAllowed.toString()) + " "
+                    + transportGuarantee;
+        }
+    }
+
+    /** The constraint of uncovered methods when they are denied */
+    private static final Constraint UNCOVERED_DENIED = new Constraint(true, Collections.<String>emptySet(),
+            TransportGuaranteeType.NONE);
+
+    /** The constraints by URL pattern */
+    private final UrlPatternTable<PatternConstraints> patterns;
+
+    SecurityConstraintTable(JBossWebMetaData metaData) {
+        final boolean denyUncovered = Boolean.TRUE.equals(metaData.getDenyUncoveredHttpMethods());
+        final Map<String, List<MethodConstraint>> constraints = new HashMap<String, List<MethodConstraint>>();
+        if (metaData.getSecurityConstraints() != null) {
+            for (SecurityConstraintMetaData securityConstraint : metaData.getSecurityConstraints()) {
+                if (securityConstraint.getResourceCollections() == null)
+                    continue;
+                for (WebResourceCollectionMetaData wrc : securityConstraint.getResourceCollections()) {
+                    final MethodConstraint constraint;
+                    if (wrc.getHttpMethods() != null && !wrc.getHttpMethods().isEmpty())
+                        constraint = new MethodConstraint(wrc.getHttpMethods(), false, securityConstraint);
+                    else if (wrc.getHttpMethodOmissions() != null && !wrc.getHttpMethodOmissions().isEmpty())
+                        constraint = new MethodConstraint(wrc.getHttpMethodOmissions(), true, securityConstraint);
+                    else
+                        constraint = new MethodConstraint(null, false, securityConstraint);
+                    if (wrc.getUrlPatterns() != null) {
+                        for (String pattern : wrc.getUrlPatterns())
+                            add(constraints, pattern, constraint);
+                    }
+                }
+            }
+        }
+        // @ServletSecurity applies to the patterns of the servlet the descriptors leave alone
+        final Set<String> descriptorPatterns = new HashSet<String>(constraints.keySet());
+        if (metaData.getServletMappings() != null && metaData.getServlets() != null) {
+            for (ServletMappingMetaData mapping : metaData.getServletMappings()) {
+                if (mapping.getServletName() == null)
+                    continue;
+                JBossServletMetaData servlet = metaData.getServlets().get(mapping.getServletName());
+                if (servlet == null || servlet.getServletSecurity() == null || mapping.getUrlPatterns() == null)
+                    continue;
+                List<MethodConstraint> servletConstraints = getConstraints(servlet.getServletSecurity());
+                for (String pattern : mapping.getUrlPatterns()) {
+                    if (!descriptorPatterns.contains(pattern)) {
+                        for (MethodConstraint constraint : servletConstraints)
+                            add(constraints, pattern, constraint);
+                    }
+                }
+            }
+        }
+        final Map<String, PatternConstraints> compiled = new HashMap<String, PatternConstraints>();
+        for (Map.Entry<String, List<MethodConstraint>> entry : constraints.entrySet())
+            compiled.put(entry.getKey(), new PatternConstraints(entry.getValue(), denyUncovered));
+        patterns = new UrlPatternTable<PatternConstraints>(compiled);
+    }
+
+    /**
+     * Get the constraint on a request.
+     *
+     * @param path   the request path, starting with <code>/</code>
+     * @param method the HTTP method
+     * @return the constraint or null if the request is not constrained
+     */
+    public Constraint getConstraint(String path, String method) {
+        if (path == null)
+            throw new IllegalArgumentException("Null path");
+        if (method == null)
+            throw new IllegalArgumentException("Null method");
+        final PatternConstraints constraints = patterns.get(path);
+        return constraints != null ? constraints.get(method) : null;
+    }
+
+    private static void add(Map<String, List<MethodConstraint>> constraints, String pattern, MethodConstraint constraint) {
+        if (pattern == null)
+            return;
+        List<MethodConstraint> patternConstraints = constraints.get(pattern);
+        if (patternConstraints == null) {
+            patternConstraints = new ArrayList<MethodConstraint>();
+            constraints.put(pattern, patternConstraints);
+        }
+        patternConstraints.add(constraint);
+    }
+
+    /**
+     * The constraints of <code>@ServletSecurity</code>, each <code>@HttpMethodConstraint</code> constrains its
+     * method and the <code>@HttpConstraint</code> all other methods, unless it has the default values.
+     */
+    private static List<MethodConstraint> getConstraints(ServletSecurityMetaData servletSecurity) {
+        final List<MethodConstraint> constraints = new ArrayList<MethodConstraint>();
+        final List<String> methods = new ArrayList<String>();
+        if (servletSecurity.getHttpMethodConstraints() != null) {
+            for (HttpMethodConstraintMetaData methodConstraint : servletSecurity.getHttpMethodConstraints()) {
+                if (methodConstraint.getMethod() == null)
+                    continue;
+                methods.add(methodConstraint.getMethod());
+                constraints.add(new MethodConstraint(Collections.singletonList(methodConstraint.getMethod()), false,
+                        methodConstraint));
+            }
+        }
+        final boolean permitAll = (servletSecurity.getRolesAllowed() == null || servletSecurity.getRolesAllowed().isEmpty())
+                && servletSecurity.getEmptyRoleSemantic() != EmptyRoleSemanticType.DENY;
+        final boolean noTransport = servletSecurity.getTransportGuarantee() == null
+                || servletSecurity.getTransportGuarantee() == TransportGuaranteeType.NONE;
+        if (!permitAll || !noTransport)
+            constraints.add(new MethodConstraint(methods.isEmpty() ? null : methods, true, servletSecurity));
+        return constraints;
+    }
+
+    /**
+     * A constraint on a URL pattern for some HTTP methods.
+     */
+    private static final class MethodConstraint {
+        /** The listed or omitted methods, null for all methods */
+        private final Set<String> methods;
+        private final boolean omission;
+        private final boolean excluded;
+        private final boolean unchecked;
+        private final Collection<String> roles;
+        private final TransportGuaranteeType transportGuarantee;
+
+        MethodConstraint(Collection<String> methods, boolean omission, SecurityConstraintMetaData securityConstraint) {
+            this.methods = methods != null ? new HashSet<String>(methods) : null;
+            this.omission = omission;
+            this.unchecked = securityConstraint.isUnchecked();
+            this.roles = securityConstraint.getRoleNames();
+            this.excluded = !unchecked && roles.isEmpty();
+            this.transportGuarantee = nonNull(securityConstraint.getTransportGuarantee());
+        }
+
+        MethodConstraint(Collection<String> methods, boolean omission, HttpConstraintMetaData httpConstraint) {
+            this.methods = methods != null ? new HashSet<String>(methods) : null;
+            this.omission = omission;
+            this.roles = httpConstraint.getRolesAllowed() != null ? httpConstraint.getRolesAllowed()
+                    : Collections.<String>emptyList();
+            this.excluded = roles.isEmpty() && httpConstraint.getEmptyRoleSemantic() == EmptyRoleSemanticType.DENY;
+            this.unchecked = roles.isEmpty() && !excluded;
+            this.transportGuarantee = nonNull(httpConstraint.getTransportGuarantee());
+        }
+
+        boolean appliesTo(String method) {
+            return methods == null || methods.contains(method) != omission;
+        }
+
+        private static TransportGuaranteeType nonNull(TransportGuaranteeType transportGuarantee) {
+            return transportGuarantee != null ? transportGuarantee : TransportGuaranteeType.NONE;
+        }
+    }
+
+    /**
+     * The constraints on a URL pattern, combined for each method any of them names and once for all other methods.
+     */
+    private static final class PatternConstraints {
+        private final Map<String, Constraint> byMethod = new HashMap<String, Constraint>();
+        private final Constraint otherMethods;
+
+        PatternConstraints(List<MethodConstraint> constraints, boolean denyUncovered) {
+            final Set<String> namedMethods = new HashSet<String>();
+            final List<MethodConstraint> otherConstraints = new ArrayList<MethodConstraint>();
+            for (MethodConstraint constraint : constraints) {
+                if (constraint.methods != null)
+                    namedMethods.addAll(constraint.methods);
+                if (constraint.methods == null || constraint.omission)
+                    otherConstraints.add(constraint);
+            }
+            for (String method : namedMethods) {
+                final List<MethodConstraint> methodConstraints = new ArrayList<MethodConstraint>();
+                for (MethodConstraint constraint : constraints) {
+                    if (constraint.appliesTo(method))
+                        methodConstraints.add(constraint);
+                }
+                byMethod.put(method, combine(methodConstraints, denyUncovered));
+            }
+            otherMethods = combine(otherConstraints, denyUncovered);
+        }
+
+        Constraint get(String method) {
+            if (byMethod.containsKey(method))
+                return byMethod.get(method);
+            return otherMethods;
+        }
+
+        private static Constraint combine(List<MethodConstraint> constraints, boolean denyUncovered) {
+            if (constraints.isEmpty())
+                return denyUncovered ? UNCOVERED_DENIED : null;
+            boolean excluded = false;
+            boolean unchecked = false;
+            final Set<String> roles = new LinkedHashSet<String>();
+            TransportGuaranteeType transportGuarantee = null;
+            for (MethodConstraint constraint : constraints) {
+                excluded |= constraint.excluded;
+                unchecked |= constraint.unchecked;
+                roles.addAll(constraint.roles);
+                // the least constraining transport guarantee accepts the connections all of them accept
+                if (transportGuarantee == null || constraint.transportGuarantee.compareTo(transportGuarantee) < 0)
+                    transportGuarantee = constraint.transportGuarantee;
+            }
+            if (excluded || unchecked)
+                return new Constraint(excluded, Collections.<String>emptySet(), transportGuarantee);
+            return new Constraint(false, Collections.unmodifiableSet(roles), transportGuarantee);
+        }
+    }
+}
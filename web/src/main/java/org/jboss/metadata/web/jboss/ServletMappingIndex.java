@@ -0,0 +1,143 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.metadata.web.jboss;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.metadata.web.spec.ServletMappingMetaData;
+
+/**
+ * The URL patterns of the servlet mappings of a web application, compiled to map request paths to servlets.
+ * <p/>
+ * The patterns are classified as the servlet specification defines them: the empty string maps the context
+ * root, <code>/</code> the default servlet, patterns starting with <code>/</code> and ending with
+ * <code>/*</code> are path prefixes, patterns starting with <code>*.</code> are extensions and all other
+ * patterns are exact matches. A request path is resolved with the precedence of the specification, an exact
+ * match first, then the longest path prefix, then the extension of the last path segment and finally the
+ * default servlet. The path prefixes are kept in a trie of path segments, so resolving a path looks at each
+ * segment once and allocates nothing. When a pattern is mapped more than once the first mapping wins.
+ *
+ * @see JBossWebMetaData#getServletMappingIndex()
+ */
+public class ServletMappingIndex {
+    /**
+     * The kind of pattern a request path was matched by.
+     */
+    public enum MatchType {
+        /** The empty string pattern, mapping the context root */
+        CONTEXT_ROOT,
+        /** A pattern matching a single path */
+        EXACT,
+        /** A path prefix pattern, ending with <code>/*</code> */
+        PATH,
+        /** An extension pattern, starting with <code>*.</code> */
+        EXTENSION,
+        /** The <code>/</code> pattern of the default servlet */
+        DEFAULT
+    }
+
+    /**
+     * The servlet a request path is mapped to.
+     */
+    public static final class Match {
+        private final String servletName;
+        private final String pattern;
+        private final MatchType matchType;
+
+        Match(String servletName, String pattern, MatchType matchType) {
+            this.servletName = servletName;
+            this.pattern = pattern;
+            this.matchType = matchType;
+        }
+
+        /**
+         * Get the name of the mapped servlet
+         *
+         * @return the servlet name
+         */
+        public String getServletName() {
+            return servletName;
+        }
+
+        /**
+         * Get the URL pattern which matched
+         *
+         * @return the pattern
+         */
+        public String getPattern() {
+            return pattern;
+        }
+
+        /**
+         * Get the kind of the pattern which matched
+         *
+         * @return the match type
+         */
+        public MatchType getMatchType() {
+            return matchType;
+        }
+
+        @Override
+        public String toString() {
+            return matchType + " " + pattern + " -> " + servletName;
+        }
+    }
+
+    /** The mappings by URL pattern */
+    private final UrlPatternTable<Match> mappings;
+
+    /**
+     * Compile the URL patterns of servlet mappings.
+     *
+     * @param servletMappings the servlet mappings, may be null
+     */
+    public ServletMappingIndex(List<ServletMappingMetaData> servletMappings) {
+        Map<String, Match> patterns = new HashMap<String, Match>();
+        if (servletMappings != null) {
+            for (ServletMappingMetaData mapping : servletMappings) {
+                if (mapping.getUrlPatterns() == null)
+                    continue;
+                for (String pattern : mapping.getUrlPatterns()) {
+                    if (pattern != null && !patterns.containsKey(pattern)) {
+                        MatchType matchType = UrlPatternTable.matchType(pattern);
+                        patterns.put(pattern, new Match(mapping.getServletName(), pattern, matchType));
+                    }
+                }
+            }
+        }
+        mappings = new UrlPatternTable<Match>(patterns);
+    }
+
+    /**
+     * Map a request path, the servlet path and path info below the context path, to a servlet.
+     *
+     * @param path the request path, starting with <code>/</code>
+     * @return the mapping or null if no servlet matches
+     */
+    public Match resolve(String path) {
+        if (path == null)
+            throw new IllegalArgumentException("Null path");
+        return mappings.get(path);
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.metadata.web.jboss;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jboss.metadata.web.jboss.ServletMappingIndex.MatchType;
+
+/**
+ * Values keyed by URL pattern, looked up by request path with the precedence of the servlet specification.
+ * <p/>
+ * The empty string pattern matches the context root, an exact pattern its path, a path prefix pattern the
+ * longest prefix of a path, an extension pattern the extension of the last path segment and <code>/</code>
+ * any path. The path prefixes are kept in a trie of path segments, so looking up a path looks at each segment
+ * once and allocates nothing.
+ *
+ * @see ServletMappingIndex
+ * @see SecurityConstraintTable
+ */
+final class UrlPatternTable<V> {
+    /** The value of the context root */
+    private final V contextRoot;
+
+    /** The value of the default pattern */
+    private final V defaultValue;
+
+    /** The values of exact patterns by path */
+    private final Map<String, V> exact = new HashMap<String, V>();
+
+    /** The root of the path prefix trie */
+    private final Node<V> prefixes;
+
+    /** The values of extension patterns by extension, without the dot */
+    private final RegionMap<V> extensions;
+
+    /**
+     * Compile the patterns.
+     *
+     * @param patterns the values by URL pattern
+     */
+    UrlPatternTable(Map<String, V> patterns) {
+        V contextRoot = null;
+        V defaultValue = null;
+        NodeBuilder<V> prefixes = null;
+        Map<String, V> extensions = new HashMap<String, V>();
+        for (Map.Entry<String, V> entry : patterns.entrySet()) {
+            String pattern = entry.getKey();
+            switch (matchType(pattern)) {
+                case CONTEXT_ROOT:
+                    contextRoot = entry.getValue();
+                    break;
+                case DEFAULT:
+                    defaultValue = entry.getValue();
+                    break;
+                case PATH:
+                    if (prefixes == null)
+                        prefixes = new NodeBuilder<V>();
+                    NodeBuilder<V> node = prefixes;
+                    // "/*" is the root, "/a/b/*" the node of segment b below segment a
+                    int end = pattern.length() - 2;
+                    int start = 1;
+                    while (start <= end) {
+                        int slash = pattern.indexOf('/', start);
+                        node = node.child(pattern.substring(start, slash));
+                        start = slash + 1;
+                    }
+                    node.value = entry.getValue();
+                    break;
+                case EXTENSION:
+                    extensions.put(pattern.substring(2), entry.getValue());
+                    break;
+                default:
+                    exact.put(pattern, entry.getValue());
+            }
+        }
+        this.contextRoot = contextRoot;
+        this.defaultValue = defaultValue;
+        this.prefixes = prefixes != null ? prefixes.build() : null;
+        this.extensions = extensions.isEmpty() ? null : new RegionMap<V>(extensions);
+    }
+
+    /**
+     * Classify a URL pattern.
+     *
+     * @param pattern the pattern
+     * @return the kind of matches of the pattern
+     */
+    static MatchType matchType(String pattern) {
+        if (pattern.length() == 0)
+            return MatchType.CONTEXT_ROOT;
+        if (pattern.equals("/"))
+            return MatchType.DEFAULT;
+        if (pattern.startsWith("/") && pattern.endsWith("/*"))
+            return MatchType.PATH;
+        if (pattern.startsWith("*."))
+            return MatchType.EXTENSION;
+        return MatchType.EXACT;
+    }
+
+    /**
+     * Get the value of the best matching pattern.
+     *
+     * @param path the request path, starting with <code>/</code>
+     * @return the value or null if no pattern matches
+     */
+    V get(String path) {
+        final int length = path.length();
+        if (contextRoot != null && (length == 0 || (length == 1 && path.charAt(0) == '/')))
+            return contextRoot;
+        V value = exact.get(path);
+        if (value != null)
+            return value;
+        // the longest path prefix
+        Node<V> node = prefixes;
+        int start = length > 0 && path.charAt(0) == '/' ? 1 : 0;
+        while (node != null) {
+            if (node.value != null)
+                value = node.value;
+            if (start > length || node.children == null)
+                break;
+            int end = path.indexOf('/', start);
+            if (end < 0)
+                end = length;
+            node = node.children.get(path, start, end);
+            start = end + 1;
+        }
+        if (value != null)
+            return value;
+        // the extension of the last segment
+        if (extensions != null) {
+            int dot = path.lastIndexOf('.');
+            if (dot > path.lastIndexOf('/')) {
+                value = extensions.get(path, dot + 1, length);
+                if (value != null)
+                    return value;
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * A node of the path prefix trie, the children are keyed by path segment.
+     */
+    private static final class Node<V> {
+        private final V value;
+        private final RegionMap<Node<V>> children;
+
+        Node(V value, RegionMap<Node<V>> children) {
+            this.value = value;
+            this.children = children;
+        }
+    }
+
+    private static final class NodeBuilder<V> {
+        private V value;
+        private final Map<String, NodeBuilder<V>> children = new HashMap<String, NodeBuilder<V>>();
+
+        NodeBuilder<V> child(String segment) {
+            NodeBuilder<V> child = children.get(segment);
+            if (child == null) {
+                child = new NodeBuilder<V>();
+                children.put(segment, child);
+            }
+            return child;
+        }
+
+        Node<V> build() {
+            if (children.isEmpty())
+                return new Node<V>(value, null);
+            Map<String, Node<V>> nodes = new HashMap<String, Node<V>>();
+            for (Map.Entry<String, NodeBuilder<V>> entry : children.entrySet())
+                nodes.put(entry.getKey(), entry.getValue().build());
+            return new Node<V>(value, new RegionMap<Node<V>>(nodes));
+        }
+    }
+
+    /**
+     * An open addressing hash table which looks up a region of a string, so that the segments of a path do not
+     * have to be copied. The hash of a region is computed as {@link String#hashCode()} does.
+     */
+    private static final class RegionMap<V> {
+        private final String[] keys;
+        private final Object[] values;
+        private final int mask;
+
+        RegionMap(Map<String, V> entries) {
+            int capacity = 2;
+            while (capacity < entries.size() * 2)
+                capacity <<= 1;
+            keys = new String[capacity];
+            values = new Object[capacity];
+            mask = capacity - 1;
+            for (Map.Entry<String, V> entry : entries.entrySet()) {
+                int i = spread(entry.getKey().hashCode()) & mask;
+                while (keys[i] != null)
+                    i = (i + 1) & mask;
+                keys[i] = entry.getKey();
+                values[i] = entry.getValue();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        V get(String s, int start, int end) {
+            int hash = 0;
+            for (int j = start; j < end; j++)
+                hash = 31 * hash + s.charAt(j);
+            final int length = end - start;
+            for (int i = spread(hash) & mask; keys[i] != null; i = (i + 1) & mask) {
+                if (keys[i].length() == length && s.regionMatches(start, keys[i], 0, length))
+                    return (V) values[i];
+            }
+            return null;
+        }
+
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.metadata.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jboss.metadata.merge.web.spec.AnnotationMergedViewMerger;
+import org.jboss.metadata.web.spec.DispatcherType;
+import org.jboss.metadata.web.spec.FilterMappingMetaData;
+import org.jboss.metadata.web.spec.ListenerMetaData;
+import org.jboss.metadata.web.spec.ServletMappingMetaData;
+import org.jboss.metadata.web.spec.WebMetaData;
+import org.junit.Test;
+
+/**
+ * Tests the merged view of the servlet, filter and listener mappings of a descriptor and its annotations.
+ */
+public class AnnotationMergedViewUnitTestCase {
+
+    @Test
+    public void testServletMappings() {
+        WebMetaData xml = new WebMetaData();
+        xml.setServletMappings(new ArrayList<ServletMappingMetaData>(Arrays.asList(
+                servletMapping("s1", "/a", "/a"), servletMapping("s2", "/b"), servletMapping("s1", "/c"))));
+        WebMetaData annotation = new WebMetaData();
+        annotation.setServletMappings(new ArrayList<ServletMappingMetaData>(Arrays.asList(
+                servletMapping("s1", "/a", "/d"), servletMapping("s3", "/e"), servletMapping("s3", "/e", "/f"))));
+
+        WebMetaData merged = new WebMetaData();
+        AnnotationMergedViewMerger.merge(merged, xml, annotation);
+
+        List<ServletMappingMetaData> mappings = merged.getServletMappings();
+        assertEquals(4, mappings.size());
+        assertEquals("s1", mappings.get(0).getServletName());
+        assertEquals(Arrays.asList("/a", "/a", "/d"), mappings.get(0).getUrlPatterns());
+        assertEquals(Arrays.asList("/b"), mappings.get(1).getUrlPatterns());
+        assertEquals(Arrays.asList("/c", "/a", "/d"), mappings.get(2).getUrlPatterns());
+        assertEquals("s3", mappings.get(3).getServletName());
+        assertEquals(Arrays.asList("/e", "/f"), mappings.get(3).getUrlPatterns());
+        // the descriptor is left alone
+        assertEquals(Arrays.asList("/b"), xml.getServletMappings().get(1).getUrlPatterns());
+        assertEquals(Arrays.asList("/a", "/a"), xml.getServletMappings().get(0).getUrlPatterns());
+    }
+
+    @Test
+    public void testFilterMappings() {
+        FilterMappingMetaData xmlMapping = new FilterMappingMetaData();
+        xmlMapping.setFilterName("f1");
+        xmlMapping.setUrlPatterns(new ArrayList<String>(Arrays.asList("/a")));
+        xmlMapping.setDispatchers(new ArrayList<DispatcherType>(Arrays.asList(DispatcherType.REQUEST)));
+        WebMetaData xml = new WebMetaData();
+        xml.setFilterMappings(new ArrayList<FilterMappingMetaData>(Arrays.asList(xmlMapping)));
+        FilterMappingMetaData annotationMapping = new FilterMappingMetaData();
+        annotationMapping.setFilterName("f1");
+        annotationMapping.setUrlPatterns(new ArrayList<String>(Arrays.asList("/a", "/b")));
+        annotationMapping.setServletNames(new ArrayList<String>(Arrays.asList("s1")));
+        annotationMapping.setDispatchers(new ArrayList<DispatcherType>(Arrays.asList(DispatcherType.FORWARD,
+                DispatcherType.REQUEST)));
+        FilterMappingMetaData otherMapping = new FilterMappingMetaData();
+        otherMapping.setFilterName("f2");
+        otherMapping.setServletNames(new ArrayList<String>(Arrays.asList("s2")));
+        WebMetaData annotation = new WebMetaData();
+        annotation.setFilterMappings(new ArrayList<FilterMappingMetaData>(Arrays.asList(annotationMapping,
+                otherMapping)));
+
+        WebMetaData merged = new WebMetaData();
+        AnnotationMergedViewMerger.merge(merged, xml, annotation);
+
+        List<FilterMappingMetaData> mappings = merged.getFilterMappings();
+        assertEquals(2, mappings.size());
+        assertEquals(Arrays.asList("/a", "/b"), mappings.get(0).getUrlPatterns());
+        assertEquals(Arrays.asList("s1"), mappings.get(0).getServletNames());
+        assertEquals(Arrays.asList(DispatcherType.REQUEST, DispatcherType.FORWARD), mappings.get(0).getDispatchers());
+        assertEquals("f2", mappings.get(1).getFilterName());
+        assertNull(mappings.get(1).getUrlPatterns());
+        assertEquals(Arrays.asList("s2"), mappings.get(1).getServletNames());
+        assertNull(xmlMapping.getServletNames());
+    }
+
+    @Test
+    public void testListeners() {
+        WebMetaData xml = new WebMetaData();
+        xml.setListeners(new ArrayList<ListenerMetaData>(Arrays.asList(listener("l1"), listener("l2"))));
+        WebMetaData annotation = new WebMetaData();
+        annotation.setListeners(new ArrayList<ListenerMetaData>(Arrays.asList(listener("l3"), listener("l1"),
+                listener("l3"))));
+
+        WebMetaData merged = new WebMetaData();
+        AnnotationMergedViewMerger.merge(merged, xml, annotation);
+
+        List<ListenerMetaData> listeners = merged.getListeners();
+        assertEquals(3, listeners.size());
+        assertEquals("l1", listeners.get(0).getListenerClass());
+        assertEquals("l2", listeners.get(1).getListenerClass());
+        assertEquals("l3", listeners.get(2).getListenerClass());
+    }
+
+    private static ServletMappingMetaData servletMapping(String servletName, String... urlPatterns) {
+        ServletMappingMetaData mapping = new ServletMappingMetaData();
+        mapping.setServletName(servletName);
+        mapping.setUrlPatterns(new ArrayList<String>(Arrays.asList(urlPatterns)));
+        return mapping;
+    }
+
+    private static ListenerMetaData listener(String listenerClass) {
+        ListenerMetaData listener = new ListenerMetaData();
+        listener.setListenerClass(listenerClass);
+        return listener;
+    }
+}
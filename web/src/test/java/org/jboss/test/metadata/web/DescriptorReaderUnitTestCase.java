@@ -0,0 +1,133 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.test.metadata.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jboss.metadata.parser.jsp.TldMetaDataParser;
+import org.jboss.metadata.parser.servlet.WebMetaDataParser;
+import org.jboss.metadata.property.PropertyReplacer;
+import org.jboss.metadata.property.PropertyReplacers;
+import org.jboss.metadata.web.spec.TldMetaData;
+import org.jboss.metadata.web.spec.WebMetaData;
+import org.junit.Test;
+
+/**
+ * Tests reading descriptors through the shared {@link org.jboss.metadata.parser.util.DescriptorReader}s.
+ */
+public class DescriptorReaderUnitTestCase {
+
+    private final PropertyReplacer propertyReplacer = PropertyReplacers.noop();
+
+    @Test
+    public void testReadInputStream() throws Exception {
+        final InputStream in = resource("WebApp24_testSecurityConstraint.xml").openStream();
+        try {
+            final WebMetaData webApp = WebMetaDataParser.DESCRIPTOR_READER.read(in, propertyReplacer);
+            assertEquals(8, webApp.getSecurityConstraints().size());
+        } finally {
+            in.close();
+        }
+    }
+
+    @Test
+    public void testReadPath() throws Exception {
+        final Path path = Paths.get(resource("WebApp24_testSecurityConstraint.xml").toURI());
+        final WebMetaData webApp = WebMetaDataParser.DESCRIPTOR_READER.read(path, propertyReplacer);
+        assertEquals(8, webApp.getSecurityConstraints().size());
+    }
+
+    @Test
+    public void testReadByteBuffer() throws Exception {
+        final ByteBuffer buffer = ByteBuffer.wrap(read(resource("Tld21_testEverything.xml")));
+        final TldMetaData tld = TldMetaDataParser.DESCRIPTOR_READER.read(buffer, propertyReplacer);
+        assertNotNull(tld);
+        assertEquals("2.1", tld.getVersion());
+        // the buffer can be read again
+        assertEquals(0, buffer.position());
+        assertNotNull(TldMetaDataParser.DESCRIPTOR_READER.read(buffer, propertyReplacer));
+    }
+
+    @Test
+    public void testConcurrentReads() throws Exception {
+        final byte[] web22 = read(resource("WebApp22_testEverything.xml"));
+        final byte[] web24 = read(resource("WebApp24_testSecurityConstraint.xml"));
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<WebMetaData>> results = new ArrayList<Future<WebMetaData>>();
+            for (int i = 0; i < 32; i++) {
+                final byte[] document = i % 2 == 0 ? web22 : web24;
+                results.add(executor.submit(new Callable<WebMetaData>() {
+                    public WebMetaData call() throws Exception {
+                        return WebMetaDataParser.DESCRIPTOR_READER.read(ByteBuffer.wrap(document), propertyReplacer);
+                    }
+                }));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                final WebMetaData webApp = results.get(i).get();
+                // the DTD information must not leak between documents
+                if (i % 2 == 0) {
+                    assertEquals("-//Sun Microsystems, Inc.//DTD Web Application 2.2//EN", webApp.getDtdPublicId());
+                } else {
+                    assertEquals(null, webApp.getDtdPublicId());
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private URL resource(final String name) {
+        final URL url = getClass().getResource(name);
+        assertNotNull(name, url);
+        return url;
+    }
+
+    private static byte[] read(final URL url) throws Exception {
+        final InputStream in = url.openStream();
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+}
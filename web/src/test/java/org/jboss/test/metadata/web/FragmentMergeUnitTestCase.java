@@ -21,9 +21,18 @@
  */
 package org.jboss.test.metadata.web;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import junit.framework.TestCase;
+import org.jboss.metadata.javaee.spec.ParamValueMetaData;
 import org.jboss.metadata.merge.web.spec.WebCommonMetaDataMerger;
 import org.jboss.metadata.web.spec.CookieConfigMetaData;
+import org.jboss.metadata.web.spec.ErrorPageMetaData;
+import org.jboss.metadata.web.spec.ListenerMetaData;
+import org.jboss.metadata.web.spec.MimeMappingMetaData;
+import org.jboss.metadata.web.spec.ServletMappingMetaData;
 import org.jboss.metadata.web.spec.SessionConfigMetaData;
 import org.jboss.metadata.web.spec.WebFragmentMetaData;
 import org.jboss.metadata.web.spec.WebMetaData;
@@ -79,4 +88,110 @@ public class FragmentMergeUnitTestCase extends TestCase {
         assertEquals(20, fragment1.getSessionConfig().getSessionTimeout());
     }
 
+    public void testAugmenter() throws Exception {
+        WebMetaData main = new WebMetaData();
+        WebFragmentMetaData merged = fragment(0);
+        WebCommonMetaDataMerger.Augmenter augmenter = new WebCommonMetaDataMerger.Augmenter(merged);
+        WebFragmentMetaData expected = fragment(0);
+        for (int i = 1; i < 4; i++) {
+            augmenter.augment(fragment(i), main, false);
+            WebCommonMetaDataMerger.augment(expected, fragment(i), main, false);
+        }
+        assertEquals(paramNames(expected.getContextParams()), paramNames(merged.getContextParams()));
+        assertEquals(Arrays.asList("p0", "p1", "p2", "p3"), paramNames(merged.getContextParams()));
+        assertEquals(listenerClasses(expected.getListeners()), listenerClasses(merged.getListeners()));
+        assertEquals(Arrays.asList("l0", "l1", "l2", "l3"), listenerClasses(merged.getListeners()));
+        assertEquals(errorPages(expected.getErrorPages()), errorPages(merged.getErrorPages()));
+        assertEquals(Arrays.asList("404", "e0", "500", "e1"), errorPages(merged.getErrorPages()));
+        assertEquals(expected.getMimeMappings().size(), merged.getMimeMappings().size());
+        assertEquals(1, merged.getMimeMappings().size());
+        assertEquals(expected.getServletMappings().size(), merged.getServletMappings().size());
+        assertEquals(1, merged.getServletMappings().size());
+        assertEquals(Arrays.asList("/s0", "/s1", "/s2", "/s3"), merged.getServletMappings().get(0).getUrlPatterns());
+    }
+
+    public void testAugmenterConflict() throws Exception {
+        WebMetaData main = new WebMetaData();
+        WebFragmentMetaData merged = fragment(0);
+        WebCommonMetaDataMerger.Augmenter augmenter = new WebCommonMetaDataMerger.Augmenter(merged);
+        augmenter.augment(fragment(1), main, false);
+        WebFragmentMetaData conflicting = new WebFragmentMetaData();
+        conflicting.setContextParams(new ArrayList<ParamValueMetaData>(Arrays.asList(param("p1", "other"))));
+        try {
+            augmenter.augment(conflicting, main, false);
+            fail("Expected a conflict on p1");
+        } catch (IllegalStateException e) {
+            assertEquals("Unresolved conflict on init parameter: p1", e.getMessage());
+        }
+        // resolved by the main web meta data
+        main.setContextParams(new ArrayList<ParamValueMetaData>(Arrays.asList(param("p1", "main"))));
+        augmenter.augment(conflicting, main, false);
+        // a replaced list is picked up
+        merged.setListeners(new ArrayList<ListenerMetaData>(Arrays.asList(listener("l7"))));
+        augmenter.augment(fragment(2), main, false);
+        assertEquals(Arrays.asList("l7", "l2", "l0"), listenerClasses(merged.getListeners()));
+        assertEquals(Arrays.asList("p0", "p1", "p2"), paramNames(merged.getContextParams()));
+    }
+
+    private static WebFragmentMetaData fragment(int i) {
+        WebFragmentMetaData fragment = new WebFragmentMetaData();
+        fragment.setContextParams(new ArrayList<ParamValueMetaData>(Arrays.asList(param("p" + i, "v"))));
+        fragment.setListeners(new ArrayList<ListenerMetaData>(Arrays.asList(listener("l" + i))));
+        if (i > 0) {
+            // repeat the entries of the first fragment
+            fragment.getContextParams().add(param("p0", "v"));
+            fragment.getListeners().add(listener("l0"));
+        }
+        ErrorPageMetaData code = new ErrorPageMetaData();
+        code.setErrorCode(i % 2 == 0 ? "404" : "500");
+        code.setLocation("/error");
+        ErrorPageMetaData type = new ErrorPageMetaData();
+        type.setExceptionType("e" + (i % 2));
+        type.setLocation("/error");
+        fragment.setErrorPages(new ArrayList<ErrorPageMetaData>(Arrays.asList(code, type)));
+        MimeMappingMetaData mimeMapping = new MimeMappingMetaData();
+        mimeMapping.setExtension("txt");
+        mimeMapping.setMimeType("text/plain");
+        fragment.setMimeMappings(new ArrayList<MimeMappingMetaData>(Arrays.asList(mimeMapping)));
+        ServletMappingMetaData servletMapping = new ServletMappingMetaData();
+        servletMapping.setServletName("s");
+        servletMapping.setUrlPatterns(new ArrayList<String>(Arrays.asList("/s" + i)));
+        fragment.setServletMappings(new ArrayList<ServletMappingMetaData>(Arrays.asList(servletMapping)));
+        return fragment;
+    }
+
+    private static ParamValueMetaData param(String name, String value) {
+        ParamValueMetaData param = new ParamValueMetaData();
+        param.setParamName(name);
+        param.setParamValue(value);
+        return param;
+    }
+
+    private static ListenerMetaData listener(String listenerClass) {
+        ListenerMetaData listener = new ListenerMetaData();
+        listener.setListenerClass(listenerClass);
+        return listener;
+    }
+
+    private static List<String> paramNames(List<ParamValueMetaData> params) {
+        List<String> names = new ArrayList<String>();
+        for (ParamValueMetaData param : params)
+            names.add(param.getParamName());
+        return names;
+    }
+
+    private static List<String> listenerClasses(List<ListenerMetaData> listeners) {
+        List<String> classes = new ArrayList<String>();
+        for (ListenerMetaData listener : listeners)
+            classes.add(listener.getListenerClass());
+        return classes;
+    }
+
+    private static List<String> errorPages(List<ErrorPageMetaData> errorPages) {
+        List<String> keys = new ArrayList<String>();
+        for (ErrorPageMetaData errorPage : errorPages)
+            keys.add(errorPage.getErrorCode() != null ? errorPage.getErrorCode() : errorPage.getExceptionType());
+        return keys;
+    }
+
 }
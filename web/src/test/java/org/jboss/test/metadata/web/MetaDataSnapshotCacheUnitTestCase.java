@@ -0,0 +1,153 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.metadata.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.jboss.metadata.merge.web.jboss.JBossWebMetaDataMerger;
+import org.jboss.metadata.parser.jbossweb.JBossWebMetaDataParser;
+import org.jboss.metadata.parser.servlet.WebMetaDataParser;
+import org.jboss.metadata.parser.util.MetaDataSnapshotCache;
+import org.jboss.metadata.parser.util.SnapshotKey;
+import org.jboss.metadata.property.PropertyReplacers;
+import org.jboss.metadata.web.jboss.JBossWebMetaData;
+import org.jboss.metadata.web.spec.WebMetaData;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests storing merged web metadata in a {@link MetaDataSnapshotCache}.
+ */
+public class MetaDataSnapshotCacheUnitTestCase {
+
+    private Path directory;
+    private MetaDataSnapshotCache cache;
+
+    @Before
+    public void before() throws IOException {
+        directory = Files.createTempDirectory("snapshots");
+        cache = new MetaDataSnapshotCache(directory);
+    }
+
+    @After
+    public void after() throws IOException {
+        final DirectoryStream<Path> files = Files.newDirectoryStream(directory);
+        try {
+            for (Path file : files)
+                Files.delete(file);
+        } finally {
+            files.close();
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testStoreAndLoad() throws Exception {
+        final SnapshotKey key = key("1");
+        assertNull(cache.load(key, JBossWebMetaData.class));
+
+        final JBossWebMetaData merged = merge();
+        cache.store(key, merged);
+
+        final JBossWebMetaData loaded = cache.load(key, JBossWebMetaData.class);
+        assertNotNull(loaded);
+        assertEquals("testCache", loaded.getReplicationConfig().getCacheName());
+        assertEquals(Integer.valueOf(20), loaded.getMaxActiveSessions());
+        assertEquals(merged.getServlets().size(), loaded.getServlets().size());
+        assertEquals(merged.getSecurityRoles().size(), loaded.getSecurityRoles().size());
+    }
+
+    @Test
+    public void testKey() throws Exception {
+        assertEquals(key("1"), key("1"));
+        assertFalse(key("1").equals(key("2")));
+        // the order the properties are added in does not matter
+        assertEquals(SnapshotKey.builder().addProperty("a", "1").addProperty("b", "2").build(),
+                SnapshotKey.builder().addProperty("b", "2").addProperty("a", "1").build());
+        // an unset property differs from an empty one
+        assertFalse(SnapshotKey.builder().addProperty("a", null).build().equals(SnapshotKey.builder().addProperty("a", "").build()));
+    }
+
+    @Test
+    public void testWrongType() throws Exception {
+        final SnapshotKey key = key("1");
+        cache.store(key, merge());
+        assertNull(cache.load(key, WebMetaData.class));
+        // the incompatible snapshot is gone
+        assertFalse(cache.remove(key));
+    }
+
+    @Test
+    public void testCorruptSnapshot() throws Exception {
+        final SnapshotKey key = key("1");
+        cache.store(key, merge());
+        final Path file = directory.resolve(key.getDigest() + ".snapshot");
+        final byte[] content = Files.readAllBytes(file);
+        final byte[] truncated = new byte[content.length / 2];
+        System.arraycopy(content, 0, truncated, 0, truncated.length);
+        Files.write(file, truncated);
+
+        assertNull(cache.load(key, JBossWebMetaData.class));
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    public void testRemove() throws Exception {
+        final SnapshotKey key = key("1");
+        cache.store(key, merge());
+        assertTrue(cache.remove(key));
+        assertNull(cache.load(key, JBossWebMetaData.class));
+    }
+
+    private static SnapshotKey key(String propertyValue) throws IOException, URISyntaxException {
+        return SnapshotKey.builder()
+                .addDescriptor("WEB-INF/web.xml", resource("WebApp24_testRunAsPrincipal.xml"))
+                .addDescriptor("WEB-INF/jboss-web.xml", resource("JBossWeb60_testClustering.xml"))
+                .addProperty("jboss.test.property", propertyValue)
+                .build();
+    }
+
+    private static JBossWebMetaData merge() throws Exception {
+        final WebMetaData webMetaData = WebMetaDataParser.DESCRIPTOR_READER.read(resource("WebApp24_testRunAsPrincipal.xml"), PropertyReplacers.noop());
+        final JBossWebMetaData jbossWebMetaData = JBossWebMetaDataParser.DESCRIPTOR_READER.read(resource("JBossWeb60_testClustering.xml"), PropertyReplacers.noop());
+        final JBossWebMetaData merged = new JBossWebMetaData();
+        JBossWebMetaDataMerger.merge(merged, jbossWebMetaData, webMetaData);
+        return merged;
+    }
+
+    private static Path resource(String name) throws URISyntaxException {
+        return Paths.get(MetaDataSnapshotCacheUnitTestCase.class.getResource(name).toURI());
+    }
+}
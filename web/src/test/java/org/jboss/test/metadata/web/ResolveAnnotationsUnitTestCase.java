@@ -0,0 +1,99 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.metadata.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.jboss.metadata.javaee.spec.RunAsMetaData;
+import org.jboss.metadata.web.jboss.JBossAnnotationMetaData;
+import org.jboss.metadata.web.jboss.JBossAnnotationsMetaData;
+import org.jboss.metadata.web.jboss.JBossServletMetaData;
+import org.jboss.metadata.web.jboss.JBossServletsMetaData;
+import org.jboss.metadata.web.jboss.JBossWebMetaData;
+import org.jboss.metadata.web.spec.MultipartConfigMetaData;
+import org.junit.Test;
+
+/**
+ * Tests the resolution of servlet annotations against the servlets of a large web application.
+ */
+public class ResolveAnnotationsUnitTestCase {
+
+    private static final int SERVLETS = 5000;
+    private static final int ANNOTATIONS = 5000;
+
+    @Test
+    public void testResolveAnnotations() {
+        JBossServletsMetaData servlets = new JBossServletsMetaData();
+        for (int i = 0; i < SERVLETS; i++) {
+            JBossServletMetaData servlet = new JBossServletMetaData();
+            servlet.setServletName("servlet" + i);
+            // every class backs two servlets
+            servlet.setServletClass("Servlet" + (i % (SERVLETS / 2)));
+            servlets.add(servlet);
+        }
+        RunAsMetaData declared = new RunAsMetaData();
+        declared.setRoleName("declared");
+        servlets.get("servlet0").setRunAs(declared);
+        JBossServletMetaData unnamed = new JBossServletMetaData();
+        unnamed.setServletName("unnamed");
+        servlets.add(unnamed);
+
+        JBossAnnotationsMetaData annotations = new JBossAnnotationsMetaData();
+        for (int i = 0; i < ANNOTATIONS; i++) {
+            JBossAnnotationMetaData annotation = new JBossAnnotationMetaData();
+            // half of the annotated classes are no servlets
+            annotation.setClassName("Servlet" + i);
+            RunAsMetaData runAs = new RunAsMetaData();
+            runAs.setRoleName("role" + i);
+            annotation.setRunAs(runAs);
+            if (i % 2 == 0) {
+                MultipartConfigMetaData multipartConfig = new MultipartConfigMetaData();
+                multipartConfig.setLocation("/tmp/" + i);
+                annotation.setMultipartConfig(multipartConfig);
+            }
+            annotations.add(annotation);
+        }
+
+        JBossWebMetaData metaData = new JBossWebMetaData();
+        metaData.setServlets(servlets);
+        metaData.setAnnotations(annotations);
+        metaData.resolveAnnotations();
+
+        for (int i = 0; i < SERVLETS; i++) {
+            JBossServletMetaData servlet = servlets.get("servlet" + i);
+            int classIndex = i % (SERVLETS / 2);
+            if (i == 0) {
+                assertEquals("declared", servlet.getRunAs().getRoleName());
+            } else {
+                assertEquals("role" + classIndex, servlet.getRunAs().getRoleName());
+            }
+            if (classIndex % 2 == 0) {
+                assertEquals("/tmp/" + classIndex, servlet.getMultipartConfig().getLocation());
+            } else {
+                assertNull(servlet.getMultipartConfig());
+            }
+        }
+        assertNull(unnamed.getRunAs());
+    }
+}
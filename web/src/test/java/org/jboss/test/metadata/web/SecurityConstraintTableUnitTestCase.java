@@ -0,0 +1,223 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.metadata.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.jboss.metadata.web.jboss.JBossServletMetaData;
+import org.jboss.metadata.web.jboss.JBossServletsMetaData;
+import org.jboss.metadata.web.jboss.JBossWebMetaData;
+import org.jboss.metadata.web.jboss.SecurityConstraintTable;
+import org.jboss.metadata.web.jboss.SecurityConstraintTable.Constraint;
+import org.jboss.metadata.web.spec.AuthConstraintMetaData;
+import org.jboss.metadata.web.spec.EmptyRoleSemanticType;
+import org.jboss.metadata.web.spec.HttpMethodConstraintMetaData;
+import org.jboss.metadata.web.spec.SecurityConstraintMetaData;
+import org.jboss.metadata.web.spec.ServletMappingMetaData;
+import org.jboss.metadata.web.spec.ServletSecurityMetaData;
+import org.jboss.metadata.web.spec.TransportGuaranteeType;
+import org.jboss.metadata.web.spec.UserDataConstraintMetaData;
+import org.jboss.metadata.web.spec.WebResourceCollectionMetaData;
+import org.jboss.metadata.web.spec.WebResourceCollectionsMetaData;
+import org.junit.Test;
+
+/**
+ * Tests the combination of security constraints per URL pattern and HTTP method.
+ */
+public class SecurityConstraintTableUnitTestCase {
+
+    @Test
+    public void testCombination() {
+        JBossWebMetaData metaData = new JBossWebMetaData();
+        metaData.setSecurityConstraints(Arrays.asList(
+                constraint(collection(Arrays.asList("/a/*"), null, null), roles("r1"), TransportGuaranteeType.CONFIDENTIAL),
+                constraint(collection(Arrays.asList("/a/*"), null, null), roles("r2", "r1"), TransportGuaranteeType.INTEGRAL),
+                constraint(collection(Arrays.asList("/a/*"), Arrays.asList("DELETE"), null), roles(), null),
+                constraint(collection(Arrays.asList("/a/*"), Arrays.asList("GET"), null), null, null),
+                constraint(collection(Arrays.asList("/b/*"), Arrays.asList("GET", "POST"), null), roles("r3"), null),
+                constraint(collection(Arrays.asList("/c/*"), null, Arrays.asList("GET")), roles("r4"), null)));
+        SecurityConstraintTable table = metaData.getSecurityConstraintTable();
+
+        Constraint post = table.getConstraint("/a/x", "POST");
+        assertEquals(new HashSet<String>(Arrays.asList("r1", "r2")), post.getRolesAllowed());
+        assertFalse(post.isUnchecked());
+        assertFalse(post.isExcluded());
+        assertEquals(TransportGuaranteeType.INTEGRAL, post.getTransportGuarantee());
+        // an excluding constraint wins
+        Constraint delete = table.getConstraint("/a/x", "DELETE");
+        assertTrue(delete.isExcluded());
+        assertEquals(EmptyRoleSemanticType.DENY, delete.getEmptyRoleSemantic());
+        // a constraint without auth-constraint leaves the method unchecked, and requires no transport guarantee
+        Constraint get = table.getConstraint("/a", "GET");
+        assertTrue(get.isUnchecked());
+        assertEquals(EmptyRoleSemanticType.PERMIT, get.getEmptyRoleSemantic());
+        assertEquals(TransportGuaranteeType.NONE, get.getTransportGuarantee());
+
+        assertEquals(Collections.singleton("r3"), table.getConstraint("/b/x", "POST").getRolesAllowed());
+        // uncovered methods
+        assertNull(table.getConstraint("/b/x", "PUT"));
+        assertNull(table.getConstraint("/c/x", "GET"));
+        assertEquals(Collections.singleton("r4"), table.getConstraint("/c/x", "PUT").getRolesAllowed());
+        // unconstrained paths
+        assertNull(table.getConstraint("/d", "GET"));
+    }
+
+    @Test
+    public void testBestMatchingPattern() {
+        JBossWebMetaData metaData = new JBossWebMetaData();
+        metaData.setSecurityConstraints(Arrays.asList(
+                constraint(collection(Arrays.asList("/*"), null, null), roles("all"), null),
+                constraint(collection(Arrays.asList("/a/*"), Arrays.asList("GET"), null), roles("a"), null),
+                constraint(collection(Arrays.asList("/a/b"), null, null), roles("exact"), null),
+                constraint(collection(Arrays.asList("*.jsp"), null, null), roles("jsp"), null)));
+        SecurityConstraintTable table = metaData.getSecurityConstraintTable();
+        assertEquals(Collections.singleton("exact"), table.getConstraint("/a/b", "GET").getRolesAllowed());
+        assertEquals(Collections.singleton("a"), table.getConstraint("/a/b/c", "GET").getRolesAllowed());
+        // only the best matching pattern applies
+        assertNull(table.getConstraint("/a/b/c", "POST"));
+        assertEquals(Collections.singleton("all"), table.getConstraint("/x.jsp", "POST").getRolesAllowed());
+    }
+
+    @Test
+    public void testDenyUncoveredHttpMethods() {
+        JBossWebMetaData metaData = new JBossWebMetaData();
+        metaData.setSecurityConstraints(Arrays.asList(
+                constraint(collection(Arrays.asList("/b/*"), Arrays.asList("GET"), null), roles("r"), null)));
+        metaData.setDenyUncoveredHttpMethods(Boolean.TRUE);
+        SecurityConstraintTable table = metaData.getSecurityConstraintTable();
+        assertEquals(Collections.singleton("r"), table.getConstraint("/b/x", "GET").getRolesAllowed());
+        assertTrue(table.getConstraint("/b/x", "POST").isExcluded());
+        assertNull(table.getConstraint("/c", "POST"));
+    }
+
+    @Test
+    public void testServletSecurity() {
+        ServletSecurityMetaData servletSecurity = new ServletSecurityMetaData();
+        servletSecurity.setRolesAllowed(Arrays.asList("user"));
+        servletSecurity.setTransportGuarantee(TransportGuaranteeType.CONFIDENTIAL);
+        HttpMethodConstraintMetaData trace = new HttpMethodConstraintMetaData();
+        trace.setMethod("TRACE");
+        trace.setEmptyRoleSemantic(EmptyRoleSemanticType.DENY);
+        HttpMethodConstraintMetaData get = new HttpMethodConstraintMetaData();
+        get.setMethod("GET");
+        servletSecurity.setHttpMethodConstraints(Arrays.asList(trace, get));
+        JBossServletMetaData servlet = new JBossServletMetaData();
+        servlet.setServletName("secure");
+        servlet.setServletSecurity(servletSecurity);
+        JBossServletsMetaData servlets = new JBossServletsMetaData();
+        servlets.add(servlet);
+        ServletMappingMetaData mapping = new ServletMappingMetaData();
+        mapping.setServletName("secure");
+        mapping.setUrlPatterns(Arrays.asList("/secure/*", "/overridden"));
+
+        JBossWebMetaData metaData = new JBossWebMetaData();
+        metaData.setServlets(servlets);
+        metaData.setServletMappings(Arrays.asList(mapping));
+        metaData.setSecurityConstraints(Arrays.asList(
+                constraint(collection(Arrays.asList("/overridden"), null, null), roles("admin"), null)));
+        metaData.freeze();
+        SecurityConstraintTable table = metaData.getSecurityConstraintTable();
+        assertSame(table, metaData.getSecurityConstraintTable());
+
+        Constraint post = table.getConstraint("/secure/x", "POST");
+        assertEquals(Collections.singleton("user"), post.getRolesAllowed());
+        assertEquals(TransportGuaranteeType.CONFIDENTIAL, post.getTransportGuarantee());
+        assertTrue(table.getConstraint("/secure/x", "TRACE").isExcluded());
+        Constraint unchecked = table.getConstraint("/secure/x", "GET");
+        assertTrue(unchecked.isUnchecked());
+        assertEquals(TransportGuaranteeType.NONE, unchecked.getTransportGuarantee());
+        // the descriptor overrides the annotation on the same pattern
+        Constraint overridden = table.getConstraint("/overridden", "TRACE");
+        assertNotNull(overridden);
+        assertEquals(Collections.singleton("admin"), overridden.getRolesAllowed());
+    }
+
+    @Test
+    public void testServletSecurityDefaults() {
+        // an @HttpConstraint with the default values does not constrain the other methods
+        ServletSecurityMetaData servletSecurity = new ServletSecurityMetaData();
+        HttpMethodConstraintMetaData put = new HttpMethodConstraintMetaData();
+        put.setMethod("PUT");
+        put.setRolesAllowed(Arrays.asList("writer"));
+        servletSecurity.setHttpMethodConstraints(Arrays.asList(put));
+        JBossServletMetaData servlet = new JBossServletMetaData();
+        servlet.setServletName("s");
+        servlet.setServletSecurity(servletSecurity);
+        JBossServletsMetaData servlets = new JBossServletsMetaData();
+        servlets.add(servlet);
+        ServletMappingMetaData mapping = new ServletMappingMetaData();
+        mapping.setServletName("s");
+        mapping.setUrlPatterns(Arrays.asList("*.do"));
+        JBossWebMetaData metaData = new JBossWebMetaData();
+        metaData.setServlets(servlets);
+        metaData.setServletMappings(Arrays.asList(mapping));
+        SecurityConstraintTable table = metaData.getSecurityConstraintTable();
+        assertEquals(Collections.singleton("writer"), table.getConstraint("/a/b.do", "PUT").getRolesAllowed());
+        assertNull(table.getConstraint("/a/b.do", "GET"));
+    }
+
+    private static SecurityConstraintMetaData constraint(WebResourceCollectionMetaData collection,
+                                                         AuthConstraintMetaData authConstraint,
+                                                         TransportGuaranteeType transportGuarantee) {
+        SecurityConstraintMetaData constraint = new SecurityConstraintMetaData();
+        WebResourceCollectionsMetaData collections = new WebResourceCollectionsMetaData();
+        collections.add(collection);
+        constraint.setResourceCollections(collections);
+        constraint.setAuthConstraint(authConstraint);
+        if (transportGuarantee != null) {
+            UserDataConstraintMetaData userDataConstraint = new UserDataConstraintMetaData();
+            userDataConstraint.setTransportGuarantee(transportGuarantee);
+            constraint.setUserDataConstraint(userDataConstraint);
+        }
+        return constraint;
+    }
+
+    private static WebResourceCollectionMetaData collection(List<String> urlPatterns, List<String> httpMethods,
+                                                            List<String> httpMethodOmissions) {
+        WebResourceCollectionMetaData collection = new WebResourceCollectionMetaData();
+        collection.setUrlPatterns(new ArrayList<String>(urlPatterns));
+        if (httpMethods != null)
+            collection.setHttpMethods(new ArrayList<String>(httpMethods));
+        if (httpMethodOmissions != null)
+            collection.setHttpMethodOmissions(new ArrayList<String>(httpMethodOmissions));
+        return collection;
+    }
+
+    private static AuthConstraintMetaData roles(String... roleNames) {
+        AuthConstraintMetaData authConstraint = new AuthConstraintMetaData();
+        if (roleNames.length > 0)
+            authConstraint.setRoleNames(Arrays.asList(roleNames));
+        return authConstraint;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.test.metadata.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.jboss.metadata.javaee.spec.SecurityRoleMetaData;
+import org.jboss.metadata.javaee.spec.SecurityRolesMetaData;
+import org.jboss.metadata.web.jboss.JBossWebMetaData;
+import org.junit.Test;
+
+/**
+ * Tests of {@link JBossWebMetaData#getPrincipalVersusRolesMap()}.
+ */
+public class SecurityRolesByPrincipalUnitTestCase {
+
+    @Test
+    public void testPrincipalsChangedAfterAdd() {
+        final JBossWebMetaData metaData = new JBossWebMetaData();
+        assertNull(metaData.getPrincipalVersusRolesMap());
+        final SecurityRolesMetaData roles = new SecurityRolesMetaData();
+        final SecurityRoleMetaData admin = role("admin", "alice", "bob");
+        roles.add(admin);
+        roles.add(role("user", "bob"));
+        roles.add(role("guest"));
+        metaData.setSecurityRoles(roles);
+
+        Map<String, Set<String>> principalVersusRoles = metaData.getPrincipalVersusRolesMap();
+        assertEquals(set("admin"), principalVersusRoles.get("alice"));
+        assertEquals(set("admin", "user"), principalVersusRoles.get("bob"));
+        assertEquals(2, principalVersusRoles.size());
+
+        // the map follows the changes to the principals of the roles
+        admin.getPrincipals().add("carol");
+        admin.getPrincipals().remove("alice");
+        principalVersusRoles = metaData.getPrincipalVersusRolesMap();
+        assertFalse(principalVersusRoles.containsKey("alice"));
+        assertEquals(set("admin"), principalVersusRoles.get("carol"));
+        assertEquals(set("admin", "user"), principalVersusRoles.get("bob"));
+    }
+
+    private static SecurityRoleMetaData role(String name, String... principals) {
+        final SecurityRoleMetaData role = new SecurityRoleMetaData();
+        role.setRoleName(name);
+        if (principals.length > 0)
+            role.setPrincipals(set(principals));
+        return role;
+    }
+
+    private static Set<String> set(String... values) {
+        final Set<String> set = new HashSet<String>();
+        Collections.addAll(set, values);
+        return set;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.test.metadata.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jboss.metadata.web.jboss.JBossWebMetaData;
+import org.jboss.metadata.web.jboss.ServletMappingIndex;
+import org.jboss.metadata.web.jboss.ServletMappingIndex.Match;
+import org.jboss.metadata.web.jboss.ServletMappingIndex.MatchType;
+import org.jboss.metadata.web.spec.ServletMappingMetaData;
+import org.junit.Test;
+
+/**
+ * Tests the mapping of request paths to servlets with the precedence of the servlet specification.
+ */
+public class ServletMappingIndexUnitTestCase {
+
+    @Test
+    public void testSpecificationExamples() {
+        // the example mappings of the servlet specification
+        ServletMappingIndex index = new ServletMappingIndex(mappings(
+                mapping("servlet1", "/foo/bar/*"),
+                mapping("servlet2", "/baz/*"),
+                mapping("servlet3", "/catalog"),
+                mapping("servlet4", "*.bop")));
+        assertMatch(index, "/foo/bar/index.html", "servlet1", MatchType.PATH);
+        assertMatch(index, "/foo/bar/index.bop", "servlet1", MatchType.PATH);
+        assertMatch(index, "/baz", "servlet2", MatchType.PATH);
+        assertMatch(index, "/baz/index.html", "servlet2", MatchType.PATH);
+        assertMatch(index, "/catalog", "servlet3", MatchType.EXACT);
+        assertMatch(index, "/catalog/index.html", null, null);
+        assertMatch(index, "/catalog/racecar.bop", "servlet4", MatchType.EXTENSION);
+        assertMatch(index, "/index.bop", "servlet4", MatchType.EXTENSION);
+        assertMatch(index, "/bazooka", null, null);
+        assertMatch(index, "/foo/barbie", null, null);
+    }
+
+    @Test
+    public void testPrecedence() {
+        ServletMappingIndex index = new ServletMappingIndex(mappings(
+                mapping("root", ""),
+                mapping("default", "/"),
+                mapping("all", "/*"),
+                mapping("a", "/a/*", "/a/b/c"),
+                mapping("ab", "/a/b/*"),
+                mapping("jsp", "*.jsp"),
+                mapping("other", "/a/*", "*.jsp", "/")));
+        assertMatch(index, "", "root", MatchType.CONTEXT_ROOT);
+        assertMatch(index, "/", "root", MatchType.CONTEXT_ROOT);
+        assertMatch(index, "/a/b/c", "a", MatchType.EXACT);
+        assertMatch(index, "/a/b/c/d", "ab", MatchType.PATH);
+        assertMatch(index, "/a/b", "ab", MatchType.PATH);
+        assertMatch(index, "/a/bc", "a", MatchType.PATH);
+        assertMatch(index, "/a/x.jsp", "a", MatchType.PATH);
+        assertMatch(index, "/x.jsp", "all", MatchType.PATH);
+        assertMatch(index, "/b", "all", MatchType.PATH);
+        assertEquals("/a/b/*", index.resolve("/a/b/d").getPattern());
+    }
+
+    @Test
+    public void testExtensionAndDefault() {
+        ServletMappingIndex index = new ServletMappingIndex(mappings(
+                mapping("default", "/"),
+                mapping("jsp", "*.jsp", "*.jspx"),
+                mapping("exact", "/index.jsp")));
+        assertMatch(index, "/", "default", MatchType.DEFAULT);
+        assertMatch(index, "/index.jsp", "exact", MatchType.EXACT);
+        assertMatch(index, "/a/page.jsp", "jsp", MatchType.EXTENSION);
+        assertMatch(index, "/a/page.jspx", "jsp", MatchType.EXTENSION);
+        assertMatch(index, "/a/page.js", "default", MatchType.DEFAULT);
+        // only the last segment has an extension
+        assertMatch(index, "/a.jsp/page", "default", MatchType.DEFAULT);
+        assertMatch(index, "/a/page", "default", MatchType.DEFAULT);
+    }
+
+    @Test
+    public void testEmpty() {
+        ServletMappingIndex index = new ServletMappingIndex(null);
+        assertNull(index.resolve("/"));
+        assertNull(index.resolve("/a.jsp"));
+        index = new ServletMappingIndex(mappings(mapping("none")));
+        assertNull(index.resolve("/a"));
+    }
+
+    @Test
+    public void testFrozenMetaData() {
+        JBossWebMetaData metaData = new JBossWebMetaData();
+        metaData.setServletMappings(mappings(mapping("s", "/s/*")));
+        ServletMappingIndex index = metaData.getServletMappingIndex();
+        assertNotSame(index, metaData.getServletMappingIndex());
+        metaData.freeze();
+        index = metaData.getServletMappingIndex();
+        assertSame(index, metaData.getServletMappingIndex());
+        assertMatch(index, "/s/t", "s", MatchType.PATH);
+    }
+
+    private static void assertMatch(ServletMappingIndex index, String path, String servletName, MatchType matchType) {
+        Match match = index.resolve(path);
+        if (servletName == null) {
+            assertNull(path, match);
+        } else {
+            assertEquals(path, servletName, match.getServletName());
+            assertEquals(path, matchType, match.getMatchType());
+            assertSame(match, index.resolve(path));
+        }
+    }
+
+    private static List<ServletMappingMetaData> mappings(ServletMappingMetaData... mappings) {
+        return new ArrayList<ServletMappingMetaData>(Arrays.asList(mappings));
+    }
+
+    private static ServletMappingMetaData mapping(String servletName, String... urlPatterns) {
+        ServletMappingMetaData mapping = new ServletMappingMetaData();
+        mapping.setServletName(servletName);
+        if (urlPatterns.length > 0)
+            mapping.setUrlPatterns(new ArrayList<String>(Arrays.asList(urlPatterns)));
+        return mapping;
+    }
+}
@@ -25,7 +25,10 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
+import org.jboss.metadata.parser.servlet.WebMetaDataParser;
+import org.jboss.metadata.parser.util.MetaDataElementParser;
 import org.jboss.metadata.web.spec.AuthConstraintMetaData;
 import org.jboss.metadata.web.spec.MimeMappingMetaData;
 import org.jboss.metadata.web.spec.SecurityConstraintMetaData;
@@ -114,6 +117,24 @@ public class WebApp24UnitTestCase extends WebAppUnitTestCase {
         }
     }
 
+    public void testFilterOrderingStreamingValidation() throws Exception {
+        MetaDataElementParser.DTDInfo info = new MetaDataElementParser.DTDInfo();
+        XMLStreamReader reader = getReader("WebApp24_testFilterOrdering.xml", info);
+        try {
+            WebMetaDataParser.parse(reader, info, true, propertyReplacer);
+            fail("XMLStreamException expected");
+        } catch (XMLStreamException e) {
+            assertTrue(e.getNestedException() instanceof SAXParseException);
+        }
+    }
+
+    public void testSecurityConstraintStreamingValidation() throws Exception {
+        MetaDataElementParser.DTDInfo info = new MetaDataElementParser.DTDInfo();
+        XMLStreamReader reader = getReader("WebApp24_testSecurityConstraint.xml", info);
+        WebMetaData webApp = WebMetaDataParser.parse(reader, info, true, propertyReplacer);
+        assertEquals(8, webApp.getSecurityConstraints().size());
+    }
+
     public void testMultipleSessionConfig() throws Exception {
         try {
             unmarshal(true);